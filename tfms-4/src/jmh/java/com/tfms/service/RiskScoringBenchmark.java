@@ -0,0 +1,286 @@
+package com.tfms.service;
+
+import com.tfms.model.enums.LCStatus;
+import com.tfms.model.enums.RiskLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores/sec of the former BigDecimal + String.format LC/BG scoring ("legacy"), the first hard-coded int
+ * kernel ("hardCoded") and the table-driven kernel compiled from risk-rules.properties ("kernel").
+ * Run with the GC profiler to get bytes allocated per op (gc.alloc.rate.norm):
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="RiskScoringBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskScoringBenchmark {
+
+    private static final int INPUTS = 1024;
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "INR"};
+    // the request form's guarantee types
+    private static final String[] GUARANTEE_TYPES = {"Performance Guarantee", "Bid Bond", "Advance Payment Guarantee",
+            "Payment Guarantee", "Financial Guarantee", "Retention Money Guarantee", "Warranty Guarantee"};
+    private static final LCStatus[] STATUSES = LCStatus.values();
+
+    private BigDecimal[] amounts;
+    private long[] days;
+    private String[] currencies;
+    private String[] guaranteeTypes;
+    private LCStatus[] statuses;
+    private int next;
+    private final RiskScoringKernel rules = RiskScoringKernel.defaults();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new BigDecimal[INPUTS];
+        days = new long[INPUTS];
+        currencies = new String[INPUTS];
+        guaranteeTypes = new String[INPUTS];
+        statuses = new LCStatus[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            amounts[i] = BigDecimal.valueOf(random.nextInt(200_000_000), 2);
+            days[i] = random.nextInt(730);
+            currencies[i] = CURRENCIES[random.nextInt(CURRENCIES.length)];
+            // fresh instances, as when loaded from the database
+            guaranteeTypes[i] = new String(GUARANTEE_TYPES[random.nextInt(GUARANTEE_TYPES.length)]);
+            statuses[i] = STATUSES[random.nextInt(STATUSES.length)];
+        }
+    }
+
+    @Benchmark
+    public void legacyLetterOfCredit(Blackhole bh) {
+        int i = index();
+        legacyLc(amounts[i], days[i], currencies[i], statuses[i], bh);
+    }
+
+    @Benchmark
+    public void kernelLetterOfCredit(Blackhole bh) {
+        int i = index();
+        consume(rules.scoreLetterOfCredit(amounts[i], days[i], currencies[i], statuses[i], 0), bh);
+    }
+
+    @Benchmark
+    public void legacyBankGuarantee(Blackhole bh) {
+        int i = index();
+        legacyBg(amounts[i], guaranteeTypes[i], days[i], bh);
+    }
+
+    @Benchmark
+    public void kernelBankGuarantee(Blackhole bh) {
+        int i = index();
+        consume(rules.scoreBankGuarantee(amounts[i], guaranteeTypes[i], days[i], 0), bh);
+    }
+
+    @Benchmark
+    public int hardCodedLetterOfCredit() {
+        int i = index();
+        return hardCodedLc(amounts[i], days[i], currencies[i], statuses[i]);
+    }
+
+    @Benchmark
+    public int rulesLetterOfCredit() {
+        int i = index();
+        return rules.scoreLetterOfCredit(amounts[i], days[i], currencies[i], statuses[i], 0);
+    }
+
+    @Benchmark
+    public int hardCodedBankGuarantee() {
+        int i = index();
+        return hardCodedBg(amounts[i], guaranteeTypes[i], days[i]);
+    }
+
+    @Benchmark
+    public int rulesBankGuarantee() {
+        int i = index();
+        return rules.scoreBankGuarantee(amounts[i], guaranteeTypes[i], days[i], 0);
+    }
+
+    private int index() {
+        return next++ & (INPUTS - 1);
+    }
+
+    private void consume(int packed, Blackhole bh) {
+        bh.consume(RiskScoringKernel.scoreDecimal(packed));
+        bh.consume(RiskScoringKernel.factorsJson(packed));
+        bh.consume(rules.recommendations(packed));
+        bh.consume(rules.riskLevel(packed));
+    }
+
+    // --- first int kernel with the thresholds hard-coded, same packed layout ---
+
+    private static final BigDecimal LC_HIGH = new BigDecimal("1000000");
+    private static final BigDecimal BG_HIGH = new BigDecimal("500000");
+    private static final BigDecimal MEDIUM = new BigDecimal("100000");
+
+    private static int hardCodedLc(BigDecimal amount, long daysToExpiry, String currency, LCStatus status) {
+        int score = 10;
+        int flags = 0;
+        int amountRisk;
+        if (amount.compareTo(LC_HIGH) > 0) { score += 25; amountRisk = 3; flags |= 1; }
+        else if (amount.compareTo(MEDIUM) > 0) { score += 15; amountRisk = 2; }
+        else { score += 5; amountRisk = 1; }
+        int durationRisk;
+        if (daysToExpiry > 365) { score += 20; durationRisk = 3; flags |= 2; }
+        else if (daysToExpiry > 180) { score += 10; durationRisk = 2; }
+        else { score += 5; durationRisk = 1; }
+        int currencyRisk;
+        if (!"USD".equals(currency) && !"EUR".equals(currency)) { score += 15; currencyRisk = 3; flags |= 4; }
+        else { score += 5; currencyRisk = 1; }
+        int factors = amountRisk | durationRisk << 2 | currencyRisk << 4 | 1 << 6 | 2 << 8;
+        return Math.min(score, 100) | factors << 8 | flags << 20;
+    }
+
+    private static int hardCodedBg(BigDecimal amount, String gType, long daysToExpiry) {
+        int score = 10;
+        int flags = 0;
+        int amountRisk;
+        if (amount.compareTo(BG_HIGH) > 0) { score += 25; amountRisk = 3; flags |= 1; }
+        else if (amount.compareTo(MEDIUM) > 0) { score += 15; amountRisk = 2; }
+        else { score += 5; amountRisk = 1; }
+        int typeRisk = 1;
+        if (gType != null) {
+            if (gType.contains("Performance") || gType.contains("Financial")) { score += 20; typeRisk = 3; flags |= 2; }
+            else if (gType.contains("Bid") || gType.contains("Advance")) { score += 15; typeRisk = 2; }
+            else { score += 10; }
+        }
+        int durationRisk;
+        if (daysToExpiry > 365) { score += 20; durationRisk = 3; flags |= 4; }
+        else if (daysToExpiry > 180) { score += 10; durationRisk = 2; }
+        else { score += 5; durationRisk = 1; }
+        int factors = amountRisk | durationRisk << 2 | typeRisk << 4 | 2 << 6 | 1 << 8;
+        return Math.min(score, 100) | factors << 8 | flags << 20 | 1 << 24;
+    }
+
+    // --- former RiskAssessmentService implementation, kept verbatim for comparison ---
+
+    private static void legacyLc(BigDecimal amount, long daysToExpiry, String currency, LCStatus status, Blackhole bh) {
+        BigDecimal score = BigDecimal.ZERO;
+        StringBuilder recommendations = new StringBuilder();
+        int amountRisk;
+        int durationRisk;
+        int currencyRisk;
+        int documentationRisk = 1;
+        int counterpartyRisk = 2;
+        if (amount.compareTo(new BigDecimal("1000000")) > 0) {
+            score = score.add(new BigDecimal("25"));
+            amountRisk = 3;
+            recommendations.append("Enhanced due diligence required; ");
+        } else if (amount.compareTo(new BigDecimal("100000")) > 0) {
+            score = score.add(new BigDecimal("15"));
+            amountRisk = 2;
+        } else {
+            score = score.add(new BigDecimal("5"));
+            amountRisk = 1;
+        }
+        if (daysToExpiry > 365) {
+            score = score.add(new BigDecimal("20"));
+            durationRisk = 3;
+            recommendations.append("Periodic review recommended; ");
+        } else if (daysToExpiry > 180) {
+            score = score.add(new BigDecimal("10"));
+            durationRisk = 2;
+        } else {
+            score = score.add(new BigDecimal("5"));
+            durationRisk = 1;
+        }
+        if (!"USD".equals(currency) && !"EUR".equals(currency)) {
+            score = score.add(new BigDecimal("15"));
+            currencyRisk = 3;
+            recommendations.append("Consider currency hedging; ");
+        } else {
+            score = score.add(new BigDecimal("5"));
+            currencyRisk = 1;
+        }
+        if (status != null && status.toString().contains("DOCUMENT")) {
+            documentationRisk = 2;
+            score = score.add(new BigDecimal("5"));
+        }
+        score = score.add(new BigDecimal("10"));
+        String factorsJson = String.format(
+                "{\"amountRisk\":%d,\"durationRisk\":%d,\"currencyRisk\":%d,\"documentationRisk\":%d,\"counterpartyRisk\":%d}",
+                amountRisk, durationRisk, currencyRisk, documentationRisk, counterpartyRisk);
+        score = score.min(new BigDecimal("100"));
+        bh.consume(score);
+        bh.consume(factorsJson);
+        bh.consume(recommendations.length() > 0 ? recommendations.toString() : "Standard monitoring recommended");
+        bh.consume(legacyLevel(score));
+    }
+
+    private static void legacyBg(BigDecimal amount, String gType, long daysToExpiry, Blackhole bh) {
+        BigDecimal score = BigDecimal.ZERO;
+        StringBuilder recommendations = new StringBuilder();
+        int amountRisk;
+        int durationRisk;
+        int guaranteeTypeRisk = 1;
+        int counterpartyRisk = 2;
+        int documentationRisk = 1;
+        if (amount.compareTo(new BigDecimal("500000")) > 0) {
+            score = score.add(new BigDecimal("25"));
+            amountRisk = 3;
+            recommendations.append("Senior approval required; ");
+        } else if (amount.compareTo(new BigDecimal("100000")) > 0) {
+            score = score.add(new BigDecimal("15"));
+            amountRisk = 2;
+        } else {
+            score = score.add(new BigDecimal("5"));
+            amountRisk = 1;
+        }
+        if (gType != null) {
+            if (gType.contains("Performance") || gType.contains("Financial")) {
+                score = score.add(new BigDecimal("20"));
+                guaranteeTypeRisk = 3;
+                recommendations.append("Thorough applicant assessment required; ");
+            } else if (gType.contains("Bid") || gType.contains("Advance")) {
+                score = score.add(new BigDecimal("15"));
+                guaranteeTypeRisk = 2;
+            } else {
+                score = score.add(new BigDecimal("10"));
+            }
+        }
+        if (daysToExpiry > 365) {
+            score = score.add(new BigDecimal("20"));
+            durationRisk = 3;
+            recommendations.append("Annual review required; ");
+        } else if (daysToExpiry > 180) {
+            score = score.add(new BigDecimal("10"));
+            durationRisk = 2;
+        } else {
+            score = score.add(new BigDecimal("5"));
+            durationRisk = 1;
+        }
+        score = score.add(new BigDecimal("10"));
+        String factorsJson = String.format(
+                "{\"amountRisk\":%d,\"durationRisk\":%d,\"guaranteeTypeRisk\":%d,\"counterpartyRisk\":%d,\"documentationRisk\":%d}",
+                amountRisk, durationRisk, guaranteeTypeRisk, counterpartyRisk, documentationRisk);
+        score = score.min(new BigDecimal("100"));
+        bh.consume(score);
+        bh.consume(factorsJson);
+        bh.consume(recommendations.length() > 0 ? recommendations.toString() : "Standard monitoring recommended");
+        bh.consume(legacyLevel(score));
+    }
+
+    private static RiskLevel legacyLevel(BigDecimal score) {
+        if (score.compareTo(new BigDecimal("75")) >= 0) return RiskLevel.CRITICAL;
+        if (score.compareTo(new BigDecimal("60")) >= 0) return RiskLevel.HIGH;
+        if (score.compareTo(new BigDecimal("25")) >= 0) return RiskLevel.MEDIUM;
+        return RiskLevel.LOW;
+    }
+}
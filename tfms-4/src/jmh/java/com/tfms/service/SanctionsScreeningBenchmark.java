@@ -0,0 +1,97 @@
+package com.tfms.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screenings/sec of one party name against a synthetic watchlist: the index ("indexed") against Jaro-Winkler
+ * over every alias ("linearScan"). One in ten screened names is a misspelled watchlist name, the rest are clean.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="SanctionsScreeningBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SanctionsScreeningBenchmark {
+
+    private static final String[] SYLLABLES = {"al", "ba", "cor", "den", "el", "fa", "gor", "han", "is", "ka", "lom",
+            "mar", "nov", "or", "pet", "qua", "ros", "sal", "tor", "ul", "ven", "war", "xen", "yar", "zan"};
+    private static final String[] SUFFIXES = {"Trading", "Holdings", "Shipping", "Metals", "Industries", "Exchange",
+            "Logistics", "Bank", "Group", "Supply"};
+    private static final int QUERIES = 1024;
+
+    @Param({"10000"})
+    public int entries;
+
+    private SanctionsIndex index;
+    private String[] aliases;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<SanctionsIndex.Entry> list = new ArrayList<>(entries);
+        List<String> allAliases = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            String name = word(random) + " " + word(random) + " " + SUFFIXES[random.nextInt(SUFFIXES.length)];
+            List<String> names = List.of(name, word(random) + " " + SUFFIXES[random.nextInt(SUFFIXES.length)],
+                    word(random) + " " + word(random));
+            list.add(new SanctionsIndex.Entry("E-" + i, name, "ENTITY", "BENCH", names));
+            for (String alias : names) allAliases.add(PartyNameNormalizer.normalize(alias));
+        }
+        index = SanctionsIndex.build("benchmark", list, 0.92);
+        aliases = allAliases.toArray(new String[0]);
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            if (i % 10 == 0) {
+                StringBuilder typo = new StringBuilder(list.get(random.nextInt(entries)).name);
+                typo.setCharAt(1 + random.nextInt(typo.length() - 2), 'x');
+                queries[i] = typo.toString();
+            } else {
+                queries[i] = word(random) + " " + word(random) + " " + SUFFIXES[random.nextInt(SUFFIXES.length)] + " Ltd";
+            }
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) {
+        bh.consume(index.screen("beneficiaryName", queries[next++ & (QUERIES - 1)]));
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        String query = PartyNameNormalizer.normalize(queries[next++ & (QUERIES - 1)]);
+        int hits = 0;
+        for (String alias : aliases) {
+            if (JaroWinkler.similarity(query, alias) >= 0.92) hits++;
+        }
+        bh.consume(hits);
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -53,7 +54,6 @@ public class DataInitializer implements CommandLineRunner {
         importer.setRole(Role.CUSTOMER);
         importer.setBusinessRole(BusinessRole.IMPORTER);
         importer.setEnabled(true);
-        userRepository.save(importer);
 
         // Customer - Exporter
         User exporter = new User();
@@ -64,7 +64,6 @@ public class DataInitializer implements CommandLineRunner {
         exporter.setRole(Role.CUSTOMER);
         exporter.setBusinessRole(BusinessRole.EXPORTER);
         exporter.setEnabled(true);
-        userRepository.save(exporter);
 
         // Bank Officer
         User officer = new User();
@@ -75,7 +74,6 @@ public class DataInitializer implements CommandLineRunner {
         officer.setRole(Role.OFFICER);
         officer.setBusinessRole(BusinessRole.BANK_STAFF);
         officer.setEnabled(true);
-        userRepository.save(officer);
 
         // Risk Analyst
         User analyst = new User();
@@ -86,7 +84,9 @@ public class DataInitializer implements CommandLineRunner {
         analyst.setRole(Role.RISK);
         analyst.setBusinessRole(BusinessRole.RISK_ANALYST);
         analyst.setEnabled(true);
-        userRepository.save(analyst);
+
+        // One batched insert for all seed users
+        userRepository.saveAll(List.of(importer, exporter, officer, analyst));
 
         System.out.println("=== Sample Users Created ===");
         System.out.println("importer / password123 (CUSTOMER - Importer)");
@@ -102,6 +102,8 @@ public class DataInitializer implements CommandLineRunner {
         lc1.setReferenceNumber("LC-2024-001");
         lc1.setApplicantName("ABC Trading Co.");
         lc1.setBeneficiaryName("XYZ Exports Ltd.");
+        lc1.setApplicantCountry("US");
+        lc1.setBeneficiaryCountry("IN");
         lc1.setAmount(new BigDecimal("150000.00"));
         lc1.setCurrency("USD");
         lc1.setIssueDate(LocalDate.now().minusDays(10));
@@ -111,12 +113,13 @@ public class DataInitializer implements CommandLineRunner {
         lc1.setCreatedAt(LocalDateTime.now().minusDays(10));
         lc1.setIssuingBank("Global Trade Bank");
         lc1.setAdvisingBank("International Commerce Bank");
-        lcRepository.save(lc1);
 
         LetterOfCredit lc2 = new LetterOfCredit();
         lc2.setReferenceNumber("LC-2024-002");
         lc2.setApplicantName("Tech Imports Inc.");
         lc2.setBeneficiaryName("Electronic Suppliers Co.");
+        lc2.setApplicantCountry("GB");
+        lc2.setBeneficiaryCountry("TW");
         lc2.setAmount(new BigDecimal("75000.00"));
         lc2.setCurrency("EUR");
         lc2.setIssueDate(LocalDate.now().minusDays(3));
@@ -124,13 +127,15 @@ public class DataInitializer implements CommandLineRunner {
         lc2.setStatus(LCStatus.SUBMITTED);
         lc2.setCreatedBy("importer");
         lc2.setCreatedAt(LocalDateTime.now().minusDays(3));
-        lcRepository.save(lc2);
+        lcRepository.saveAll(List.of(lc1, lc2));
 
         // Sample Bank Guarantee
         BankGuarantee bg1 = new BankGuarantee();
         bg1.setReferenceNumber("BG-2024-001");
         bg1.setApplicantName("Construction Corp.");
         bg1.setBeneficiaryName("Government Works Dept.");
+        bg1.setApplicantCountry("AE");
+        bg1.setBeneficiaryCountry("AE");
         bg1.setGuaranteeAmount(new BigDecimal("500000.00"));
         bg1.setCurrency("USD");
         bg1.setGuaranteeType("Performance");
@@ -150,7 +155,6 @@ public class DataInitializer implements CommandLineRunner {
         doc1.setUploadDate(LocalDate.now().minusDays(5));
         doc1.setStatus(DocumentStatus.APPROVED);
         doc1.setFileName("commercial_invoice.pdf");
-        documentRepository.save(doc1);
 
         TradeDocument doc2 = new TradeDocument();
         doc2.setDocumentType("Bill of Lading");
@@ -159,7 +163,7 @@ public class DataInitializer implements CommandLineRunner {
         doc2.setUploadDate(LocalDate.now().minusDays(2));
         doc2.setStatus(DocumentStatus.PENDING_REVIEW);
         doc2.setFileName("bill_of_lading.pdf");
-        documentRepository.save(doc2);
+        documentRepository.saveAll(List.of(doc1, doc2));
 
         // Sample Risk Assessment
         RiskAssessment risk1 = new RiskAssessment();
@@ -168,6 +172,7 @@ public class DataInitializer implements CommandLineRunner {
         risk1.setRiskScore(new BigDecimal("35.00"));
         risk1.setRiskLevel(RiskLevel.MEDIUM);
         risk1.setRiskFactors("{\"countryRisk\":{\"level\":1,\"weight\":20},\"counterpartyRisk\":{\"level\":1,\"weight\":25}}");
+        risk1.setCounterpartyRisk(1);
         risk1.setAssessedBy("analyst");
         risk1.setAssessmentDate(LocalDate.now().minusDays(8));
         risk1.setRemarks("Standard transaction with established counterparty");
@@ -0,0 +1,12 @@
+package com.tfms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled maintenance jobs (index rebuilds, periodic reconciliation)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
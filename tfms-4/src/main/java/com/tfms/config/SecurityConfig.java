@@ -49,6 +49,8 @@ public class SecurityConfig {
                 // Public resources
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
                 .requestMatchers("/login", "/error").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("OFFICER")
 
                 // Letter of Credit - Customers create/view, Officers approve/manage
                 .requestMatchers("/lc/create", "/lc/submit/**").hasAnyRole("CUSTOMER", "OFFICER")
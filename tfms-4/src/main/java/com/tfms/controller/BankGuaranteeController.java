@@ -3,11 +3,15 @@ package com.tfms.controller;
 import com.tfms.exception.ResourceNotFoundException;
 import com.tfms.exception.UnauthorizedAccessException;
 import com.tfms.model.BankGuarantee;
+import com.tfms.model.BulkActionRequest;
+import com.tfms.model.BulkActionResult;
 import com.tfms.service.BankGuaranteeService;
 import com.tfms.service.TradeDocumentService;
+import com.tfms.service.TrackingQueryService;
 import com.tfms.security.CustomUserDetailsService.CustomUserDetails;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -19,6 +23,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.security.Principal;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 @Slf4j
@@ -28,10 +33,13 @@ public class BankGuaranteeController {
     
     private final BankGuaranteeService bgService;
     private final TradeDocumentService documentService;
+    private final TrackingQueryService trackingQueryService;
 
-    public BankGuaranteeController(BankGuaranteeService bgService, TradeDocumentService documentService) {
+    public BankGuaranteeController(BankGuaranteeService bgService, TradeDocumentService documentService,
+                                   TrackingQueryService trackingQueryService) {
         this.bgService = bgService;
         this.documentService = documentService;
+        this.trackingQueryService = trackingQueryService;
     }
     
     /**
@@ -43,12 +51,16 @@ public class BankGuaranteeController {
 
         boolean isOfficer = auth != null && auth.getAuthorities().stream()
                 .anyMatch(g -> "ROLE_OFFICER".equals(g.getAuthority()));
+        List<BankGuarantee> guarantees;
         if (isOfficer) {
-            model.addAttribute("guarantees", bgService.findAll());
+            guarantees = bgService.findAll();
         } else {
             String username = auth != null ? auth.getName() : null;
-            model.addAttribute("guarantees", bgService.findAllByUserOrBeneficiary(username));
+            guarantees = bgService.findAllByUserOrBeneficiary(username);
         }
+        model.addAttribute("guarantees", guarantees);
+        model.addAttribute("timeInStatus", trackingQueryService.timeInCurrentStatus(
+                guarantees.stream().map(BankGuarantee::getReferenceNumber).toList()));
         model.addAttribute("pageTitle", "Bank Guarantees");
         return "guarantee/list";
     }
@@ -284,6 +296,38 @@ public class BankGuaranteeController {
         return "guarantee/pending";
     }
     
+    /**
+     * Apply one action (issue, send-to-risk, cancel) to many guarantees (JSON API); returns the outcome of every id
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('OFFICER')")
+    @ResponseBody
+    public BulkActionResult bulkAction(@RequestBody BulkActionRequest request) {
+        return bgService.bulkAction(request.getIds(), BankGuaranteeService.BulkAction.parse(request.getAction()),
+                cancellationReason(request.getReason()));
+    }
+
+    /**
+     * Same from a form of checked guarantees - Officer only
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('OFFICER')")
+    public String bulkActionFromForm(@RequestParam List<Long> ids,
+                                     @RequestParam String action,
+                                     @RequestParam(required = false) String reason,
+                                     RedirectAttributes redirectAttributes) {
+        BulkActionResult result = bgService.bulkAction(ids, BankGuaranteeService.BulkAction.parse(action),
+                cancellationReason(reason));
+        redirectAttributes.addFlashAttribute(result.getSkipped() == 0 ? "successMessage" : "warningMessage",
+                "Bulk " + action + ": " + result.getDone() + " of " + result.getTotal() + " Bank Guarantees updated"
+                        + (result.getSkipped() == 0 ? "." : ", " + result.getSkipped() + " skipped."));
+        return "redirect:/guarantee";
+    }
+
+    private static String cancellationReason(String reason) {
+        return reason != null && !reason.isBlank() ? reason : "Cancelled by officer";
+    }
+
     /**
      * Delete guarantee - only creator can delete
      */
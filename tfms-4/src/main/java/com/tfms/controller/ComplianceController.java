@@ -1,5 +1,7 @@
 package com.tfms.controller;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -7,14 +9,21 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.tfms.exception.ResourceNotFoundException;
 import com.tfms.model.Compliance;
+import com.tfms.model.ComplianceBatchJob;
+import com.tfms.model.ComplianceBatchRequest;
 import com.tfms.repository.LetterOfCreditRepository;
 import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.service.ComplianceBatchService;
 import com.tfms.service.ComplianceService;
+import com.tfms.service.SanctionsScreeningService;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,13 +33,16 @@ import java.util.List;
 public class ComplianceController {
 
     private final ComplianceService complianceService;
+    private final ComplianceBatchService complianceBatchService;
     private final LetterOfCreditRepository lcRepository;
     private final BankGuaranteeRepository bgRepository;
 
     public ComplianceController(ComplianceService complianceService,
+            ComplianceBatchService complianceBatchService,
             LetterOfCreditRepository lcRepository,
             BankGuaranteeRepository bgRepository) {
         this.complianceService = complianceService;
+        this.complianceBatchService = complianceBatchService;
         this.lcRepository = lcRepository;
         this.bgRepository = bgRepository;
     }
@@ -114,12 +126,55 @@ public class ComplianceController {
         }
     }
 
+    // ========== BATCH GENERATION ==========
+
+    /**
+     * Start a batch run (JSON API); returns 202 with the job, whose progress is polled at /compliance/batch/{jobId}
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<ComplianceBatchJob> startBatch(@RequestBody ComplianceBatchRequest request,
+                                                         Authentication authentication) {
+        ComplianceBatchJob job = complianceBatchService.start(request, officerName(authentication));
+        return ResponseEntity.accepted().body(job);
+    }
+
+    /**
+     * Start a batch run from the generate page form (one reference per line, or a filter)
+     */
+    @PostMapping("/batch")
+    public String startBatchFromForm(@RequestParam(required = false) String references,
+                                     @RequestParam(required = false) String transactionType,
+                                     @RequestParam(defaultValue = "false") boolean includeClosed,
+                                     Authentication authentication,
+                                     RedirectAttributes redirectAttributes) {
+        List<String> refs = references == null ? List.of() : List.of(references.split("[\\s,]+"));
+        ComplianceBatchJob job = complianceBatchService.start(
+                new ComplianceBatchRequest(new ArrayList<>(refs), transactionType, includeClosed), officerName(authentication));
+        redirectAttributes.addFlashAttribute("successMessage",
+                "Batch compliance run started for " + job.getTotal() + " transactions (job " + job.getJobId() + ").");
+        return "redirect:/compliance/list";
+    }
+
+    @GetMapping("/batch/{jobId}")
+    @ResponseBody
+    public ComplianceBatchJob batchStatus(@PathVariable String jobId) {
+        return complianceBatchService.findJob(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("ComplianceBatchJob", "id", jobId));
+    }
+
+    private static String officerName(Authentication authentication) {
+        return authentication != null ? authentication.getName() : "Unknown Officer";
+    }
+
     // ========== VIEW COMPLIANCE REPORT ==========
 
     @GetMapping("/view/{id}")
     public String viewCompliance(@PathVariable Long id, Model model) {
         model.addAttribute("pageTitle", "Compliance Report");
-        model.addAttribute("compliance", complianceService.getComplianceById(id));
+        Compliance compliance = complianceService.getComplianceById(id);
+        model.addAttribute("compliance", compliance);
+        model.addAttribute("screeningHits", SanctionsScreeningService.fromJson(compliance.getScreeningHits()));
         return "compliance/view";
     }
 
@@ -1,6 +1,9 @@
 package com.tfms.controller;
 
 import com.tfms.model.*;
+import com.tfms.model.enums.DocumentStatus;
+import com.tfms.model.enums.GuaranteeStatus;
+import com.tfms.model.enums.LCStatus;
 import com.tfms.service.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -11,6 +14,8 @@ import java.util.List;
 
 @Controller
 public class DashboardController {
+
+    private static final int RECENT_LIMIT = 5;
     
     private final LetterOfCreditService lcService;
     private final BankGuaranteeService bgService;
@@ -51,16 +56,17 @@ public class DashboardController {
             return "redirect:/risk/dashboard";
         }
 
-        // Common statistics - for officer show totals, for others show scoped counts
-        if (isOfficer) {
-            model.addAttribute("totalLCs", lcService.findAll().size());
-            model.addAttribute("totalGuarantees", bgService.findAll().size());
-            model.addAttribute("totalDocuments", documentService.findAll().size());
-        } else {
-            model.addAttribute("totalLCs", lcService.findByCreatedBy(username).size());
-            model.addAttribute("totalGuarantees", bgService.findByCreatedBy(username).size());
-            model.addAttribute("totalDocuments", documentService.findByUploadedBy(username).size());
-        }
+        // Common statistics - for officer show totals, for others show scoped counts.
+        // One GROUP BY status query per table; entities are never loaded just to be counted.
+        StatusCounts<LCStatus> lcCounts = isOfficer ? lcService.getStatusCounts() : lcService.getStatusCountsByCreatedBy(username);
+        StatusCounts<GuaranteeStatus> bgCounts = isOfficer ? bgService.getStatusCounts() : bgService.getStatusCountsByCreatedBy(username);
+        StatusCounts<DocumentStatus> docCounts = isOfficer ? documentService.getStatusCounts() : documentService.getStatusCountsByUploadedBy(username);
+        model.addAttribute("totalLCs", lcCounts.getTotal());
+        model.addAttribute("totalGuarantees", bgCounts.getTotal());
+        model.addAttribute("totalDocuments", docCounts.getTotal());
+        model.addAttribute("lcStatusCounts", lcCounts.asMap());
+        model.addAttribute("guaranteeStatusCounts", bgCounts.asMap());
+        model.addAttribute("documentStatusCounts", docCounts.asMap());
 
         // Beneficiary-specific lists: show where the current user is beneficiary
         List<LetterOfCredit> beneficiaryLCs = lcService.findByBeneficiaryName(username);
@@ -76,20 +82,20 @@ public class DashboardController {
         // Role-specific data
         if (isOfficer) {
             // Officer sees pending approvals and recent items
-            model.addAttribute("pendingLCs", lcService.findPendingApproval().size());
-            model.addAttribute("pendingGuarantees", bgService.findPendingApproval().size());
-            model.addAttribute("pendingDocuments", documentService.findPendingReview().size());
-            model.addAttribute("recentLCs", lcService.findAll().stream().limit(5).toList());
-            model.addAttribute("recentGuarantees", bgService.findAll().stream().limit(5).toList());
+            model.addAttribute("pendingLCs", lcCounts.sum(LetterOfCreditService.PENDING_APPROVAL_STATUSES));
+            model.addAttribute("pendingGuarantees", bgCounts.sum(BankGuaranteeService.PENDING_APPROVAL_STATUSES));
+            model.addAttribute("pendingDocuments", docCounts.get(DocumentStatus.PENDING_REVIEW));
+            model.addAttribute("recentLCs", lcService.findRecent(RECENT_LIMIT));
+            model.addAttribute("recentGuarantees", bgService.findRecent(RECENT_LIMIT));
             // show number of LCs currently sent to risk (for officer awareness)
             model.addAttribute("lcsSentToRiskCount", riskService.countLcsSentToRisk());
         } else {
             // Customer sees their requests
-            model.addAttribute("myLCs", lcService.findByCreatedBy(username).size());
-            model.addAttribute("myGuarantees", bgService.findByCreatedBy(username).size());
-            model.addAttribute("myDocuments", documentService.findAccessibleByUser(username, false).size());
-            model.addAttribute("recentLCs", lcService.findByCreatedBy(username).stream().limit(5).toList());
-            model.addAttribute("recentGuarantees", bgService.findByCreatedBy(username).stream().limit(5).toList());
+            model.addAttribute("myLCs", lcCounts.getTotal());
+            model.addAttribute("myGuarantees", bgCounts.getTotal());
+            model.addAttribute("myDocuments", documentService.countAccessibleByUser(username));
+            model.addAttribute("recentLCs", lcService.findRecentByCreatedBy(username, RECENT_LIMIT));
+            model.addAttribute("recentGuarantees", bgService.findRecentByCreatedBy(username, RECENT_LIMIT));
         }
         
         model.addAttribute("pageTitle", "Dashboard");
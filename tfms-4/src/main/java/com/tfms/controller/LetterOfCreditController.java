@@ -2,14 +2,21 @@ package com.tfms.controller;
 
 import com.tfms.exception.ResourceNotFoundException;
 import com.tfms.exception.UnauthorizedAccessException;
+import com.tfms.model.BulkActionRequest;
+import com.tfms.model.BulkActionResult;
+import com.tfms.model.KeysetPage;
 import com.tfms.model.LetterOfCredit;
+import com.tfms.model.LetterOfCreditFilter;
 import com.tfms.model.RiskAssessment;
+import com.tfms.model.enums.LCStatus;
 import com.tfms.service.LetterOfCreditService;
 import com.tfms.service.TradeDocumentService;
 import com.tfms.service.RiskAssessmentService;
+import com.tfms.service.TrackingQueryService;
 import com.tfms.security.CustomUserDetailsService.CustomUserDetails;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -20,6 +27,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Objects;
 
@@ -31,29 +39,49 @@ public class LetterOfCreditController {
     private final LetterOfCreditService lcService;
     private final TradeDocumentService documentService;
     private final RiskAssessmentService riskAssessmentService;
+    private final TrackingQueryService trackingQueryService;
 
     public LetterOfCreditController(LetterOfCreditService lcService, TradeDocumentService documentService,
-                                     RiskAssessmentService riskAssessmentService) {
+                                     RiskAssessmentService riskAssessmentService,
+                                     TrackingQueryService trackingQueryService) {
         this.lcService = lcService;
         this.documentService = documentService;
         this.riskAssessmentService = riskAssessmentService;
+        this.trackingQueryService = trackingQueryService;
     }
     
     /**
-     * List Letters of Credit - only those created by current user
+     * List Letters of Credit - officers see all, others only those they created or are beneficiary of.
+     * Keyset-paginated and filterable by status, currency and creation date range.
      */
     @GetMapping
-    public String listLettersOfCredit(Model model, Authentication auth) {
-        boolean isOfficer = auth != null && auth.getAuthorities().stream()
-                .anyMatch(g -> "ROLE_OFFICER".equals(g.getAuthority()));
-        if (isOfficer) {
-            model.addAttribute("letterOfCredits", lcService.findAll());
-        } else {
-            model.addAttribute("letterOfCredits", lcService.findAllByUserOrBeneficiary(auth.getName()));
-        }
+    public String listLettersOfCredit(@ModelAttribute("filter") LetterOfCreditFilter filter,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size,
+                                      Model model, Authentication auth) {
+        KeysetPage<LetterOfCredit> page = lcService.findPage(listScope(auth), filter, cursor, size);
+        model.addAttribute("letterOfCredits", page.getItems());
+        model.addAttribute("timeInStatus", trackingQueryService.timeInCurrentStatus(
+                page.getItems().stream().map(LetterOfCredit::getReferenceNumber).toList()));
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("pageSize", page.getPageSize());
+        model.addAttribute("statuses", LCStatus.values());
+        model.addAttribute("currencies", Arrays.asList("USD", "EUR", "GBP", "JPY", "CHF", "INR", "CNY"));
         model.addAttribute("pageTitle", "Letters of Credit");
         return "lc/list";
     }
+
+    /**
+     * Same listing as JSON for API clients; follow nextCursor until it is null
+     */
+    @GetMapping(value = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public KeysetPage<LetterOfCredit> listLettersOfCreditPage(@ModelAttribute LetterOfCreditFilter filter,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer size,
+                                                             Authentication auth) {
+        return lcService.findPage(listScope(auth), filter, cursor, size);
+    }
     
     /**
      * Show create LC form
@@ -246,6 +274,38 @@ public class LetterOfCreditController {
         return "lc/pending";
     }
     
+    /**
+     * Apply one action (approve, reject, send-to-risk) to many LCs (JSON API); returns the outcome of every id
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('OFFICER')")
+    @ResponseBody
+    public BulkActionResult bulkAction(@RequestBody BulkActionRequest request) {
+        return lcService.bulkAction(request.getIds(), LetterOfCreditService.BulkAction.parse(request.getAction()),
+                rejectionReason(request.getReason()));
+    }
+
+    /**
+     * Same from a form of checked LCs - Officer only
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('OFFICER')")
+    public String bulkActionFromForm(@RequestParam List<Long> ids,
+                                     @RequestParam String action,
+                                     @RequestParam(required = false) String reason,
+                                     RedirectAttributes redirectAttributes) {
+        BulkActionResult result = lcService.bulkAction(ids, LetterOfCreditService.BulkAction.parse(action),
+                rejectionReason(reason));
+        redirectAttributes.addFlashAttribute(result.getSkipped() == 0 ? "successMessage" : "warningMessage",
+                "Bulk " + action + ": " + result.getDone() + " of " + result.getTotal() + " Letters of Credit updated"
+                        + (result.getSkipped() == 0 ? "." : ", " + result.getSkipped() + " skipped."));
+        return "redirect:/lc";
+    }
+
+    private static String rejectionReason(String reason) {
+        return reason != null && !reason.isBlank() ? reason : "Rejected by officer";
+    }
+
     /**
      * Delete LC - only creator can delete
      */
@@ -290,6 +350,16 @@ public class LetterOfCreditController {
         return "lc/track";
     }
 
+    /**
+     * Helper: ownership scope for list queries - null (whole book) for officers, otherwise the username
+     */
+    private String listScope(Authentication auth) {
+        boolean isOfficer = auth != null && auth.getAuthorities().stream()
+                .anyMatch(g -> "ROLE_OFFICER".equals(g.getAuthority()));
+        if (isOfficer) return null;
+        return auth != null ? auth.getName() : "";
+    }
+
     /**
      * Helper: check access for LC
      */
@@ -2,8 +2,12 @@ package com.tfms.controller;
 
 import com.tfms.exception.ResourceNotFoundException;
 import com.tfms.model.RiskAssessment;
+import com.tfms.model.RiskFactorBreakdown;
 import com.tfms.model.enums.RiskLevel;
+import com.tfms.model.RiskRescoringRun;
 import com.tfms.service.RiskAssessmentService;
+import com.tfms.service.RiskRescoringService;
+import com.tfms.service.RiskRuleEngine;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -14,15 +18,22 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.validation.BindingResult;
 
 import java.util.Arrays;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/risk")
 public class RiskAssessmentController {
     
     private final RiskAssessmentService riskService;
+    private final RiskRescoringService rescoringService;
+    private final RiskRuleEngine ruleEngine;
     
-    public RiskAssessmentController(RiskAssessmentService riskService) {
+    public RiskAssessmentController(RiskAssessmentService riskService,
+                                    RiskRescoringService rescoringService,
+                                    RiskRuleEngine ruleEngine) {
         this.riskService = riskService;
+        this.rescoringService = rescoringService;
+        this.ruleEngine = ruleEngine;
     }
 
     /**
@@ -157,13 +168,15 @@ public class RiskAssessmentController {
      */
     @GetMapping("/dashboard")
     public String riskDashboard(Model model) {
-        model.addAttribute("totalAssessments", riskService.findAll().size());
+        model.addAttribute("totalAssessments", riskService.countAll());
         model.addAttribute("lowRiskCount", riskService.countByRiskLevel(RiskLevel.LOW));
         model.addAttribute("mediumRiskCount", riskService.countByRiskLevel(RiskLevel.MEDIUM));
         model.addAttribute("highRiskCount", riskService.countByRiskLevel(RiskLevel.HIGH));
         model.addAttribute("criticalRiskCount", riskService.countByRiskLevel(RiskLevel.CRITICAL));
         model.addAttribute("averageRiskScore", riskService.getAverageRiskScore());
-        model.addAttribute("riskAssessments", riskService.findAll());
+        model.addAttribute("minRiskScore", riskService.getMinRiskScore());
+        model.addAttribute("maxRiskScore", riskService.getMaxRiskScore());
+        model.addAttribute("riskAssessments", riskService.findRecent());
          // Add LCs sent to risk info
          model.addAttribute("lcsSentToRiskCount", riskService.countLcsSentToRisk());
          // show a short list of LCs in the risk queue for quick access
@@ -195,6 +208,50 @@ public class RiskAssessmentController {
         return "risk/queue-bg";
     }
 
+    /**
+     * Start a portfolio-wide rescoring run (no-op if one is already running)
+     */
+    @PostMapping("/rescoring")
+    public String startRescoring(Authentication auth, RedirectAttributes redirectAttributes) {
+        RiskRescoringRun run = rescoringService.start(auth != null ? auth.getName() : "Unknown");
+        redirectAttributes.addFlashAttribute("successMessage",
+                "Risk rescoring started by " + run.getTriggeredBy() + " at " + run.getStartedAt() + ".");
+        return "redirect:/risk/dashboard";
+    }
+
+    /**
+     * Progress and timings of the current or last rescoring run
+     */
+    @GetMapping("/rescoring")
+    @ResponseBody
+    public RiskRescoringRun rescoringStatus() {
+        return rescoringService.getLatestRun()
+                .orElseThrow(() -> new ResourceNotFoundException("No risk rescoring run yet"));
+    }
+
+    /**
+     * Level distribution per risk factor, optionally for one transaction type (LC or BG)
+     */
+    @GetMapping("/factors")
+    @ResponseBody
+    public Map<String, RiskFactorBreakdown> factorBreakdown(@RequestParam(value = "type", required = false) String type) {
+        return riskService.getFactorBreakdown(type);
+    }
+
+    /**
+     * Re-read the risk rule file now instead of waiting for the next change check
+     */
+    @PostMapping("/rules/reload")
+    public String reloadRules(RedirectAttributes redirectAttributes) {
+        try {
+            ruleEngine.reload();
+            redirectAttributes.addFlashAttribute("successMessage", "Risk rules loaded from " + ruleEngine.getSource() + ".");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Risk rules rejected: " + e.getMessage());
+        }
+        return "redirect:/risk/dashboard";
+    }
+
      /**
       * Delete risk assessment
       */
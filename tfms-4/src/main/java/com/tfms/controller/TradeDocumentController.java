@@ -6,9 +6,9 @@ import com.tfms.model.TradeDocument;
 import com.tfms.model.LetterOfCredit;
 import com.tfms.model.BankGuarantee;
 import com.tfms.service.TradeDocumentService;
-import com.tfms.service.LetterOfCreditService;
-import com.tfms.service.BankGuaranteeService;
+import com.tfms.service.ReferenceLookupService;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
 import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -30,24 +30,26 @@ import java.util.Arrays;
 public class TradeDocumentController {
     
     private final TradeDocumentService documentService;
-    private final LetterOfCreditService lcService;
-    private final BankGuaranteeService bgService;
+    private final ReferenceLookupService referenceLookup;
 
-    public TradeDocumentController(TradeDocumentService documentService, LetterOfCreditService lcService, BankGuaranteeService bgService) {
+    public TradeDocumentController(TradeDocumentService documentService, ReferenceLookupService referenceLookup) {
         this.documentService = documentService;
-        this.lcService = lcService;
-        this.bgService = bgService;
+        this.referenceLookup = referenceLookup;
     }
     
     /**
      * List all documents
      */
     @GetMapping
-    public String listDocuments(Model model, Authentication auth) {
+    public String listDocuments(@RequestParam(defaultValue = "0") int page,
+                                @RequestParam(required = false) Integer size,
+                                Model model, Authentication auth) {
         String username = auth != null ? auth.getName() : null;
         boolean isOfficer = isOfficer(auth);
 
-        model.addAttribute("documents", documentService.findAccessibleByUser(username, isOfficer));
+        Page<TradeDocument> documents = documentService.findAccessibleByUser(username, isOfficer, page, size);
+        model.addAttribute("documents", documents.getContent());
+        model.addAttribute("documentPage", documents);
         model.addAttribute("pageTitle", "Trade Documents");
         return "documents/list";
     }
@@ -318,7 +320,7 @@ public class TradeDocumentController {
         if (isOfficer(auth)) return true;
         String username = auth.getName();
         // Check LC
-        var lcOpt = lcService.findByReferenceNumber(tradeRef);
+        var lcOpt = referenceLookup.findLetterOfCredit(tradeRef);
         if (lcOpt.isPresent()) {
             LetterOfCredit lc = lcOpt.get();
             if (username != null && username.equalsIgnoreCase(lc.getCreatedBy())) return true;
@@ -337,7 +339,7 @@ public class TradeDocumentController {
         }
 
         // Check BG
-        var bgOpt = bgService.findByReferenceNumber(tradeRef);
+        var bgOpt = referenceLookup.findBankGuarantee(tradeRef);
         if (bgOpt.isPresent()) {
             BankGuarantee bg = bgOpt.get();
             if (username != null && username.equalsIgnoreCase(bg.getCreatedBy())) return true;
@@ -0,0 +1,66 @@
+package com.tfms.controller;
+
+import com.tfms.model.WorkItem;
+import com.tfms.service.WorkQueueService;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Officer work queue (JSON API): claim the next pending LCs, BGs and documents under a lease, renew or release it
+ */
+@Controller
+@RequestMapping("/work-queue")
+@PreAuthorize("hasRole('OFFICER')")
+public class WorkQueueController {
+
+    private final WorkQueueService workQueueService;
+
+    public WorkQueueController(WorkQueueService workQueueService) {
+        this.workQueueService = workQueueService;
+    }
+
+    /**
+     * Claim up to {@code count} items, optionally only of the given types (LC, BG, DOC)
+     */
+    @PostMapping(value = "/claim", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<WorkItem> claim(@RequestParam(defaultValue = "5") int count,
+                                @RequestParam(required = false) List<String> type,
+                                Authentication authentication) {
+        return workQueueService.claim(authentication.getName(), count, type);
+    }
+
+    /**
+     * Extend the leases on the given items, or on all held items when none are given
+     */
+    @PostMapping(value = "/renew", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<WorkItem> renew(@RequestParam(required = false) List<Long> ids, Authentication authentication) {
+        return workQueueService.renew(authentication.getName(), ids);
+    }
+
+    @PostMapping(value = "/release", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Integer> release(@RequestParam List<Long> ids, Authentication authentication) {
+        return Map.of("released", workQueueService.release(authentication.getName(), ids));
+    }
+
+    /**
+     * Items the current officer holds, the lease expiring first first
+     */
+    @GetMapping(value = "/mine", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<WorkItem> mine(Authentication authentication) {
+        return workQueueService.findLeasedBy(authentication.getName());
+    }
+}
@@ -8,20 +8,24 @@ import org.springframework.format.annotation.DateTimeFormat;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * Bank Guarantee Entity
  * Represents a bank guarantee in the trade finance system
  */
 @Entity
-@Table(name = "bank_guarantee")
+@Table(name = "bank_guarantee", indexes = {
+        @Index(name = "idx_bg_created_by", columnList = "created_by")
+})
 public class BankGuarantee {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_guarantee_seq")
+    @SequenceGenerator(name = "bank_guarantee_seq", sequenceName = "bank_guarantee_seq", allocationSize = 50)
     private Long guaranteeId;
     
-    @Column(unique = true)
+    @Column(unique = true, nullable = false)
     private String referenceNumber;
     
     @NotBlank(message = "Applicant name is required")
@@ -31,6 +35,15 @@ public class BankGuarantee {
     @NotBlank(message = "Beneficiary name is required")
     @Size(max = 100)
     private String beneficiaryName;
+
+    // ISO 3166 alpha-2 codes, stored upper-case; null when not recorded
+    @Pattern(regexp = "[A-Z]{2}", message = "Applicant country must be a two-letter ISO country code")
+    @Column(length = 2)
+    private String applicantCountry;
+
+    @Pattern(regexp = "[A-Z]{2}", message = "Beneficiary country must be a two-letter ISO country code")
+    @Column(length = 2)
+    private String beneficiaryCountry;
     
     @NotNull(message = "Guarantee amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
@@ -71,9 +84,6 @@ public class BankGuarantee {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        if (referenceNumber == null) {
-            referenceNumber = "BG" + System.currentTimeMillis();
-        }
     }
     
     @PreUpdate
@@ -117,6 +127,27 @@ public class BankGuarantee {
         this.beneficiaryName = beneficiaryName;
     }
     
+    public String getApplicantCountry() {
+        return applicantCountry;
+    }
+
+    public void setApplicantCountry(String applicantCountry) {
+        this.applicantCountry = countryCode(applicantCountry);
+    }
+
+    public String getBeneficiaryCountry() {
+        return beneficiaryCountry;
+    }
+
+    public void setBeneficiaryCountry(String beneficiaryCountry) {
+        this.beneficiaryCountry = countryCode(beneficiaryCountry);
+    }
+
+    // forms post "" for an empty field and may post lower case
+    private static String countryCode(String code) {
+        return code == null || code.isBlank() ? null : code.trim().toUpperCase(Locale.ROOT);
+    }
+    
     public BigDecimal getGuaranteeAmount() {
         return guaranteeAmount;
     }
@@ -0,0 +1,34 @@
+package com.tfms.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One officer action (e.g. "approve", "send-to-risk") to apply to many LCs or BGs at once
+ */
+public class BulkActionRequest {
+
+    private List<Long> ids = new ArrayList<>();
+
+    private String action;
+
+    /** Rejection or cancellation reason; ignored by the other actions */
+    private String reason;
+
+    public BulkActionRequest() {}
+
+    public BulkActionRequest(List<Long> ids, String action, String reason) {
+        this.ids = ids != null ? ids : new ArrayList<>();
+        this.action = action;
+        this.reason = reason;
+    }
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids != null ? ids : new ArrayList<>(); }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
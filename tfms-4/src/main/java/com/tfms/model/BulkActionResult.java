@@ -0,0 +1,88 @@
+package com.tfms.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-item outcome of one bulk officer action over a list of LC or BG ids, in the order the ids were given
+ * The ids are applied in chunks, each in its own transaction: the DONE items of a committed chunk stay done even when
+ * a later chunk fails, whose items are then all reported FAILED.
+ */
+public class BulkActionResult {
+
+    public enum Outcome { DONE, NOT_FOUND, INVALID_STATE, FAILED }
+
+    private final String action;
+    private final List<ItemResult> items = new ArrayList<>();
+    private int done;
+    private long elapsedMillis;
+
+    public BulkActionResult(String action) {
+        this.action = action;
+    }
+
+    public void add(ItemResult item) {
+        items.add(item);
+        if (item.getOutcome() == Outcome.DONE) done++;
+    }
+
+    public void addAll(List<ItemResult> chunk) {
+        chunk.forEach(this::add);
+    }
+
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public String getAction() { return action; }
+    public List<ItemResult> getItems() { return Collections.unmodifiableList(items); }
+    public int getTotal() { return items.size(); }
+    public int getDone() { return done; }
+    public int getSkipped() { return items.size() - done; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public static class ItemResult {
+        private final Long id;
+        private final String referenceNumber;
+        private final Outcome outcome;
+        private final String fromStatus;
+        private final String toStatus;
+        private final String message;
+
+        private ItemResult(Long id, String referenceNumber, Outcome outcome, String fromStatus, String toStatus,
+                           String message) {
+            this.id = id;
+            this.referenceNumber = referenceNumber;
+            this.outcome = outcome;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.message = message;
+        }
+
+        public static ItemResult done(Long id, String referenceNumber, Enum<?> from, Enum<?> to) {
+            return new ItemResult(id, referenceNumber, Outcome.DONE, name(from), name(to), null);
+        }
+
+        public static ItemResult notFound(Long id) {
+            return new ItemResult(id, null, Outcome.NOT_FOUND, null, null, "Not found");
+        }
+
+        public static ItemResult invalidState(Long id, String referenceNumber, Enum<?> from, String message) {
+            return new ItemResult(id, referenceNumber, Outcome.INVALID_STATE, name(from), null, message);
+        }
+
+        public static ItemResult failed(Long id, String message) {
+            return new ItemResult(id, null, Outcome.FAILED, null, null, message);
+        }
+
+        private static String name(Enum<?> status) {
+            return status != null ? status.name() : null;
+        }
+
+        public Long getId() { return id; }
+        public String getReferenceNumber() { return referenceNumber; }
+        public Outcome getOutcome() { return outcome; }
+        public String getFromStatus() { return fromStatus; }
+        public String getToStatus() { return toStatus; }
+        public String getMessage() { return message; }
+    }
+}
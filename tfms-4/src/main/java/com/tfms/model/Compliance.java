@@ -13,11 +13,14 @@ import java.time.LocalDateTime;
  * Represents compliance and regulatory checks for trade transactions
  */
 @Entity
-@Table(name = "compliance")
+@Table(name = "compliance", indexes = {
+        @Index(name = "idx_compliance_reference", columnList = "transaction_reference")
+})
 public class Compliance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compliance_seq")
+    @SequenceGenerator(name = "compliance_seq", sequenceName = "compliance_seq", allocationSize = 50)
     private Long complianceId;
 
     @NotBlank(message = "Transaction reference is required")
@@ -46,6 +49,14 @@ public class Compliance {
     private Boolean partyCheckPassed = false;
     private Boolean countryCheckPassed = false;
 
+    // Sanctions screening hits behind a failed party check, as a JSON array of ScreeningHit
+    @Column(columnDefinition = "TEXT")
+    private String screeningHits;
+
+    // Outcome of each check by name as JSON, so a re-evaluation re-runs only the checks whose inputs changed
+    @Column(columnDefinition = "TEXT")
+    private String checkResults;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -170,6 +181,22 @@ public class Compliance {
         this.countryCheckPassed = countryCheckPassed;
     }
 
+    public String getScreeningHits() {
+        return screeningHits;
+    }
+
+    public void setScreeningHits(String screeningHits) {
+        this.screeningHits = screeningHits;
+    }
+
+    public String getCheckResults() {
+        return checkResults;
+    }
+
+    public void setCheckResults(String checkResults) {
+        this.checkResults = checkResults;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,117 @@
+package com.tfms.model;
+
+import com.tfms.model.enums.ComplianceStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress and per-item outcome of one batch compliance run
+ * Updated concurrently by the worker threads; read by the progress endpoint while the run is in flight
+ */
+public class ComplianceBatchJob {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    public enum Outcome { COMPLIANT, NON_COMPLIANT, FAILED }
+
+    private final String jobId;
+    private final String requestedBy;
+    private final int total;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private volatile LocalDateTime finishedAt;
+    private volatile State state = State.RUNNING;
+
+    private final AtomicInteger compliant = new AtomicInteger();
+    private final AtomicInteger nonCompliant = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final ConcurrentLinkedQueue<ItemResult> results = new ConcurrentLinkedQueue<>();
+    private final CompletableFuture<ComplianceBatchJob> completion = new CompletableFuture<>();
+
+    public ComplianceBatchJob(String jobId, String requestedBy, int total) {
+        this.jobId = jobId;
+        this.requestedBy = requestedBy;
+        this.total = total;
+    }
+
+    public void recordResult(String reference, Compliance compliance) {
+        boolean ok = compliance.getComplianceStatus() == ComplianceStatus.COMPLIANT;
+        (ok ? compliant : nonCompliant).incrementAndGet();
+        results.add(new ItemResult(reference, ok ? Outcome.COMPLIANT : Outcome.NON_COMPLIANT,
+                compliance.getComplianceId(), compliance.getRemarks()));
+    }
+
+    public void recordFailure(String reference, String message) {
+        failed.incrementAndGet();
+        results.add(new ItemResult(reference, Outcome.FAILED, null, message));
+    }
+
+    public void complete(State finalState) {
+        this.finishedAt = LocalDateTime.now();
+        this.state = finalState;
+        completion.complete(this);
+    }
+
+    /**
+     * Block until the run has finished; used by callers that need the outcome synchronously
+     */
+    public ComplianceBatchJob await(long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        try {
+            return completion.get(timeout, unit);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public String getJobId() { return jobId; }
+    public String getRequestedBy() { return requestedBy; }
+    public int getTotal() { return total; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public State getState() { return state; }
+    public int getCompliant() { return compliant.get(); }
+    public int getNonCompliant() { return nonCompliant.get(); }
+    public int getFailed() { return failed.get(); }
+
+    public int getProcessed() {
+        return compliant.get() + nonCompliant.get() + failed.get();
+    }
+
+    /** Percentage of references processed so far, 0-100 */
+    public int getProgress() {
+        return total == 0 ? 100 : (int) (getProcessed() * 100L / total);
+    }
+
+    public List<ItemResult> getResults() {
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Outcome for one transaction reference
+     */
+    public static class ItemResult {
+        private final String reference;
+        private final Outcome outcome;
+        private final Long complianceId;
+        private final String message;
+
+        public ItemResult(String reference, Outcome outcome, Long complianceId, String message) {
+            this.reference = reference;
+            this.outcome = outcome;
+            this.complianceId = complianceId;
+            this.message = message;
+        }
+
+        public String getReference() { return reference; }
+        public Outcome getOutcome() { return outcome; }
+        public Long getComplianceId() { return complianceId; }
+        public String getMessage() { return message; }
+    }
+}
@@ -0,0 +1,36 @@
+package com.tfms.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which transactions a batch compliance run should cover
+ * Either an explicit list of references, or - when the list is empty - every LC and/or BG matching the filter
+ */
+public class ComplianceBatchRequest {
+
+    private List<String> references = new ArrayList<>();
+
+    /** "LC", "BG", or null/blank for both; only used when no references are given */
+    private String transactionType;
+
+    /** Also cover closed/rejected LCs and cancelled/expired/claimed BGs; only used when no references are given */
+    private boolean includeClosed;
+
+    public ComplianceBatchRequest() {}
+
+    public ComplianceBatchRequest(List<String> references, String transactionType, boolean includeClosed) {
+        this.references = references != null ? references : new ArrayList<>();
+        this.transactionType = transactionType;
+        this.includeClosed = includeClosed;
+    }
+
+    public List<String> getReferences() { return references; }
+    public void setReferences(List<String> references) { this.references = references != null ? references : new ArrayList<>(); }
+
+    public String getTransactionType() { return transactionType; }
+    public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
+
+    public boolean isIncludeClosed() { return includeClosed; }
+    public void setIncludeClosed(boolean includeClosed) { this.includeClosed = includeClosed; }
+}
@@ -0,0 +1,59 @@
+package com.tfms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Current Risk Assessment Entity
+ * Points each assessed transaction at its newest risk assessment, so "current risk" is a primary key read
+ * instead of a sort over the assessment history
+ */
+@Entity
+@Table(name = "current_risk_assessment")
+public class CurrentRiskAssessment {
+
+    @Id
+    @Column(length = 50)
+    private String transactionReference;
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "risk_id", nullable = false, unique = true)
+    private RiskAssessment assessment;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public CurrentRiskAssessment() {}
+
+    public CurrentRiskAssessment(String transactionReference, RiskAssessment assessment) {
+        this.transactionReference = transactionReference;
+        this.assessment = assessment;
+    }
+
+    // Getters and Setters
+    public String getTransactionReference() {
+        return transactionReference;
+    }
+
+    public void setTransactionReference(String transactionReference) {
+        this.transactionReference = transactionReference;
+    }
+
+    public RiskAssessment getAssessment() {
+        return assessment;
+    }
+
+    public void setAssessment(RiskAssessment assessment) {
+        this.assessment = assessment;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tfms.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing
+ * {@code nextCursor} is null on the last page; otherwise pass it back to fetch the following page
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> items;
+    private final int pageSize;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> items, int pageSize, String nextCursor) {
+        this.items = items != null ? Collections.unmodifiableList(items) : List.of();
+        this.pageSize = pageSize;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+}
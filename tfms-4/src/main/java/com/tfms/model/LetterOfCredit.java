@@ -8,20 +8,26 @@ import org.springframework.format.annotation.DateTimeFormat;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * Letter of Credit Entity
  * Represents a letter of credit in the trade finance system
  */
 @Entity
-@Table(name = "letter_of_credit")
+@Table(name = "letter_of_credit", indexes = {
+        @Index(name = "idx_lc_created_at_id", columnList = "created_at, lc_id"),
+        @Index(name = "idx_lc_status_created_at_id", columnList = "status, created_at, lc_id"),
+        @Index(name = "idx_lc_created_by_created_at_id", columnList = "created_by, created_at, lc_id")
+})
 public class LetterOfCredit {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "letter_of_credit_seq")
+    @SequenceGenerator(name = "letter_of_credit_seq", sequenceName = "letter_of_credit_seq", allocationSize = 50)
     private Long lcId;
     
-    @Column(unique = true)
+    @Column(unique = true, nullable = false)
     private String referenceNumber;
     
     @NotBlank(message = "Applicant name is required")
@@ -31,6 +37,15 @@ public class LetterOfCredit {
     @NotBlank(message = "Beneficiary name is required")
     @Size(max = 100)
     private String beneficiaryName;
+
+    // ISO 3166 alpha-2 codes, stored upper-case; null when not recorded
+    @Pattern(regexp = "[A-Z]{2}", message = "Applicant country must be a two-letter ISO country code")
+    @Column(length = 2)
+    private String applicantCountry;
+
+    @Pattern(regexp = "[A-Z]{2}", message = "Beneficiary country must be a two-letter ISO country code")
+    @Column(length = 2)
+    private String beneficiaryCountry;
     
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
@@ -72,9 +87,6 @@ public class LetterOfCredit {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        if (referenceNumber == null) {
-            referenceNumber = "LC" + System.currentTimeMillis();
-        }
     }
     
     @PreUpdate
@@ -118,6 +130,27 @@ public class LetterOfCredit {
         this.beneficiaryName = beneficiaryName;
     }
     
+    public String getApplicantCountry() {
+        return applicantCountry;
+    }
+
+    public void setApplicantCountry(String applicantCountry) {
+        this.applicantCountry = countryCode(applicantCountry);
+    }
+
+    public String getBeneficiaryCountry() {
+        return beneficiaryCountry;
+    }
+
+    public void setBeneficiaryCountry(String beneficiaryCountry) {
+        this.beneficiaryCountry = countryCode(beneficiaryCountry);
+    }
+
+    // forms post "" for an empty field and may post lower case
+    private static String countryCode(String code) {
+        return code == null || code.isBlank() ? null : code.trim().toUpperCase(Locale.ROOT);
+    }
+    
     public BigDecimal getAmount() {
         return amount;
     }
@@ -0,0 +1,44 @@
+package com.tfms.model;
+
+import com.tfms.model.enums.LCStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional server-side filters for the LC listing
+ * Every field may be null, meaning "do not filter on this"; the date range applies to createdAt (inclusive)
+ */
+public class LetterOfCreditFilter {
+
+    private LCStatus status;
+
+    private String currency;
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate fromDate;
+
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate toDate;
+
+    public LetterOfCreditFilter() {}
+
+    public LetterOfCreditFilter(LCStatus status, String currency, LocalDate fromDate, LocalDate toDate) {
+        this.status = status;
+        this.currency = currency;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    public LCStatus getStatus() { return status; }
+    public void setStatus(LCStatus status) { this.status = status; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+}
@@ -12,11 +12,22 @@ import java.time.LocalDateTime;
  * Represents risk evaluation of trade finance transactions
  */
 @Entity
-@Table(name = "risk_assessment")
+@Table(name = "risk_assessment", indexes = {
+        @Index(name = "idx_risk_reference_date", columnList = "transaction_reference, assessment_date"),
+        @Index(name = "idx_risk_reference_created", columnList = "transaction_reference, created_at, risk_id"),
+        @Index(name = "idx_risk_amount_risk", columnList = "amount_risk"),
+        @Index(name = "idx_risk_duration_risk", columnList = "duration_risk"),
+        @Index(name = "idx_risk_currency_risk", columnList = "currency_risk"),
+        @Index(name = "idx_risk_documentation_risk", columnList = "documentation_risk"),
+        @Index(name = "idx_risk_counterparty_risk", columnList = "counterparty_risk"),
+        @Index(name = "idx_risk_guarantee_type_risk", columnList = "guarantee_type_risk"),
+        @Index(name = "idx_risk_country_risk", columnList = "country_risk")
+})
 public class RiskAssessment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "risk_assessment_seq")
+    @SequenceGenerator(name = "risk_assessment_seq", sequenceName = "risk_assessment_seq", allocationSize = 50)
     private Long riskId;
     
     @NotBlank(message = "Transaction reference is required")
@@ -25,8 +36,24 @@ public class RiskAssessment {
     
     private String transactionType;
     
+    // Free-form factors as entered on the manual form; null when the typed factor columns below say it all
     @Column(columnDefinition = "TEXT")
     private String riskFactors;
+
+    // Factor levels (1=Low, 2=Medium, 3=High); null when the assessment did not rate that factor
+    private Integer amountRisk;
+
+    private Integer durationRisk;
+
+    private Integer currencyRisk;
+
+    private Integer documentationRisk;
+
+    private Integer counterpartyRisk;
+
+    private Integer guaranteeTypeRisk;
+
+    private Integer countryRisk;
     
     @DecimalMin(value = "0.00")
     @DecimalMax(value = "100.00")
@@ -90,13 +117,105 @@ public class RiskAssessment {
         this.transactionType = transactionType;
     }
     
+    /**
+     * Risk factors as JSON for display
+     * Returns the stored free-form factors if there are any, otherwise derives the JSON from the factor columns
+     * in the field order the automatic scoring has always used (LC: amount, duration, currency, documentation,
+     * counterparty; BG: amount, duration, guarantee type, counterparty, documentation), followed by country
+     */
     public String getRiskFactors() {
-        return riskFactors;
+        if (riskFactors != null) {
+            return riskFactors;
+        }
+        StringBuilder json = new StringBuilder("{");
+        appendFactor(json, "amountRisk", amountRisk);
+        appendFactor(json, "durationRisk", durationRisk);
+        if (guaranteeTypeRisk != null) {
+            appendFactor(json, "guaranteeTypeRisk", guaranteeTypeRisk);
+            appendFactor(json, "counterpartyRisk", counterpartyRisk);
+            appendFactor(json, "documentationRisk", documentationRisk);
+        } else {
+            appendFactor(json, "currencyRisk", currencyRisk);
+            appendFactor(json, "documentationRisk", documentationRisk);
+            appendFactor(json, "counterpartyRisk", counterpartyRisk);
+        }
+        appendFactor(json, "countryRisk", countryRisk);
+        return json.length() > 1 ? json.append('}').toString() : null;
     }
     
     public void setRiskFactors(String riskFactors) {
         this.riskFactors = riskFactors;
     }
+
+    /**
+     * True when the automatic scoring produced this assessment: its factor levels live in the typed columns only.
+     * Manual assessments and the "transaction not found" defaults carry free-form factors instead.
+     */
+    public boolean isAutomaticallyScored() {
+        return riskFactors == null && amountRisk != null && durationRisk != null;
+    }
+
+    private static void appendFactor(StringBuilder json, String name, Integer level) {
+        if (level == null) return;
+        if (json.length() > 1) json.append(',');
+        json.append('"').append(name).append("\":").append(level);
+    }
+
+    public Integer getAmountRisk() {
+        return amountRisk;
+    }
+
+    public void setAmountRisk(Integer amountRisk) {
+        this.amountRisk = amountRisk;
+    }
+
+    public Integer getDurationRisk() {
+        return durationRisk;
+    }
+
+    public void setDurationRisk(Integer durationRisk) {
+        this.durationRisk = durationRisk;
+    }
+
+    public Integer getCurrencyRisk() {
+        return currencyRisk;
+    }
+
+    public void setCurrencyRisk(Integer currencyRisk) {
+        this.currencyRisk = currencyRisk;
+    }
+
+    public Integer getDocumentationRisk() {
+        return documentationRisk;
+    }
+
+    public void setDocumentationRisk(Integer documentationRisk) {
+        this.documentationRisk = documentationRisk;
+    }
+
+    public Integer getCounterpartyRisk() {
+        return counterpartyRisk;
+    }
+
+    public void setCounterpartyRisk(Integer counterpartyRisk) {
+        this.counterpartyRisk = counterpartyRisk;
+    }
+
+    public Integer getGuaranteeTypeRisk() {
+        return guaranteeTypeRisk;
+    }
+
+    public void setGuaranteeTypeRisk(Integer guaranteeTypeRisk) {
+        this.guaranteeTypeRisk = guaranteeTypeRisk;
+    }
+
+    public Integer getCountryRisk() {
+        return countryRisk;
+    }
+
+    public void setCountryRisk(Integer countryRisk) {
+        this.countryRisk = countryRisk;
+    }
     
     public BigDecimal getRiskScore() {
         return riskScore;
@@ -0,0 +1,75 @@
+package com.tfms.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Distribution of one risk factor over its levels (1=Low, 2=Medium, 3=High)
+ * Built from a "SELECT level, COUNT(*), AVG(riskScore) ... GROUP BY level" projection on the factor's column;
+ * assessments that did not rate the factor are not counted
+ */
+public final class RiskFactorBreakdown {
+
+    private final String factor;
+    private final Map<Integer, Long> counts;
+    private final Map<Integer, Double> averageScores;
+    private final long total;
+
+    private RiskFactorBreakdown(String factor, Map<Integer, Long> counts, Map<Integer, Double> averageScores, long total) {
+        this.factor = factor;
+        this.counts = Collections.unmodifiableMap(counts);
+        this.averageScores = Collections.unmodifiableMap(averageScores);
+        this.total = total;
+    }
+
+    /**
+     * Build from GROUP BY rows of the form [level, count, average score]. Levels without rows are reported
+     * as zero assessments with no average.
+     */
+    public static RiskFactorBreakdown fromRows(String factor, List<Object[]> rows) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        Map<Integer, Double> averageScores = new TreeMap<>();
+        for (int level = 1; level <= 3; level++) {
+            counts.put(level, 0L);
+        }
+        long total = 0;
+        if (rows != null) {
+            for (Object[] row : rows) {
+                if (row[0] == null) continue;
+                int level = ((Number) row[0]).intValue();
+                long count = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+                counts.put(level, count);
+                if (row[2] != null) {
+                    averageScores.put(level, ((Number) row[2]).doubleValue());
+                }
+                total += count;
+            }
+        }
+        return new RiskFactorBreakdown(factor, counts, averageScores, total);
+    }
+
+    public String getFactor() {
+        return factor;
+    }
+
+    public long getCount(int level) {
+        return counts.getOrDefault(level, 0L);
+    }
+
+    public Map<Integer, Long> getCounts() {
+        return counts;
+    }
+
+    /**
+     * Average risk score of the assessments at each level
+     */
+    public Map<Integer, Double> getAverageScores() {
+        return averageScores;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
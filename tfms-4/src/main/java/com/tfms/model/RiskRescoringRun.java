@@ -0,0 +1,88 @@
+package com.tfms.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and statistics of one portfolio-wide risk rescoring run
+ * Written by the rescoring job; read by the status endpoint while the run is in flight
+ */
+public class RiskRescoringRun {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private final String triggeredBy;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private volatile LocalDateTime finishedAt;
+    private volatile long elapsedNanos;
+    private volatile State state = State.RUNNING;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong unassessed = new AtomicLong();
+    private final AtomicLong manual = new AtomicLong();
+    private final AtomicLong changed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger chunks = new AtomicInteger();
+    private final AtomicLong totalChunkNanos = new AtomicLong();
+    private final AtomicLong maxChunkNanos = new AtomicLong();
+
+    public RiskRescoringRun(String triggeredBy) {
+        this.triggeredBy = triggeredBy;
+    }
+
+    public void recordChunk(int scannedInChunk, int unassessedInChunk, int manualInChunk, int changedInChunk,
+                            long chunkNanos) {
+        scanned.addAndGet(scannedInChunk);
+        unassessed.addAndGet(unassessedInChunk);
+        manual.addAndGet(manualInChunk);
+        changed.addAndGet(changedInChunk);
+        chunks.incrementAndGet();
+        totalChunkNanos.addAndGet(chunkNanos);
+        maxChunkNanos.accumulateAndGet(chunkNanos, Math::max);
+    }
+
+    public void recordFailure() {
+        failed.incrementAndGet();
+    }
+
+    public void complete(State finalState) {
+        this.elapsedNanos = System.nanoTime() - startNanos;
+        this.finishedAt = LocalDateTime.now();
+        this.state = finalState;
+    }
+
+    public String getTriggeredBy() { return triggeredBy; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public State getState() { return state; }
+    public long getScanned() { return scanned.get(); }
+    public long getUnassessed() { return unassessed.get(); }
+    /** Transactions left alone because their current assessment was entered manually */
+    public long getManual() { return manual.get(); }
+    public long getChanged() { return changed.get(); }
+    public long getFailed() { return failed.get(); }
+    public int getChunks() { return chunks.get(); }
+
+    public long getElapsedMillis() {
+        long nanos = state == State.RUNNING ? System.nanoTime() - startNanos : elapsedNanos;
+        return Duration.ofNanos(nanos).toMillis();
+    }
+
+    public double getAverageChunkMillis() {
+        int n = chunks.get();
+        return n == 0 ? 0.0 : totalChunkNanos.get() / 1e6 / n;
+    }
+
+    public double getMaxChunkMillis() {
+        return maxChunkNanos.get() / 1e6;
+    }
+
+    /** Transactions scanned per second of wall-clock time */
+    public double getThroughput() {
+        long nanos = state == State.RUNNING ? System.nanoTime() - startNanos : elapsedNanos;
+        return nanos == 0 ? 0.0 : scanned.get() / (nanos / 1e9);
+    }
+}
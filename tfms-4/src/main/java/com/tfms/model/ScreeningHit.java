@@ -0,0 +1,108 @@
+package com.tfms.model;
+
+/**
+ * One potential sanctions match for a screened party, kept on the compliance report as the explanation
+ * of why the party check failed
+ */
+public class ScreeningHit {
+
+    public static final String EXACT_ALIAS = "EXACT_ALIAS";
+    public static final String FUZZY = "FUZZY";
+
+    private String field;
+    private String screenedName;
+    private String entryId;
+    private String entryName;
+    private String program;
+    private String matchedAlias;
+    private String matchType;
+    private double score;
+
+    public ScreeningHit() {}
+
+    public ScreeningHit(String field, String screenedName, String entryId, String entryName, String program,
+                        String matchedAlias, String matchType, double score) {
+        this.field = field;
+        this.screenedName = screenedName;
+        this.entryId = entryId;
+        this.entryName = entryName;
+        this.program = program;
+        this.matchedAlias = matchedAlias;
+        this.matchType = matchType;
+        this.score = score;
+    }
+
+    /** The screened transaction field, e.g. beneficiaryName */
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getScreenedName() {
+        return screenedName;
+    }
+
+    public void setScreenedName(String screenedName) {
+        this.screenedName = screenedName;
+    }
+
+    public String getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(String entryId) {
+        this.entryId = entryId;
+    }
+
+    public String getEntryName() {
+        return entryName;
+    }
+
+    public void setEntryName(String entryName) {
+        this.entryName = entryName;
+    }
+
+    public String getProgram() {
+        return program;
+    }
+
+    public void setProgram(String program) {
+        this.program = program;
+    }
+
+    /** The watchlist name or alias that matched */
+    public String getMatchedAlias() {
+        return matchedAlias;
+    }
+
+    public void setMatchedAlias(String matchedAlias) {
+        this.matchedAlias = matchedAlias;
+    }
+
+    /** {@link #EXACT_ALIAS} when the alias occurs verbatim (after normalization), otherwise {@link #FUZZY} */
+    public String getMatchType() {
+        return matchType;
+    }
+
+    public void setMatchType(String matchType) {
+        this.matchType = matchType;
+    }
+
+    /** Similarity between the screened name and the alias, 1.0 for exact alias matches */
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return field + " '" + screenedName + "' ~ " + entryName + " [" + entryId + "] via '" + matchedAlias + "' ("
+                + matchType + ", " + String.format("%.2f", score) + ")";
+    }
+}
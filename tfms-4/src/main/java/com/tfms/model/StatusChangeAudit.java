@@ -4,11 +4,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "status_change_audit")
+@Table(name = "status_change_audit",
+        indexes = @Index(name = "idx_status_audit_reference_time", columnList = "reference_number, changed_at"))
 public class StatusChangeAudit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "status_change_audit_seq")
+    @SequenceGenerator(name = "status_change_audit_seq", sequenceName = "status_change_audit_seq", allocationSize = 50)
     private Long id;
 
     private String entityType; // e.g., "LC" or "BG"
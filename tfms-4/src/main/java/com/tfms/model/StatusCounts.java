@@ -0,0 +1,67 @@
+package com.tfms.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-status row counts for one table
+ * Built from a single "SELECT status, COUNT(*) ... GROUP BY status" projection so that
+ * dashboards never have to load entities just to count them
+ */
+public final class StatusCounts<E extends Enum<E>> {
+
+    private final Map<E, Long> counts;
+    private final long total;
+
+    private StatusCounts(Map<E, Long> counts, long total) {
+        this.counts = Collections.unmodifiableMap(counts);
+        this.total = total;
+    }
+
+    /**
+     * Build from GROUP BY rows of the form [status, count]. Statuses that have no rows are reported as zero;
+     * rows with a null status only contribute to the total.
+     */
+    public static <E extends Enum<E>> StatusCounts<E> fromRows(Class<E> statusType, List<Object[]> rows) {
+        EnumMap<E, Long> counts = new EnumMap<>(statusType);
+        for (E status : statusType.getEnumConstants()) {
+            counts.put(status, 0L);
+        }
+        long total = 0;
+        if (rows != null) {
+            for (Object[] row : rows) {
+                long count = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+                total += count;
+                if (row[0] != null) {
+                    counts.merge(statusType.cast(row[0]), count, Long::sum);
+                }
+            }
+        }
+        return new StatusCounts<>(counts, total);
+    }
+
+    public long get(E status) {
+        return counts.getOrDefault(status, 0L);
+    }
+
+    /**
+     * Sum of the counts for the given statuses
+     */
+    public long sum(Iterable<E> statuses) {
+        long sum = 0;
+        for (E status : statuses) {
+            sum += get(status);
+        }
+        return sum;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<E, Long> asMap() {
+        return counts;
+    }
+}
@@ -0,0 +1,39 @@
+package com.tfms.model;
+
+/**
+ * One step of a tracking timeline
+ * Immutable so that timelines can be cached and shared between requests
+ */
+public final class TimelineItem {
+
+    private final String title;
+    private final String description;
+    private final boolean completed;
+    private final String date;
+    private final boolean current;
+    private final String user;
+
+    public TimelineItem(String title, String description, boolean completed, String date) {
+        this(title, description, completed, date, false);
+    }
+
+    public TimelineItem(String title, String description, boolean completed, String date, boolean current) {
+        this(title, description, completed, date, current, null);
+    }
+
+    public TimelineItem(String title, String description, boolean completed, String date, boolean current, String user) {
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+        this.date = date;
+        this.current = current;
+        this.user = user;
+    }
+
+    public String getTitle() { return title; }
+    public String getDescription() { return description; }
+    public boolean isCompleted() { return completed; }
+    public String getDate() { return date; }
+    public boolean isCurrent() { return current; }
+    public String getUser() { return user; }
+}
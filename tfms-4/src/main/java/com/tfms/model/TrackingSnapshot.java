@@ -0,0 +1,61 @@
+package com.tfms.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read-only tracking view of an LC, BG or trade document: status, parties, amount and timeline
+ * Immutable, so one instance is cached and served to every request for the same reference
+ */
+public final class TrackingSnapshot {
+
+    public static final String TYPE_LC = "Letter of Credit";
+    public static final String TYPE_BG = "Bank Guarantee";
+    public static final String TYPE_DOC = "Trade Document";
+
+    private final String transactionType;
+    private final String referenceNumber;
+    private final Long id;
+    private final String status;
+    private final String statusCode;
+    private final String applicant;
+    private final String beneficiary;
+    private final String currency;
+    private final BigDecimal amount;
+    private final LocalDate createdDate;
+    private final LocalDate expiryDate;
+    private final List<TimelineItem> timeline;
+
+    public TrackingSnapshot(String transactionType, String referenceNumber, Long id, Enum<?> status, String statusDisplayName,
+                            String applicant, String beneficiary, String currency, BigDecimal amount,
+                            LocalDate createdDate, LocalDate expiryDate, List<TimelineItem> timeline) {
+        this.transactionType = transactionType;
+        this.referenceNumber = referenceNumber;
+        this.id = id;
+        this.status = statusDisplayName;
+        this.statusCode = status != null ? status.name() : null;
+        this.applicant = applicant;
+        this.beneficiary = beneficiary;
+        this.currency = currency;
+        this.amount = amount;
+        this.createdDate = createdDate;
+        this.expiryDate = expiryDate;
+        this.timeline = timeline != null ? List.copyOf(timeline) : List.of();
+    }
+
+    public String getTransactionType() { return transactionType; }
+    public String getReferenceNumber() { return referenceNumber; }
+    public Long getId() { return id; }
+    /** Display name of the current status, e.g. "Under Review" */
+    public String getStatus() { return status; }
+    /** Enum constant name of the current status, e.g. "UNDER_REVIEW" */
+    public String getStatusCode() { return statusCode; }
+    public String getApplicant() { return applicant; }
+    public String getBeneficiary() { return beneficiary; }
+    public String getCurrency() { return currency; }
+    public BigDecimal getAmount() { return amount; }
+    public LocalDate getCreatedDate() { return createdDate; }
+    public LocalDate getExpiryDate() { return expiryDate; }
+    public List<TimelineItem> getTimeline() { return timeline; }
+}
@@ -11,11 +11,16 @@ import java.time.LocalDateTime;
  * Represents trade-related documents like invoices, bills of lading, etc.
  */
 @Entity
-@Table(name = "trade_document")
+@Table(name = "trade_document", indexes = {
+        @Index(name = "idx_doc_trade_reference", columnList = "trade_reference_number"),
+        @Index(name = "idx_doc_uploaded_by", columnList = "uploaded_by"),
+        @Index(name = "idx_doc_created_at_id", columnList = "created_at, document_id")
+})
 public class TradeDocument {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_document_seq")
+    @SequenceGenerator(name = "trade_document_seq", sequenceName = "trade_document_seq", allocationSize = 50)
     private Long documentId;
     
     @NotBlank(message = "Document type is required")
@@ -57,9 +62,6 @@ public class TradeDocument {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         uploadDate = LocalDate.now();
-        if (referenceNumber == null) {
-            referenceNumber = "DOC" + System.currentTimeMillis();
-        }
     }
     
     @PreUpdate
@@ -0,0 +1,84 @@
+package com.tfms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One LC, BG or trade document waiting for an officer, in the claim-based work queue
+ * An item is claimed by one officer at a time under a lease; once the lease has expired any officer may claim it.
+ */
+@Entity
+@Table(name = "work_item",
+        uniqueConstraints = @UniqueConstraint(name = "uk_work_item_reference", columnNames = {"entity_type", "reference_number"}),
+        indexes = {
+                @Index(name = "idx_work_item_claim_order", columnList = "priority, enqueued_at, id"),
+                @Index(name = "idx_work_item_claim_token", columnList = "claim_token"),
+                @Index(name = "idx_work_item_claimed_by", columnList = "claimed_by, lease_expires_at")
+        })
+public class WorkItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "work_item_seq")
+    @SequenceGenerator(name = "work_item_seq", sequenceName = "work_item_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 8)
+    private String entityType; // "LC", "BG" or "DOC"
+
+    @Column(nullable = false, length = 50)
+    private String referenceNumber;
+
+    private String status;
+
+    /** Higher is claimed first; equal priorities are claimed oldest first */
+    private int priority;
+
+    private LocalDateTime enqueuedAt;
+
+    private String claimedBy;
+
+    @JsonIgnore
+    private String claimToken;
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime leaseExpiresAt;
+
+    public WorkItem() {}
+
+    public WorkItem(String entityType, String referenceNumber, String status, int priority, LocalDateTime enqueuedAt) {
+        this.entityType = entityType;
+        this.referenceNumber = referenceNumber;
+        this.status = status;
+        this.priority = priority;
+        this.enqueuedAt = enqueuedAt;
+    }
+
+    // getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+    public String getReferenceNumber() { return referenceNumber; }
+    public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+    public LocalDateTime getEnqueuedAt() { return enqueuedAt; }
+    public void setEnqueuedAt(LocalDateTime enqueuedAt) { this.enqueuedAt = enqueuedAt; }
+    public String getClaimedBy() { return claimedBy; }
+    public void setClaimedBy(String claimedBy) { this.claimedBy = claimedBy; }
+    public String getClaimToken() { return claimToken; }
+    public void setClaimToken(String claimToken) { this.claimToken = claimToken; }
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(LocalDateTime claimedAt) { this.claimedAt = claimedAt; }
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+
+    /** Claimed by {@code officer} under a lease that has not run out at {@code now} */
+    public boolean isLeasedBy(String officer, LocalDateTime now) {
+        return officer != null && officer.equals(claimedBy) && leaseExpiresAt != null && leaseExpiresAt.isAfter(now);
+    }
+}
@@ -2,12 +2,18 @@ package com.tfms.repository;
 
 import com.tfms.model.BankGuarantee;
 import com.tfms.model.enums.GuaranteeStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,4 +42,90 @@ public interface BankGuaranteeRepository extends JpaRepository<BankGuarantee, Lo
     
     @Query("SELECT bg FROM BankGuarantee bg ORDER BY bg.createdAt DESC")
     List<BankGuarantee> findAllOrderByCreatedAtDesc();
+
+    List<BankGuarantee> findByOrderByCreatedAtDesc(Pageable pageable);
+
+    List<BankGuarantee> findByCreatedByOrderByCreatedAtDesc(String createdBy, Pageable pageable);
+
+    // Rows of [guaranteeId, applicantName, beneficiaryName] used to build the in-memory party name index
+    @Query("SELECT bg.guaranteeId, bg.applicantName, bg.beneficiaryName FROM BankGuarantee bg")
+    List<Object[]> findPartyNames();
+
+    // Every issued reference number, used to build the in-memory reference filter
+    @Query("SELECT bg.referenceNumber FROM BankGuarantee bg")
+    List<String> findAllReferenceNumbers();
+
+    List<BankGuarantee> findByReferenceNumberIn(Collection<String> referenceNumbers);
+
+    @Query("SELECT bg.referenceNumber FROM BankGuarantee bg WHERE bg.status NOT IN :statuses")
+    List<String> findReferenceNumbersByStatusNotIn(@Param("statuses") Collection<GuaranteeStatus> statuses);
+
+    // Rows of [referenceNumber, status, updatedAt] of the BGs in :statuses, used to reconcile the officer work queue
+    @Query("SELECT bg.referenceNumber, bg.status, bg.updatedAt FROM BankGuarantee bg WHERE bg.status IN :statuses")
+    List<Object[]> findQueueEntriesByStatusIn(@Param("statuses") Collection<GuaranteeStatus> statuses);
+
+    // Keyset chunks by primary key, used by the risk rescoring job to stream active BGs
+    List<BankGuarantee> findByStatusNotInAndGuaranteeIdGreaterThanOrderByGuaranteeIdAsc(Collection<GuaranteeStatus> statuses, Long guaranteeId, Pageable pageable);
+
+    // Per-status counts in one round trip: rows of [GuaranteeStatus, Long]
+    @Query("SELECT bg.status, COUNT(bg) FROM BankGuarantee bg GROUP BY bg.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("SELECT bg.status, COUNT(bg) FROM BankGuarantee bg WHERE bg.createdBy = :createdBy GROUP BY bg.status")
+    List<Object[]> countGroupedByStatusForCreator(@Param("createdBy") String createdBy);
+
+    // Conditional status transitions: one UPDATE that moves the BG to :to only while it is still in one of :from.
+    // The returned row count (0 or 1) tells whether this caller won; a concurrent transition makes it 0.
+    // The persistence context is cleared afterwards, so loaded BGs no longer shadow the new status.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankGuarantee bg SET bg.status = :to, bg.updatedAt = :now WHERE bg.guaranteeId = :id AND bg.status IN :from")
+    int updateStatus(@Param("id") Long id, @Param("from") Collection<GuaranteeStatus> from,
+                     @Param("to") GuaranteeStatus to, @Param("now") LocalDateTime now);
+
+    // Same, addressed by reference number (callers that only hold the reference skip loading the BG)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankGuarantee bg SET bg.status = :to, bg.updatedAt = :now" +
+           " WHERE bg.referenceNumber = :referenceNumber AND bg.status IN :from")
+    int updateStatusByReferenceNumber(@Param("referenceNumber") String referenceNumber,
+                                      @Param("from") Collection<GuaranteeStatus> from,
+                                      @Param("to") GuaranteeStatus to, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankGuarantee bg SET bg.status = :to, bg.issueDate = :issueDate, bg.updatedAt = :now" +
+           " WHERE bg.guaranteeId = :id AND bg.status IN :from")
+    int updateStatusAndIssueDate(@Param("id") Long id, @Param("from") Collection<GuaranteeStatus> from,
+                                 @Param("to") GuaranteeStatus to, @Param("issueDate") LocalDate issueDate,
+                                 @Param("now") LocalDateTime now);
+
+    // Same, appending :note to the purpose (e.g. a cancellation reason)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankGuarantee bg SET bg.status = :to, bg.purpose = CONCAT(COALESCE(bg.purpose, ''), :note)," +
+           " bg.updatedAt = :now WHERE bg.guaranteeId = :id AND bg.status IN :from")
+    int updateStatusWithNote(@Param("id") Long id, @Param("from") Collection<GuaranteeStatus> from,
+                             @Param("to") GuaranteeStatus to, @Param("note") String note, @Param("now") LocalDateTime now);
+
+    // Bulk officer actions: rows of [guaranteeId, referenceNumber, status] of one chunk, locked (SELECT ... FOR UPDATE) until
+    // the chunk's transaction ends, so the set-wise transition check cannot be overtaken by a concurrent request
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT bg.guaranteeId, bg.referenceNumber, bg.status FROM BankGuarantee bg WHERE bg.guaranteeId IN :ids ORDER BY bg.guaranteeId")
+    List<Object[]> lockStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-wise variants of the conditional transitions above: one UPDATE for every accepted BG of a chunk
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankGuarantee bg SET bg.status = :to, bg.updatedAt = :now WHERE bg.guaranteeId IN :ids AND bg.status IN :from")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("from") Collection<GuaranteeStatus> from,
+                           @Param("to") GuaranteeStatus to, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankGuarantee bg SET bg.status = :to, bg.issueDate = :issueDate, bg.updatedAt = :now" +
+           " WHERE bg.guaranteeId IN :ids AND bg.status IN :from")
+    int updateStatusAndIssueDateByIdIn(@Param("ids") Collection<Long> ids, @Param("from") Collection<GuaranteeStatus> from,
+                                       @Param("to") GuaranteeStatus to, @Param("issueDate") LocalDate issueDate,
+                                       @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BankGuarantee bg SET bg.status = :to, bg.purpose = CONCAT(COALESCE(bg.purpose, ''), :note)," +
+           " bg.updatedAt = :now WHERE bg.guaranteeId IN :ids AND bg.status IN :from")
+    int updateStatusWithNoteByIdIn(@Param("ids") Collection<Long> ids, @Param("from") Collection<GuaranteeStatus> from,
+                                   @Param("to") GuaranteeStatus to, @Param("note") String note, @Param("now") LocalDateTime now);
 }
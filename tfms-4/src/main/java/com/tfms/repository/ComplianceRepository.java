@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,8 @@ public interface ComplianceRepository extends JpaRepository<Compliance, Long> {
     // Find by transaction reference
     Optional<Compliance> findByTransactionReference(String transactionReference);
 
+    List<Compliance> findByTransactionReferenceIn(Collection<String> transactionReferences);
+
     // Find all by status
     List<Compliance> findByComplianceStatus(ComplianceStatus status);
 
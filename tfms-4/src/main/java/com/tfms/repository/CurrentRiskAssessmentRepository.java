@@ -0,0 +1,41 @@
+package com.tfms.repository;
+
+import com.tfms.model.CurrentRiskAssessment;
+import com.tfms.model.RiskAssessment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CurrentRiskAssessmentRepository extends JpaRepository<CurrentRiskAssessment, String> {
+
+    @Query("SELECT c.assessment FROM CurrentRiskAssessment c WHERE c.transactionReference = :reference")
+    Optional<RiskAssessment> findAssessment(@Param("reference") String transactionReference);
+
+    @Query("SELECT c.assessment FROM CurrentRiskAssessment c WHERE c.transactionReference IN :references")
+    List<RiskAssessment> findAssessmentsIn(@Param("references") Collection<String> transactionReferences);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CurrentRiskAssessment c WHERE c.transactionReference = :reference")
+    Optional<CurrentRiskAssessment> findForUpdate(@Param("reference") String transactionReference);
+
+    // Locked in key order, so two batches touching the same references cannot deadlock on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CurrentRiskAssessment c WHERE c.transactionReference IN :references ORDER BY c.transactionReference")
+    List<CurrentRiskAssessment> findAllForUpdate(@Param("references") Collection<String> transactionReferences);
+
+    // Newest assessment, by (createdAt, riskId), of every reference that has no pointer yet (assessments written
+    // outside the services)
+    @Query("SELECT r.riskId FROM RiskAssessment r WHERE NOT EXISTS " +
+           "(SELECT c FROM CurrentRiskAssessment c WHERE c.transactionReference = r.transactionReference) " +
+           "AND NOT EXISTS (SELECT n FROM RiskAssessment n WHERE n.transactionReference = r.transactionReference " +
+           "AND (n.createdAt > r.createdAt OR (n.createdAt = r.createdAt AND n.riskId > r.riskId)))")
+    List<Long> findLatestIdsWithoutCurrent();
+}
@@ -2,12 +2,19 @@ package com.tfms.repository;
 
 import com.tfms.model.LetterOfCredit;
 import com.tfms.model.enums.LCStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +44,182 @@ public interface LetterOfCreditRepository extends JpaRepository<LetterOfCredit,
     
     @Query("SELECT lc FROM LetterOfCredit lc ORDER BY lc.createdAt DESC")
     List<LetterOfCredit> findAllOrderByCreatedAtDesc();
+
+    List<LetterOfCredit> findByOrderByCreatedAtDesc(Pageable pageable);
+
+    List<LetterOfCredit> findByCreatedByOrderByCreatedAtDesc(String createdBy, Pageable pageable);
+
+    // Rows of [lcId, applicantName, beneficiaryName] used to build the in-memory party name index
+    @Query("SELECT lc.lcId, lc.applicantName, lc.beneficiaryName FROM LetterOfCredit lc")
+    List<Object[]> findPartyNames();
+
+    // Every issued reference number, used to build the in-memory reference filter
+    @Query("SELECT lc.referenceNumber FROM LetterOfCredit lc")
+    List<String> findAllReferenceNumbers();
+
+    List<LetterOfCredit> findByReferenceNumberIn(Collection<String> referenceNumbers);
+
+    @Query("SELECT lc.referenceNumber FROM LetterOfCredit lc WHERE lc.status NOT IN :statuses")
+    List<String> findReferenceNumbersByStatusNotIn(@Param("statuses") Collection<LCStatus> statuses);
+
+    // Rows of [referenceNumber, status, updatedAt] of the LCs in :statuses, used to reconcile the officer work queue
+    @Query("SELECT lc.referenceNumber, lc.status, lc.updatedAt FROM LetterOfCredit lc WHERE lc.status IN :statuses")
+    List<Object[]> findQueueEntriesByStatusIn(@Param("statuses") Collection<LCStatus> statuses);
+
+    // Keyset chunks by primary key, used by the risk rescoring job to stream open LCs
+    List<LetterOfCredit> findByStatusNotInAndLcIdGreaterThanOrderByLcIdAsc(Collection<LCStatus> statuses, Long lcId, Pageable pageable);
+
+    // Per-status counts in one round trip: rows of [LCStatus, Long]
+    @Query("SELECT lc.status, COUNT(lc) FROM LetterOfCredit lc GROUP BY lc.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("SELECT lc.status, COUNT(lc) FROM LetterOfCredit lc WHERE lc.createdBy = :createdBy GROUP BY lc.status")
+    List<Object[]> countGroupedByStatusForCreator(@Param("createdBy") String createdBy);
+
+    // Conditional status transitions: one UPDATE that moves the LC to :to only while it is still in one of :from.
+    // The returned row count (0 or 1) tells whether this caller won; a concurrent transition makes it 0.
+    // The persistence context is cleared afterwards, so loaded LCs no longer shadow the new status.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.updatedAt = :now WHERE lc.lcId = :id AND lc.status IN :from")
+    int updateStatus(@Param("id") Long id, @Param("from") Collection<LCStatus> from,
+                     @Param("to") LCStatus to, @Param("now") LocalDateTime now);
+
+    // Same, addressed by reference number (callers that only hold the reference skip loading the LC)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.updatedAt = :now" +
+           " WHERE lc.referenceNumber = :referenceNumber AND lc.status IN :from")
+    int updateStatusByReferenceNumber(@Param("referenceNumber") String referenceNumber,
+                                      @Param("from") Collection<LCStatus> from,
+                                      @Param("to") LCStatus to, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.issueDate = :issueDate, lc.updatedAt = :now" +
+           " WHERE lc.lcId = :id AND lc.status IN :from")
+    int updateStatusAndIssueDate(@Param("id") Long id, @Param("from") Collection<LCStatus> from,
+                                 @Param("to") LCStatus to, @Param("issueDate") LocalDate issueDate,
+                                 @Param("now") LocalDateTime now);
+
+    // Same, appending :note to the description (e.g. a rejection reason)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.description = CONCAT(COALESCE(lc.description, ''), :note)," +
+           " lc.updatedAt = :now WHERE lc.lcId = :id AND lc.status IN :from")
+    int updateStatusWithNote(@Param("id") Long id, @Param("from") Collection<LCStatus> from,
+                             @Param("to") LCStatus to, @Param("note") String note, @Param("now") LocalDateTime now);
+
+    // Same, writing the amended terms along with the status (the LC read before it is never merged back)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.applicantName = :applicantName," +
+           " lc.beneficiaryName = :beneficiaryName, lc.applicantCountry = :applicantCountry," +
+           " lc.beneficiaryCountry = :beneficiaryCountry, lc.amount = :amount, lc.currency = :currency," +
+           " lc.expiryDate = :expiryDate, lc.description = :description, lc.advisingBank = :advisingBank," +
+           " lc.updatedAt = :now WHERE lc.lcId = :id AND lc.status IN :from")
+    int updateStatusAndTerms(@Param("id") Long id, @Param("from") Collection<LCStatus> from, @Param("to") LCStatus to,
+                             @Param("applicantName") String applicantName,
+                             @Param("beneficiaryName") String beneficiaryName,
+                             @Param("applicantCountry") String applicantCountry,
+                             @Param("beneficiaryCountry") String beneficiaryCountry,
+                             @Param("amount") BigDecimal amount, @Param("currency") String currency,
+                             @Param("expiryDate") LocalDate expiryDate, @Param("description") String description,
+                             @Param("advisingBank") String advisingBank, @Param("now") LocalDateTime now);
+
+    // Bulk officer actions: rows of [lcId, referenceNumber, status] of one chunk, locked (SELECT ... FOR UPDATE) until
+    // the chunk's transaction ends, so the set-wise transition check cannot be overtaken by a concurrent request
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT lc.lcId, lc.referenceNumber, lc.status FROM LetterOfCredit lc WHERE lc.lcId IN :ids ORDER BY lc.lcId")
+    List<Object[]> lockStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Set-wise variants of the conditional transitions above: one UPDATE for every accepted LC of a chunk
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.updatedAt = :now WHERE lc.lcId IN :ids AND lc.status IN :from")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("from") Collection<LCStatus> from,
+                           @Param("to") LCStatus to, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.issueDate = :issueDate, lc.updatedAt = :now" +
+           " WHERE lc.lcId IN :ids AND lc.status IN :from")
+    int updateStatusAndIssueDateByIdIn(@Param("ids") Collection<Long> ids, @Param("from") Collection<LCStatus> from,
+                                       @Param("to") LCStatus to, @Param("issueDate") LocalDate issueDate,
+                                       @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LetterOfCredit lc SET lc.status = :to, lc.description = CONCAT(COALESCE(lc.description, ''), :note)," +
+           " lc.updatedAt = :now WHERE lc.lcId IN :ids AND lc.status IN :from")
+    int updateStatusWithNoteByIdIn(@Param("ids") Collection<Long> ids, @Param("from") Collection<LCStatus> from,
+                                   @Param("to") LCStatus to, @Param("note") String note, @Param("now") LocalDateTime now);
+
+    // Keyset pagination over (createdAt DESC, lcId DESC), served by idx_lc_created_at_id (or the status variant).
+    // A null filter parameter disables that filter. Officers page the whole book through these two.
+    @Query("SELECT lc FROM LetterOfCredit lc WHERE " + KEYSET_FILTERS +
+           " ORDER BY lc.createdAt DESC, lc.lcId DESC")
+    List<LetterOfCredit> findFirstPage(@Param("status") LCStatus status,
+                                       @Param("currency") String currency,
+                                       @Param("createdFrom") LocalDateTime createdFrom,
+                                       @Param("createdTo") LocalDateTime createdTo,
+                                       Pageable pageable);
+
+    @Query("SELECT lc FROM LetterOfCredit lc WHERE " + KEYSET_FILTERS + KEYSET_AFTER +
+           " ORDER BY lc.createdAt DESC, lc.lcId DESC")
+    List<LetterOfCredit> findPageAfter(@Param("status") LCStatus status,
+                                       @Param("currency") String currency,
+                                       @Param("createdFrom") LocalDateTime createdFrom,
+                                       @Param("createdTo") LocalDateTime createdTo,
+                                       @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable pageable);
+
+    // Customer scope, part one: LCs the user created, served by idx_lc_created_by_created_at_id
+    @Query("SELECT lc FROM LetterOfCredit lc WHERE lc.createdBy = :username AND " + KEYSET_FILTERS +
+           " ORDER BY lc.createdAt DESC, lc.lcId DESC")
+    List<LetterOfCredit> findFirstPageByCreatedBy(@Param("username") String username,
+                                                  @Param("status") LCStatus status,
+                                                  @Param("currency") String currency,
+                                                  @Param("createdFrom") LocalDateTime createdFrom,
+                                                  @Param("createdTo") LocalDateTime createdTo,
+                                                  Pageable pageable);
+
+    @Query("SELECT lc FROM LetterOfCredit lc WHERE lc.createdBy = :username AND " + KEYSET_FILTERS + KEYSET_AFTER +
+           " ORDER BY lc.createdAt DESC, lc.lcId DESC")
+    List<LetterOfCredit> findPageAfterByCreatedBy(@Param("username") String username,
+                                                  @Param("status") LCStatus status,
+                                                  @Param("currency") String currency,
+                                                  @Param("createdFrom") LocalDateTime createdFrom,
+                                                  @Param("createdTo") LocalDateTime createdTo,
+                                                  @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Pageable pageable);
+
+    // Customer scope, part two: LCs whose beneficiary matched, with ids resolved up front (party name index),
+    // so the database only does primary-key lookups instead of a leading-wildcard LIKE scan
+    @Query("SELECT lc FROM LetterOfCredit lc WHERE lc.lcId IN :ids AND " + KEYSET_FILTERS +
+           " ORDER BY lc.createdAt DESC, lc.lcId DESC")
+    List<LetterOfCredit> findFirstPageByIdIn(@Param("ids") Collection<Long> ids,
+                                             @Param("status") LCStatus status,
+                                             @Param("currency") String currency,
+                                             @Param("createdFrom") LocalDateTime createdFrom,
+                                             @Param("createdTo") LocalDateTime createdTo,
+                                             Pageable pageable);
+
+    @Query("SELECT lc FROM LetterOfCredit lc WHERE lc.lcId IN :ids AND " + KEYSET_FILTERS + KEYSET_AFTER +
+           " ORDER BY lc.createdAt DESC, lc.lcId DESC")
+    List<LetterOfCredit> findPageAfterByIdIn(@Param("ids") Collection<Long> ids,
+                                             @Param("status") LCStatus status,
+                                             @Param("currency") String currency,
+                                             @Param("createdFrom") LocalDateTime createdFrom,
+                                             @Param("createdTo") LocalDateTime createdTo,
+                                             @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
+
+    // Fallback for the beneficiary ids while the party name index is still loading
+    @Query("SELECT lc.lcId FROM LetterOfCredit lc WHERE LOWER(lc.beneficiaryName) LIKE LOWER(CONCAT('%', :name, '%'))")
+    List<Long> findIdsByBeneficiaryNameContaining(@Param("name") String name);
+
+    String KEYSET_FILTERS =
+            "(:status IS NULL OR lc.status = :status)" +
+            " AND (:currency IS NULL OR lc.currency = :currency)" +
+            " AND (:createdFrom IS NULL OR lc.createdAt >= :createdFrom)" +
+            " AND (:createdTo IS NULL OR lc.createdAt < :createdTo)";
+
+    String KEYSET_AFTER =
+            " AND (lc.createdAt < :cursorCreatedAt OR (lc.createdAt = :cursorCreatedAt AND lc.lcId < :cursorId))";
 }
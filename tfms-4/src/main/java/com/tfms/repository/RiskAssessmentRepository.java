@@ -4,6 +4,7 @@ import com.tfms.model.RiskAssessment;
 import com.tfms.model.enums.RiskLevel;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,6 +14,8 @@ import java.util.Optional;
 public interface RiskAssessmentRepository extends JpaRepository<RiskAssessment, Long> {
     List<RiskAssessment> findByTransactionReference(String transactionReference);
     Optional<RiskAssessment> findFirstByTransactionReferenceOrderByAssessmentDateDesc(String transactionReference);
+    Optional<RiskAssessment> findFirstByTransactionReferenceAndRiskIdNotOrderByCreatedAtDescRiskIdDesc(String transactionReference, Long riskId);
+
     List<RiskAssessment> findByRiskLevel(RiskLevel riskLevel);
     List<RiskAssessment> findByAssessedBy(String assessedBy);
     long countByRiskLevel(RiskLevel riskLevel);
@@ -25,5 +28,42 @@ public interface RiskAssessmentRepository extends JpaRepository<RiskAssessment,
     
     @Query("SELECT AVG(r.riskScore) FROM RiskAssessment r")
     Double findAverageRiskScore();
+
+    List<RiskAssessment> findTop10ByOrderByCreatedAtDesc();
+
+    // One pass for the running statistics: [level, count, scored count, score sum, min score, max score]
+    @Query("SELECT r.riskLevel, COUNT(r), COUNT(r.riskScore), SUM(r.riskScore), MIN(r.riskScore), MAX(r.riskScore) " +
+           "FROM RiskAssessment r GROUP BY r.riskLevel")
+    List<Object[]> summarizeByRiskLevel();
+
+    // Per-factor distribution rows [level, count, average score] on the typed factor columns;
+    // a null transaction type covers LCs and BGs alike
+    @Query("SELECT r.amountRisk, COUNT(r), AVG(r.riskScore) FROM RiskAssessment r WHERE r.amountRisk IS NOT NULL " +
+           "AND (:type IS NULL OR r.transactionType = :type) GROUP BY r.amountRisk")
+    List<Object[]> summarizeByAmountRisk(@Param("type") String transactionType);
+
+    @Query("SELECT r.durationRisk, COUNT(r), AVG(r.riskScore) FROM RiskAssessment r WHERE r.durationRisk IS NOT NULL " +
+           "AND (:type IS NULL OR r.transactionType = :type) GROUP BY r.durationRisk")
+    List<Object[]> summarizeByDurationRisk(@Param("type") String transactionType);
+
+    @Query("SELECT r.currencyRisk, COUNT(r), AVG(r.riskScore) FROM RiskAssessment r WHERE r.currencyRisk IS NOT NULL " +
+           "AND (:type IS NULL OR r.transactionType = :type) GROUP BY r.currencyRisk")
+    List<Object[]> summarizeByCurrencyRisk(@Param("type") String transactionType);
+
+    @Query("SELECT r.documentationRisk, COUNT(r), AVG(r.riskScore) FROM RiskAssessment r WHERE r.documentationRisk IS NOT NULL " +
+           "AND (:type IS NULL OR r.transactionType = :type) GROUP BY r.documentationRisk")
+    List<Object[]> summarizeByDocumentationRisk(@Param("type") String transactionType);
+
+    @Query("SELECT r.counterpartyRisk, COUNT(r), AVG(r.riskScore) FROM RiskAssessment r WHERE r.counterpartyRisk IS NOT NULL " +
+           "AND (:type IS NULL OR r.transactionType = :type) GROUP BY r.counterpartyRisk")
+    List<Object[]> summarizeByCounterpartyRisk(@Param("type") String transactionType);
+
+    @Query("SELECT r.guaranteeTypeRisk, COUNT(r), AVG(r.riskScore) FROM RiskAssessment r WHERE r.guaranteeTypeRisk IS NOT NULL " +
+           "AND (:type IS NULL OR r.transactionType = :type) GROUP BY r.guaranteeTypeRisk")
+    List<Object[]> summarizeByGuaranteeTypeRisk(@Param("type") String transactionType);
+
+    @Query("SELECT r.countryRisk, COUNT(r), AVG(r.riskScore) FROM RiskAssessment r WHERE r.countryRisk IS NOT NULL " +
+           "AND (:type IS NULL OR r.transactionType = :type) GROUP BY r.countryRisk")
+    List<Object[]> summarizeByCountryRisk(@Param("type") String transactionType);
 }
 
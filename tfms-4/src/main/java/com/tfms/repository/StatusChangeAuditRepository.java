@@ -0,0 +1,22 @@
+package com.tfms.repository;
+
+import com.tfms.model.StatusChangeAudit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StatusChangeAuditRepository extends JpaRepository<StatusChangeAudit, Long> {
+
+    // Workflow history of one LC, BG or document, oldest first; the id orders transitions within the same instant
+    List<StatusChangeAudit> findByReferenceNumberOrderByChangedAtAscIdAsc(String referenceNumber);
+
+    // Time of the latest transition per reference, as [referenceNumber, changedAt] rows, for list pages
+    @Query("SELECT a.referenceNumber, MAX(a.changedAt) FROM StatusChangeAudit a " +
+           "WHERE a.referenceNumber IN :references GROUP BY a.referenceNumber")
+    List<Object[]> findLatestChangeTimes(@Param("references") Collection<String> references);
+}
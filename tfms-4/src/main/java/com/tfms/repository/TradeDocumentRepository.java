@@ -2,11 +2,14 @@ package com.tfms.repository;
 
 import com.tfms.model.TradeDocument;
 import com.tfms.model.enums.DocumentStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,8 +26,28 @@ public interface TradeDocumentRepository extends JpaRepository<TradeDocument, Lo
     
     List<TradeDocument> findByTradeReferenceNumber(String tradeReferenceNumber);
 
-    // Find documents uploaded by user OR whose trade reference is in the provided list
-    List<TradeDocument> findByUploadedByOrTradeReferenceNumberIn(String uploadedBy, List<String> tradeReferenceNumbers);
+    // Documents a non-officer may see: uploaded by them, or attached to an LC/BG they created or are beneficiary of.
+    // Ownership is resolved by correlated EXISTS probes on the unique reference_number indexes, so the
+    // database never materialises the user's trade list and no IN list is sent over the wire.
+    @Query(value = "SELECT td FROM TradeDocument td WHERE " + ACCESSIBLE_BY_USER +
+                   " ORDER BY td.createdAt DESC, td.documentId DESC",
+           countQuery = "SELECT COUNT(td) FROM TradeDocument td WHERE " + ACCESSIBLE_BY_USER)
+    Page<TradeDocument> findAccessibleByUser(@Param("username") String username, Pageable pageable);
+
+    @Query("SELECT COUNT(td) FROM TradeDocument td WHERE " + ACCESSIBLE_BY_USER)
+    long countAccessibleByUser(@Param("username") String username);
+
+    @Query(value = "SELECT td FROM TradeDocument td ORDER BY td.createdAt DESC, td.documentId DESC",
+           countQuery = "SELECT COUNT(td) FROM TradeDocument td")
+    Page<TradeDocument> findAllNewestFirst(Pageable pageable);
+
+    // Same ownership rules as LetterOfCreditService/BankGuaranteeService.findAllByUserOrBeneficiary
+    String ACCESSIBLE_BY_USER =
+            "td.uploadedBy = :username" +
+            " OR EXISTS (SELECT 1 FROM LetterOfCredit lc WHERE lc.referenceNumber = td.tradeReferenceNumber" +
+            "   AND (lc.createdBy = :username OR LOWER(lc.beneficiaryName) LIKE LOWER(CONCAT('%', :username, '%'))))" +
+            " OR EXISTS (SELECT 1 FROM BankGuarantee bg WHERE bg.referenceNumber = td.tradeReferenceNumber" +
+            "   AND (bg.createdBy = :username OR LOWER(bg.beneficiaryName) = LOWER(:username)))";
 
     @Query("SELECT COUNT(td) FROM TradeDocument td WHERE td.status = :status")
     long countByStatus(@Param("status") DocumentStatus status);
@@ -36,4 +59,21 @@ public interface TradeDocumentRepository extends JpaRepository<TradeDocument, Lo
     
     @Query("SELECT DISTINCT td.documentType FROM TradeDocument td")
     List<String> findDistinctDocumentTypes();
+
+    // Every issued reference number, used to build the in-memory reference filter
+    @Query("SELECT td.referenceNumber FROM TradeDocument td")
+    List<String> findAllReferenceNumbers();
+
+    List<TradeDocument> findByTradeReferenceNumberIn(Collection<String> tradeReferenceNumbers);
+
+    // Per-status counts in one round trip: rows of [DocumentStatus, Long]
+    @Query("SELECT td.status, COUNT(td) FROM TradeDocument td GROUP BY td.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("SELECT td.status, COUNT(td) FROM TradeDocument td WHERE td.uploadedBy = :uploadedBy GROUP BY td.status")
+    List<Object[]> countGroupedByStatusForUploader(@Param("uploadedBy") String uploadedBy);
+
+    // Rows of [referenceNumber, status, updatedAt] of the documents in :statuses, used to reconcile the officer work queue
+    @Query("SELECT td.referenceNumber, td.status, td.updatedAt FROM TradeDocument td WHERE td.status IN :statuses")
+    List<Object[]> findQueueEntriesByStatusIn(@Param("statuses") Collection<DocumentStatus> statuses);
 }
@@ -0,0 +1,63 @@
+package com.tfms.repository;
+
+import com.tfms.model.WorkItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WorkItemRepository extends JpaRepository<WorkItem, Long> {
+
+    List<WorkItem> findByEntityTypeAndReferenceNumberIn(String entityType, Collection<String> referenceNumbers);
+
+    List<WorkItem> findByEntityType(String entityType);
+
+    List<WorkItem> findByClaimTokenOrderByPriorityDescEnqueuedAtAscIdAsc(String claimToken);
+
+    List<WorkItem> findByClaimedByAndLeaseExpiresAtAfterOrderByLeaseExpiresAtAsc(String claimedBy, LocalDateTime now);
+
+    long countByClaimedByAndLeaseExpiresAtAfter(String claimedBy, LocalDateTime now);
+
+    long countByLeaseExpiresAtAfter(LocalDateTime now);
+
+    // Claim: one UPDATE that leases the first :limit unleased items of :types, highest priority then oldest first, and
+    // tags them with :token so the caller can read back exactly what it got. The inner SELECT only proposes
+    // candidates (wrapped in a derived table, as MySQL allows neither LIMIT in an IN subquery nor the target table in
+    // a subquery of its UPDATE); the outer WHERE re-checks the lease under the row lock, so an item a concurrent claim
+    // took first is skipped rather than claimed twice.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE work_item SET claimed_by = :officer, claim_token = :token, claimed_at = :now, lease_expires_at = :until" +
+                   " WHERE id IN (SELECT candidate.id FROM (SELECT w.id FROM work_item w" +
+                   " WHERE w.entity_type IN :types AND (w.lease_expires_at IS NULL OR w.lease_expires_at <= :now)" +
+                   " ORDER BY w.priority DESC, w.enqueued_at, w.id LIMIT :limit) candidate)" +
+                   " AND (lease_expires_at IS NULL OR lease_expires_at <= :now)",
+           nativeQuery = true)
+    int claim(@Param("types") Collection<String> types, @Param("officer") String officer, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until, @Param("limit") int limit);
+
+    // Renewal only extends leases the officer still holds; a lease that has run out must be claimed again
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WorkItem w SET w.leaseExpiresAt = :until WHERE w.id IN :ids AND w.claimedBy = :officer AND w.leaseExpiresAt > :now")
+    int renew(@Param("ids") Collection<Long> ids, @Param("officer") String officer,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WorkItem w SET w.claimedBy = NULL, w.claimToken = NULL, w.claimedAt = NULL, w.leaseExpiresAt = NULL" +
+           " WHERE w.id IN :ids AND w.claimedBy = :officer AND w.leaseExpiresAt > :now")
+    int release(@Param("ids") Collection<Long> ids, @Param("officer") String officer, @Param("now") LocalDateTime now);
+
+    // Rows of [claimedBy, count] of the leases that have run out by :now
+    @Query("SELECT w.claimedBy, COUNT(w) FROM WorkItem w WHERE w.leaseExpiresAt <= :now GROUP BY w.claimedBy")
+    List<Object[]> countExpiredByOfficer(@Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WorkItem w SET w.claimedBy = NULL, w.claimToken = NULL, w.claimedAt = NULL, w.leaseExpiresAt = NULL" +
+           " WHERE w.leaseExpiresAt <= :now")
+    int clearExpired(@Param("now") LocalDateTime now);
+}
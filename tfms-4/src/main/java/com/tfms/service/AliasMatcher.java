@@ -0,0 +1,116 @@
+package com.tfms.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Aho-Corasick automaton over normalized aliases, matching whole tokens only
+ *
+ * Patterns and text are padded with a space, so an alias matches where its tokens appear as consecutive tokens of
+ * the screened name ("zarkov holdings" in "the zarkov holdings group") but never inside a longer word. The automaton
+ * is compiled into a full transition table over the 37-symbol alphabet of {@link PartyNameNormalizer}, so matching is
+ * one array read per character and independent of the number of aliases. Immutable and thread-safe.
+ */
+final class AliasMatcher {
+
+    private static final int ALPHABET = PartyNameNormalizer.ALPHABET;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final int[] next;      // state * ALPHABET + symbol -> state
+    private final int[][] matches; // state -> ids of the patterns that end there, including via suffix links
+
+    /**
+     * @param patterns normalized aliases; a pattern's id is its index in the list
+     */
+    AliasMatcher(List<String> patterns) {
+        int capacity = 1;
+        for (String pattern : patterns) capacity += pattern.length() + 2;
+        int[] trie = new int[capacity * ALPHABET];
+        Arrays.fill(trie, -1);
+        int[][] own = new int[capacity][];
+        int states = 1;
+
+        for (int id = 0; id < patterns.size(); id++) {
+            String padded = " " + patterns.get(id) + " ";
+            int state = 0;
+            for (int i = 0; i < padded.length(); i++) {
+                int slot = state * ALPHABET + PartyNameNormalizer.code(padded.charAt(i));
+                if (trie[slot] < 0) trie[slot] = states++;
+                state = trie[slot];
+            }
+            own[state] = append(own[state], id);
+        }
+
+        // breadth-first: fill missing transitions from the failure state and merge its matches
+        int[] fail = new int[states];
+        int[][] merged = new int[states][];
+        merged[0] = own[0] != null ? own[0] : NO_MATCHES;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int child = trie[symbol];
+            if (child < 0) {
+                trie[symbol] = 0;
+            } else {
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] inherited = merged[fail[state]];
+            merged[state] = own[state] == null ? inherited : concat(own[state], inherited);
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int slot = state * ALPHABET + symbol;
+                int child = trie[slot];
+                if (child < 0) {
+                    trie[slot] = trie[fail[state] * ALPHABET + symbol];
+                } else {
+                    fail[child] = trie[fail[state] * ALPHABET + symbol];
+                    queue.add(child);
+                }
+            }
+        }
+
+        this.next = Arrays.copyOf(trie, states * ALPHABET);
+        this.matches = merged;
+    }
+
+    /**
+     * Report the id of every pattern occurring in {@code normalized}; a pattern occurring twice is reported twice
+     */
+    void forEachMatch(String normalized, IntConsumer onMatch) {
+        int state = next[0]; // leading pad
+        state = report(state, onMatch);
+        for (int i = 0; i < normalized.length(); i++) {
+            state = next[state * ALPHABET + PartyNameNormalizer.code(normalized.charAt(i))];
+            state = report(state, onMatch);
+        }
+        report(next[state * ALPHABET], onMatch); // trailing pad
+    }
+
+    int stateCount() {
+        return matches.length;
+    }
+
+    private int report(int state, IntConsumer onMatch) {
+        int[] ids = matches[state];
+        for (int id : ids) onMatch.accept(id);
+        return state;
+    }
+
+    private static int[] append(int[] ids, int id) {
+        if (ids == null) return new int[]{id};
+        int[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        return grown;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if (b.length == 0) return a;
+        int[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}
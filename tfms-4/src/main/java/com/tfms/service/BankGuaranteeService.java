@@ -3,24 +3,92 @@ package com.tfms.service;
 import com.tfms.exception.InvalidStateException;
 import com.tfms.exception.ResourceNotFoundException;
 import com.tfms.model.BankGuarantee;
+import com.tfms.model.BulkActionResult;
+import com.tfms.model.StatusCounts;
 import com.tfms.model.enums.GuaranteeStatus;
 import com.tfms.repository.BankGuaranteeRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class BankGuaranteeService {
+
+    /** Statuses an officer still has to act on */
+    public static final List<GuaranteeStatus> PENDING_APPROVAL_STATUSES =
+            List.of(GuaranteeStatus.SUBMITTED, GuaranteeStatus.UNDER_REVIEW, GuaranteeStatus.PENDING);
     
+    /**
+     * Statuses each BG status may be entered from, following the actions the guarantee views offer
+     */
+    static final StatusTransitions<GuaranteeStatus> TRANSITIONS = new StatusTransitions<>(GuaranteeStatus.class)
+            .allow(GuaranteeStatus.SUBMITTED, GuaranteeStatus.DRAFT, GuaranteeStatus.PENDING)
+            .allow(GuaranteeStatus.SENT_TO_RISK, GuaranteeStatus.SUBMITTED, GuaranteeStatus.UNDER_REVIEW, GuaranteeStatus.PENDING)
+            .allow(GuaranteeStatus.UNDER_REVIEW, GuaranteeStatus.SENT_TO_RISK)
+            .allow(GuaranteeStatus.ISSUED, GuaranteeStatus.SUBMITTED, GuaranteeStatus.UNDER_REVIEW, GuaranteeStatus.PENDING)
+            .allow(GuaranteeStatus.ACTIVE, GuaranteeStatus.ISSUED)
+            .allow(GuaranteeStatus.CLAIMED, GuaranteeStatus.ISSUED, GuaranteeStatus.ACTIVE)
+            .allow(GuaranteeStatus.CANCELLED, GuaranteeStatus.DRAFT, GuaranteeStatus.PENDING, GuaranteeStatus.SUBMITTED,
+                    GuaranteeStatus.UNDER_REVIEW, GuaranteeStatus.SENT_TO_RISK, GuaranteeStatus.ISSUED);
+
+    /**
+     * Officer actions that can be applied to many guarantees at once, see {@link #bulkAction}
+     */
+    public enum BulkAction {
+        ISSUE(GuaranteeStatus.ISSUED, "issue"),
+        SEND_TO_RISK(GuaranteeStatus.SENT_TO_RISK, "send to risk"),
+        CANCEL(GuaranteeStatus.CANCELLED, "cancel");
+
+        private final GuaranteeStatus target;
+        private final String label;
+
+        BulkAction(GuaranteeStatus target, String label) {
+            this.target = target;
+            this.label = label;
+        }
+
+        /** Accepts the constant or its URL spelling, e.g. "send-to-risk" */
+        public static BulkAction parse(String action) {
+            if (action != null) {
+                for (BulkAction candidate : values()) {
+                    if (candidate.name().equalsIgnoreCase(action.trim().replace('-', '_'))) return candidate;
+                }
+            }
+            throw new IllegalArgumentException("Unknown bulk guarantee action '" + action + "', expected one of "
+                    + List.of(values()));
+        }
+    }
+
     private final BankGuaranteeRepository bgRepository;
+    private final PartyNameIndex partyNameIndex;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkTransitionRunner bulkTransitionRunner;
 
-    public BankGuaranteeService(BankGuaranteeRepository bgRepository) {
+    public BankGuaranteeService(BankGuaranteeRepository bgRepository, PartyNameIndex partyNameIndex,
+                                ReferenceNumberGenerator referenceNumberGenerator,
+                                ApplicationEventPublisher eventPublisher,
+                                BulkTransitionRunner bulkTransitionRunner) {
         this.bgRepository = bgRepository;
+        this.partyNameIndex = partyNameIndex;
+        this.referenceNumberGenerator = referenceNumberGenerator;
+        this.eventPublisher = eventPublisher;
+        this.bulkTransitionRunner = bulkTransitionRunner;
     }
     
 
@@ -30,60 +98,59 @@ public class BankGuaranteeService {
     public BankGuarantee requestGuarantee(BankGuarantee guarantee, String createdBy) {
         guarantee.setCreatedBy(createdBy);
         guarantee.setReferenceNumber(generateReferenceNumber());
-        guarantee.setStatus(GuaranteeStatus.DRAFT);
-        return bgRepository.save(guarantee);
+        changeStatus(guarantee, GuaranteeStatus.DRAFT);
+        BankGuarantee saved = save(guarantee, ReferenceChangedEvent.ChangeType.CREATED);
+        reindexAfterCommit(saved);
+        return saved;
     }
     
     /**
      * Submit guarantee for review
      */
     public BankGuarantee submitForReview(Long guaranteeId) {
-        BankGuarantee bg = bgRepository.findById(guaranteeId)
-                .orElseThrow(() -> new  ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
-        bg.setStatus(GuaranteeStatus.SUBMITTED);
-        return bgRepository.save(bg);
+        return transition(guaranteeId, GuaranteeStatus.SUBMITTED, "submit");
     }
 
     /**
       * Issue Guarantee - Officer only
       */
     public BankGuarantee issueGuarantee(Long guaranteeId) {
-        BankGuarantee bg = bgRepository.findById(guaranteeId)
-                .orElseThrow(() -> new  ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
-        bg.setStatus(GuaranteeStatus.ISSUED);
-        bg.setIssueDate(LocalDate.now());
-        return bgRepository.save(bg);
+        BankGuarantee bg = find(guaranteeId);
+        GuaranteeStatus from = checkTransition(bg, GuaranteeStatus.ISSUED, "issue");
+        LocalDate issueDate = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        applied(bg, bgRepository.updateStatusAndIssueDate(guaranteeId, allowedFrom(GuaranteeStatus.ISSUED),
+                GuaranteeStatus.ISSUED, issueDate, now), "issue");
+        bg.setIssueDate(issueDate);
+        return transitioned(bg, from, GuaranteeStatus.ISSUED, now);
     }
 
      /**
       * Activate Guarantee
       */
     public BankGuarantee activateGuarantee(Long guaranteeId) {
-        BankGuarantee bg = bgRepository.findById(guaranteeId)
-                .orElseThrow(() -> new  ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
-        bg.setStatus(GuaranteeStatus.ACTIVE);
-        return bgRepository.save(bg);
+        return transition(guaranteeId, GuaranteeStatus.ACTIVE, "activate");
     }
 
     /**
       * Cancel Guarantee
       */
     public BankGuarantee cancelGuarantee(Long guaranteeId, String reason) {
-        BankGuarantee bg = bgRepository.findById(guaranteeId)
-                .orElseThrow(() -> new  ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
-        bg.setStatus(GuaranteeStatus.CANCELLED);
-        bg.setPurpose(bg.getPurpose() + " | Cancellation Reason: " + reason);
-        return bgRepository.save(bg);
+        BankGuarantee bg = find(guaranteeId);
+        GuaranteeStatus from = checkTransition(bg, GuaranteeStatus.CANCELLED, "cancel");
+        String note = " | Cancellation Reason: " + reason;
+        LocalDateTime now = LocalDateTime.now();
+        applied(bg, bgRepository.updateStatusWithNote(guaranteeId, allowedFrom(GuaranteeStatus.CANCELLED),
+                GuaranteeStatus.CANCELLED, note, now), "cancel");
+        bg.setPurpose((bg.getPurpose() == null ? "" : bg.getPurpose()) + note);
+        return transitioned(bg, from, GuaranteeStatus.CANCELLED, now);
     }
 
      /**
       * Claim Guarantee
       */
     public BankGuarantee claimGuarantee(Long guaranteeId) {
-        BankGuarantee bg = bgRepository.findById(guaranteeId)
-                .orElseThrow(() -> new  ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
-        bg.setStatus(GuaranteeStatus.CLAIMED);
-        return bgRepository.save(bg);
+        return transition(guaranteeId, GuaranteeStatus.CLAIMED, "claim");
     }
     
     /**
@@ -95,13 +162,19 @@ public class BankGuaranteeService {
 
         existingBg.setApplicantName(updatedBg.getApplicantName());
         existingBg.setBeneficiaryName(updatedBg.getBeneficiaryName());
+        existingBg.setApplicantCountry(updatedBg.getApplicantCountry());
+        existingBg.setBeneficiaryCountry(updatedBg.getBeneficiaryCountry());
         existingBg.setGuaranteeAmount(updatedBg.getGuaranteeAmount());
         existingBg.setCurrency(updatedBg.getCurrency());
         existingBg.setGuaranteeType(updatedBg.getGuaranteeType());
         existingBg.setValidityPeriod(updatedBg.getValidityPeriod());
         existingBg.setPurpose(updatedBg.getPurpose());
         
-        return bgRepository.save(existingBg);
+        BankGuarantee saved = save(existingBg, ReferenceChangedEvent.ChangeType.UPDATED);
+        reindexAfterCommit(saved);
+        eventPublisher.publishEvent(new ComplianceInputChangedEvent(existingBg.getReferenceNumber(),
+                ComplianceInputChangedEvent.Input.TRANSACTION));
+        return saved;
     }
     
     // Query methods
@@ -122,60 +195,224 @@ public class BankGuaranteeService {
     }
     
     public List<BankGuarantee> findPendingApproval() {
-        return bgRepository.findByStatusIn(List.of(GuaranteeStatus.SUBMITTED, GuaranteeStatus.UNDER_REVIEW, GuaranteeStatus.PENDING));
+        return bgRepository.findByStatusIn(PENDING_APPROVAL_STATUSES);
+    }
+
+    /**
+     * Number of guarantees per status across the whole book, in a single GROUP BY query
+     */
+    @Transactional(readOnly = true)
+    public StatusCounts<GuaranteeStatus> getStatusCounts() {
+        return StatusCounts.fromRows(GuaranteeStatus.class, bgRepository.countGroupedByStatus());
+    }
+
+    /**
+     * Number of guarantees per status created by the given user, in a single GROUP BY query
+     */
+    @Transactional(readOnly = true)
+    public StatusCounts<GuaranteeStatus> getStatusCountsByCreatedBy(String username) {
+        return StatusCounts.fromRows(GuaranteeStatus.class, bgRepository.countGroupedByStatusForCreator(username));
+    }
+
+    /**
+     * Most recently created guarantees, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<BankGuarantee> findRecent(int limit) {
+        return bgRepository.findByOrderByCreatedAtDesc(PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<BankGuarantee> findRecentByCreatedBy(String username, int limit) {
+        return bgRepository.findByCreatedByOrderByCreatedAtDesc(username, PageRequest.of(0, limit));
     }
 
     /**
      * Send BG to Risk team - Officer action
      */
     public BankGuarantee sendToRiskTeam(Long guaranteeId) {
-        BankGuarantee bg = bgRepository.findById(guaranteeId)
-                .orElseThrow(() -> new  ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
-        // Only allow sending to risk from Submitted/Under Review/Pending
-        if (bg.getStatus() == GuaranteeStatus.SUBMITTED || bg.getStatus() == GuaranteeStatus.UNDER_REVIEW || bg.getStatus() == GuaranteeStatus.PENDING) {
-            bg.setStatus(GuaranteeStatus.SENT_TO_RISK);
-            return bgRepository.save(bg);
-        }
-        throw new InvalidStateException("BankGuarantee", bg.getStatus() != null ? bg.getStatus().name() : "UNKNOWN", "send to risk");
+        return transition(guaranteeId, GuaranteeStatus.SENT_TO_RISK, "send to risk");
     }
 
     /**
      * Return BG from Risk back to Officer for further processing
      */
     public BankGuarantee returnToOfficer(Long guaranteeId) {
-        BankGuarantee bg = bgRepository.findById(guaranteeId)
-                .orElseThrow(() -> new ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
-        if (bg.getStatus() == GuaranteeStatus.SENT_TO_RISK) {
-            bg.setStatus(GuaranteeStatus.UNDER_REVIEW);
-            return bgRepository.save(bg);
-        }
-        throw new  InvalidStateException("BankGuarantee", bg.getStatus() != null ? bg.getStatus().name() : "UNKNOWN", "return to officer");
+        return transition(guaranteeId, GuaranteeStatus.UNDER_REVIEW, "return to officer");
+    }
+
+    /**
+     * Apply one officer action to many guarantees: per chunk, one locking read of the chunk's statuses, the transition
+     * check for the whole set, one UPDATE of every guarantee that passed it and batched audit rows. Guarantees that are
+     * missing or in a status the action does not apply to are skipped and reported, they do not fail the others.
+     *
+     * @param reason cancellation reason, only used by {@link BulkAction#CANCEL}
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkActionResult bulkAction(Collection<Long> guaranteeIds, BulkAction action, String reason) {
+        return bulkTransitionRunner.run(action.name(), guaranteeIds, chunk -> applyBulkAction(chunk, action, reason));
     }
 
     public void deleteGuarantee(Long id) {
+        bgRepository.findById(id).ifPresent(bg -> eventPublisher.publishEvent(
+                new ReferenceChangedEvent(ReferenceChangedEvent.BG, bg.getReferenceNumber(), ReferenceChangedEvent.ChangeType.DELETED)));
         bgRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> partyNameIndex.removeBankGuarantee(id));
+    }
+
+    /**
+     * Move to {@code status} and journal the transition (from no status for a new BG)
+     */
+    private void changeStatus(BankGuarantee bg, GuaranteeStatus status) {
+        GuaranteeStatus previous = bg.getGuaranteeId() != null ? bg.getStatus() : null;
+        bg.setStatus(status);
+        eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.BG, bg.getReferenceNumber(), previous, status));
+    }
+
+    /**
+     * Status-only transition: one conditional UPDATE after the primary-key read that finds the BG
+     */
+    private BankGuarantee transition(Long guaranteeId, GuaranteeStatus to, String action) {
+        BankGuarantee bg = find(guaranteeId);
+        GuaranteeStatus from = checkTransition(bg, to, action);
+        LocalDateTime now = LocalDateTime.now();
+        applied(bg, bgRepository.updateStatus(guaranteeId, allowedFrom(to), to, now), action);
+        return transitioned(bg, from, to, now);
+    }
+
+    /**
+     * One chunk of {@link #bulkAction}, inside the chunk's transaction
+     */
+    private List<BulkActionResult.ItemResult> applyBulkAction(List<Long> guaranteeIds, BulkAction action, String reason) {
+        GuaranteeStatus to = action.target;
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : bgRepository.lockStatusesByIdIn(guaranteeIds)) {
+            rows.put((Long) row[0], row);
+        }
+
+        List<BulkActionResult.ItemResult> results = new ArrayList<>(guaranteeIds.size());
+        List<Long> accepted = new ArrayList<>();
+        List<Object[]> acceptedRows = new ArrayList<>();
+        for (Long guaranteeId : guaranteeIds) {
+            Object[] row = rows.get(guaranteeId);
+            if (row == null) {
+                results.add(BulkActionResult.ItemResult.notFound(guaranteeId));
+                continue;
+            }
+            GuaranteeStatus from = (GuaranteeStatus) row[2];
+            if (!TRANSITIONS.isAllowed(from, to)) {
+                results.add(BulkActionResult.ItemResult.invalidState(guaranteeId, (String) row[1], from,
+                        new InvalidStateException("BankGuarantee", String.valueOf(from), action.label).getMessage()));
+                continue;
+            }
+            accepted.add(guaranteeId);
+            acceptedRows.add(row);
+            results.add(BulkActionResult.ItemResult.done(guaranteeId, (String) row[1], from, to));
+        }
+        if (accepted.isEmpty()) return results;
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (action) {
+            case ISSUE -> bgRepository.updateStatusAndIssueDateByIdIn(accepted, allowedFrom(to), to, LocalDate.now(), now);
+            case SEND_TO_RISK -> bgRepository.updateStatusByIdIn(accepted, allowedFrom(to), to, now);
+            case CANCEL -> bgRepository.updateStatusWithNoteByIdIn(accepted, allowedFrom(to), to,
+                    " | Cancellation Reason: " + reason, now);
+        };
+        if (updated != accepted.size()) {
+            // the rows are locked since they were read, so this is not a lost race
+            throw new IllegalStateException("Bulk " + action.label + " updated " + updated + " of "
+                    + accepted.size() + " guarantees");
+        }
+        for (Object[] row : acceptedRows) {
+            eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.BG, (String) row[1],
+                    (GuaranteeStatus) row[2], to));
+            eventPublisher.publishEvent(new ReferenceChangedEvent(ReferenceChangedEvent.BG, (String) row[1],
+                    ReferenceChangedEvent.ChangeType.UPDATED));
+        }
+        return results;
+    }
+
+    private BankGuarantee find(Long guaranteeId) {
+        return bgRepository.findById(guaranteeId)
+                .orElseThrow(() -> new ResourceNotFoundException("BankGuarantee", "id", guaranteeId));
+    }
+
+    /**
+     * Refuse early, with the status the BG was read in, when the matrix does not allow the transition from it
+     */
+    private static GuaranteeStatus checkTransition(BankGuarantee bg, GuaranteeStatus to, String action) {
+        GuaranteeStatus from = bg.getStatus();
+        if (!TRANSITIONS.isAllowed(from, to)) {
+            throw new InvalidStateException("BankGuarantee", from != null ? from.name() : "UNKNOWN", action);
+        }
+        return from;
+    }
+
+    private static Set<GuaranteeStatus> allowedFrom(GuaranteeStatus to) {
+        return TRANSITIONS.allowedFrom(to);
+    }
+
+    /**
+     * No row updated: another request moved the BG out of the allowed statuses since it was read
+     */
+    private static void applied(BankGuarantee bg, int updatedRows, String action) {
+        if (updatedRows == 0) {
+            throw new InvalidStateException("Cannot " + action + " BankGuarantee " + bg.getReferenceNumber()
+                    + ": its status was changed by another request");
+        }
+    }
+
+    /**
+     * Bring the (now detached) BG read before the UPDATE in line with it and announce the change
+     */
+    private BankGuarantee transitioned(BankGuarantee bg, GuaranteeStatus from, GuaranteeStatus to, LocalDateTime now) {
+        bg.setStatus(to);
+        bg.setUpdatedAt(now);
+        eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.BG, bg.getReferenceNumber(), from, to));
+        eventPublisher.publishEvent(new ReferenceChangedEvent(ReferenceChangedEvent.BG, bg.getReferenceNumber(),
+                ReferenceChangedEvent.ChangeType.UPDATED));
+        return bg;
+    }
+
+    private BankGuarantee save(BankGuarantee bg, ReferenceChangedEvent.ChangeType changeType) {
+        BankGuarantee saved = bgRepository.save(bg);
+        if (saved != null) {
+            eventPublisher.publishEvent(new ReferenceChangedEvent(ReferenceChangedEvent.BG, saved.getReferenceNumber(), changeType));
+        }
+        return saved;
+    }
+
+    private void reindexAfterCommit(BankGuarantee bg) {
+        if (bg == null) return;
+        TransactionHooks.afterCommit(() -> partyNameIndex.index(bg));
     }
     
     /**
      * Generate unique reference number
      */
     private String generateReferenceNumber() {
-        return "BG-" + System.currentTimeMillis();
+        return referenceNumberGenerator.next(ReferenceNumberGenerator.BG_PREFIX);
     }
 
     /**
      * Find bank guarantees either created by the given username or where the beneficiary name matches (case-insensitive)
      */
+    @Transactional(readOnly = true)
     public List<BankGuarantee> findAllByUserOrBeneficiary(String username) {
         if (username == null) return List.of();
-        List<BankGuarantee> result = new ArrayList<>();
+        Map<Long, BankGuarantee> result = new LinkedHashMap<>();
         // created by
-        result.addAll(bgRepository.findByCreatedBy(username));
-        // beneficiary match ignoring case
-        List<BankGuarantee> byBeneficiary = bgRepository.findByBeneficiaryNameIgnoreCase(username);
-        for (BankGuarantee bg : byBeneficiary) {
-            if (!result.contains(bg)) result.add(bg);
+        for (BankGuarantee bg : bgRepository.findByCreatedBy(username)) result.put(bg.getGuaranteeId(), bg);
+        // beneficiary match ignoring case: resolve ids through the party name index, then fetch by primary key
+        List<BankGuarantee> byBeneficiary;
+        if (partyNameIndex.isReady()) {
+            Set<Long> ids = new HashSet<>(partyNameIndex.bgIdsByBeneficiaryEqual(username));
+            ids.removeAll(result.keySet());
+            byBeneficiary = ids.isEmpty() ? List.of() : bgRepository.findAllById(ids);
+        } else {
+            byBeneficiary = bgRepository.findByBeneficiaryNameIgnoreCase(username);
         }
-        return result;
+        for (BankGuarantee bg : byBeneficiary) result.putIfAbsent(bg.getGuaranteeId(), bg);
+        return new ArrayList<>(result.values());
     }
 }
@@ -0,0 +1,83 @@
+package com.tfms.service;
+
+import com.tfms.model.BulkActionResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs a bulk officer action over many LC or BG ids in chunks of {@code tfms.bulk.chunk-size}, each chunk in its own
+ * transaction
+ *
+ * The services supply the work of one chunk: a locking read of the chunk's statuses, the set-wise transition check,
+ * one UPDATE for every accepted id and the status events, which the audit journal writes in batches once the chunk
+ * has committed. A chunk that throws is rolled back and all its ids are reported FAILED; the chunks before it stay
+ * committed and the ones after it still run.
+ */
+@Slf4j
+@Component
+public class BulkTransitionRunner {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public BulkTransitionRunner(PlatformTransactionManager transactionManager,
+                                @Value("${tfms.bulk.chunk-size:500}") int chunkSize,
+                                @Value("${tfms.bulk.max-items:5000}") int maxItems) {
+        if (chunkSize < 1 || maxItems < chunkSize) {
+            throw new IllegalArgumentException("tfms.bulk: need 1 <= chunk-size <= max-items");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // a chunk commits on its own even when the caller is inside a transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * @param action     name of the action, for the result and the log
+     * @param ids        ids to act on; duplicates and nulls are dropped
+     * @param applyChunk outcome of every id of one chunk, in the chunk's order; runs inside the chunk's transaction
+     */
+    BulkActionResult run(String action, Collection<Long> ids,
+                         Function<List<Long>, List<BulkActionResult.ItemResult>> applyChunk) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids != null ? ids : List.of()));
+        distinct.removeIf(Objects::isNull);
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("No ids given for bulk " + action);
+        }
+        if (distinct.size() > maxItems) {
+            throw new IllegalArgumentException("Bulk " + action + " is limited to " + maxItems + " items, got " + distinct.size());
+        }
+
+        long start = System.nanoTime();
+        BulkActionResult result = new BulkActionResult(action);
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            try {
+                result.addAll(transactionTemplate.execute(status -> applyChunk.apply(chunk)));
+            } catch (RuntimeException e) {
+                log.error("Bulk {} failed for a chunk of {} ids starting at {}", action, chunk.size(), chunk.get(0), e);
+                String message = "Chunk rolled back: " + e.getMessage();
+                for (Long id : chunk) {
+                    result.add(BulkActionResult.ItemResult.failed(id, message));
+                }
+            }
+        }
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Bulk {}: {} of {} items done in {} ms", action, result.getDone(), result.getTotal(), result.getElapsedMillis());
+        return result;
+    }
+}
@@ -0,0 +1,221 @@
+package com.tfms.service;
+
+import com.tfms.exception.ValidationException;
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.Compliance;
+import com.tfms.model.ComplianceBatchJob;
+import com.tfms.model.ComplianceBatchRequest;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.TradeDocument;
+import com.tfms.model.enums.GuaranteeStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.ComplianceRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Month-end style compliance regeneration for many transactions at once
+ *
+ * References are split into chunks that run on a bounded worker pool. Each chunk, in its own transaction,
+ * prefetches LCs, BGs, documents, latest risk assessments and existing reports with one IN query each, evaluates
+ * the checks in memory (ComplianceService.evaluate) and saves all reports with saveAll, which Hibernate sends
+ * as JDBC batches. Progress and per-reference outcomes are tracked on a {@link ComplianceBatchJob}.
+ */
+@Slf4j
+@Service
+public class ComplianceBatchService {
+
+    static final List<LCStatus> CLOSED_LC_STATUSES = List.of(LCStatus.CLOSED, LCStatus.REJECTED);
+    static final List<GuaranteeStatus> CLOSED_BG_STATUSES =
+            List.of(GuaranteeStatus.CANCELLED, GuaranteeStatus.EXPIRED, GuaranteeStatus.CLAIMED);
+
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final ComplianceService complianceService;
+    private final ComplianceRepository complianceRepository;
+    private final LetterOfCreditRepository lcRepository;
+    private final BankGuaranteeRepository bgRepository;
+    private final TradeDocumentRepository documentRepository;
+    private final CurrentRiskService currentRisk;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ExecutorService workers;
+
+    private final Map<String, ComplianceBatchJob> jobs = new LinkedHashMap<>();
+
+    public ComplianceBatchService(ComplianceService complianceService,
+                                  ComplianceRepository complianceRepository,
+                                  LetterOfCreditRepository lcRepository,
+                                  BankGuaranteeRepository bgRepository,
+                                  TradeDocumentRepository documentRepository,
+                                  CurrentRiskService currentRisk,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${tfms.compliance.batch.threads:4}") int threads,
+                                  @Value("${tfms.compliance.batch.chunk-size:500}") int chunkSize) {
+        this.complianceService = complianceService;
+        this.complianceRepository = complianceRepository;
+        this.lcRepository = lcRepository;
+        this.bgRepository = bgRepository;
+        this.documentRepository = documentRepository;
+        this.currentRisk = currentRisk;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "compliance-batch-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Start a batch run and return immediately; poll {@link #findJob} for progress
+     */
+    public ComplianceBatchJob start(ComplianceBatchRequest request, String requestedBy) {
+        List<String> references = resolveReferences(request);
+        ComplianceBatchJob job = new ComplianceBatchJob(UUID.randomUUID().toString(), requestedBy, references.size());
+        register(job);
+        log.info("Compliance batch {} started by {} for {} references", job.getJobId(), requestedBy, references.size());
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < references.size(); from += chunkSize) {
+            List<String> chunk = references.subList(from, Math.min(from + chunkSize, references.size()));
+            chunks.add(CompletableFuture.runAsync(() -> processChunk(chunk, job), workers));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            job.complete(error == null ? ComplianceBatchJob.State.COMPLETED : ComplianceBatchJob.State.FAILED);
+            log.info("Compliance batch {} finished: {} compliant, {} non-compliant, {} failed",
+                    job.getJobId(), job.getCompliant(), job.getNonCompliant(), job.getFailed());
+        });
+        return job;
+    }
+
+    public Optional<ComplianceBatchJob> findJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) workers.shutdownNow();
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Explicit references (trimmed, de-duplicated, in request order), or every LC/BG matching the filter
+     */
+    List<String> resolveReferences(ComplianceBatchRequest request) {
+        Set<String> references = new LinkedHashSet<>();
+        if (request.getReferences() != null) {
+            for (String ref : request.getReferences()) {
+                if (ref != null && !ref.isBlank()) references.add(ref.trim());
+            }
+        }
+        if (!references.isEmpty()) return new ArrayList<>(references);
+
+        String type = request.getTransactionType() == null ? "" : request.getTransactionType().trim().toUpperCase();
+        if (!type.isEmpty() && !type.equals("LC") && !type.equals("BG")) {
+            throw new ValidationException("Transaction type must be LC or BG");
+        }
+        if (!type.equals("BG")) {
+            references.addAll(request.isIncludeClosed()
+                    ? lcRepository.findAllReferenceNumbers()
+                    : lcRepository.findReferenceNumbersByStatusNotIn(CLOSED_LC_STATUSES));
+        }
+        if (!type.equals("LC")) {
+            references.addAll(request.isIncludeClosed()
+                    ? bgRepository.findAllReferenceNumbers()
+                    : bgRepository.findReferenceNumbersByStatusNotIn(CLOSED_BG_STATUSES));
+        }
+        references.remove(null);
+        return new ArrayList<>(references);
+    }
+
+    private void processChunk(List<String> references, ComplianceBatchJob job) {
+        try {
+            List<Compliance> saved = transactionTemplate.execute(status -> evaluateChunk(references, job));
+            if (saved != null) {
+                for (Compliance compliance : saved) job.recordResult(compliance.getTransactionReference(), compliance);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Compliance batch {}: chunk of {} references failed", job.getJobId(), references.size(), e);
+            // the chunk rolled back as a whole; anything already recorded as failed stays counted once
+            Set<String> alreadyFailed = job.getResults().stream()
+                    .map(ComplianceBatchJob.ItemResult::getReference).collect(Collectors.toSet());
+            for (String ref : references) {
+                if (!alreadyFailed.contains(ref)) job.recordFailure(ref, e.getMessage());
+            }
+        }
+    }
+
+    private List<Compliance> evaluateChunk(List<String> references, ComplianceBatchJob job) {
+        Map<String, LetterOfCredit> lcs = index(lcRepository.findByReferenceNumberIn(references), LetterOfCredit::getReferenceNumber);
+        Map<String, BankGuarantee> bgs = index(bgRepository.findByReferenceNumberIn(references), BankGuarantee::getReferenceNumber);
+        Map<String, List<TradeDocument>> documents = documentRepository.findByTradeReferenceNumberIn(references).stream()
+                .collect(Collectors.groupingBy(TradeDocument::getTradeReferenceNumber));
+        Map<String, RiskAssessment> latestRisk = currentRisk.findAll(references);
+        Map<String, Compliance> existing = index(complianceRepository.findByTransactionReferenceIn(references),
+                Compliance::getTransactionReference);
+
+        List<Compliance> toSave = new ArrayList<>(references.size());
+        for (String ref : references) {
+            try {
+                Object transaction = lcs.containsKey(ref) ? lcs.get(ref) : bgs.get(ref);
+                ComplianceContext context = new ComplianceContext(ref, transaction,
+                        documents.getOrDefault(ref, List.of()), latestRisk.get(ref));
+                // chunks already run in parallel, so each report's checks run on this worker thread
+                toSave.add(complianceService.evaluate(existing.getOrDefault(ref, new Compliance()), context, false));
+            } catch (RuntimeException e) {
+                job.recordFailure(ref, e.getMessage());
+            }
+        }
+        return complianceRepository.saveAll(toSave);
+    }
+
+    private static <T> Map<String, T> index(List<T> rows, Function<T, String> key) {
+        Map<String, T> map = new HashMap<>(rows.size() * 2);
+        for (T row : rows) map.putIfAbsent(key.apply(row), row);
+        return map;
+    }
+
+    private void register(ComplianceBatchJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+            // keep only the most recent finished runs
+            var it = jobs.values().iterator();
+            while (jobs.size() > MAX_RETAINED_JOBS && it.hasNext()) {
+                if (it.next().getState() != ComplianceBatchJob.State.RUNNING) it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.tfms.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * One rule of the automated compliance report
+ *
+ * Implementations are Spring beans picked up by {@link ComplianceCheckPipeline}, which runs them in the order of
+ * {@code tfms.compliance.checks.order} against a {@link ComplianceContext} prefetched once per transaction. A check
+ * must not touch the database or mutate the context: everything it needs is in the context, and everything it
+ * concludes goes into its {@link ComplianceCheckResult}, which the pipeline applies to the report afterwards.
+ */
+public interface ComplianceCheck {
+
+    /**
+     * Stable identifier used in the configured order and as the metrics tag, e.g. "documents"
+     */
+    String getName();
+
+    /**
+     * Evaluate the check; only called for an existing LC or BG
+     */
+    ComplianceCheckResult evaluate(ComplianceContext context);
+
+    /**
+     * Whether the check may run on a pool thread, concurrently with the other checks of the same report; a check
+     * that relies on thread-bound state (the caller's transaction or security context) returns false and always
+     * runs on the calling thread
+     */
+    default boolean isIndependent() {
+        return true;
+    }
+
+    /**
+     * What the check reads; a change to any of these makes {@link ComplianceReevaluationService} re-run it.
+     * Defaults to everything, so a check that does not say is never left stale
+     */
+    default Set<ComplianceInputChangedEvent.Input> getInputs() {
+        return EnumSet.allOf(ComplianceInputChangedEvent.Input.class);
+    }
+}
@@ -0,0 +1,172 @@
+package com.tfms.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Runs the {@link ComplianceCheck} beans against one prefetched {@link ComplianceContext}
+ *
+ * Checks run in the order of {@code tfms.compliance.checks.order}; checks it does not name follow in their
+ * {@code @Order}. In parallel mode the independent checks are spread over a small dedicated pool while the calling
+ * thread runs the rest, so a report takes about as long as its slowest check. Results always come back in check
+ * order, so remarks read the same either way. Every check execution is timed into
+ * {@code tfms.compliance.check{check, outcome}} (with a percentile histogram); a check that throws is recorded as
+ * outcome "error" and fails, rather than letting the report pass.
+ */
+@Slf4j
+@Service
+public class ComplianceCheckPipeline {
+
+    private static final int PASSED = 0;
+    private static final int FAILED = 1;
+    private static final int ERROR = 2;
+    private static final String[] OUTCOMES = {"passed", "failed", "error"};
+
+    private final ComplianceCheck[] checks;
+    private final Timer[][] timers;
+    private final ExecutorService pool;
+
+    public ComplianceCheckPipeline(List<ComplianceCheck> checks,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${tfms.compliance.checks.order:}") String order,
+                                   @Value("${tfms.compliance.checks.threads:2}") int threads) {
+        this.checks = ordered(checks, order).toArray(new ComplianceCheck[0]);
+        this.timers = new Timer[this.checks.length][OUTCOMES.length];
+        for (int i = 0; i < this.checks.length; i++) {
+            for (int outcome = 0; outcome < OUTCOMES.length; outcome++) {
+                timers[i][outcome] = Timer.builder("tfms.compliance.check")
+                        .description("Time to evaluate one compliance check for one transaction")
+                        .tag("check", this.checks[i].getName())
+                        .tag("outcome", OUTCOMES[outcome])
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+            }
+        }
+        if (threads > 0) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "compliance-check-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            this.pool = null;
+        }
+        log.info("Compliance checks: {}", getCheckNames());
+    }
+
+    /**
+     * Evaluate every check; results are in check order
+     *
+     * @param parallel spread independent checks over the check pool; callers that already run many
+     *                 transactions concurrently (the batch generator) pass false
+     */
+    List<ComplianceCheckResult> evaluate(ComplianceContext context, boolean parallel) {
+        return evaluate(context, check -> true, parallel);
+    }
+
+    /**
+     * Evaluate the checks accepted by {@code include}; results are in check order, null for a skipped check
+     */
+    List<ComplianceCheckResult> evaluate(ComplianceContext context, Predicate<ComplianceCheck> include, boolean parallel) {
+        ComplianceCheckResult[] results = new ComplianceCheckResult[checks.length];
+        boolean[] included = new boolean[checks.length];
+        for (int i = 0; i < checks.length; i++) {
+            included[i] = include.test(checks[i]);
+        }
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        boolean[] offloaded = new boolean[checks.length];
+        if (parallel && pool != null) {
+            // the first independent check stays on the calling thread, which would otherwise just wait
+            boolean inlineTaken = false;
+            for (int i = 0; i < checks.length; i++) {
+                if (!included[i] || !checks[i].isIndependent()) continue;
+                if (inlineTaken) {
+                    int index = i;
+                    offloaded[i] = true;
+                    pending.add(CompletableFuture.runAsync(() -> results[index] = run(index, context), pool));
+                }
+                inlineTaken = true;
+            }
+        }
+        for (int i = 0; i < checks.length; i++) {
+            if (included[i] && !offloaded[i]) results[i] = run(i, context);
+        }
+        if (!pending.isEmpty()) {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Check names in execution order
+     */
+    public List<String> getCheckNames() {
+        return Arrays.stream(checks).map(ComplianceCheck::getName).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    private ComplianceCheckResult run(int index, ComplianceContext context) {
+        ComplianceCheck check = checks[index];
+        long start = System.nanoTime();
+        ComplianceCheckResult result;
+        int outcome;
+        try {
+            result = check.evaluate(context);
+            outcome = result.isPassed() ? PASSED : FAILED;
+        } catch (RuntimeException e) {
+            log.error("Compliance check {} failed for {}", check.getName(), context.getTransactionReference(), e);
+            result = ComplianceCheckResult.failed("Check '" + check.getName() + "' could not be completed. ");
+            outcome = ERROR;
+        }
+        timers[index][outcome].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * Checks named in {@code order} first, in that order, then the others in bean order
+     *
+     * @throws IllegalArgumentException for an unknown or repeated check name
+     */
+    static List<ComplianceCheck> ordered(List<ComplianceCheck> checks, String order) {
+        Map<String, ComplianceCheck> byName = new LinkedHashMap<>();
+        for (ComplianceCheck check : checks) {
+            if (byName.put(check.getName(), check) != null) {
+                throw new IllegalArgumentException("Two compliance checks are named " + check.getName());
+            }
+        }
+        List<ComplianceCheck> ordered = new ArrayList<>();
+        if (order != null && !order.isBlank()) {
+            for (String name : order.split(",")) {
+                ComplianceCheck check = byName.remove(name.trim());
+                if (check == null) {
+                    throw new IllegalArgumentException("tfms.compliance.checks.order: unknown or repeated check '"
+                            + name.trim() + "'");
+                }
+                ordered.add(check);
+            }
+        }
+        ordered.addAll(byName.values());
+        return ordered;
+    }
+}
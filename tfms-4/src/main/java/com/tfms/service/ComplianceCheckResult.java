@@ -0,0 +1,96 @@
+package com.tfms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tfms.model.Compliance;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Outcome of one {@link ComplianceCheck}: pass or fail, the remarks it adds to the report and the
+ * check-specific fields it records on the report (e.g. documentsValidated)
+ */
+@Slf4j
+public final class ComplianceCheckResult {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Consumer<Compliance> NOTHING = compliance -> {};
+
+    private final boolean passed;
+    private final String remarks;
+    private final Consumer<Compliance> recorder;
+
+    private ComplianceCheckResult(boolean passed, String remarks, Consumer<Compliance> recorder) {
+        this.passed = passed;
+        this.remarks = remarks != null ? remarks : "";
+        this.recorder = recorder != null ? recorder : NOTHING;
+    }
+
+    public static ComplianceCheckResult passed(String remarks) {
+        return new ComplianceCheckResult(true, remarks, null);
+    }
+
+    public static ComplianceCheckResult failed(String remarks) {
+        return new ComplianceCheckResult(false, remarks, null);
+    }
+
+    /**
+     * @param recorder sets the check's own fields on the report; applied on the calling thread, in check order
+     */
+    public static ComplianceCheckResult of(boolean passed, String remarks, Consumer<Compliance> recorder) {
+        return new ComplianceCheckResult(passed, remarks, recorder);
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    /** Remark sentences, each ending in ". ", or empty */
+    public String getRemarks() {
+        return remarks;
+    }
+
+    void recordOn(Compliance compliance) {
+        recorder.accept(compliance);
+    }
+
+    /**
+     * Outcomes by check name as the JSON stored on the report, e.g. {"documents":{"passed":false,"remarks":"..."}};
+     * the recorded fields are already on the report and are not included
+     */
+    static String toJson(Map<String, ComplianceCheckResult> results) {
+        ObjectNode root = JSON.createObjectNode();
+        results.forEach((name, result) -> root.putObject(name)
+                .put("passed", result.passed)
+                .put("remarks", result.remarks));
+        return root.toString();
+    }
+
+    /**
+     * Outcomes stored on a report by {@link #toJson}; empty for none or unreadable JSON
+     */
+    static Map<String, ComplianceCheckResult> fromJson(String json) {
+        Map<String, ComplianceCheckResult> results = new LinkedHashMap<>();
+        if (json == null || json.isBlank()) return results;
+        try {
+            JsonNode root = JSON.readTree(json);
+            for (Iterator<Map.Entry<String, JsonNode>> it = root.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode passed = field.getValue().get("passed");
+                if (passed == null || !passed.isBoolean()) continue;
+                results.put(field.getKey(), new ComplianceCheckResult(passed.booleanValue(),
+                        field.getValue().path("remarks").asText(""), null));
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable compliance check results: {}", e.getMessage());
+            results.clear();
+        }
+        return results;
+    }
+}
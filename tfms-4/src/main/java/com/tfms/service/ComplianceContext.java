@@ -0,0 +1,53 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.TradeDocument;
+
+import java.util.List;
+
+/**
+ * Everything the compliance checks need for one transaction, loaded up front
+ * so that evaluating the checks never touches the database
+ */
+public final class ComplianceContext {
+
+    private final String transactionReference;
+    private final Object transaction;
+    private final List<TradeDocument> documents;
+    private final RiskAssessment latestRiskAssessment;
+
+    public ComplianceContext(String transactionReference, Object transaction,
+                             List<TradeDocument> documents, RiskAssessment latestRiskAssessment) {
+        this.transactionReference = transactionReference;
+        this.transaction = transaction;
+        this.documents = documents != null ? documents : List.of();
+        this.latestRiskAssessment = latestRiskAssessment;
+    }
+
+    public String getTransactionReference() {
+        return transactionReference;
+    }
+
+    /** The LetterOfCredit or BankGuarantee, or null if the reference is unknown */
+    public Object getTransaction() {
+        return transaction;
+    }
+
+    public LetterOfCredit getLetterOfCredit() {
+        return transaction instanceof LetterOfCredit ? (LetterOfCredit) transaction : null;
+    }
+
+    public BankGuarantee getBankGuarantee() {
+        return transaction instanceof BankGuarantee ? (BankGuarantee) transaction : null;
+    }
+
+    public List<TradeDocument> getDocuments() {
+        return documents;
+    }
+
+    public RiskAssessment getLatestRiskAssessment() {
+        return latestRiskAssessment;
+    }
+}
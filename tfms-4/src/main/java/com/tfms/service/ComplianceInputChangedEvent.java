@@ -0,0 +1,32 @@
+package com.tfms.service;
+
+/**
+ * Published when something a compliance check reads has changed for a transaction: the LC/BG terms, its trade
+ * documents or its risk score. {@link ComplianceReevaluationService} collects these and refreshes the stored report,
+ * re-running only the checks whose {@link ComplianceCheck#getInputs() inputs} changed.
+ */
+public class ComplianceInputChangedEvent {
+
+    public enum Input { TRANSACTION, DOCUMENTS, RISK }
+
+    private final String transactionReference;
+    private final Input input;
+
+    public ComplianceInputChangedEvent(String transactionReference, Input input) {
+        this.transactionReference = transactionReference;
+        this.input = input;
+    }
+
+    public String getTransactionReference() {
+        return transactionReference;
+    }
+
+    public Input getInput() {
+        return input;
+    }
+
+    @Override
+    public String toString() {
+        return transactionReference + " " + input;
+    }
+}
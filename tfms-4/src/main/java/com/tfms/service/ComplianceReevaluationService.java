@@ -0,0 +1,134 @@
+package com.tfms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps stored compliance reports current as their inputs change
+ *
+ * Listens for {@link ComplianceInputChangedEvent}s once their transaction has committed and, per transaction
+ * reference, waits for a quiet period ({@code tfms.compliance.reevaluation.quiet-period}) in which no further change
+ * arrives, so a burst of document uploads ends in one re-evaluation rather than one per upload. A steady stream of
+ * changes is still flushed after {@code max-delay}. The changed inputs of a burst are merged and only the checks
+ * reading them are re-run ({@link ComplianceService#reevaluate}). Re-evaluation runs on a single background thread,
+ * never on the request that made the change.
+ */
+@Slf4j
+@Service
+public class ComplianceReevaluationService {
+
+    private final ComplianceService complianceService;
+    private final long quietPeriodNanos;
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<String, PendingChange> pending = new ConcurrentHashMap<>();
+
+    private final Counter eventsReceived;
+    private final Counter refreshed;
+    private final Counter noReport;
+    private final Counter failed;
+
+    public ComplianceReevaluationService(ComplianceService complianceService,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${tfms.compliance.reevaluation.quiet-period:PT2S}") Duration quietPeriod,
+                                         @Value("${tfms.compliance.reevaluation.max-delay:PT30S}") Duration maxDelay) {
+        if (quietPeriod.isNegative() || maxDelay.compareTo(quietPeriod) < 0) {
+            throw new IllegalArgumentException("tfms.compliance.reevaluation: need 0 <= quiet-period <= max-delay");
+        }
+        this.complianceService = complianceService;
+        this.quietPeriodNanos = quietPeriod.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "compliance-reevaluation");
+            t.setDaemon(true);
+            return t;
+        });
+        this.eventsReceived = Counter.builder("tfms.compliance.reevaluation.events")
+                .description("Compliance input changes received")
+                .register(meterRegistry);
+        this.refreshed = reevaluations(meterRegistry, "refreshed");
+        this.noReport = reevaluations(meterRegistry, "no-report");
+        this.failed = reevaluations(meterRegistry, "failed");
+    }
+
+    private static Counter reevaluations(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("tfms.compliance.reevaluations")
+                .description("Debounced compliance re-evaluations, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInputChanged(ComplianceInputChangedEvent event) {
+        String reference = event.getTransactionReference();
+        if (reference == null || reference.isBlank()) return;
+        eventsReceived.increment();
+        long now = System.nanoTime();
+        pending.compute(reference, (key, change) -> {
+            PendingChange next = change != null ? change : new PendingChange(now);
+            next.inputs.add(event.getInput());
+            // restart the quiet period, but never past max-delay after the first change of the burst
+            if (next.flush != null) next.flush.cancel(false);
+            long delay = Math.min(quietPeriodNanos, next.firstChangeAt + maxDelayNanos - now);
+            next.flush = scheduler.schedule(() -> flush(key, next), Math.max(0, delay), TimeUnit.NANOSECONDS);
+            return next;
+        });
+    }
+
+    /**
+     * Number of transactions with changes waiting for their quiet period to end
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void flush(String reference, PendingChange change) {
+        // a flush cancelled too late, or one already done by an earlier timer of the same burst
+        if (!pending.remove(reference, change)) return;
+        Set<ComplianceInputChangedEvent.Input> inputs = EnumSet.copyOf(change.inputs);
+        try {
+            if (complianceService.reevaluate(reference, inputs)) {
+                refreshed.increment();
+                log.debug("Compliance report of {} refreshed for changed {}", reference, inputs);
+            } else {
+                noReport.increment();
+            }
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Compliance re-evaluation of {} failed", reference, e);
+        }
+    }
+
+    /**
+     * Changes to one transaction not yet flushed; only touched inside {@code pending.compute} until removed
+     */
+    private static final class PendingChange {
+        final long firstChangeAt;
+        final Set<ComplianceInputChangedEvent.Input> inputs = EnumSet.noneOf(ComplianceInputChangedEvent.Input.class);
+        ScheduledFuture<?> flush;
+
+        PendingChange(long firstChangeAt) {
+            this.firstChangeAt = firstChangeAt;
+        }
+    }
+}
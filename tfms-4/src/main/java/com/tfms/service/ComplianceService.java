@@ -1,24 +1,22 @@
 package com.tfms.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import com.tfms.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.tfms.model.BankGuarantee;
 import com.tfms.model.Compliance;
 import com.tfms.model.enums.ComplianceStatus;
 import com.tfms.model.LetterOfCredit;
-import com.tfms.model.RiskAssessment;
-import com.tfms.model.TradeDocument;
-import com.tfms.repository.BankGuaranteeRepository;
 import com.tfms.repository.ComplianceRepository;
-import com.tfms.repository.LetterOfCreditRepository;
-import com.tfms.repository.RiskAssessmentRepository;
 import com.tfms.repository.TradeDocumentRepository;
 
 @Service
@@ -28,16 +26,19 @@ public class ComplianceService {
     private ComplianceRepository complianceRepository;
 
     @Autowired
-    private LetterOfCreditRepository lcRepository;
+    private ReferenceLookupService referenceLookup;
 
     @Autowired
-    private BankGuaranteeRepository bgRepository;
+    private TradeDocumentRepository documentRepository;
 
     @Autowired
-    private TradeDocumentRepository documentRepository;
+    private CurrentRiskService currentRisk;
+
+    @Autowired
+    private ComplianceCheckPipeline checkPipeline;
 
     @Autowired
-    private RiskAssessmentRepository riskRepository;
+    private CountryRestrictionService countryRestrictions;
 
     // ========== CRUD Operations ==========
 
@@ -96,52 +97,76 @@ public class ComplianceService {
         Optional<Compliance> existing = complianceRepository.findByTransactionReference(transactionReference);
 
         Compliance compliance = existing.orElse(new Compliance());
-        compliance.setTransactionReference(transactionReference);
-        compliance.setReportDate(LocalDate.now());
-
-        StringBuilder remarks = new StringBuilder();
-        boolean isCompliant = true;
+        return complianceRepository.save(evaluate(compliance, loadContext(transactionReference), true));
+    }
 
-        // ===== CHECK 1: Validate Transaction Exists =====
-        Object transaction = findTransaction(transactionReference);
-        if (transaction == null) {
-            compliance.setComplianceStatus(ComplianceStatus.NON_COMPLIANT);
-            remarks.append("Transaction not found. ");
-            return complianceRepository.save(compliance);
+    /**
+     * Refresh the stored report of a transaction after some of its inputs changed, re-running only the checks
+     * that read them; the other checks keep their stored outcome. A report without stored outcomes (or missing
+     * some check) has the missing checks run too. A transaction without a report is left alone: the first report
+     * is still generated on request.
+     *
+     * @return whether a report was refreshed
+     */
+    public boolean reevaluate(String transactionReference, Set<ComplianceInputChangedEvent.Input> changed) {
+        Optional<Compliance> existing = complianceRepository.findByTransactionReference(transactionReference);
+        if (existing.isEmpty()) {
+            return false;
         }
+        Compliance compliance = existing.get();
+        Map<String, ComplianceCheckResult> stored = ComplianceCheckResult.fromJson(compliance.getCheckResults());
+        Predicate<ComplianceCheck> rerun = check -> !stored.containsKey(check.getName())
+                || !Collections.disjoint(check.getInputs(), changed);
+        complianceRepository.save(evaluate(compliance, loadContext(transactionReference), stored, rerun, false));
+        return true;
+    }
 
-        // Determine transaction type
-        if (transaction instanceof LetterOfCredit) {
-            compliance.setTransactionType("LC");
-            isCompliant = checkLCCompliance((LetterOfCredit) transaction, remarks);
-        } else if (transaction instanceof BankGuarantee) {
-            compliance.setTransactionType("BG");
-            isCompliant = checkBGCompliance((BankGuarantee) transaction, remarks);
-        }
+    /**
+     * Run every compliance check against prefetched data and record the outcome on {@code compliance}.
+     * Performs no database access, so the batch generator can call it from worker threads.
+     *
+     * @param parallelChecks run independent checks concurrently (see {@link ComplianceCheckPipeline})
+     */
+    Compliance evaluate(Compliance compliance, ComplianceContext context, boolean parallelChecks) {
+        return evaluate(compliance, context, Map.of(), check -> true, parallelChecks);
+    }
 
-        // ===== CHECK 2: Validate Required Documents =====
-        if (!checkDocumentsExist(transactionReference, remarks)) {
-            isCompliant = false;
-            compliance.setDocumentsValidated(false);
-        } else {
-            compliance.setDocumentsValidated(true);
-        }
+    /**
+     * @param stored outcomes reused for the checks {@code rerun} skips
+     */
+    private Compliance evaluate(Compliance compliance, ComplianceContext context,
+                                Map<String, ComplianceCheckResult> stored, Predicate<ComplianceCheck> rerun,
+                                boolean parallelChecks) {
+        compliance.setTransactionReference(context.getTransactionReference());
+        compliance.setReportDate(LocalDate.now());
 
-        // ===== CHECK 3: Check Risk Score =====
-        if (!checkRiskScore(transactionReference, remarks)) {
-            isCompliant = false;
-            compliance.setRiskCheckPassed(false);
-        } else {
-            compliance.setRiskCheckPassed(true);
+        // Without the transaction there is nothing to check
+        Object transaction = context.getTransaction();
+        if (transaction == null) {
+            compliance.setComplianceStatus(ComplianceStatus.NON_COMPLIANT);
+            compliance.setRemarks("Transaction not found. ");
+            compliance.setCheckResults(null);
+            return compliance;
         }
+        compliance.setTransactionType(transaction instanceof LetterOfCredit ? "LC" : "BG");
 
-        // ===== CHECK 4: Check Country Restrictions =====
-        if (!checkCountryRestrictions(transactionReference, remarks)) {
-            isCompliant = false;
-            compliance.setCountryCheckPassed(false);
-        } else {
-            compliance.setCountryCheckPassed(true);
+        StringBuilder remarks = new StringBuilder();
+        boolean isCompliant = true;
+        List<String> names = checkPipeline.getCheckNames();
+        List<ComplianceCheckResult> results = checkPipeline.evaluate(context, rerun, parallelChecks);
+        Map<String, ComplianceCheckResult> outcomes = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            ComplianceCheckResult result = results.get(i);
+            if (result != null) {
+                result.recordOn(compliance);
+            } else {
+                result = stored.get(names.get(i));
+            }
+            outcomes.put(names.get(i), result);
+            remarks.append(result.getRemarks());
+            isCompliant &= result.isPassed();
         }
+        compliance.setCheckResults(ComplianceCheckResult.toJson(outcomes));
 
         // Set final status based on all checks
         if (isCompliant) {
@@ -165,185 +190,24 @@ public class ComplianceService {
         if (compliance.getReviewDate() == null) {
             compliance.setReviewDate(LocalDate.now());
         }
-        return complianceRepository.save(compliance);
-    }
-
-    /**
-     * Check 1: Validate Letter of Credit
-     */
-    private boolean checkLCCompliance(LetterOfCredit lc, StringBuilder remarks) {
-        boolean isValid = true;
-
-        // Check LC is not expired
-        if (lc.getExpiryDate() != null && lc.getExpiryDate().isBefore(LocalDate.now())) {
-            remarks.append("LC has expired. ");
-            isValid = false;
-        }
-
-        // Check amount is positive
-        if (lc.getAmount() == null || lc.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            remarks.append("Invalid LC amount. ");
-            isValid = false;
-        }
-
-        // Check beneficiary exists and is not null
-        if (lc.getBeneficiaryName() == null || lc.getBeneficiaryName().trim().isEmpty()) {
-            remarks.append("Beneficiary name is missing. ");
-            isValid = false;
-        }
-
-        return isValid;
-    }
-
-    /**
-     * Check 1: Validate Bank Guarantee
-     */
-    private boolean checkBGCompliance(BankGuarantee bg, StringBuilder remarks) {
-        boolean isValid = true;
-
-        // Check validity period
-        if (bg.getValidityPeriod() != null && bg.getValidityPeriod().isBefore(LocalDate.now())) {
-            remarks.append("Guarantee validity period has expired. ");
-            isValid = false;
-        }
-
-        // Check guarantee amount
-        if (bg.getGuaranteeAmount() == null || bg.getGuaranteeAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            remarks.append("Invalid guarantee amount. ");
-            isValid = false;
-        }
-
-        // Check beneficiary
-        if (bg.getBeneficiaryName() == null || bg.getBeneficiaryName().trim().isEmpty()) {
-            remarks.append("Beneficiary name is missing. ");
-            isValid = false;
-        }
-
-        return isValid;
-    }
-
-    /**
-     * Check 2: Validate Required Documents Exist
-     */
-    private boolean checkDocumentsExist(String transactionReference, StringBuilder remarks) {
-        // Fetch all documents for this transaction
-        List<TradeDocument> documents = documentRepository.findByTradeReferenceNumber(transactionReference);
-
-        if (documents == null || documents.isEmpty()) {
-            remarks.append("No trade documents found for this transaction. ");
-            return false;
-        }
-
-        boolean hasInvoice = false;
-        boolean hasBOL = false; // Bill of Lading
-
-        for (TradeDocument doc : documents) {
-            String docType = doc.getDocumentType().toUpperCase();
-            if (docType.contains("INVOICE")) {
-                hasInvoice = true;
-            }
-            if (docType.contains("BILL OF LADING") || docType.contains("BOL")) {
-                hasBOL = true;
-            }
-        }
-
-        if (!hasInvoice) {
-            remarks.append("Invoice document is missing. ");
-            return false;
-        }
-
-        if (!hasBOL) {
-            remarks.append("Bill of Lading is missing. ");
-            return false;
-        }
-
-        remarks.append("Required documents present. ");
-        return true;
+        return compliance;
     }
 
-    /**
-     * Check 3: Validate Risk Score
-     */
-    private boolean checkRiskScore(String transactionReference, StringBuilder remarks) {
-        Optional<RiskAssessment> riskOpt = riskRepository.findFirstByTransactionReferenceOrderByAssessmentDateDesc(transactionReference);
-
-        if (!riskOpt.isPresent()) {
-            remarks.append("No risk assessment found. ");
-            return true; // Allow if no risk assessment (can be optional)
-        }
-
-        RiskAssessment risk = riskOpt.get();
-        BigDecimal riskScore = risk.getRiskScore();
-
-        if (riskScore == null) {
-            return true;
-        }
-
-        // If risk score > 70, mark as non-compliant or needs escalation
-        if (riskScore.compareTo(new BigDecimal("70")) > 0) {
-            remarks.append("High risk score detected (").append(riskScore).append("). Requires escalation. ");
-            return false;
-        }
-
-        // Moderate risk (50-70) is acceptable but noted
-        if (riskScore.compareTo(new BigDecimal("50")) > 0) {
-            remarks.append("Moderate risk detected (").append(riskScore).append("). ");
-        } else {
-            remarks.append("Risk assessment passed. ");
-        }
-
-        return true;
-    }
-
-    /**
-     * Check 4: Validate Country Restrictions
-     */
-    private boolean checkCountryRestrictions(String transactionReference, StringBuilder remarks) {
-        Object transaction = findTransaction(transactionReference);
-        String country = null;
-
-        if (transaction instanceof LetterOfCredit) {
-            // Could extract from beneficiary name or add country field
-            country = "Unknown"; // In real system, would extract from beneficiary info
-        } else if (transaction instanceof BankGuarantee) {
-            country = "Unknown";
-        }
-
-        // Hardcoded restricted countries for demo
-        String[] restrictedCountries = {"IRAN", "NORTH KOREA", "SYRIA"};
-
-        if (country != null) {
-            for (String restricted : restrictedCountries) {
-                if (country.toUpperCase().contains(restricted)) {
-                    remarks.append("Beneficiary country is in restricted list. ");
-                    return false;
-                }
-            }
-        }
+    // ========== Helper Methods ==========
 
-        remarks.append("Country check passed. ");
-        return true;
+    private ComplianceContext loadContext(String transactionReference) {
+        return new ComplianceContext(transactionReference,
+                findTransaction(transactionReference),
+                documentRepository.findByTradeReferenceNumber(transactionReference),
+                currentRisk.find(transactionReference).orElse(null));
     }
 
-    // ========== Helper Methods ==========
-
     /**
      * Find transaction by reference (LC or BG)
      */
     private Object findTransaction(String reference) {
-        // Try to find as LC
-        Optional<LetterOfCredit> lc = lcRepository.findByReferenceNumber(reference);
-        if (lc.isPresent()) {
-            return lc.get();
-        }
-
-        // Try to find as BG
-        Optional<BankGuarantee> bg = bgRepository.findByReferenceNumber(reference);
-        if (bg.isPresent()) {
-            return bg.get();
-        }
-
-        return null;
+        // LC first, then BG; served from the reference snapshot cache
+        return referenceLookup.findTransaction(reference).orElse(null);
     }
 
     /**
@@ -364,7 +228,8 @@ public class ComplianceService {
         compliance.setTransactionReference(transactionRef);
         compliance.setReportDate(LocalDate.now());
 
-        if ("SANCTIONED_COUNTRY".equalsIgnoreCase(country)) {
+        if ("SANCTIONED_COUNTRY".equalsIgnoreCase(country)
+                || countryRestrictions.current().level(country) == CountryRestrictions.EMBARGOED) {
             compliance.setComplianceStatus(ComplianceStatus.NON_COMPLIANT);
             compliance.setRemarks("Country is under sanctions");
         } else if ("RESTRICTED_GOODS".equalsIgnoreCase(goodsType)) {
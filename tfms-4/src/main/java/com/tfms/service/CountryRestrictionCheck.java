@@ -0,0 +1,81 @@
+package com.tfms.service;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Check 4: party countries against the embargoed and high-risk country lists
+ * An embargoed or unrecognised country fails the check; a high-risk one passes with a note
+ */
+@Component
+@Order(4)
+public class CountryRestrictionCheck implements ComplianceCheck {
+
+    private final CountryRestrictionService countryRestrictions;
+
+    public CountryRestrictionCheck(CountryRestrictionService countryRestrictions) {
+        this.countryRestrictions = countryRestrictions;
+    }
+
+    @Override
+    public String getName() {
+        return "country";
+    }
+
+    @Override
+    public Set<ComplianceInputChangedEvent.Input> getInputs() {
+        return Set.of(ComplianceInputChangedEvent.Input.TRANSACTION);
+    }
+
+    @Override
+    public ComplianceCheckResult evaluate(ComplianceContext context) {
+        String applicantCountry;
+        String beneficiaryCountry;
+        if (context.getLetterOfCredit() != null) {
+            applicantCountry = context.getLetterOfCredit().getApplicantCountry();
+            beneficiaryCountry = context.getLetterOfCredit().getBeneficiaryCountry();
+        } else {
+            applicantCountry = context.getBankGuarantee().getApplicantCountry();
+            beneficiaryCountry = context.getBankGuarantee().getBeneficiaryCountry();
+        }
+
+        StringBuilder remarks = new StringBuilder();
+        boolean passed = true;
+        if (applicantCountry == null && beneficiaryCountry == null) {
+            remarks.append("Party countries not recorded, country check skipped. ");
+        } else {
+            // one snapshot of the lists for both parties, even if they are reloaded meanwhile
+            CountryRestrictions restrictions = countryRestrictions.current();
+            passed = checkCountry(restrictions, "Applicant", applicantCountry, remarks);
+            passed = checkCountry(restrictions, "Beneficiary", beneficiaryCountry, remarks) && passed;
+            if (passed) {
+                remarks.append("Country check passed. ");
+            }
+        }
+        boolean countryCheckPassed = passed;
+        return ComplianceCheckResult.of(passed, remarks.toString(),
+                compliance -> compliance.setCountryCheckPassed(countryCheckPassed));
+    }
+
+    private static boolean checkCountry(CountryRestrictions restrictions, String party, String country,
+                                        StringBuilder remarks) {
+        if (country == null) {
+            return true;
+        }
+        if (!CountryRestrictions.isCountryCode(country)) {
+            remarks.append(party).append(" country ").append(country).append(" is not an ISO 3166 country code. ");
+            return false;
+        }
+        int level = restrictions.level(country);
+        if (level == CountryRestrictions.EMBARGOED) {
+            remarks.append(party).append(" country ").append(country).append(" is in restricted list. ");
+            return false;
+        }
+        if (level == CountryRestrictions.HIGH_RISK) {
+            remarks.append(party).append(" country ").append(country).append(" is high-risk, enhanced due diligence required. ");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the embargoed and high-risk country lists and hot-reloads them from
+ * {@code tfms.countries.restrictions-location}
+ *
+ * The lists are compiled into an immutable {@link CountryRestrictions} and swapped in atomically when the file
+ * changes; a file that fails to compile is rejected at startup and, on a later reload, logged while the previous
+ * lists stay active. Without a configured location the bundled country-restrictions.properties is used. Lookups
+ * are in-memory only, so the compliance checks and risk scoring can call them from worker threads.
+ */
+@Slf4j
+@Service
+public class CountryRestrictionService {
+
+    static final String BUNDLED_LIST = "classpath:country-restrictions.properties";
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final AtomicReference<CountryRestrictions> current = new AtomicReference<>();
+    private final Counter reloads;
+    private final Counter rejected;
+
+    private volatile long loadedLastModified = -1;
+    private volatile LocalDateTime loadedAt;
+
+    public CountryRestrictionService(ResourceLoader resourceLoader,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${tfms.countries.restrictions-location:}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location == null ? "" : location.trim();
+        this.reloads = Counter.builder("tfms.countries.reloads").tag("outcome", "applied").register(meterRegistry);
+        this.rejected = Counter.builder("tfms.countries.reloads").tag("outcome", "rejected").register(meterRegistry);
+        reload();
+        Gauge.builder("tfms.countries.embargoed", this, s -> s.current.get().embargoedCount()).register(meterRegistry);
+        Gauge.builder("tfms.countries.high-risk", this, s -> s.current.get().highRiskCount()).register(meterRegistry);
+    }
+
+    /**
+     * The active lists; hold on to them for the whole of one check
+     */
+    CountryRestrictions current() {
+        return current.get();
+    }
+
+    /**
+     * Country risk level of an LC or BG (the riskier of applicant and beneficiary country); anything else is unrated
+     */
+    public int countryLevel(Object transaction) {
+        if (transaction instanceof LetterOfCredit lc) {
+            return current().level(lc.getApplicantCountry(), lc.getBeneficiaryCountry());
+        }
+        if (transaction instanceof BankGuarantee bg) {
+            return current().level(bg.getApplicantCountry(), bg.getBeneficiaryCountry());
+        }
+        return CountryRestrictions.UNRATED;
+    }
+
+    /**
+     * Re-read a configured list file if it changed since the last load
+     */
+    @Scheduled(fixedDelayString = "${tfms.countries.reload-interval:PT5M}")
+    public void reloadIfModified() {
+        if (location.isEmpty()) return;
+        try {
+            if (resourceLoader.getResource(location).lastModified() != loadedLastModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Country restrictions in {} rejected, keeping {}: {}", location, getSource(), e.getMessage());
+        }
+    }
+
+    /**
+     * Load, compile and swap in the country lists
+     *
+     * @throws IllegalArgumentException if the lists do not compile; the active lists are left unchanged
+     */
+    public synchronized void reload() {
+        String source = location.isEmpty() ? BUNDLED_LIST : location;
+        try {
+            Resource resource = resourceLoader.getResource(source);
+            long lastModified = resource.isFile() ? resource.lastModified() : 0;
+            Properties props = new Properties();
+            try (InputStream in = resource.getInputStream()) {
+                props.load(in);
+            }
+            CountryRestrictions next = CountryRestrictions.parse(source, props);
+            current.set(next);
+            loadedLastModified = lastModified;
+            loadedAt = LocalDateTime.now();
+            reloads.increment();
+            log.info("Country restrictions loaded from {}: {} embargoed, {} high-risk",
+                    source, next.embargoedCount(), next.highRiskCount());
+        } catch (IOException e) {
+            rejected.increment();
+            throw new UncheckedIOException("Cannot read country restrictions from " + source, e);
+        } catch (RuntimeException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public String getSource() {
+        return current().getSource();
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,128 @@
+package com.tfms.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Immutable embargoed and high-risk country sets, compiled from country-restrictions.properties
+ *
+ * Countries are numbered by their ordinal in the sorted list of ISO 3166 alpha-2 codes; a two-letter code maps to
+ * its ordinal through a 26x26 table, and each set is a bitset over the ordinals, so classifying a country is two
+ * array reads and no hashing or string comparison.
+ */
+final class CountryRestrictions {
+
+    /** No party country recorded */
+    static final int UNRATED = 0;
+    static final int UNRESTRICTED = 1;
+    /** High-risk country, or a code that is not ISO 3166 and so cannot be checked */
+    static final int HIGH_RISK = 2;
+    static final int EMBARGOED = 3;
+
+    private static final String[] CODES = Locale.getISOCountries();
+    private static final short[] ORDINAL_BY_LETTERS = new short[26 * 26];
+
+    static {
+        Arrays.sort(CODES);
+        Arrays.fill(ORDINAL_BY_LETTERS, (short) -1);
+        for (int i = 0; i < CODES.length; i++) {
+            ORDINAL_BY_LETTERS[letters(CODES[i])] = (short) i;
+        }
+    }
+
+    private final String source;
+    private final long[] embargoed = new long[(CODES.length + 63) / 64];
+    private final long[] highRisk = new long[(CODES.length + 63) / 64];
+    private final int embargoedCount;
+    private final int highRiskCount;
+
+    private CountryRestrictions(String source, String[] embargoedCodes, String[] highRiskCodes) {
+        this.source = source;
+        this.embargoedCount = fill(embargoed, "embargoed", embargoedCodes);
+        this.highRiskCount = fill(highRisk, "high-risk", highRiskCodes);
+    }
+
+    /**
+     * Compile the {@code embargoed} and {@code high-risk} code lists; a country in both counts as embargoed
+     *
+     * @throws IllegalArgumentException if a list is missing or holds something other than an ISO 3166 alpha-2 code
+     */
+    static CountryRestrictions parse(String source, Properties props) {
+        return new CountryRestrictions(source, list(props, "embargoed"), list(props, "high-risk"));
+    }
+
+    /**
+     * Whether {@code code} is an upper-case ISO 3166 alpha-2 country code
+     */
+    static boolean isCountryCode(String code) {
+        return ordinal(code) >= 0;
+    }
+
+    /**
+     * Risk level of one country: {@link #UNRATED} for none, {@link #UNRESTRICTED}, {@link #HIGH_RISK} or
+     * {@link #EMBARGOED}
+     */
+    int level(String code) {
+        if (code == null || code.isEmpty()) return UNRATED;
+        int ordinal = ordinal(code);
+        if (ordinal < 0) return HIGH_RISK;
+        if (contains(embargoed, ordinal)) return EMBARGOED;
+        if (contains(highRisk, ordinal)) return HIGH_RISK;
+        return UNRESTRICTED;
+    }
+
+    /**
+     * The riskier of two party countries
+     */
+    int level(String applicantCountry, String beneficiaryCountry) {
+        return Math.max(level(applicantCountry), level(beneficiaryCountry));
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    int embargoedCount() {
+        return embargoedCount;
+    }
+
+    int highRiskCount() {
+        return highRiskCount;
+    }
+
+    private static int ordinal(String code) {
+        int letters = code == null || code.length() != 2 ? -1 : letters(code);
+        return letters < 0 ? -1 : ORDINAL_BY_LETTERS[letters];
+    }
+
+    private static int letters(String code) {
+        int first = code.charAt(0) - 'A';
+        int second = code.charAt(1) - 'A';
+        if (first < 0 || first >= 26 || second < 0 || second >= 26) return -1;
+        return first * 26 + second;
+    }
+
+    private static boolean contains(long[] bits, int ordinal) {
+        return (bits[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    private static int fill(long[] bits, String key, String[] codes) {
+        int count = 0;
+        for (String code : codes) {
+            int ordinal = ordinal(code);
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Country restriction " + key + " has an unknown ISO 3166 code: " + code);
+            }
+            if (!contains(bits, ordinal)) count++;
+            bits[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return count;
+    }
+
+    private static String[] list(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null) throw new IllegalArgumentException("Missing country restriction list " + key);
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toArray(String[]::new);
+    }
+}
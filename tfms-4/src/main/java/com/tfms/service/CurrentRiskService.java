@@ -0,0 +1,184 @@
+package com.tfms.service;
+
+import com.tfms.model.CurrentRiskAssessment;
+import com.tfms.model.RiskAssessment;
+import com.tfms.repository.CurrentRiskAssessmentRepository;
+import com.tfms.repository.RiskAssessmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains and reads the current risk assessment of each transaction
+ *
+ * The newest assessment is recorded in current_risk_assessment whenever the risk services save or delete one,
+ * inside the same transaction. "Newest" is the latest createdAt, ties broken by riskId: ids come from pooled
+ * sequence blocks, so with several nodes a higher id is not necessarily a later assessment. Single lookups are
+ * a primary key join, bulk lookups one IN query. Assessments written without going through the services get
+ * their pointer from {@link #backfill()} at startup.
+ */
+@Slf4j
+@Service
+@Transactional
+public class CurrentRiskService {
+
+    private static final int BACKFILL_CHUNK = 500;
+
+    // (createdAt, riskId) ascending; assessments without a createdAt (never persisted through JPA) sort first
+    static final Comparator<RiskAssessment> NEWEST_LAST = Comparator
+            .comparing(RiskAssessment::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(RiskAssessment::getRiskId);
+
+    private static final String INSERT_POINTER =
+            "INSERT INTO current_risk_assessment (transaction_reference, risk_id, updated_at) VALUES (?, ?, ?)";
+
+    private final CurrentRiskAssessmentRepository currentRepository;
+    private final RiskAssessmentRepository riskRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CurrentRiskService(CurrentRiskAssessmentRepository currentRepository,
+                              RiskAssessmentRepository riskRepository,
+                              JdbcTemplate jdbcTemplate) {
+        this.currentRepository = currentRepository;
+        this.riskRepository = riskRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RiskAssessment> find(String transactionReference) {
+        return currentRepository.findAssessment(transactionReference);
+    }
+
+    /**
+     * Current assessment of each reference that has one; references without an assessment are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<String, RiskAssessment> findAll(Collection<String> transactionReferences) {
+        if (transactionReferences.isEmpty()) return Map.of();
+        return currentRepository.findAssessmentsIn(transactionReferences).stream()
+                .collect(Collectors.toMap(RiskAssessment::getTransactionReference, Function.identity()));
+    }
+
+    /**
+     * Make a just-saved assessment current unless a newer one already is. The pointer row is inserted if absent and
+     * then locked, so concurrent assessments of the same transaction - including its first ones - settle on the newest.
+     */
+    public void advance(RiskAssessment saved) {
+        String reference = saved.getTransactionReference();
+        Optional<CurrentRiskAssessment> current = currentRepository.findForUpdate(reference);
+        if (current.isEmpty()) {
+            // first assessment of the transaction: create the pointer, or - if a concurrent first assessment got
+            // there first - wait for it to commit; either way the row now exists and can be locked
+            insertIfAbsent(reference, saved.getRiskId());
+            current = currentRepository.findForUpdate(reference);
+        }
+        current.ifPresent(pointer -> moveIfNewer(pointer, saved));
+    }
+
+    /**
+     * {@link #advance} for a batch of saved assessments of distinct transactions, locking all existing pointers
+     * in one read
+     */
+    public void advanceAll(Collection<RiskAssessment> saved) {
+        if (saved.isEmpty()) return;
+        Map<String, CurrentRiskAssessment> pointers = new HashMap<>();
+        currentRepository.findAllForUpdate(saved.stream().map(RiskAssessment::getTransactionReference).toList())
+                .forEach(pointer -> pointers.put(pointer.getTransactionReference(), pointer));
+        List<RiskAssessment> inOrder = saved.stream()
+                .sorted(Comparator.comparing(RiskAssessment::getTransactionReference)).toList();
+        for (RiskAssessment assessment : inOrder) {
+            String reference = assessment.getTransactionReference();
+            CurrentRiskAssessment pointer = pointers.get(reference);
+            if (pointer == null) {
+                insertIfAbsent(reference, assessment.getRiskId());
+                pointer = currentRepository.findForUpdate(reference).orElse(null);
+            }
+            if (pointer != null) moveIfNewer(pointer, assessment);
+        }
+    }
+
+    /**
+     * Call before deleting an assessment: if it is current, the next newest one of the transaction takes its place
+     */
+    public void retract(RiskAssessment deleted) {
+        currentRepository.findForUpdate(deleted.getTransactionReference())
+                .filter(pointer -> pointer.getAssessment().getRiskId().equals(deleted.getRiskId()))
+                .ifPresent(pointer -> riskRepository
+                        .findFirstByTransactionReferenceAndRiskIdNotOrderByCreatedAtDescRiskIdDesc(deleted.getTransactionReference(), deleted.getRiskId())
+                        .ifPresentOrElse(pointer::setAssessment, () -> currentRepository.delete(pointer)));
+    }
+
+    /**
+     * Insert the pointer of a transaction's first assessment. A concurrent first insert of the same reference waits
+     * on the key until the other transaction ends and then fails as a duplicate, which only rolls back to a savepoint
+     * taken just before; callers lock and re-read the row either way. The insert runs as plain JDBC on the
+     * transaction's connection so that the duplicate never reaches the persistence context, which would mark the
+     * whole transaction rollback-only. (On MySQL the failed insert keeps a shared lock on the key: three or more
+     * simultaneous first assessments of one reference can deadlock, and InnoDB then aborts one of them with a
+     * retryable error.)
+     */
+    private void insertIfAbsent(String reference, Long riskId) {
+        // the assessment the new row points at must be written first
+        currentRepository.flush();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_POINTER)) {
+                insert.setString(1, reference);
+                insert.setLong(2, riskId);
+                insert.setObject(3, LocalDateTime.now());
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                if (!(jdbcTemplate.getExceptionTranslator().translate("insert current risk pointer", INSERT_POINTER, e)
+                        instanceof DuplicateKeyException)) {
+                    throw e;
+                }
+                log.debug("Current risk pointer of {} was created by a concurrent assessment", reference);
+                return null;
+            }
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    private static void moveIfNewer(CurrentRiskAssessment pointer, RiskAssessment candidate) {
+        if (NEWEST_LAST.compare(pointer.getAssessment(), candidate) < 0) {
+            pointer.setAssessment(candidate);
+        }
+    }
+
+    /**
+     * Create pointers for transactions whose assessments were written without one (seed data, imports)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> ids = currentRepository.findLatestIdsWithoutCurrent();
+        for (int from = 0; from < ids.size(); from += BACKFILL_CHUNK) {
+            List<RiskAssessment> latest = riskRepository.findAllById(ids.subList(from, Math.min(from + BACKFILL_CHUNK, ids.size())));
+            currentRepository.saveAll(latest.stream()
+                    .map(assessment -> new CurrentRiskAssessment(assessment.getTransactionReference(), assessment))
+                    .toList());
+        }
+        if (!ids.isEmpty()) {
+            log.info("Current risk pointers created for {} transactions", ids.size());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tfms.service;
+
+import com.tfms.model.TradeDocument;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Check 2: an invoice and a bill of lading have been uploaded for the transaction
+ */
+@Component
+@Order(2)
+public class DocumentsCheck implements ComplianceCheck {
+
+    @Override
+    public String getName() {
+        return "documents";
+    }
+
+    @Override
+    public Set<ComplianceInputChangedEvent.Input> getInputs() {
+        return Set.of(ComplianceInputChangedEvent.Input.DOCUMENTS);
+    }
+
+    @Override
+    public ComplianceCheckResult evaluate(ComplianceContext context) {
+        StringBuilder remarks = new StringBuilder();
+        boolean passed = checkDocumentsExist(context.getDocuments(), remarks);
+        return ComplianceCheckResult.of(passed, remarks.toString(), compliance -> compliance.setDocumentsValidated(passed));
+    }
+
+    private static boolean checkDocumentsExist(List<TradeDocument> documents, StringBuilder remarks) {
+        if (documents.isEmpty()) {
+            remarks.append("No trade documents found for this transaction. ");
+            return false;
+        }
+
+        boolean hasInvoice = false;
+        boolean hasBOL = false; // Bill of Lading
+
+        for (TradeDocument doc : documents) {
+            String docType = doc.getDocumentType().toUpperCase();
+            if (docType.contains("INVOICE")) {
+                hasInvoice = true;
+            }
+            if (docType.contains("BILL OF LADING") || docType.contains("BOL")) {
+                hasBOL = true;
+            }
+        }
+
+        if (!hasInvoice) {
+            remarks.append("Invoice document is missing. ");
+            return false;
+        }
+
+        if (!hasBOL) {
+            remarks.append("Bill of Lading is missing. ");
+            return false;
+        }
+
+        remarks.append("Required documents present. ");
+        return true;
+    }
+}
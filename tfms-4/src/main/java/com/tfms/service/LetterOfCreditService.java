@@ -2,25 +2,103 @@ package com.tfms.service;
 
 import com.tfms.exception.InvalidStateException;
 import com.tfms.exception.ResourceNotFoundException;
+import com.tfms.model.BulkActionResult;
+import com.tfms.model.KeysetPage;
 import com.tfms.model.LetterOfCredit;
+import com.tfms.model.LetterOfCreditFilter;
+import com.tfms.model.PageCursor;
+import com.tfms.model.StatusCounts;
 import com.tfms.model.enums.LCStatus;
 import com.tfms.repository.LetterOfCreditRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class LetterOfCreditService {
+
+    /** Statuses an officer still has to act on */
+    public static final List<LCStatus> PENDING_APPROVAL_STATUSES = List.of(LCStatus.SUBMITTED, LCStatus.UNDER_VERIFICATION);
+
+    private static final Comparator<LetterOfCredit> NEWEST_FIRST = Comparator
+            .comparing(LetterOfCredit::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(LetterOfCredit::getLcId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    /**
+     * Statuses each LC status may be entered from, following the actions the LC views offer; an LC can be amended
+     * (edited) in any status until it is closed
+     */
+    static final StatusTransitions<LCStatus> TRANSITIONS = new StatusTransitions<>(LCStatus.class)
+            .allow(LCStatus.SUBMITTED, LCStatus.DRAFT, LCStatus.AMENDED, LCStatus.REJECTED)
+            .allow(LCStatus.UNDER_VERIFICATION, LCStatus.SUBMITTED, LCStatus.SENT_TO_RISK)
+            .allow(LCStatus.SENT_TO_RISK, LCStatus.SUBMITTED, LCStatus.UNDER_VERIFICATION)
+            .allow(LCStatus.APPROVED, LCStatus.SUBMITTED, LCStatus.UNDER_VERIFICATION)
+            .allow(LCStatus.REJECTED, LCStatus.SUBMITTED, LCStatus.UNDER_VERIFICATION, LCStatus.SENT_TO_RISK)
+            .allowFromAllExcept(LCStatus.AMENDED, LCStatus.CLOSED)
+            .allow(LCStatus.OPEN, LCStatus.APPROVED)
+            .allow(LCStatus.CLOSED, LCStatus.APPROVED, LCStatus.OPEN);
+
+    /**
+     * Officer actions that can be applied to many LCs at once, see {@link #bulkAction}
+     */
+    public enum BulkAction {
+        APPROVE(LCStatus.APPROVED, "approve"),
+        REJECT(LCStatus.REJECTED, "reject"),
+        SEND_TO_RISK(LCStatus.SENT_TO_RISK, "send to risk");
+
+        private final LCStatus target;
+        private final String label;
+
+        BulkAction(LCStatus target, String label) {
+            this.target = target;
+            this.label = label;
+        }
+
+        /** Accepts the constant or its URL spelling, e.g. "send-to-risk" */
+        public static BulkAction parse(String action) {
+            if (action != null) {
+                for (BulkAction candidate : values()) {
+                    if (candidate.name().equalsIgnoreCase(action.trim().replace('-', '_'))) return candidate;
+                }
+            }
+            throw new IllegalArgumentException("Unknown bulk LC action '" + action + "', expected one of "
+                    + List.of(values()));
+        }
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
     
     private final LetterOfCreditRepository lcRepository;
+    private final PartyNameIndex partyNameIndex;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BulkTransitionRunner bulkTransitionRunner;
 
-    public LetterOfCreditService(LetterOfCreditRepository lcRepository) {
+    public LetterOfCreditService(LetterOfCreditRepository lcRepository, PartyNameIndex partyNameIndex,
+                                 ReferenceNumberGenerator referenceNumberGenerator,
+                                 ApplicationEventPublisher eventPublisher,
+                                 BulkTransitionRunner bulkTransitionRunner) {
         this.lcRepository = lcRepository;
+        this.partyNameIndex = partyNameIndex;
+        this.referenceNumberGenerator = referenceNumberGenerator;
+        this.eventPublisher = eventPublisher;
+        this.bulkTransitionRunner = bulkTransitionRunner;
     }
     
     /**
@@ -29,132 +107,118 @@ public class LetterOfCreditService {
     public LetterOfCredit createLetterOfCredit(LetterOfCredit lc, String createdBy) {
         lc.setCreatedBy(createdBy);
         lc.setReferenceNumber(generateReferenceNumber());
-        lc.setStatus(LCStatus.DRAFT);
-        return lcRepository.save(lc);
+        changeStatus(lc, LCStatus.DRAFT);
+        LetterOfCredit saved = save(lc, ReferenceChangedEvent.ChangeType.CREATED);
+        reindexAfterCommit(saved);
+        return saved;
     }
     
     /**
      * Submit LC for verification
      */
     public LetterOfCredit submitForVerification(Long lcId) {
-        LetterOfCredit lc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new  ResourceNotFoundException("LetterOfCredit", "id", lcId));
-        if (lc.getStatus() == LCStatus.CLOSED) {
-            throw new  InvalidStateException("LetterOfCredit", lc.getStatus().name(), "submit");
-        }
-        lc.setStatus(LCStatus.SUBMITTED);
-        return lcRepository.save(lc);
+        return transition(lcId, LCStatus.SUBMITTED, "submit");
     }
     
     /**
      * Start verification process
      */
     public LetterOfCredit startVerification(Long lcId) {
-        LetterOfCredit lc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new  ResourceNotFoundException("LetterOfCredit", "id", lcId));
-        if (lc.getStatus() != LCStatus.SUBMITTED) {
-            throw new  InvalidStateException("LetterOfCredit", lc.getStatus() != null ? lc.getStatus().name() : "UNKNOWN", "start verification");
-        }
-        lc.setStatus(LCStatus.UNDER_VERIFICATION);
-        return lcRepository.save(lc);
+        return transition(lcId, LCStatus.UNDER_VERIFICATION, "start verification");
     }
     
     /**
      * Approve LC - Officer only
      */
     public LetterOfCredit approveLetterOfCredit(Long lcId) {
-        LetterOfCredit lc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new  ResourceNotFoundException("LetterOfCredit", "id", lcId));
-        if (!(lc.getStatus() == LCStatus.SUBMITTED || lc.getStatus() == LCStatus.UNDER_VERIFICATION)) {
-            throw new  InvalidStateException("LetterOfCredit", lc.getStatus() != null ? lc.getStatus().name() : "UNKNOWN", "approve");
-        }
-        lc.setStatus(LCStatus.APPROVED);
-        lc.setIssueDate(LocalDate.now());
-        return lcRepository.save(lc);
+        LetterOfCredit lc = find(lcId);
+        LCStatus from = checkTransition(lc, LCStatus.APPROVED, "approve");
+        LocalDate issueDate = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        applied(lc, lcRepository.updateStatusAndIssueDate(lcId, allowedFrom(LCStatus.APPROVED), LCStatus.APPROVED,
+                issueDate, now), "approve");
+        lc.setIssueDate(issueDate);
+        return transitioned(lc, from, LCStatus.APPROVED, now);
     }
     
     /**
      * Reject LC - Officer only
      */
     public LetterOfCredit rejectLetterOfCredit(Long lcId, String reason) {
-        LetterOfCredit lc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new  ResourceNotFoundException("LetterOfCredit", "id", lcId));
-        if (lc.getStatus() == LCStatus.CLOSED) {
-            throw new  InvalidStateException("LetterOfCredit", lc.getStatus().name(), "reject");
-        }
-        lc.setStatus(LCStatus.REJECTED);
-        String prev = lc.getDescription() == null ? "" : lc.getDescription();
-        lc.setDescription(prev + " | Rejection Reason: " + reason);
-        return lcRepository.save(lc);
+        LetterOfCredit lc = find(lcId);
+        LCStatus from = checkTransition(lc, LCStatus.REJECTED, "reject");
+        String note = " | Rejection Reason: " + reason;
+        LocalDateTime now = LocalDateTime.now();
+        applied(lc, lcRepository.updateStatusWithNote(lcId, allowedFrom(LCStatus.REJECTED), LCStatus.REJECTED,
+                note, now), "reject");
+        lc.setDescription((lc.getDescription() == null ? "" : lc.getDescription()) + note);
+        return transitioned(lc, from, LCStatus.REJECTED, now);
     }
     
     /**
      * Amend LC
      */
     public LetterOfCredit amendLetterOfCredit(Long lcId, LetterOfCredit updatedLc) {
-        LetterOfCredit existingLc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new  ResourceNotFoundException("LetterOfCredit", "id", lcId));
-
-        if (existingLc.getStatus() == LCStatus.CLOSED) {
-            throw new  InvalidStateException("LetterOfCredit", existingLc.getStatus().name(), "amend");
-        }
+        LetterOfCredit existingLc = find(lcId);
+        LCStatus from = checkTransition(existingLc, LCStatus.AMENDED, "amend");
         // validate expiry date if provided
         if (updatedLc.getExpiryDate() != null && !updatedLc.getExpiryDate().isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("Expiry date must be a future date");
         }
+        // the amended terms and the new status in one conditional UPDATE, so they are written together or not at all
+        LocalDateTime now = LocalDateTime.now();
+        applied(existingLc, lcRepository.updateStatusAndTerms(lcId, allowedFrom(LCStatus.AMENDED), LCStatus.AMENDED,
+                updatedLc.getApplicantName(), updatedLc.getBeneficiaryName(), updatedLc.getApplicantCountry(),
+                updatedLc.getBeneficiaryCountry(), updatedLc.getAmount(), updatedLc.getCurrency(),
+                updatedLc.getExpiryDate(), updatedLc.getDescription(), updatedLc.getAdvisingBank(), now), "amend");
 
         existingLc.setApplicantName(updatedLc.getApplicantName());
         existingLc.setBeneficiaryName(updatedLc.getBeneficiaryName());
+        existingLc.setApplicantCountry(updatedLc.getApplicantCountry());
+        existingLc.setBeneficiaryCountry(updatedLc.getBeneficiaryCountry());
         existingLc.setAmount(updatedLc.getAmount());
         existingLc.setCurrency(updatedLc.getCurrency());
         existingLc.setExpiryDate(updatedLc.getExpiryDate());
         existingLc.setDescription(updatedLc.getDescription());
         existingLc.setAdvisingBank(updatedLc.getAdvisingBank());
-        existingLc.setStatus(LCStatus.AMENDED);
-        
-        return lcRepository.save(existingLc);
+        LetterOfCredit amended = transitioned(existingLc, from, LCStatus.AMENDED, now);
+        reindexAfterCommit(amended);
+        eventPublisher.publishEvent(new ComplianceInputChangedEvent(amended.getReferenceNumber(),
+                ComplianceInputChangedEvent.Input.TRANSACTION));
+        return amended;
     }
     
     /**
      * Close LC
      */
     public LetterOfCredit closeLetterOfCredit(Long lcId) {
-        LetterOfCredit lc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new  ResourceNotFoundException("LetterOfCredit", "id", lcId));
-        if (lc.getStatus() == LCStatus.CLOSED) {
-            throw new InvalidStateException("LetterOfCredit", lc.getStatus().name(), "close");
-        }
-        lc.setStatus(LCStatus.CLOSED);
-        return lcRepository.save(lc);
+        return transition(lcId, LCStatus.CLOSED, "close");
     }
     
     /**
      * Open LC (set to active)
      */
     public LetterOfCredit openLetterOfCredit(Long lcId) {
-        LetterOfCredit lc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new  ResourceNotFoundException("LetterOfCredit", "id", lcId));
-        if (lc.getStatus() == LCStatus.CLOSED) {
-            throw new  InvalidStateException("LetterOfCredit", lc.getStatus().name(), "open");
-        }
-        lc.setStatus(LCStatus.OPEN);
-        return lcRepository.save(lc);
+        return transition(lcId, LCStatus.OPEN, "open");
     }
     
     /**
      * Send LC to Risk team - Officer only
      */
     public LetterOfCredit sendToRiskTeam(Long lcId) {
-        LetterOfCredit lc = lcRepository.findById(lcId)
-                .orElseThrow(() -> new ResourceNotFoundException("LetterOfCredit", "id", lcId));
-        if (!(lc.getStatus() == LCStatus.SUBMITTED || lc.getStatus() == LCStatus.UNDER_VERIFICATION)) {
-            throw new InvalidStateException("LetterOfCredit", lc.getStatus() != null ? lc.getStatus().name() : "UNKNOWN", "send to risk");
-        }
-        if (lc.getStatus() == LCStatus.CLOSED) {
-            throw new  InvalidStateException("LetterOfCredit", lc.getStatus().name(), "send to risk");
-        }
-        lc.setStatus(LCStatus.SENT_TO_RISK);
-        return lcRepository.save(lc);
+        return transition(lcId, LCStatus.SENT_TO_RISK, "send to risk");
+    }
+
+    /**
+     * Apply one officer action to many LCs: per chunk, one locking read of the chunk's statuses, the transition check
+     * for the whole set, one UPDATE of every LC that passed it and batched audit rows. LCs that are missing or in a
+     * status the action does not apply to are skipped and reported, they do not fail the others.
+     *
+     * @param reason rejection reason, only used by {@link BulkAction#REJECT}
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkActionResult bulkAction(Collection<Long> lcIds, BulkAction action, String reason) {
+        return bulkTransitionRunner.run(action.name(), lcIds, chunk -> applyBulkAction(chunk, action, reason));
     }
 
     // Query methods
@@ -183,26 +247,140 @@ public class LetterOfCreditService {
      */
     public List<LetterOfCredit> findAllByUserOrBeneficiary(String username) {
         if (username == null) return List.of();
-        List<LetterOfCredit> result = new ArrayList<>();
-        result.addAll(lcRepository.findByCreatedBy(username));
-        List<LetterOfCredit> byBeneficiary = lcRepository.findByBeneficiaryNameContainingIgnoreCase(username);
-        for (LetterOfCredit lc : byBeneficiary) {
-            if (!result.contains(lc)) result.add(lc);
-        }
-        return result;
+        Map<Long, LetterOfCredit> result = new LinkedHashMap<>();
+        for (LetterOfCredit lc : lcRepository.findByCreatedBy(username)) result.put(lc.getLcId(), lc);
+        for (LetterOfCredit lc : findByBeneficiaryName(username)) result.putIfAbsent(lc.getLcId(), lc);
+        return new ArrayList<>(result.values());
     }
 
     /**
      * Return LCs where the beneficiary name matches (case-insensitive).
      * This is used to show a user where they are listed as beneficiary (regardless of creator).
+     * Resolved through the party name trigram index, then fetched by primary key.
      */
+    @Transactional(readOnly = true)
     public List<LetterOfCredit> findByBeneficiaryName(String username) {
         if (username == null) return List.of();
-        return lcRepository.findByBeneficiaryNameContainingIgnoreCase(username);
+        if (!partyNameIndex.isReady()) {
+            return lcRepository.findByBeneficiaryNameContainingIgnoreCase(username);
+        }
+        return findAllByIdNewestFirst(partyNameIndex.lcIdsByBeneficiaryContaining(username));
+    }
+
+    /**
+     * Return LCs whose applicant name contains the given text (case-insensitive)
+     */
+    @Transactional(readOnly = true)
+    public List<LetterOfCredit> findByApplicantName(String name) {
+        if (name == null) return List.of();
+        if (!partyNameIndex.isReady()) {
+            return lcRepository.findByApplicantNameContainingIgnoreCase(name);
+        }
+        return findAllByIdNewestFirst(partyNameIndex.lcIdsByApplicantContaining(name));
     }
 
     public List<LetterOfCredit> findPendingApproval() {
-        return lcRepository.findByStatusIn(List.of(LCStatus.SUBMITTED, LCStatus.UNDER_VERIFICATION));
+        return lcRepository.findByStatusIn(PENDING_APPROVAL_STATUSES);
+    }
+
+    /**
+     * Number of LCs per status across the whole book, in a single GROUP BY query
+     */
+    @Transactional(readOnly = true)
+    public StatusCounts<LCStatus> getStatusCounts() {
+        return StatusCounts.fromRows(LCStatus.class, lcRepository.countGroupedByStatus());
+    }
+
+    /**
+     * Number of LCs per status created by the given user, in a single GROUP BY query
+     */
+    @Transactional(readOnly = true)
+    public StatusCounts<LCStatus> getStatusCountsByCreatedBy(String username) {
+        return StatusCounts.fromRows(LCStatus.class, lcRepository.countGroupedByStatusForCreator(username));
+    }
+
+    /**
+     * Most recently created LCs, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<LetterOfCredit> findRecent(int limit) {
+        return lcRepository.findByOrderByCreatedAtDesc(PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<LetterOfCredit> findRecentByCreatedBy(String username, int limit) {
+        return lcRepository.findByCreatedByOrderByCreatedAtDesc(username, PageRequest.of(0, limit));
+    }
+
+    /**
+     * One page of LCs, newest first, using (createdAt, lcId) keyset pagination so that every page
+     * is an index range scan regardless of how deep the client has paged.
+     * A customer's scope is the union of two keyset reads - LCs they created (idx_lc_created_by_created_at_id)
+     * and LCs whose beneficiary matches, resolved to ids through the party name index - merged in memory.
+     *
+     * @param username restrict to LCs the user created or is beneficiary of; null for the whole book
+     * @param cursor   token from a previous page's nextCursor, or null/blank for the first page
+     * @param pageSize requested size, clamped to [1, MAX_PAGE_SIZE]; null means DEFAULT_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<LetterOfCredit> findPage(String username, LetterOfCreditFilter filter, String cursor, Integer pageSize) {
+        int size = pageSize == null || pageSize < 1 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        LetterOfCreditFilter f = filter != null ? filter : new LetterOfCreditFilter();
+        if (f.getFromDate() != null && f.getToDate() != null && f.getFromDate().isAfter(f.getToDate())) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        String currency = f.getCurrency() == null || f.getCurrency().isBlank() ? null : f.getCurrency().trim().toUpperCase();
+        LocalDateTime createdFrom = f.getFromDate() != null ? f.getFromDate().atStartOfDay() : null;
+        LocalDateTime createdTo = f.getToDate() != null ? f.getToDate().plusDays(1).atStartOfDay() : null;
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        PageRequest limit = PageRequest.of(0, size + 1);
+        PageCursor after = PageCursor.decode(cursor);
+        List<LetterOfCredit> rows;
+        if (username == null) {
+            rows = after == null
+                    ? lcRepository.findFirstPage(f.getStatus(), currency, createdFrom, createdTo, limit)
+                    : lcRepository.findPageAfter(f.getStatus(), currency, createdFrom, createdTo,
+                            after.getCreatedAt(), after.getId(), limit);
+        } else {
+            List<LetterOfCredit> created = after == null
+                    ? lcRepository.findFirstPageByCreatedBy(username, f.getStatus(), currency, createdFrom, createdTo, limit)
+                    : lcRepository.findPageAfterByCreatedBy(username, f.getStatus(), currency, createdFrom, createdTo,
+                            after.getCreatedAt(), after.getId(), limit);
+            Collection<Long> beneficiaryIds = beneficiaryLcIds(username);
+            List<LetterOfCredit> asBeneficiary = beneficiaryIds.isEmpty() ? List.of() : after == null
+                    ? lcRepository.findFirstPageByIdIn(beneficiaryIds, f.getStatus(), currency, createdFrom, createdTo, limit)
+                    : lcRepository.findPageAfterByIdIn(beneficiaryIds, f.getStatus(), currency, createdFrom, createdTo,
+                            after.getCreatedAt(), after.getId(), limit);
+            rows = mergeNewestFirst(created, asBeneficiary, size + 1);
+        }
+
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, size, null);
+        }
+        List<LetterOfCredit> items = rows.subList(0, size);
+        LetterOfCredit last = items.get(size - 1);
+        return new KeysetPage<>(new ArrayList<>(items), size, new PageCursor(last.getCreatedAt(), last.getLcId()).encode());
+    }
+
+    private Collection<Long> beneficiaryLcIds(String username) {
+        if (username.isBlank()) return List.of();
+        return partyNameIndex.isReady()
+                ? partyNameIndex.lcIdsByBeneficiaryContaining(username)
+                : lcRepository.findIdsByBeneficiaryNameContaining(username);
+    }
+
+    /**
+     * Union of two newest-first keyset reads, newest first, without duplicates and cut to {@code limit} rows.
+     * Both inputs already stop at {@code limit}, so the merged prefix is exactly the combined scope's next rows.
+     */
+    private static List<LetterOfCredit> mergeNewestFirst(List<LetterOfCredit> a, List<LetterOfCredit> b, int limit) {
+        Map<Long, LetterOfCredit> byId = new LinkedHashMap<>();
+        for (LetterOfCredit lc : a) byId.put(lc.getLcId(), lc);
+        for (LetterOfCredit lc : b) byId.putIfAbsent(lc.getLcId(), lc);
+        List<LetterOfCredit> merged = new ArrayList<>(byId.values());
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
     }
 
     public long countByStatus(LCStatus status) {
@@ -210,20 +388,161 @@ public class LetterOfCreditService {
     }
     
     public void deleteLetterOfCredit(Long id) {
+        lcRepository.findById(id).ifPresent(lc -> eventPublisher.publishEvent(
+                new ReferenceChangedEvent(ReferenceChangedEvent.LC, lc.getReferenceNumber(), ReferenceChangedEvent.ChangeType.DELETED)));
         lcRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> partyNameIndex.removeLetterOfCredit(id));
     }
     
     /**
      * Generate unique reference number
      */
     private String generateReferenceNumber() {
-        return "LC-" + System.currentTimeMillis();
+        return referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX);
     }
     
     /**
      * Update LC
      */
     public LetterOfCredit updateLetterOfCredit(LetterOfCredit lc) {
-        return lcRepository.save(lc);
+        LetterOfCredit saved = save(lc, ReferenceChangedEvent.ChangeType.UPDATED);
+        reindexAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Move to {@code status} and journal the transition (from no status for a new LC)
+     */
+    private void changeStatus(LetterOfCredit lc, LCStatus status) {
+        LCStatus previous = lc.getLcId() != null ? lc.getStatus() : null;
+        lc.setStatus(status);
+        eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.LC, lc.getReferenceNumber(), previous, status));
+    }
+
+    /**
+     * Status-only transition: one conditional UPDATE after the primary-key read that finds the LC
+     */
+    private LetterOfCredit transition(Long lcId, LCStatus to, String action) {
+        LetterOfCredit lc = find(lcId);
+        LCStatus from = checkTransition(lc, to, action);
+        LocalDateTime now = LocalDateTime.now();
+        applied(lc, lcRepository.updateStatus(lcId, allowedFrom(to), to, now), action);
+        return transitioned(lc, from, to, now);
+    }
+
+    /**
+     * One chunk of {@link #bulkAction}, inside the chunk's transaction
+     */
+    private List<BulkActionResult.ItemResult> applyBulkAction(List<Long> lcIds, BulkAction action, String reason) {
+        LCStatus to = action.target;
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : lcRepository.lockStatusesByIdIn(lcIds)) {
+            rows.put((Long) row[0], row);
+        }
+
+        List<BulkActionResult.ItemResult> results = new ArrayList<>(lcIds.size());
+        List<Long> accepted = new ArrayList<>();
+        List<Object[]> acceptedRows = new ArrayList<>();
+        for (Long lcId : lcIds) {
+            Object[] row = rows.get(lcId);
+            if (row == null) {
+                results.add(BulkActionResult.ItemResult.notFound(lcId));
+                continue;
+            }
+            LCStatus from = (LCStatus) row[2];
+            if (!TRANSITIONS.isAllowed(from, to)) {
+                results.add(BulkActionResult.ItemResult.invalidState(lcId, (String) row[1], from,
+                        new InvalidStateException("LetterOfCredit", String.valueOf(from), action.label).getMessage()));
+                continue;
+            }
+            accepted.add(lcId);
+            acceptedRows.add(row);
+            results.add(BulkActionResult.ItemResult.done(lcId, (String) row[1], from, to));
+        }
+        if (accepted.isEmpty()) return results;
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (action) {
+            case APPROVE -> lcRepository.updateStatusAndIssueDateByIdIn(accepted, allowedFrom(to), to, LocalDate.now(), now);
+            case REJECT -> lcRepository.updateStatusWithNoteByIdIn(accepted, allowedFrom(to), to,
+                    " | Rejection Reason: " + reason, now);
+            case SEND_TO_RISK -> lcRepository.updateStatusByIdIn(accepted, allowedFrom(to), to, now);
+        };
+        if (updated != accepted.size()) {
+            // the rows are locked since they were read, so this is not a lost race
+            throw new IllegalStateException("Bulk " + action.label + " updated " + updated + " of "
+                    + accepted.size() + " LCs");
+        }
+        for (Object[] row : acceptedRows) {
+            eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.LC, (String) row[1], (LCStatus) row[2], to));
+            eventPublisher.publishEvent(new ReferenceChangedEvent(ReferenceChangedEvent.LC, (String) row[1],
+                    ReferenceChangedEvent.ChangeType.UPDATED));
+        }
+        return results;
+    }
+
+    private LetterOfCredit find(Long lcId) {
+        return lcRepository.findById(lcId)
+                .orElseThrow(() -> new ResourceNotFoundException("LetterOfCredit", "id", lcId));
+    }
+
+    /**
+     * Refuse early, with the status the LC was read in, when the matrix does not allow the transition from it
+     */
+    private static LCStatus checkTransition(LetterOfCredit lc, LCStatus to, String action) {
+        LCStatus from = lc.getStatus();
+        if (!TRANSITIONS.isAllowed(from, to)) {
+            throw new InvalidStateException("LetterOfCredit", from != null ? from.name() : "UNKNOWN", action);
+        }
+        return from;
+    }
+
+    private static Set<LCStatus> allowedFrom(LCStatus to) {
+        return TRANSITIONS.allowedFrom(to);
+    }
+
+    /**
+     * No row updated: another request moved the LC out of the allowed statuses since it was read
+     */
+    private static void applied(LetterOfCredit lc, int updatedRows, String action) {
+        if (updatedRows == 0) {
+            throw new InvalidStateException("Cannot " + action + " LetterOfCredit " + lc.getReferenceNumber()
+                    + ": its status was changed by another request");
+        }
+    }
+
+    /**
+     * Bring the (now detached) LC read before the UPDATE in line with it and announce the change
+     */
+    private LetterOfCredit transitioned(LetterOfCredit lc, LCStatus from, LCStatus to, LocalDateTime now) {
+        lc.setStatus(to);
+        lc.setUpdatedAt(now);
+        eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.LC, lc.getReferenceNumber(), from, to));
+        eventPublisher.publishEvent(new ReferenceChangedEvent(ReferenceChangedEvent.LC, lc.getReferenceNumber(),
+                ReferenceChangedEvent.ChangeType.UPDATED));
+        return lc;
+    }
+
+    private LetterOfCredit save(LetterOfCredit lc, ReferenceChangedEvent.ChangeType changeType) {
+        LetterOfCredit saved = lcRepository.save(lc);
+        if (saved != null) {
+            eventPublisher.publishEvent(new ReferenceChangedEvent(ReferenceChangedEvent.LC, saved.getReferenceNumber(), changeType));
+        }
+        return saved;
+    }
+
+    private void reindexAfterCommit(LetterOfCredit lc) {
+        if (lc == null) return;
+        TransactionHooks.afterCommit(() -> partyNameIndex.index(lc));
+    }
+
+    /**
+     * Fetch LCs by primary key, newest first
+     */
+    private List<LetterOfCredit> findAllByIdNewestFirst(Collection<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        List<LetterOfCredit> result = new ArrayList<>(lcRepository.findAllById(ids));
+        result.sort(NEWEST_FIRST);
+        return result;
     }
 }
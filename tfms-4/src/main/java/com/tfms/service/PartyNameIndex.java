@@ -0,0 +1,109 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Trigram indexes over applicant/beneficiary names of LCs and BGs
+ * Replaces leading-wildcard LIKE scans: services resolve matching ids here and then fetch by primary key.
+ * Loaded once the application is ready and kept current by the services after each committed
+ * create/amend/delete. Until loaded, callers should fall back to the repository queries.
+ */
+@Component
+@Slf4j
+public class PartyNameIndex {
+
+    private final LetterOfCreditRepository lcRepository;
+    private final BankGuaranteeRepository bgRepository;
+
+    private final TrigramIndex lcApplicants = new TrigramIndex();
+    private final TrigramIndex lcBeneficiaries = new TrigramIndex();
+    private final TrigramIndex bgApplicants = new TrigramIndex();
+    private final TrigramIndex bgBeneficiaries = new TrigramIndex();
+
+    private volatile boolean ready;
+
+    public PartyNameIndex(LetterOfCreditRepository lcRepository, BankGuaranteeRepository bgRepository) {
+        this.lcRepository = lcRepository;
+        this.bgRepository = bgRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lcApplicants.clear();
+        lcBeneficiaries.clear();
+        bgApplicants.clear();
+        bgBeneficiaries.clear();
+        List<Object[]> lcRows = lcRepository.findPartyNames();
+        for (Object[] row : lcRows) {
+            Long id = (Long) row[0];
+            lcApplicants.put(id, (String) row[1]);
+            lcBeneficiaries.put(id, (String) row[2]);
+        }
+        List<Object[]> bgRows = bgRepository.findPartyNames();
+        for (Object[] row : bgRows) {
+            Long id = (Long) row[0];
+            bgApplicants.put(id, (String) row[1]);
+            bgBeneficiaries.put(id, (String) row[2]);
+        }
+        ready = true;
+        log.info("Party name index built: {} LCs, {} BGs in {} ms",
+                lcRows.size(), bgRows.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(LetterOfCredit lc) {
+        if (lc == null || lc.getLcId() == null) return;
+        lcApplicants.put(lc.getLcId(), lc.getApplicantName());
+        lcBeneficiaries.put(lc.getLcId(), lc.getBeneficiaryName());
+    }
+
+    public void index(BankGuarantee bg) {
+        if (bg == null || bg.getGuaranteeId() == null) return;
+        bgApplicants.put(bg.getGuaranteeId(), bg.getApplicantName());
+        bgBeneficiaries.put(bg.getGuaranteeId(), bg.getBeneficiaryName());
+    }
+
+    public void removeLetterOfCredit(Long lcId) {
+        lcApplicants.remove(lcId);
+        lcBeneficiaries.remove(lcId);
+    }
+
+    public void removeBankGuarantee(Long guaranteeId) {
+        bgApplicants.remove(guaranteeId);
+        bgBeneficiaries.remove(guaranteeId);
+    }
+
+    public Set<Long> lcIdsByBeneficiaryContaining(String name) {
+        return lcBeneficiaries.findContaining(name);
+    }
+
+    public Set<Long> lcIdsByApplicantContaining(String name) {
+        return lcApplicants.findContaining(name);
+    }
+
+    public Set<Long> bgIdsByBeneficiaryEqual(String name) {
+        return bgBeneficiaries.findEqual(name);
+    }
+
+    public Set<Long> bgIdsByBeneficiaryContaining(String name) {
+        return bgBeneficiaries.findContaining(name);
+    }
+
+    public Set<Long> bgIdsByApplicantContaining(String name) {
+        return bgApplicants.findContaining(name);
+    }
+}
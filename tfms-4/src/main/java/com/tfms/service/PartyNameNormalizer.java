@@ -0,0 +1,90 @@
+package com.tfms.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Canonical form of a party name for sanctions screening
+ *
+ * Accents are stripped (NFKD), a few letters without a decomposition are folded (ß, æ, ø, ...), apostrophes and
+ * dots are dropped so "O'Neil" and "J.P." stay one token, any other non-alphanumeric character separates tokens,
+ * and legal-form tokens (ltd, gmbh, s.a., ...) are removed. The result is lower-case [a-z0-9] tokens joined by
+ * single spaces, which is the 37-symbol alphabet {@link AliasMatcher} and the trigram index work on.
+ */
+public final class PartyNameNormalizer {
+
+    /** Symbols after normalization: space, a-z, 0-9 */
+    static final int ALPHABET = 37;
+
+    private static final Set<String> LEGAL_FORMS = Set.of(
+            "ltd", "limited", "llc", "llp", "lp", "inc", "incorporated", "co", "corp", "corporation", "company",
+            "plc", "sa", "ag", "gmbh", "kg", "bv", "nv", "srl", "spa", "sarl", "oy", "ab", "as", "pte", "pvt",
+            "jsc", "ojsc", "cjsc", "pjsc", "ooo", "sro", "fze", "fzco", "the", "and", "of");
+
+    private PartyNameNormalizer() {}
+
+    public static String normalize(String name) {
+        if (name == null || name.isEmpty()) return "";
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            String folded = fold(Character.toLowerCase(c));
+            for (int j = 0; j < folded.length(); j++) {
+                char f = folded.charAt(j);
+                if ((f >= 'a' && f <= 'z') || (f >= '0' && f <= '9')) {
+                    token.append(f);
+                } else if (f != '\'' && f != '’' && f != '.') {
+                    flush(token, out);
+                }
+            }
+        }
+        flush(token, out);
+        return out.toString();
+    }
+
+    /**
+     * Tokens of a normalized name in alphabetical order, so "petrov ivan" and "ivan petrov" compare equal
+     */
+    static String sortTokens(String normalized) {
+        if (normalized.indexOf(' ') < 0) return normalized;
+        String[] tokens = normalized.split(" ");
+        Arrays.sort(tokens);
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * Index of a normalized character in {@link #ALPHABET}
+     */
+    static int code(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a' + 1;
+        if (c >= '0' && c <= '9') return c - '0' + 27;
+        return 0;
+    }
+
+    private static void flush(StringBuilder token, StringBuilder out) {
+        if (token.length() == 0) return;
+        String t = token.toString();
+        token.setLength(0);
+        if (LEGAL_FORMS.contains(t)) return;
+        if (out.length() > 0) out.append(' ');
+        out.append(t);
+    }
+
+    private static String fold(char c) {
+        switch (c) {
+            case 'ß': return "ss";
+            case 'æ': return "ae";
+            case 'œ': return "oe";
+            case 'ø': return "o";
+            case 'đ': return "d";
+            case 'ł': return "l";
+            case 'þ': return "th";
+            case 'ı': return "i";
+            default: return String.valueOf(c);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.tfms.service;
+
+/**
+ * Published by the services whenever an LC, BG or trade document identified by a reference number is
+ * created, modified or deleted. Read-side caches and indexes listen for it to invalidate precisely.
+ */
+public class ReferenceChangedEvent {
+
+    public static final String LC = "LC";
+    public static final String BG = "BG";
+    public static final String DOC = "DOC";
+
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    private final String entityType;
+    private final String referenceNumber;
+    private final ChangeType changeType;
+
+    public ReferenceChangedEvent(String entityType, String referenceNumber, ChangeType changeType) {
+        this.entityType = entityType;
+        this.referenceNumber = referenceNumber;
+        this.changeType = changeType;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public String getReferenceNumber() {
+        return referenceNumber;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    @Override
+    public String toString() {
+        return entityType + ":" + referenceNumber + " " + changeType;
+    }
+}
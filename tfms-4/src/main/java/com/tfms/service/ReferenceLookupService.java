@@ -0,0 +1,179 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.TradeDocument;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cached reference number -> entity snapshot lookups for read paths (tracking, compliance, risk scoring)
+ *
+ * Callers always receive a detached copy, so they may not affect the cache or any persistence context
+ * by mutating it; write paths must keep loading through the repositories. Entries expire after
+ * {@code tfms.cache.reference.ttl} and the cache holds at most {@code tfms.cache.reference.max-size}
+ * entries per type. A {@link ReferenceChangedEvent} evicts the reference immediately and again once the
+ * publishing transaction completes, so a snapshot read mid-transaction cannot survive a commit or a rollback.
+ */
+@Service
+public class ReferenceLookupService {
+
+    private final LetterOfCreditRepository lcRepository;
+    private final BankGuaranteeRepository bgRepository;
+    private final TradeDocumentRepository documentRepository;
+
+    private final SnapshotCache<String, LetterOfCredit> lcCache;
+    private final SnapshotCache<String, BankGuarantee> bgCache;
+    private final SnapshotCache<String, TradeDocument> documentCache;
+
+    public ReferenceLookupService(LetterOfCreditRepository lcRepository,
+                                  BankGuaranteeRepository bgRepository,
+                                  TradeDocumentRepository documentRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${tfms.cache.reference.max-size:10000}") int maxSize,
+                                  @Value("${tfms.cache.reference.ttl:PT5M}") Duration ttl) {
+        this.lcRepository = lcRepository;
+        this.bgRepository = bgRepository;
+        this.documentRepository = documentRepository;
+        this.lcCache = new SnapshotCache<>(maxSize, ttl);
+        this.bgCache = new SnapshotCache<>(maxSize, ttl);
+        this.documentCache = new SnapshotCache<>(maxSize, ttl);
+        registerMetrics(meterRegistry, ReferenceChangedEvent.LC, lcCache);
+        registerMetrics(meterRegistry, ReferenceChangedEvent.BG, bgCache);
+        registerMetrics(meterRegistry, ReferenceChangedEvent.DOC, documentCache);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LetterOfCredit> findLetterOfCredit(String referenceNumber) {
+        if (referenceNumber == null) return Optional.empty();
+        return lcCache.get(referenceNumber, ref -> lcRepository.findByReferenceNumber(ref).map(this::copy).orElse(null))
+                .map(this::copy);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BankGuarantee> findBankGuarantee(String referenceNumber) {
+        if (referenceNumber == null) return Optional.empty();
+        return bgCache.get(referenceNumber, ref -> bgRepository.findByReferenceNumber(ref).map(this::copy).orElse(null))
+                .map(this::copy);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TradeDocument> findTradeDocument(String referenceNumber) {
+        if (referenceNumber == null) return Optional.empty();
+        return documentCache.get(referenceNumber, ref -> documentRepository.findByReferenceNumber(ref).map(this::copy).orElse(null))
+                .map(this::copy);
+    }
+
+    /**
+     * LC or BG snapshot for a trade reference, LC first (same precedence as the compliance checks)
+     */
+    @Transactional(readOnly = true)
+    public Optional<Object> findTransaction(String referenceNumber) {
+        Optional<LetterOfCredit> lc = findLetterOfCredit(referenceNumber);
+        if (lc.isPresent()) return Optional.of(lc.get());
+        return findBankGuarantee(referenceNumber).map(bg -> bg);
+    }
+
+    /**
+     * Evict as soon as a change is published, before the writer commits
+     */
+    @EventListener
+    public void onReferenceChanged(ReferenceChangedEvent event) {
+        evict(event);
+    }
+
+    /**
+     * Evict again once the writer's transaction completes, dropping anything re-read in between
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onReferenceChangeCompleted(ReferenceChangedEvent event) {
+        evict(event);
+    }
+
+    public void invalidateAll() {
+        lcCache.invalidateAll();
+        bgCache.invalidateAll();
+        documentCache.invalidateAll();
+    }
+
+    /**
+     * Hit/miss statistics per entity type
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put(ReferenceChangedEvent.LC, stats(lcCache));
+        stats.put(ReferenceChangedEvent.BG, stats(bgCache));
+        stats.put(ReferenceChangedEvent.DOC, stats(documentCache));
+        return stats;
+    }
+
+    private void evict(ReferenceChangedEvent event) {
+        if (event.getReferenceNumber() == null) return;
+        switch (event.getEntityType()) {
+            case ReferenceChangedEvent.LC -> lcCache.invalidate(event.getReferenceNumber());
+            case ReferenceChangedEvent.BG -> bgCache.invalidate(event.getReferenceNumber());
+            case ReferenceChangedEvent.DOC -> documentCache.invalidate(event.getReferenceNumber());
+            default -> { }
+        }
+    }
+
+    private LetterOfCredit copy(LetterOfCredit source) {
+        return copy(source, LetterOfCredit::new);
+    }
+
+    private BankGuarantee copy(BankGuarantee source) {
+        return copy(source, BankGuarantee::new);
+    }
+
+    private TradeDocument copy(TradeDocument source) {
+        return copy(source, TradeDocument::new);
+    }
+
+    // Entities only hold immutable values (String, BigDecimal, java.time, enums), so a shallow copy is a full snapshot
+    private static <T> T copy(T source, Supplier<T> factory) {
+        T target = factory.get();
+        BeanUtils.copyProperties(source, target);
+        return target;
+    }
+
+    private static Map<String, Object> stats(SnapshotCache<?, ?> cache) {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("size", cache.size());
+        s.put("hits", cache.getHitCount());
+        s.put("misses", cache.getMissCount());
+        s.put("hitRate", cache.getHitRate());
+        s.put("evictions", cache.getEvictionCount());
+        s.put("invalidations", cache.getInvalidationCount());
+        return s;
+    }
+
+    private static void registerMetrics(MeterRegistry registry, String type, SnapshotCache<?, ?> cache) {
+        FunctionCounter.builder("tfms.reference.cache.hits", cache, SnapshotCache::getHitCount)
+                .tag("type", type).register(registry);
+        FunctionCounter.builder("tfms.reference.cache.misses", cache, SnapshotCache::getMissCount)
+                .tag("type", type).register(registry);
+        FunctionCounter.builder("tfms.reference.cache.evictions", cache, SnapshotCache::getEvictionCount)
+                .tag("type", type).register(registry);
+        FunctionCounter.builder("tfms.reference.cache.invalidations", cache, SnapshotCache::getInvalidationCount)
+                .tag("type", type).register(registry);
+        Gauge.builder("tfms.reference.cache.size", cache, SnapshotCache::size)
+                .tag("type", type).register(registry);
+    }
+}
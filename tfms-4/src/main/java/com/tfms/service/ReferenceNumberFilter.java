@@ -0,0 +1,133 @@
+package com.tfms.service;
+
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Bloom filter of every issued LC, BG and document reference number
+ * Lets the tracking endpoints reject unknown references without a database query. Built once the application
+ * is ready, extended as references are created, and rebuilt periodically so deleted references drop out and
+ * the filter is resized as the book grows. Until the first build completes every reference is let through.
+ */
+@Component
+@Slf4j
+public class ReferenceNumberFilter {
+
+    private final LetterOfCreditRepository lcRepository;
+    private final BankGuaranteeRepository bgRepository;
+    private final TradeDocumentRepository documentRepository;
+    private final double falsePositiveProbability;
+    private final long minCapacity;
+    private final Counter rejections;
+
+    private volatile BloomFilter filter;
+    // non-null while a rebuild is loading, so references created meanwhile also reach the new filter
+    private volatile BloomFilter building;
+
+    public ReferenceNumberFilter(LetterOfCreditRepository lcRepository,
+                                 BankGuaranteeRepository bgRepository,
+                                 TradeDocumentRepository documentRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${tfms.reference-filter.false-positive-probability:0.001}") double falsePositiveProbability,
+                                 @Value("${tfms.reference-filter.min-capacity:100000}") long minCapacity) {
+        this.lcRepository = lcRepository;
+        this.bgRepository = bgRepository;
+        this.documentRepository = documentRepository;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.minCapacity = minCapacity;
+        this.rejections = Counter.builder("tfms.reference.filter.rejections")
+                .description("Lookups rejected without a database query").register(meterRegistry);
+        Gauge.builder("tfms.reference.filter.false.positive.rate", this, ReferenceNumberFilter::getFalsePositiveRate)
+                .description("Current false positive probability of the reference filter").register(meterRegistry);
+        Gauge.builder("tfms.reference.filter.size", this, f -> f.filter != null ? f.filter.getInsertions() : 0)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${tfms.reference-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${tfms.reference-filter.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long expected = lcRepository.count() + bgRepository.count() + documentRepository.count();
+        // Room to double before the false positive rate reaches the target
+        BloomFilter next = BloomFilter.create(Math.max(minCapacity, expected * 2), falsePositiveProbability);
+        // Publish before loading: a reference committed after the queries below must still reach the new filter
+        building = next;
+        long total = 0;
+        try {
+            total += load(lcRepository.findAllReferenceNumbers(), next);
+            total += load(bgRepository.findAllReferenceNumbers(), next);
+            total += load(documentRepository.findAllReferenceNumbers(), next);
+            filter = next;
+        } finally {
+            building = null;
+        }
+        log.info("Reference filter built: {} references, {} bits, k={}, fpp={} in {} ms",
+                total, next.getBitCount(), next.getHashCount(), next.getFalsePositiveRate(),
+                System.currentTimeMillis() - start);
+    }
+
+    private static int load(List<String> referenceNumbers, BloomFilter target) {
+        referenceNumbers.forEach(target::put);
+        return referenceNumbers.size();
+    }
+
+    /**
+     * False means the reference was certainly never issued; true means it probably was
+     */
+    public boolean mightExist(String referenceNumber) {
+        BloomFilter current = filter;
+        if (current == null) return true;
+        if (current.mightContain(referenceNumber)) return true;
+        rejections.increment();
+        return false;
+    }
+
+    public void add(String referenceNumber) {
+        // Read building before filter: rebuild() publishes filter before clearing building, so a null building
+        // means either no rebuild has started (its queries will see this committed reference) or the swap is done
+        // (filter is already the new one). Reading filter first could see the old filter and then a cleared
+        // building, leaving the reference in neither.
+        BloomFilter pending = building;
+        BloomFilter current = filter;
+        if (pending != null) pending.put(referenceNumber);
+        if (current != null && current != pending) current.put(referenceNumber);
+    }
+
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    public double getFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current != null ? current.getFalsePositiveRate() : 0.0;
+    }
+
+    /**
+     * New references become visible once their transaction has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReferenceChanged(ReferenceChangedEvent event) {
+        if (event.getChangeType() == ReferenceChangedEvent.ChangeType.CREATED) {
+            add(event.getReferenceNumber());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tfms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues unique, monotonic, sortable reference numbers such as {@code LC-0DXK3V9Q00A1B}
+ * without a database round trip.
+ *
+ * Each id packs 41 bits of milliseconds since 2024-01-01, a 10 bit node id and a 12 bit per-millisecond
+ * sequence (4096 ids/ms/node). The (timestamp, sequence) pair lives in a single AtomicLong advanced by a
+ * CAS loop, so concurrent callers never block and never see the same value. When a millisecond's sequence
+ * is exhausted, or the wall clock steps backwards, the generator borrows from the next millisecond
+ * rather than spinning or repeating. The id is rendered as fixed-width base 36, so reference strings
+ * of the same prefix sort in issue order.
+ *
+ * Uniqueness across nodes rests on every node running with its own {@code tfms.reference.node-id}; the id is
+ * required configuration and is never derived, since a derived id (e.g. a hostname hash) can collide.
+ */
+@Component
+public class ReferenceNumberGenerator {
+
+    public static final String LC_PREFIX = "LC";
+    public static final String BG_PREFIX = "BG";
+    public static final String DOC_PREFIX = "DOC";
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final int WIDTH = 13; // 36^13 > 2^63
+
+    private final long nodeId;
+    /** (millis since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last issued id */
+    private final AtomicLong lastTick = new AtomicLong();
+
+    public ReferenceNumberGenerator(@Value("${tfms.reference.node-id}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("tfms.reference.node-id must be between 0 and " + MAX_NODE_ID
+                    + " and unique per node, was " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Next reference for the given prefix, e.g. {@code next(LC_PREFIX)}
+     */
+    public String next(String prefix) {
+        return prefix + "-" + format(nextId());
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = lastTick.get();
+            next = Math.max(now, prev + 1);
+        } while (!lastTick.compareAndSet(prev, next));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    static String format(long id) {
+        String digits = Long.toString(id, 36).toUpperCase();
+        StringBuilder sb = new StringBuilder(WIDTH);
+        for (int i = digits.length(); i < WIDTH; i++) sb.append('0');
+        return sb.append(digits).toString();
+    }
+}
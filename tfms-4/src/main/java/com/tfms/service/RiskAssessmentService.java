@@ -2,6 +2,7 @@ package com.tfms.service;
 
 import com.tfms.exception.ResourceNotFoundException;
 import com.tfms.model.RiskAssessment;
+import com.tfms.model.RiskFactorBreakdown;
 import com.tfms.model.enums.RiskLevel;
 import com.tfms.model.LetterOfCredit;
 import com.tfms.model.BankGuarantee;
@@ -10,39 +11,67 @@ import com.tfms.model.enums.GuaranteeStatus;
 import com.tfms.repository.RiskAssessmentRepository;
 import com.tfms.repository.LetterOfCreditRepository;
 import com.tfms.repository.BankGuaranteeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
 @Transactional
 public class RiskAssessmentService {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
     
     private final RiskAssessmentRepository riskRepository;
     private final LetterOfCreditRepository lcRepository;
     private final BankGuaranteeRepository bgRepository;
+    private final ReferenceLookupService referenceLookup;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RiskRuleEngine ruleEngine;
+    private final RiskStatistics statistics;
+    private final CurrentRiskService currentRisk;
+    private final CountryRestrictionService countryRestrictions;
     
     public RiskAssessmentService(RiskAssessmentRepository riskRepository,
                                   LetterOfCreditRepository lcRepository,
-                                  BankGuaranteeRepository bgRepository) {
+                                  BankGuaranteeRepository bgRepository,
+                                  ReferenceLookupService referenceLookup,
+                                  ApplicationEventPublisher eventPublisher,
+                                  RiskRuleEngine ruleEngine,
+                                  RiskStatistics statistics,
+                                  CurrentRiskService currentRisk,
+                                  CountryRestrictionService countryRestrictions) {
         this.riskRepository = riskRepository;
         this.lcRepository = lcRepository;
         this.bgRepository = bgRepository;
+        this.referenceLookup = referenceLookup;
+        this.eventPublisher = eventPublisher;
+        this.ruleEngine = ruleEngine;
+        this.statistics = statistics;
+        this.currentRisk = currentRisk;
+        this.countryRestrictions = countryRestrictions;
     }
     
     /**
      * Analyze risk for a transaction with provided assessment data
      */
     public RiskAssessment analyzeRisk(RiskAssessment providedAssessment, String assessedBy) {
+        RiskAssessment assessment = new RiskAssessment();
         BigDecimal riskScore;
-        String riskFactors;
         String recommendations;
         
         // Check if manual risk factors and score were provided from the form
@@ -50,7 +79,8 @@ public class RiskAssessmentService {
                 && providedAssessment.getRiskScore() != null) {
             // Use manually calculated values from the form
             riskScore = providedAssessment.getRiskScore();
-            riskFactors = providedAssessment.getRiskFactors();
+            assessment.setRiskFactors(providedAssessment.getRiskFactors());
+            applyManualFactors(providedAssessment.getRiskFactors(), assessment);
             recommendations = providedAssessment.getRemarks() != null ? providedAssessment.getRemarks() : "Manual assessment completed";
         } else {
             // Automatically calculate risk based on transaction type
@@ -58,243 +88,141 @@ public class RiskAssessmentService {
             String transactionType = providedAssessment.getTransactionType();
 
             if ("LC".equalsIgnoreCase(transactionType) || transactionReference.startsWith("LC")) {
-                Optional<LetterOfCredit> lcOpt = lcRepository.findByReferenceNumber(transactionReference);
+                Optional<LetterOfCredit> lcOpt = referenceLookup.findLetterOfCredit(transactionReference);
                 if (lcOpt.isPresent()) {
                     LetterOfCredit lc = lcOpt.get();
                     RiskAnalysisResult result = calculateLCRisk(lc);
                     riskScore = result.score;
-                    riskFactors = result.factors;
+                    RiskScoringKernel.applyFactors(result.packed, assessment);
                     recommendations = result.recommendations;
                 } else {
                     riskScore = new BigDecimal("50.00");
-                    riskFactors = "{\"transactionRisk\":2}";
+                    assessment.setRiskFactors("{\"transactionRisk\":2}");
                     recommendations = "Transaction not found - Default medium risk applied. Verify transaction details";
                 }
             } else if ("BG".equalsIgnoreCase(transactionType) || transactionReference.startsWith("BG")) {
-                Optional<BankGuarantee> bgOpt = bgRepository.findByReferenceNumber(transactionReference);
+                Optional<BankGuarantee> bgOpt = referenceLookup.findBankGuarantee(transactionReference);
                 if (bgOpt.isPresent()) {
                     BankGuarantee bg = bgOpt.get();
                     RiskAnalysisResult result = calculateBGRisk(bg);
                     riskScore = result.score;
-                    riskFactors = result.factors;
+                    RiskScoringKernel.applyFactors(result.packed, assessment);
                     recommendations = result.recommendations;
                 } else {
                     riskScore = new BigDecimal("50.00");
-                    riskFactors = "{\"transactionRisk\":2}";
+                    assessment.setRiskFactors("{\"transactionRisk\":2}");
                     recommendations = "Transaction not found - Default medium risk applied. Verify transaction details";
                 }
             } else {
                 riskScore = new BigDecimal("40.00");
-                riskFactors = "{\"transactionRisk\":2}";
+                assessment.setRiskFactors("{\"transactionRisk\":2}");
                 recommendations = "General trade transaction - Standard due diligence recommended";
             }
         }
         
         RiskLevel riskLevel = determineRiskLevel(riskScore);
         
-        RiskAssessment assessment = new RiskAssessment();
         assessment.setTransactionReference(providedAssessment.getTransactionReference());
         assessment.setTransactionType(providedAssessment.getTransactionType());
         assessment.setRiskScore(riskScore);
         assessment.setRiskLevel(riskLevel);
-        assessment.setRiskFactors(riskFactors);
         assessment.setRecommendations(recommendations);
         assessment.setRemarks(providedAssessment.getRemarks());
         assessment.setAssessedBy(assessedBy);
         assessment.setAssessmentDate(LocalDate.now());
         
         RiskAssessment saved = riskRepository.save(assessment);
+        currentRisk.advance(saved);
+        statistics.recordAfterCommit(saved);
+        eventPublisher.publishEvent(new ComplianceInputChangedEvent(assessment.getTransactionReference(),
+                ComplianceInputChangedEvent.Input.RISK));
 
-        // If the transaction is an LC and the LC was SENT_TO_RISK, update LC status back to officer review
-        if ("LC".equalsIgnoreCase(providedAssessment.getTransactionType()) ||
-                providedAssessment.getTransactionReference().startsWith("LC")) {
-            Optional<LetterOfCredit> lcOpt = lcRepository.findByReferenceNumber(providedAssessment.getTransactionReference());
-            lcOpt.ifPresent(lc -> {
-                if (lc.getStatus() == LCStatus.SENT_TO_RISK) {
-                    // move back to UNDER_VERIFICATION so officer can continue workflow
-                    lc.setStatus(LCStatus.UNDER_VERIFICATION);
-                    lcRepository.save(lc);
-                }
-            });
+        // If the transaction is an LC waiting on risk, hand it back to officer review. The conditional UPDATE is
+        // the guard: it runs against the table, not the cached snapshot, and is a no-op once the LC left SENT_TO_RISK
+        String reference = providedAssessment.getTransactionReference();
+        if ("LC".equalsIgnoreCase(providedAssessment.getTransactionType()) || reference.startsWith("LC")) {
+            if (lcRepository.updateStatusByReferenceNumber(reference, Set.of(LCStatus.SENT_TO_RISK),
+                    LCStatus.UNDER_VERIFICATION, LocalDateTime.now()) == 1) {
+                eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.LC, reference,
+                        LCStatus.SENT_TO_RISK, LCStatus.UNDER_VERIFICATION));
+                publishChange(ReferenceChangedEvent.LC, reference);
+            }
         }
 
-        // If the transaction is a BG and the BG was SENT_TO_RISK, update BG status back to officer review
-        if ("BG".equalsIgnoreCase(providedAssessment.getTransactionType()) ||
-                providedAssessment.getTransactionReference().startsWith("BG")) {
-            Optional<BankGuarantee> bgOpt = bgRepository.findByReferenceNumber(providedAssessment.getTransactionReference());
-            bgOpt.ifPresent(bg -> {
-                if (bg.getStatus() == GuaranteeStatus.SENT_TO_RISK) {
-                    bg.setStatus(GuaranteeStatus.UNDER_REVIEW);
-                    bgRepository.save(bg);
-                }
-            });
+        // Same for a BG waiting on risk
+        if ("BG".equalsIgnoreCase(providedAssessment.getTransactionType()) || reference.startsWith("BG")) {
+            if (bgRepository.updateStatusByReferenceNumber(reference, Set.of(GuaranteeStatus.SENT_TO_RISK),
+                    GuaranteeStatus.UNDER_REVIEW, LocalDateTime.now()) == 1) {
+                eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.BG, reference,
+                        GuaranteeStatus.SENT_TO_RISK, GuaranteeStatus.UNDER_REVIEW));
+                publishChange(ReferenceChangedEvent.BG, reference);
+            }
         }
         log.info("risk assessment ", saved);
 
         return saved;
     }
-    
-
 
     /**
-     * Calculate risk for Letter of Credit
+     * Copy the levels of manually entered factors that have a typed column ({"amountRisk":2} or
+     * {"amountRisk":{"level":2,"weight":30}}); other factors stay in the free-form JSON only
      */
-    private RiskAnalysisResult calculateLCRisk(LetterOfCredit lc) {
-        BigDecimal score = BigDecimal.ZERO;
-        StringBuilder recommendations = new StringBuilder();
-        
-        // Risk factor levels (1=Low, 2=Medium, 3=High)
-        int amountRisk = 1;
-        int durationRisk = 1;
-        int currencyRisk = 1;
-        int documentationRisk = 1;
-        int counterpartyRisk = 2; // Default medium for LC
-
-        // Amount-based risk (higher amounts = higher risk)
-        if (lc.getAmount().compareTo(new BigDecimal("1000000")) > 0) {
-            score = score.add(new BigDecimal("25"));
-            amountRisk = 3;
-            recommendations.append("Enhanced due diligence required; ");
-        } else if (lc.getAmount().compareTo(new BigDecimal("100000")) > 0) {
-            score = score.add(new BigDecimal("15"));
-            amountRisk = 2;
-        } else {
-            score = score.add(new BigDecimal("5"));
-            amountRisk = 1;
-        }
-        
-        // Duration-based risk
-        long daysToExpiry = ChronoUnit.DAYS.between(LocalDate.now(), lc.getExpiryDate());
-        if (daysToExpiry > 365) {
-            score = score.add(new BigDecimal("20"));
-            durationRisk = 3;
-            recommendations.append("Periodic review recommended; ");
-        } else if (daysToExpiry > 180) {
-            score = score.add(new BigDecimal("10"));
-            durationRisk = 2;
-        } else {
-            score = score.add(new BigDecimal("5"));
-            durationRisk = 1;
-        }
-        
-        // Currency risk
-        if (!"USD".equals(lc.getCurrency()) && !"EUR".equals(lc.getCurrency())) {
-            score = score.add(new BigDecimal("15"));
-            currencyRisk = 3;
-            recommendations.append("Consider currency hedging; ");
-        } else {
-            score = score.add(new BigDecimal("5"));
-            currencyRisk = 1;
+    static void applyManualFactors(String riskFactors, RiskAssessment target) {
+        JsonNode factors;
+        try {
+            factors = JSON.readTree(riskFactors);
+        } catch (JsonProcessingException e) {
+            log.warn("Risk factors for {} are not valid JSON, keeping them as text only", target.getTransactionReference());
+            return;
         }
+        if (factors == null || !factors.isObject()) return;
+        target.setAmountRisk(manualLevel(factors.get("amountRisk")));
+        target.setDurationRisk(manualLevel(factors.get("durationRisk")));
+        target.setCurrencyRisk(manualLevel(factors.get("currencyRisk")));
+        target.setDocumentationRisk(manualLevel(factors.get("documentationRisk")));
+        target.setCounterpartyRisk(manualLevel(factors.get("counterpartyRisk")));
+        target.setGuaranteeTypeRisk(manualLevel(factors.get("guaranteeTypeRisk")));
+        target.setCountryRisk(manualLevel(factors.get("countryRisk")));
+    }
 
-        // Documentation risk - check if documents are complete
-        if (lc.getStatus() != null && lc.getStatus().toString().contains("DOCUMENT")) {
-            documentationRisk = 2;
-            score = score.add(new BigDecimal("5"));
-        }
-        
-        // Add some baseline risk
-        score = score.add(new BigDecimal("10"));
+    private static Integer manualLevel(JsonNode factor) {
+        JsonNode level = factor != null && factor.isObject() ? factor.get("level") : factor;
+        if (level == null || !level.canConvertToInt()) return null;
+        int value = level.asInt();
+        return value >= 1 && value <= 3 ? value : null;
+    }
 
-        // Build JSON format for risk factors
-        String factorsJson = String.format(
-            "{\"amountRisk\":%d,\"durationRisk\":%d,\"currencyRisk\":%d,\"documentationRisk\":%d,\"counterpartyRisk\":%d}",
-            amountRisk, durationRisk, currencyRisk, documentationRisk, counterpartyRisk
-        );
+    private void publishChange(String entityType, String referenceNumber) {
+        eventPublisher.publishEvent(new ReferenceChangedEvent(entityType, referenceNumber, ReferenceChangedEvent.ChangeType.UPDATED));
+    }
+    
 
-        return new RiskAnalysisResult(
-                score.min(new BigDecimal("100")),
-                factorsJson,
-                recommendations.length() > 0 ? recommendations.toString() : "Standard monitoring recommended"
-        );
+
+    /**
+     * Calculate risk for Letter of Credit
+     */
+    private RiskAnalysisResult calculateLCRisk(LetterOfCredit lc) {
+        RiskScoringKernel rules = ruleEngine.current();
+        long daysToExpiry = lc.getExpiryDate().toEpochDay() - LocalDate.now().toEpochDay();
+        return new RiskAnalysisResult(rules, rules.scoreLetterOfCredit(
+                lc.getAmount(), daysToExpiry, lc.getCurrency(), lc.getStatus(), countryRestrictions.countryLevel(lc)));
     }
     
     /**
      * Calculate risk for Bank Guarantee
      */
     private RiskAnalysisResult calculateBGRisk(BankGuarantee bg) {
-        BigDecimal score = BigDecimal.ZERO;
-        StringBuilder recommendations = new StringBuilder();
-        
-        // Risk factor levels (1=Low, 2=Medium, 3=High)
-        int amountRisk = 1;
-        int durationRisk = 1;
-        int guaranteeTypeRisk = 1;
-        int counterpartyRisk = 2; // Default medium
-        int documentationRisk = 1;
-
-        // Amount-based risk
-        if (bg.getGuaranteeAmount().compareTo(new BigDecimal("500000")) > 0) {
-            score = score.add(new BigDecimal("25"));
-            amountRisk = 3;
-            recommendations.append("Senior approval required; ");
-        } else if (bg.getGuaranteeAmount().compareTo(new BigDecimal("100000")) > 0) {
-            score = score.add(new BigDecimal("15"));
-            amountRisk = 2;
-        } else {
-            score = score.add(new BigDecimal("5"));
-            amountRisk = 1;
-        }
-        
-        // Guarantee type risk
-        String gType = bg.getGuaranteeType();
-        if (gType != null) {
-            if (gType.contains("Performance") || gType.contains("Financial")) {
-                score = score.add(new BigDecimal("20"));
-                guaranteeTypeRisk = 3;
-                recommendations.append("Thorough applicant assessment required; ");
-            } else if (gType.contains("Bid") || gType.contains("Advance")) {
-                score = score.add(new BigDecimal("15"));
-                guaranteeTypeRisk = 2;
-            } else {
-                score = score.add(new BigDecimal("10"));
-                guaranteeTypeRisk = 1;
-            }
-        }
-        
-        // Validity period risk
-        long daysToExpiry = ChronoUnit.DAYS.between(LocalDate.now(), bg.getValidityPeriod());
-        if (daysToExpiry > 365) {
-            score = score.add(new BigDecimal("20"));
-            durationRisk = 3;
-            recommendations.append("Annual review required; ");
-        } else if (daysToExpiry > 180) {
-            score = score.add(new BigDecimal("10"));
-            durationRisk = 2;
-        } else {
-            score = score.add(new BigDecimal("5"));
-            durationRisk = 1;
-        }
-        
-        // Add baseline
-        score = score.add(new BigDecimal("10"));
-
-        // Build JSON format for risk factors
-        String factorsJson = String.format(
-            "{\"amountRisk\":%d,\"durationRisk\":%d,\"guaranteeTypeRisk\":%d,\"counterpartyRisk\":%d,\"documentationRisk\":%d}",
-            amountRisk, durationRisk, guaranteeTypeRisk, counterpartyRisk, documentationRisk
-        );
-
-        return new RiskAnalysisResult(
-                score.min(new BigDecimal("100")),
-                factorsJson,
-                recommendations.length() > 0 ? recommendations.toString() : "Standard monitoring recommended"
-        );
+        RiskScoringKernel rules = ruleEngine.current();
+        long daysToExpiry = bg.getValidityPeriod().toEpochDay() - LocalDate.now().toEpochDay();
+        return new RiskAnalysisResult(rules, rules.scoreBankGuarantee(
+                bg.getGuaranteeAmount(), bg.getGuaranteeType(), daysToExpiry, countryRestrictions.countryLevel(bg)));
     }
     
     /**
      * Determine risk level based on score
      */
     private RiskLevel determineRiskLevel(BigDecimal score) {
-        if (score.compareTo(new BigDecimal("75")) >= 0) {
-            return RiskLevel.CRITICAL;
-        } else if (score.compareTo(new BigDecimal("60")) >= 0) {
-            return RiskLevel.HIGH;
-        } else if (score.compareTo(new BigDecimal("25")) >= 0) {
-            return RiskLevel.MEDIUM;
-        } else {
-            return RiskLevel.LOW;
-        }
+        return ruleEngine.current().riskLevel(score);
     }
     
     /**
@@ -312,8 +240,18 @@ public class RiskAssessmentService {
         return riskRepository.findById(id);
     }
     
+    /**
+     * Current (newest) assessment of a transaction
+     */
     public Optional<RiskAssessment> findByTransactionReference(String reference) {
-        return riskRepository.findFirstByTransactionReferenceOrderByAssessmentDateDesc(reference);
+        return currentRisk.find(reference);
+    }
+
+    /**
+     * Current assessment of each of the transactions that has been assessed
+     */
+    public Map<String, RiskAssessment> findCurrentByTransactionReferences(Collection<String> references) {
+        return currentRisk.findAll(references);
     }
     
     public List<RiskAssessment> findAll() {
@@ -329,16 +267,56 @@ public class RiskAssessmentService {
     }
     
 
+    /**
+     * Most recently created assessments for the dashboard
+     */
+    public List<RiskAssessment> findRecent() {
+        return riskRepository.findTop10ByOrderByCreatedAtDesc();
+    }
+
+    // Dashboard figures come from the running statistics rather than a table scan per request
+    public long countAll() {
+        return statistics.getTotal();
+    }
+
     public long countByRiskLevel(RiskLevel level) {
-        return riskRepository.countByRiskLevel(level);
+        return statistics.getCount(level);
     }
     
     public Double getAverageRiskScore() {
-        return riskRepository.findAverageRiskScore();
+        return statistics.getAverageScore();
+    }
+
+    public BigDecimal getMinRiskScore() {
+        return statistics.getMinScore();
+    }
+
+    public BigDecimal getMaxRiskScore() {
+        return statistics.getMaxScore();
+    }
+    
+    /**
+     * Level distribution of every risk factor, aggregated in the database; null transaction type for all
+     */
+    public Map<String, RiskFactorBreakdown> getFactorBreakdown(String transactionType) {
+        String type = transactionType == null || transactionType.isBlank() ? null : transactionType.trim().toUpperCase();
+        Map<String, RiskFactorBreakdown> breakdown = new LinkedHashMap<>();
+        breakdown.put("amountRisk", RiskFactorBreakdown.fromRows("amountRisk", riskRepository.summarizeByAmountRisk(type)));
+        breakdown.put("durationRisk", RiskFactorBreakdown.fromRows("durationRisk", riskRepository.summarizeByDurationRisk(type)));
+        breakdown.put("currencyRisk", RiskFactorBreakdown.fromRows("currencyRisk", riskRepository.summarizeByCurrencyRisk(type)));
+        breakdown.put("documentationRisk", RiskFactorBreakdown.fromRows("documentationRisk", riskRepository.summarizeByDocumentationRisk(type)));
+        breakdown.put("counterpartyRisk", RiskFactorBreakdown.fromRows("counterpartyRisk", riskRepository.summarizeByCounterpartyRisk(type)));
+        breakdown.put("guaranteeTypeRisk", RiskFactorBreakdown.fromRows("guaranteeTypeRisk", riskRepository.summarizeByGuaranteeTypeRisk(type)));
+        breakdown.put("countryRisk", RiskFactorBreakdown.fromRows("countryRisk", riskRepository.summarizeByCountryRisk(type)));
+        return breakdown;
     }
     
     public void deleteAssessment(Long id) {
-        riskRepository.deleteById(id);
+        riskRepository.findById(id).ifPresent(assessment -> {
+            currentRisk.retract(assessment);
+            riskRepository.delete(assessment);
+            statistics.removeAfterCommit(assessment);
+        });
     }
     
     /**
@@ -373,14 +351,14 @@ public class RiskAssessmentService {
      * Helper class for risk analysis results
      */
     private static class RiskAnalysisResult {
+        int packed;
         BigDecimal score;
-        String factors;
         String recommendations;
         
-        RiskAnalysisResult(BigDecimal score, String factors, String recommendations) {
-            this.score = score;
-            this.factors = factors;
-            this.recommendations = recommendations;
+        RiskAnalysisResult(RiskScoringKernel rules, int packed) {
+            this.packed = packed;
+            this.score = RiskScoringKernel.scoreDecimal(packed);
+            this.recommendations = rules.recommendations(packed);
         }
     }
 }
@@ -0,0 +1,261 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.RiskRescoringRun;
+import com.tfms.model.enums.RiskLevel;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.RiskAssessmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Portfolio-wide risk rescoring
+ *
+ * Automatic scores depend on days to expiry, so an assessment drifts out of date as an LC or BG crosses the
+ * 365/180 day duration buckets, or when a party country is added to or removed from the restricted lists. This job streams every open LC and active BG in primary key chunks, scores each
+ * chunk in parallel on a dedicated fork-join pool with {@link RiskScoringKernel}, and saves a new assessment
+ * (one saveAll per chunk, sent as JDBC batches) only where the score or level differs from the latest one.
+ * Transactions that have never been assessed are left to the risk team, and so are those whose current
+ * assessment was not produced by the automatic scoring (a manual assessment or a "transaction not found"
+ * default): an officer's judgement is never overwritten by the job. At most one run is active at a time.
+ */
+@Slf4j
+@Service
+public class RiskRescoringService {
+
+    static final String RESCORED_BY = "System (scheduled rescoring)";
+
+    private final LetterOfCreditRepository lcRepository;
+    private final BankGuaranteeRepository bgRepository;
+    private final RiskAssessmentRepository riskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RiskRuleEngine ruleEngine;
+    private final RiskStatistics statistics;
+    private final CurrentRiskService currentRisk;
+    private final CountryRestrictionService countryRestrictions;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    private final AtomicReference<RiskRescoringRun> current = new AtomicReference<>();
+    private volatile RiskRescoringRun lastRun;
+
+    private final Timer chunkTimer;
+    private final Counter scoredCounter;
+    private final Counter changedCounter;
+
+    public RiskRescoringService(LetterOfCreditRepository lcRepository,
+                                BankGuaranteeRepository bgRepository,
+                                RiskAssessmentRepository riskRepository,
+                                TransactionTemplate transactionTemplate,
+                                RiskRuleEngine ruleEngine,
+                                RiskStatistics statistics,
+                                CurrentRiskService currentRisk,
+                                CountryRestrictionService countryRestrictions,
+                                MeterRegistry meterRegistry,
+                                @Value("${tfms.risk.rescoring.parallelism:0}") int parallelism,
+                                @Value("${tfms.risk.rescoring.chunk-size:500}") int chunkSize) {
+        this.lcRepository = lcRepository;
+        this.bgRepository = bgRepository;
+        this.riskRepository = riskRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ruleEngine = ruleEngine;
+        this.statistics = statistics;
+        this.currentRisk = currentRisk;
+        this.countryRestrictions = countryRestrictions;
+        this.chunkSize = Math.max(1, chunkSize);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("risk-rescoring-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+
+        this.chunkTimer = Timer.builder("tfms.risk.rescoring.chunk").register(meterRegistry);
+        this.scoredCounter = Counter.builder("tfms.risk.rescoring.scored").register(meterRegistry);
+        this.changedCounter = Counter.builder("tfms.risk.rescoring.changed").register(meterRegistry);
+        Gauge.builder("tfms.risk.rescoring.throughput", this,
+                s -> s.lastRun == null ? 0.0 : s.lastRun.getThroughput()).register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${tfms.risk.rescoring.cron:0 30 1 * * *}")
+    public void scheduledRescore() {
+        rescore("scheduler");
+    }
+
+    /**
+     * Start a run in the background, or return the one already in progress
+     */
+    public RiskRescoringRun start(String triggeredBy) {
+        RiskRescoringRun active = current.get();
+        if (active != null) return active;
+        RiskRescoringRun run = new RiskRescoringRun(triggeredBy);
+        if (!current.compareAndSet(null, run)) return current.get();
+        pool.execute(() -> execute(run));
+        return run;
+    }
+
+    /**
+     * Run synchronously; returns the run already in progress (without waiting) if there is one
+     */
+    public RiskRescoringRun rescore(String triggeredBy) {
+        RiskRescoringRun run = new RiskRescoringRun(triggeredBy);
+        if (!current.compareAndSet(null, run)) {
+            log.info("Risk rescoring requested by {} skipped: a run is already in progress", triggeredBy);
+            return current.get();
+        }
+        execute(run);
+        return run;
+    }
+
+    /**
+     * The run in progress, otherwise the last finished one
+     */
+    public Optional<RiskRescoringRun> getLatestRun() {
+        RiskRescoringRun active = current.get();
+        return Optional.ofNullable(active != null ? active : lastRun);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void execute(RiskRescoringRun run) {
+        log.info("Risk rescoring started by {}", run.getTriggeredBy());
+        try {
+            long today = LocalDate.now().toEpochDay();
+            // one rule set for the whole run, even if the rules are reloaded meanwhile
+            RiskScoringKernel rules = ruleEngine.current();
+            rescoreAll(run, "LC", rules,
+                    afterId -> lcRepository.findByStatusNotInAndLcIdGreaterThanOrderByLcIdAsc(
+                            ComplianceBatchService.CLOSED_LC_STATUSES, afterId, PageRequest.of(0, chunkSize)),
+                    LetterOfCredit::getLcId, LetterOfCredit::getReferenceNumber,
+                    lc -> rules.scoreLetterOfCredit(lc.getAmount(),
+                            lc.getExpiryDate().toEpochDay() - today, lc.getCurrency(), lc.getStatus(),
+                            countryRestrictions.countryLevel(lc)));
+            rescoreAll(run, "BG", rules,
+                    afterId -> bgRepository.findByStatusNotInAndGuaranteeIdGreaterThanOrderByGuaranteeIdAsc(
+                            ComplianceBatchService.CLOSED_BG_STATUSES, afterId, PageRequest.of(0, chunkSize)),
+                    BankGuarantee::getGuaranteeId, BankGuarantee::getReferenceNumber,
+                    bg -> rules.scoreBankGuarantee(bg.getGuaranteeAmount(), bg.getGuaranteeType(),
+                            bg.getValidityPeriod().toEpochDay() - today, countryRestrictions.countryLevel(bg)));
+            run.complete(RiskRescoringRun.State.COMPLETED);
+        } catch (RuntimeException e) {
+            log.error("Risk rescoring failed", e);
+            run.complete(RiskRescoringRun.State.FAILED);
+        } finally {
+            lastRun = run;
+            current.set(null);
+        }
+        log.info("Risk rescoring finished: {} scanned, {} changed, {} unassessed, {} manual, {} failed in {} ms ({} chunks, {}/s)",
+                run.getScanned(), run.getChanged(), run.getUnassessed(), run.getManual(), run.getFailed(), run.getElapsedMillis(),
+                run.getChunks(), Math.round(run.getThroughput()));
+    }
+
+    private <T> void rescoreAll(RiskRescoringRun run, String type, RiskScoringKernel rules,
+                                Function<Long, List<T>> pageAfter,
+                                Function<T, Long> idOf,
+                                Function<T, String> referenceOf,
+                                ToIntFunction<T> scorer) {
+        Long afterId = 0L;
+        while (afterId != null) {
+            Long cursor = afterId;
+            afterId = transactionTemplate.execute(status -> rescoreChunk(run, type, rules, pageAfter.apply(cursor), idOf, referenceOf, scorer));
+        }
+    }
+
+    /**
+     * Score one chunk and save what changed; returns the last id of the chunk, or null when there are no more rows
+     */
+    private <T> Long rescoreChunk(RiskRescoringRun run, String type, RiskScoringKernel rules, List<T> page,
+                                  Function<T, Long> idOf,
+                                  Function<T, String> referenceOf,
+                                  ToIntFunction<T> scorer) {
+        if (page.isEmpty()) return null;
+        long start = System.nanoTime();
+
+        List<String> references = page.stream().map(referenceOf).toList();
+        Map<String, RiskAssessment> latest = currentRisk.findAll(references);
+
+        List<T> assessed = page.stream().filter(transaction -> latest.containsKey(referenceOf.apply(transaction))).toList();
+        List<T> automatic = assessed.stream()
+                .filter(transaction -> latest.get(referenceOf.apply(transaction)).isAutomaticallyScored()).toList();
+        List<RiskAssessment> changed = pool.submit(() -> automatic.parallelStream()
+                .map(transaction -> {
+                    String reference = referenceOf.apply(transaction);
+                    try {
+                        return rescored(rules, type, reference, scorer.applyAsInt(transaction), latest.get(reference));
+                    } catch (RuntimeException e) {
+                        log.warn("Risk rescoring: could not score {} {}", type, reference, e);
+                        run.recordFailure();
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .toList()).join();
+        riskRepository.saveAll(changed);
+        currentRisk.advanceAll(changed);
+        statistics.recordAfterCommit(changed);
+
+        long elapsed = System.nanoTime() - start;
+        run.recordChunk(page.size(), page.size() - assessed.size(), assessed.size() - automatic.size(), changed.size(), elapsed);
+        chunkTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        scoredCounter.increment(automatic.size());
+        changedCounter.increment(changed.size());
+        return idOf.apply(page.get(page.size() - 1));
+    }
+
+    /**
+     * New assessment when the packed score differs in score or level from {@code previous}, otherwise null;
+     * always null when {@code previous} was not produced by the automatic scoring
+     */
+    static RiskAssessment rescored(RiskScoringKernel rules, String type, String reference, int packed,
+                                   RiskAssessment previous) {
+        if (!previous.isAutomaticallyScored()) {
+            return null;
+        }
+        BigDecimal score = RiskScoringKernel.scoreDecimal(packed);
+        RiskLevel level = rules.riskLevel(packed);
+        if (previous.getRiskScore() != null && previous.getRiskScore().compareTo(score) == 0
+                && previous.getRiskLevel() == level) {
+            return null;
+        }
+        RiskAssessment assessment = new RiskAssessment();
+        assessment.setTransactionReference(reference);
+        assessment.setTransactionType(type);
+        assessment.setRiskScore(score);
+        assessment.setRiskLevel(level);
+        RiskScoringKernel.applyFactors(packed, assessment);
+        assessment.setRecommendations(rules.recommendations(packed));
+        assessment.setRemarks("Scheduled rescoring (previous score " + previous.getRiskScore() + ")");
+        assessment.setAssessedBy(RESCORED_BY);
+        assessment.setAssessmentDate(LocalDate.now());
+        return assessment;
+    }
+}
@@ -0,0 +1,113 @@
+package com.tfms.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the compiled risk scoring rules and hot-reloads them from {@code tfms.risk.rules.location}
+ *
+ * Scorers take {@link #current()} once per transaction and use that immutable {@link RiskScoringKernel}
+ * throughout, so a reload is a single reference swap and never blocks or tears a score. A rule file that
+ * fails to compile is rejected at startup; on a later reload it is logged and the previous rules stay active.
+ * Without a configured location the bundled risk-rules.properties is used.
+ */
+@Slf4j
+@Service
+public class RiskRuleEngine {
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final AtomicReference<RiskScoringKernel> current = new AtomicReference<>(RiskScoringKernel.defaults());
+    private final Counter reloads;
+    private final Counter rejected;
+
+    private volatile long loadedLastModified = -1;
+    private volatile LocalDateTime loadedAt = LocalDateTime.now();
+
+    public RiskRuleEngine(ResourceLoader resourceLoader,
+                          MeterRegistry meterRegistry,
+                          @Value("${tfms.risk.rules.location:}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location == null ? "" : location.trim();
+        this.reloads = Counter.builder("tfms.risk.rules.reloads").tag("outcome", "applied").register(meterRegistry);
+        this.rejected = Counter.builder("tfms.risk.rules.reloads").tag("outcome", "rejected").register(meterRegistry);
+        if (!this.location.isEmpty()) {
+            reload();
+        }
+    }
+
+    /**
+     * The active rule set; hold on to it for the whole of one scoring
+     */
+    RiskScoringKernel current() {
+        return current.get();
+    }
+
+    /**
+     * Re-read the rule file if it changed since the last load
+     */
+    @Scheduled(fixedDelayString = "${tfms.risk.rules.reload-interval:PT30S}")
+    public void reloadIfModified() {
+        if (location.isEmpty()) return;
+        try {
+            if (resource().lastModified() != loadedLastModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Risk rules in {} rejected, keeping {}: {}", location, current().getSource(), e.getMessage());
+        }
+    }
+
+    /**
+     * Load, compile and swap in the configured rule file
+     *
+     * @throws IllegalArgumentException if the file does not compile; the active rules are left unchanged
+     */
+    public synchronized void reload() {
+        if (location.isEmpty()) return;
+        try {
+            Resource resource = resource();
+            long lastModified = resource.isFile() ? resource.lastModified() : 0;
+            Properties props = new Properties();
+            try (InputStream in = resource.getInputStream()) {
+                props.load(in);
+            }
+            current.set(RiskScoringKernel.compile(location, props));
+            loadedLastModified = lastModified;
+            loadedAt = LocalDateTime.now();
+            reloads.increment();
+            log.info("Risk rules loaded from {}", location);
+        } catch (IOException e) {
+            rejected.increment();
+            throw new UncheckedIOException("Cannot read risk rules from " + location, e);
+        } catch (RuntimeException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public String getSource() {
+        return current().getSource();
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    private Resource resource() {
+        return resourceLoader.getResource(location);
+    }
+}
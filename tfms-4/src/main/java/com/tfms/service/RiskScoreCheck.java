@@ -0,0 +1,64 @@
+package com.tfms.service;
+
+import com.tfms.model.RiskAssessment;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Check 3: the current risk score does not call for escalation
+ */
+@Component
+@Order(3)
+public class RiskScoreCheck implements ComplianceCheck {
+
+    private static final BigDecimal ESCALATION_SCORE = new BigDecimal("70");
+    private static final BigDecimal MODERATE_SCORE = new BigDecimal("50");
+
+    @Override
+    public String getName() {
+        return "risk";
+    }
+
+    @Override
+    public Set<ComplianceInputChangedEvent.Input> getInputs() {
+        return Set.of(ComplianceInputChangedEvent.Input.RISK);
+    }
+
+    @Override
+    public ComplianceCheckResult evaluate(ComplianceContext context) {
+        StringBuilder remarks = new StringBuilder();
+        boolean passed = checkRiskScore(context.getLatestRiskAssessment(), remarks);
+        return ComplianceCheckResult.of(passed, remarks.toString(), compliance -> compliance.setRiskCheckPassed(passed));
+    }
+
+    private static boolean checkRiskScore(RiskAssessment risk, StringBuilder remarks) {
+        if (risk == null) {
+            remarks.append("No risk assessment found. ");
+            return true; // Allow if no risk assessment (can be optional)
+        }
+
+        BigDecimal riskScore = risk.getRiskScore();
+
+        if (riskScore == null) {
+            return true;
+        }
+
+        // If risk score > 70, mark as non-compliant or needs escalation
+        if (riskScore.compareTo(ESCALATION_SCORE) > 0) {
+            remarks.append("High risk score detected (").append(riskScore).append("). Requires escalation. ");
+            return false;
+        }
+
+        // Moderate risk (50-70) is acceptable but noted
+        if (riskScore.compareTo(MODERATE_SCORE) > 0) {
+            remarks.append("Moderate risk detected (").append(riskScore).append("). ");
+        } else {
+            remarks.append("Risk assessment passed. ");
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,577 @@
+package com.tfms.service;
+
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.model.enums.RiskLevel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Allocation-free core of the automatic LC/BG risk scoring, compiled from a rule set (risk-rules.properties)
+ *
+ * An instance is immutable: amount and duration bands are sorted threshold arrays searched by binary search,
+ * low-risk currencies a bitset over three-letter codes, documentation-stage statuses a table by ordinal and
+ * known guarantee types a map resolved at compile time. A score is returned as a single packed int: the
+ * whole-number score (0-100), the six factor levels (1=Low, 2=Medium, 3=High; country risk 0 when neither
+ * party country is recorded) and the recommendation flags.
+ * The score BigDecimal, factor JSON and recommendation text are looked up from precomputed tables, so scoring
+ * a transaction allocates nothing. Decode a packed score with the instance that produced it.
+ */
+final class RiskScoringKernel {
+
+    static final String DEFAULT_RULES = "risk-rules.properties";
+
+    static final int TYPE_LC = 0;
+    static final int TYPE_BG = 1;
+
+    static final int MAX_SCORE = 100;
+
+    // packed layout: [0..6] score, [8..19] six 2-bit factor levels, [20..23] recommendation flags, [24] type
+    private static final int SCORE_MASK = 0x7F;
+    private static final int FACTOR_SHIFT = 8;
+    private static final int FACTOR_MASK = 0xFFF;
+    private static final int FLAG_SHIFT = 20;
+    private static final int FLAG_MASK = 0xF;
+    private static final int TYPE_SHIFT = 24;
+    private static final int HIGH = 3;
+    private static final int AMOUNT_SCALE = 2; // scale of LC/BG amount columns
+    private static final int MAX_DAY_TABLE = 10_000;
+
+    private static final String[] LC_FACTOR_NAMES =
+            {"amountRisk", "durationRisk", "currencyRisk", "documentationRisk", "counterpartyRisk", "countryRisk"};
+    private static final String[] BG_FACTOR_NAMES =
+            {"amountRisk", "durationRisk", "guaranteeTypeRisk", "counterpartyRisk", "documentationRisk", "countryRisk"};
+    private static final int COUNTRY_FACTOR = 5;
+    private static final String DEFAULT_RECOMMENDATION = "Standard monitoring recommended";
+
+    private static final BigDecimal[] SCORES = new BigDecimal[MAX_SCORE + 1];
+    private static final String[][] FACTOR_JSON = new String[2][FACTOR_MASK + 1];
+
+    private static volatile RiskScoringKernel defaults;
+
+    static {
+        for (int i = 0; i <= MAX_SCORE; i++) {
+            SCORES[i] = new BigDecimal(i);
+        }
+        for (int code = 0; code <= FACTOR_MASK; code++) {
+            FACTOR_JSON[TYPE_LC][code] = factorJson(LC_FACTOR_NAMES, code);
+            FACTOR_JSON[TYPE_BG][code] = factorJson(BG_FACTOR_NAMES, code);
+        }
+    }
+
+    private final String source;
+
+    private final int lcBaseline;
+    private final DecimalBands lcAmount;
+    private final LongBands lcDuration;
+    private final CurrencySet lowRiskCurrencies;
+    private final int lowRiskCurrencyRule;
+    private final int otherCurrencyRule;
+    private final boolean[] documentStage;
+    private final int documentationRule;
+    private final int lcCounterpartyLevel;
+
+    private final int bgBaseline;
+    private final DecimalBands bgAmount;
+    private final LongBands bgDuration;
+    private final Map<String, Integer> knownGuaranteeTypes;
+    private final String[] guaranteeKeywords;
+    private final int[] guaranteeKeywordRules;
+    private final int otherGuaranteeRule;
+    private final int bgCounterpartyLevel;
+    private final int bgDocumentationLevel;
+
+    // indexed by country risk level 0-3 (0 = no party country recorded)
+    private final int[] countryRules = new int[4];
+
+    private final RiskLevel[] levelByScore = new RiskLevel[MAX_SCORE + 1];
+    private final BigDecimal levelMedium;
+    private final BigDecimal levelHigh;
+    private final BigDecimal levelCritical;
+    private final String[][] recommendations = new String[2][FLAG_MASK + 1];
+
+    private RiskScoringKernel(String source, Rules rules) {
+        this.source = source;
+
+        levelMedium = rules.decimal("risk.level.medium");
+        levelHigh = rules.decimal("risk.level.high");
+        levelCritical = rules.decimal("risk.level.critical");
+        if (levelMedium.compareTo(levelHigh) > 0 || levelHigh.compareTo(levelCritical) > 0) {
+            throw new IllegalArgumentException("risk.level thresholds must be medium <= high <= critical");
+        }
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            levelByScore[score] = riskLevel(BigDecimal.valueOf(score));
+        }
+
+        lcBaseline = rules.integer("lc.baseline");
+        lcAmount = new DecimalBands("lc.amount", rules);
+        lcDuration = new LongBands("lc.duration", rules);
+        lowRiskCurrencies = new CurrencySet(rules.list("lc.currency.low-risk"));
+        lowRiskCurrencyRule = rule(rules.integer("lc.currency.low-risk.points"), rules.level("lc.currency.low-risk.level"));
+        otherCurrencyRule = rule(rules.integer("lc.currency.other.points"), rules.level("lc.currency.other.level"));
+        String keyword = rules.text("lc.documentation.status-keyword");
+        documentStage = new boolean[LCStatus.values().length];
+        for (LCStatus status : LCStatus.values()) {
+            documentStage[status.ordinal()] = !keyword.isEmpty() && status.name().contains(keyword);
+        }
+        documentationRule = rule(rules.integer("lc.documentation.points"), rules.level("lc.documentation.level"));
+        lcCounterpartyLevel = rules.level("lc.counterparty.level");
+
+        bgBaseline = rules.integer("bg.baseline");
+        bgAmount = new DecimalBands("bg.amount", rules);
+        bgDuration = new LongBands("bg.duration", rules);
+        guaranteeKeywords = rules.list("bg.type.keywords");
+        int[] keywordPoints = rules.integers("bg.type.keyword.points");
+        int[] keywordLevels = rules.levels("bg.type.keyword.levels");
+        if (keywordPoints.length != guaranteeKeywords.length || keywordLevels.length != guaranteeKeywords.length) {
+            throw new IllegalArgumentException("bg.type.keyword.points/levels need one entry per keyword");
+        }
+        guaranteeKeywordRules = new int[guaranteeKeywords.length];
+        for (int i = 0; i < guaranteeKeywords.length; i++) {
+            guaranteeKeywordRules[i] = rule(keywordPoints[i], keywordLevels[i]);
+        }
+        otherGuaranteeRule = rule(rules.integer("bg.type.other.points"), rules.level("bg.type.other.level"));
+        Map<String, Integer> known = new HashMap<>();
+        for (String type : rules.list("bg.type.known")) {
+            known.put(type, matchGuaranteeKeyword(type));
+        }
+        knownGuaranteeTypes = Map.copyOf(known);
+        bgCounterpartyLevel = rules.level("bg.counterparty.level");
+        bgDocumentationLevel = rules.level("bg.documentation.level");
+
+        int[] countryPoints = rules.integers("country.points");
+        if (countryPoints.length != 3) {
+            throw new IllegalArgumentException("country.points needs 3 entries (levels 1, 2, 3)");
+        }
+        for (int level = 1; level <= 3; level++) {
+            countryRules[level] = rule(countryPoints[level - 1], level);
+        }
+
+        // recommendation flag bits follow the order the texts are appended in
+        String countryRecommendation = rules.text("country.recommendation");
+        buildRecommendations(TYPE_LC, rules.text("lc.amount.recommendation"),
+                rules.text("lc.duration.recommendation"), rules.text("lc.currency.recommendation"), countryRecommendation);
+        buildRecommendations(TYPE_BG, rules.text("bg.amount.recommendation"),
+                rules.text("bg.type.recommendation"), rules.text("bg.duration.recommendation"), countryRecommendation);
+    }
+
+    /**
+     * The bundled risk-rules.properties
+     */
+    static RiskScoringKernel defaults() {
+        RiskScoringKernel instance = defaults;
+        if (instance == null) {
+            instance = new RiskScoringKernel("classpath:" + DEFAULT_RULES, new Rules(bundledRules()));
+            defaults = instance;
+        }
+        return instance;
+    }
+
+    /**
+     * Compile a rule set; keys missing from {@code overrides} fall back to the bundled rules
+     *
+     * @throws IllegalArgumentException if a rule is missing, malformed or inconsistent
+     */
+    static RiskScoringKernel compile(String source, Properties overrides) {
+        Properties merged = new Properties();
+        merged.putAll(bundledRules());
+        merged.putAll(overrides);
+        return new RiskScoringKernel(source, new Rules(merged));
+    }
+
+    /**
+     * Where this rule set was loaded from
+     */
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Score a letter of credit
+     *
+     * @param daysToExpiry expiry date minus today, in days
+     * @param countryLevel  party country risk from {@link CountryRestrictions#level}, 0 if no country is recorded
+     */
+    int scoreLetterOfCredit(BigDecimal amount, long daysToExpiry, String currency, LCStatus status, int countryLevel) {
+        int flags = 0;
+
+        int amountRule = lcAmount.rule(amount);
+        int amountRisk = level(amountRule);
+        if (amountRisk == HIGH) flags |= 1;
+
+        int durationRule = lcDuration.rule(daysToExpiry);
+        int durationRisk = level(durationRule);
+        if (durationRisk == HIGH) flags |= 2;
+
+        int currencyRule = lowRiskCurrencies.contains(currency) ? lowRiskCurrencyRule : otherCurrencyRule;
+        int currencyRisk = level(currencyRule);
+        if (currencyRisk == HIGH) flags |= 4;
+
+        int score = lcBaseline + points(amountRule) + points(durationRule) + points(currencyRule);
+        int documentationRisk = 1;
+        if (status != null && documentStage[status.ordinal()]) {
+            score += points(documentationRule);
+            documentationRisk = level(documentationRule);
+        }
+
+        int countryRule = countryRules[countryLevel];
+        score += points(countryRule);
+        if (level(countryRule) == HIGH) flags |= 8;
+
+        return pack(TYPE_LC, score, flags, amountRisk, durationRisk, currencyRisk, documentationRisk, lcCounterpartyLevel,
+                level(countryRule));
+    }
+
+    /**
+     * Score a bank guarantee
+     *
+     * @param daysToExpiry validity period end minus today, in days
+     * @param countryLevel  party country risk from {@link CountryRestrictions#level}, 0 if no country is recorded
+     */
+    int scoreBankGuarantee(BigDecimal amount, String guaranteeType, long daysToExpiry, int countryLevel) {
+        int flags = 0;
+
+        int amountRule = bgAmount.rule(amount);
+        int amountRisk = level(amountRule);
+        if (amountRisk == HIGH) flags |= 1;
+
+        int score = bgBaseline + points(amountRule);
+        int guaranteeTypeRisk = 1;
+        if (guaranteeType != null) {
+            Integer known = knownGuaranteeTypes.get(guaranteeType);
+            int typeRule = known != null ? known : matchGuaranteeKeyword(guaranteeType);
+            score += points(typeRule);
+            guaranteeTypeRisk = level(typeRule);
+            if (guaranteeTypeRisk == HIGH) flags |= 2;
+        }
+
+        int durationRule = bgDuration.rule(daysToExpiry);
+        int durationRisk = level(durationRule);
+        if (durationRisk == HIGH) flags |= 4;
+        score += points(durationRule);
+
+        int countryRule = countryRules[countryLevel];
+        score += points(countryRule);
+        if (level(countryRule) == HIGH) flags |= 8;
+
+        return pack(TYPE_BG, score, flags, amountRisk, durationRisk, guaranteeTypeRisk, bgCounterpartyLevel, bgDocumentationLevel,
+                level(countryRule));
+    }
+
+    static int score(int packed) {
+        return packed & SCORE_MASK;
+    }
+
+    static BigDecimal scoreDecimal(int packed) {
+        return SCORES[score(packed)];
+    }
+
+    /**
+     * Factor level (1-3, or 0 for an unrated country) at position {@code index} of the type's JSON field order
+     */
+    static int factor(int packed, int index) {
+        return (packed >>> (FACTOR_SHIFT + 2 * index)) & 0x3;
+    }
+
+    /**
+     * Copy the factor levels into the assessment's typed columns, leaving the stored free-form JSON empty
+     */
+    static void applyFactors(int packed, RiskAssessment target) {
+        target.setRiskFactors(null);
+        target.setAmountRisk(factor(packed, 0));
+        target.setDurationRisk(factor(packed, 1));
+        if (packed >>> TYPE_SHIFT == TYPE_BG) {
+            target.setGuaranteeTypeRisk(factor(packed, 2));
+            target.setCounterpartyRisk(factor(packed, 3));
+            target.setDocumentationRisk(factor(packed, 4));
+        } else {
+            target.setCurrencyRisk(factor(packed, 2));
+            target.setDocumentationRisk(factor(packed, 3));
+            target.setCounterpartyRisk(factor(packed, 4));
+        }
+        int country = factor(packed, COUNTRY_FACTOR);
+        target.setCountryRisk(country == 0 ? null : country);
+    }
+
+    static String factorsJson(int packed) {
+        return FACTOR_JSON[packed >>> TYPE_SHIFT][(packed >>> FACTOR_SHIFT) & FACTOR_MASK];
+    }
+
+    String recommendations(int packed) {
+        return recommendations[packed >>> TYPE_SHIFT][(packed >>> FLAG_SHIFT) & FLAG_MASK];
+    }
+
+    RiskLevel riskLevel(int packed) {
+        return levelByScore[score(packed)];
+    }
+
+    /**
+     * Level for an arbitrary (e.g. manually entered) score
+     */
+    RiskLevel riskLevel(BigDecimal score) {
+        if (score.compareTo(levelCritical) >= 0) return RiskLevel.CRITICAL;
+        if (score.compareTo(levelHigh) >= 0) return RiskLevel.HIGH;
+        if (score.compareTo(levelMedium) >= 0) return RiskLevel.MEDIUM;
+        return RiskLevel.LOW;
+    }
+
+    private int matchGuaranteeKeyword(String guaranteeType) {
+        for (int i = 0; i < guaranteeKeywords.length; i++) {
+            if (guaranteeType.contains(guaranteeKeywords[i])) return guaranteeKeywordRules[i];
+        }
+        return otherGuaranteeRule;
+    }
+
+    private void buildRecommendations(int type, String... texts) {
+        for (int flags = 0; flags <= FLAG_MASK; flags++) {
+            StringBuilder text = new StringBuilder();
+            for (int bit = 0; bit < texts.length; bit++) {
+                if ((flags & (1 << bit)) != 0 && !texts[bit].isEmpty()) text.append(texts[bit]).append("; ");
+            }
+            recommendations[type][flags] = text.length() > 0 ? text.toString() : DEFAULT_RECOMMENDATION;
+        }
+    }
+
+    // a points/level pair packed into one int
+    private static int rule(int points, int level) {
+        if (points < 0 || points > MAX_SCORE) throw new IllegalArgumentException("Risk rule points must be 0-" + MAX_SCORE);
+        return points << 2 | level;
+    }
+
+    private static int points(int rule) {
+        return rule >>> 2;
+    }
+
+    private static int level(int rule) {
+        return rule & 0x3;
+    }
+
+    private static int pack(int type, int score, int flags, int f0, int f1, int f2, int f3, int f4, int f5) {
+        int factors = f0 | (f1 << 2) | (f2 << 4) | (f3 << 6) | (f4 << 8) | (f5 << 10);
+        return Math.max(0, Math.min(score, MAX_SCORE))
+                | (factors << FACTOR_SHIFT)
+                | (flags << FLAG_SHIFT)
+                | (type << TYPE_SHIFT);
+    }
+
+    private static String factorJson(String[] names, int code) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            int level = (code >>> (2 * i)) & 0x3;
+            if (i == COUNTRY_FACTOR && level == 0) continue; // unrated, as before country data existed
+            if (i > 0) json.append(',');
+            json.append('"').append(names[i]).append("\":").append(level);
+        }
+        return json.append('}').toString();
+    }
+
+    private static Properties bundledRules() {
+        Properties props = new Properties();
+        try (InputStream in = RiskScoringKernel.class.getClassLoader().getResourceAsStream(DEFAULT_RULES)) {
+            if (in == null) throw new IllegalStateException(DEFAULT_RULES + " is missing from the classpath");
+            props.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return props;
+    }
+
+    /**
+     * Amount bands: band i covers values above thresholds[i-1] up to and including thresholds[i]
+     *
+     * Thresholds are kept at the scale of stored money amounts, so comparing a persisted amount takes
+     * BigDecimal's same-scale fast path.
+     */
+    private static final class DecimalBands {
+        private final BigDecimal[] thresholds;
+        private final int[] rules;
+
+        private DecimalBands(String prefix, Rules config) {
+            String[] raw = config.list(prefix + ".thresholds");
+            thresholds = new BigDecimal[raw.length];
+            for (int i = 0; i < raw.length; i++) {
+                BigDecimal threshold = config.parseDecimal(prefix + ".thresholds", raw[i]);
+                thresholds[i] = threshold.scale() <= AMOUNT_SCALE ? threshold.setScale(AMOUNT_SCALE) : threshold;
+                if (i > 0 && thresholds[i].compareTo(thresholds[i - 1]) <= 0) {
+                    throw new IllegalArgumentException(prefix + ".thresholds must be strictly ascending");
+                }
+            }
+            rules = bandRules(prefix, thresholds.length, config);
+        }
+
+        private int rule(BigDecimal value) {
+            int lo = 0;
+            int hi = thresholds.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (value.compareTo(thresholds[mid]) > 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return rules[lo];
+        }
+    }
+
+    /**
+     * Day bands, same semantics as {@link DecimalBands}; values from 0 to the last threshold are a direct table lookup
+     */
+    private static final class LongBands {
+        private final long[] thresholds;
+        private final int[] rules;
+        private final int[] ruleByValue;
+
+        private LongBands(String prefix, Rules config) {
+            String[] raw = config.list(prefix + ".thresholds");
+            thresholds = new long[raw.length];
+            for (int i = 0; i < raw.length; i++) {
+                thresholds[i] = config.parseInteger(prefix + ".thresholds", raw[i]);
+                if (i > 0 && thresholds[i] <= thresholds[i - 1]) {
+                    throw new IllegalArgumentException(prefix + ".thresholds must be strictly ascending");
+                }
+            }
+            rules = bandRules(prefix, thresholds.length, config);
+            long last = thresholds.length == 0 ? -1 : thresholds[thresholds.length - 1];
+            ruleByValue = new int[(int) Math.max(0, Math.min(last + 1, MAX_DAY_TABLE))];
+            for (int value = 0; value < ruleByValue.length; value++) {
+                ruleByValue[value] = search(value);
+            }
+        }
+
+        private int rule(long value) {
+            if (value >= 0 && value < ruleByValue.length) return ruleByValue[(int) value];
+            return search(value);
+        }
+
+        private int search(long value) {
+            int lo = 0;
+            int hi = thresholds.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (value > thresholds[mid]) lo = mid + 1;
+                else hi = mid;
+            }
+            return rules[lo];
+        }
+    }
+
+    private static int[] bandRules(String prefix, int thresholds, Rules config) {
+        int[] points = config.integers(prefix + ".points");
+        int[] levels = config.levels(prefix + ".levels");
+        checkBandSizes(prefix, thresholds, points, levels);
+        int[] rules = new int[points.length];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = rule(points[i], levels[i]);
+        }
+        return rules;
+    }
+
+    private static void checkBandSizes(String prefix, int thresholds, int[] points, int[] levels) {
+        if (points.length != thresholds + 1 || levels.length != thresholds + 1) {
+            throw new IllegalArgumentException(prefix + ".points and " + prefix + ".levels need "
+                    + (thresholds + 1) + " entries (one per band)");
+        }
+    }
+
+    /**
+     * Bitset over the 26^3 upper-case three-letter ISO 4217 codes
+     */
+    private static final class CurrencySet {
+        private final long[] bits = new long[(26 * 26 * 26 + 63) / 64];
+
+        private CurrencySet(String[] codes) {
+            for (String code : codes) {
+                int index = index(code);
+                if (index < 0) throw new IllegalArgumentException("Not a three-letter currency code: " + code);
+                bits[index >>> 6] |= 1L << index;
+            }
+        }
+
+        private boolean contains(String code) {
+            int index = index(code);
+            return index >= 0 && (bits[index >>> 6] & (1L << index)) != 0;
+        }
+
+        private static int index(String code) {
+            if (code == null || code.length() != 3) return -1;
+            int index = 0;
+            for (int i = 0; i < 3; i++) {
+                int c = code.charAt(i) - 'A';
+                if (c < 0 || c >= 26) return -1;
+                index = index * 26 + c;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Typed access to the raw properties, with the key named in every error
+     */
+    private static final class Rules {
+        private final Properties props;
+
+        private Rules(Properties props) {
+            this.props = props;
+        }
+
+        private String text(String key) {
+            String value = props.getProperty(key);
+            if (value == null) throw new IllegalArgumentException("Missing risk rule " + key);
+            return value.trim();
+        }
+
+        private String[] list(String key) {
+            String value = text(key);
+            if (value.isEmpty()) return new String[0];
+            return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        }
+
+        private int integer(String key) {
+            return parseInteger(key, text(key));
+        }
+
+        private int[] integers(String key) {
+            return Arrays.stream(list(key)).mapToInt(v -> parseInteger(key, v)).toArray();
+        }
+
+        private int level(String key) {
+            return checkLevel(key, integer(key));
+        }
+
+        private int[] levels(String key) {
+            int[] levels = integers(key);
+            for (int level : levels) checkLevel(key, level);
+            return levels;
+        }
+
+        private BigDecimal decimal(String key) {
+            return parseDecimal(key, text(key));
+        }
+
+        private int parseInteger(String key, String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Risk rule " + key + " is not an integer: " + value);
+            }
+        }
+
+        private BigDecimal parseDecimal(String key, String value) {
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Risk rule " + key + " is not a number: " + value);
+            }
+        }
+
+        private static int checkLevel(String key, int level) {
+            if (level < 1 || level > 3) throw new IllegalArgumentException("Risk rule " + key + " levels must be 1-3");
+            return level;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.tfms.service;
+
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.enums.RiskLevel;
+import com.tfms.repository.RiskAssessmentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running risk assessment statistics for the risk dashboard
+ *
+ * Per-level counts, the score sum (in hundredths, so it stays exact) and min/max score are kept in striped
+ * LongAdder/LongAccumulator cells. Services apply each saved or deleted assessment once its transaction has
+ * committed, so reads are O(1) and never touch the database. A periodic reconciliation recomputes everything
+ * with one grouped query and swaps the result in, which corrects drift from writes that bypass the services
+ * and from updates racing the swap. Deleting the current minimum or maximum marks the extremes stale; the next
+ * read of an extreme reconciles instead of reporting a score that no longer exists.
+ */
+@Slf4j
+@Service
+public class RiskStatistics {
+
+    private static final RiskLevel[] LEVELS = RiskLevel.values();
+
+    private final RiskAssessmentRepository riskRepository;
+
+    private volatile Accumulators current = new Accumulators();
+    private volatile boolean extremesStale;
+    private volatile long lastDrift;
+
+    public RiskStatistics(RiskAssessmentRepository riskRepository, MeterRegistry meterRegistry) {
+        this.riskRepository = riskRepository;
+        Gauge.builder("tfms.risk.statistics.assessments", this, RiskStatistics::getTotal).register(meterRegistry);
+        Gauge.builder("tfms.risk.statistics.drift", this, s -> s.lastDrift)
+                .description("Assessments the running totals were off by at the last reconciliation")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Recompute all statistics from the database and replace the running totals
+     */
+    @Scheduled(fixedDelayString = "${tfms.risk.statistics.reconcile-interval:PT5M}",
+            initialDelayString = "${tfms.risk.statistics.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        Accumulators next = new Accumulators();
+        next.load(riskRepository.summarizeByRiskLevel());
+        long drift = Math.abs(current.count.sum() - next.count.sum());
+        current = next;
+        extremesStale = false;
+        lastDrift = drift;
+        if (drift != 0) {
+            log.info("Risk statistics reconciled: running total was off by {} assessments", drift);
+        }
+    }
+
+    /**
+     * Count the assessments once the current transaction commits
+     */
+    public void recordAfterCommit(Collection<RiskAssessment> assessments) {
+        if (assessments.isEmpty()) return;
+        List<Sample> samples = assessments.stream().map(Sample::of).toList();
+        TransactionHooks.afterCommit(() -> samples.forEach(sample -> current.add(sample, 1)));
+    }
+
+    public void recordAfterCommit(RiskAssessment assessment) {
+        recordAfterCommit(List.of(assessment));
+    }
+
+    /**
+     * Take the assessment out of the statistics once the current transaction commits
+     */
+    public void removeAfterCommit(RiskAssessment assessment) {
+        Sample sample = Sample.of(assessment);
+        TransactionHooks.afterCommit(() -> {
+            Accumulators acc = current;
+            acc.add(sample, -1);
+            if (sample.cents != null && (sample.cents <= acc.min.get() || sample.cents >= acc.max.get())) {
+                extremesStale = true;
+            }
+        });
+    }
+
+    public long getTotal() {
+        return current.count.sum();
+    }
+
+    public long getCount(RiskLevel level) {
+        return current.levels[level.ordinal()].sum();
+    }
+
+    /**
+     * Average score rounded to two decimals, or null when no assessment has a score
+     */
+    public Double getAverageScore() {
+        Accumulators acc = current;
+        long scored = acc.scored.sum();
+        if (scored <= 0) return null;
+        return BigDecimal.valueOf(acc.scoreCents.sum())
+                .divide(BigDecimal.valueOf(scored * 100), 2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    public BigDecimal getMinScore() {
+        return extreme(true);
+    }
+
+    public BigDecimal getMaxScore() {
+        return extreme(false);
+    }
+
+    private BigDecimal extreme(boolean min) {
+        if (extremesStale) reconcile();
+        Accumulators acc = current;
+        if (acc.scored.sum() <= 0) return null;
+        return BigDecimal.valueOf(min ? acc.min.get() : acc.max.get(), 2);
+    }
+
+    // the fields of an assessment the statistics need, captured before the commit
+    private static final class Sample {
+        final RiskLevel level;
+        final Long cents;
+
+        private Sample(RiskLevel level, Long cents) {
+            this.level = level;
+            this.cents = cents;
+        }
+
+        static Sample of(RiskAssessment assessment) {
+            return new Sample(assessment.getRiskLevel(), cents(assessment.getRiskScore()));
+        }
+    }
+
+    private static Long cents(BigDecimal score) {
+        return score == null ? null : score.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static final class Accumulators {
+        final LongAdder count = new LongAdder();
+        final LongAdder[] levels = new LongAdder[LEVELS.length];
+        final LongAdder scored = new LongAdder();
+        final LongAdder scoreCents = new LongAdder();
+        final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        Accumulators() {
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = new LongAdder();
+            }
+        }
+
+        void add(Sample sample, int sign) {
+            count.add(sign);
+            if (sample.level != null) levels[sample.level.ordinal()].add(sign);
+            if (sample.cents != null) {
+                scored.add(sign);
+                scoreCents.add(sign * sample.cents);
+                if (sign > 0) {
+                    min.accumulate(sample.cents);
+                    max.accumulate(sample.cents);
+                }
+            }
+        }
+
+        // rows of [level, count, scored count, score sum, min score, max score]
+        void load(List<Object[]> rows) {
+            for (Object[] row : rows) {
+                long rowCount = ((Number) row[1]).longValue();
+                count.add(rowCount);
+                if (row[0] != null) levels[((RiskLevel) row[0]).ordinal()].add(rowCount);
+                scored.add(((Number) row[2]).longValue());
+                if (row[3] != null) scoreCents.add(cents(toDecimal(row[3])));
+                if (row[4] != null) min.accumulate(cents(toDecimal(row[4])));
+                if (row[5] != null) max.accumulate(cents(toDecimal(row[5])));
+            }
+        }
+
+        private static BigDecimal toDecimal(Object value) {
+            return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.tfms.service;
+
+import com.tfms.model.ScreeningHit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Immutable in-memory index of a sanctions watchlist
+ *
+ * Every entry's name and aliases are normalized with {@link PartyNameNormalizer}. A screened name is checked in two
+ * passes: an {@link AliasMatcher} finds aliases that occur in it verbatim as whole tokens, and a blocking index
+ * collects the aliases that share a selective trigram or token key with the name. Candidates whose trigram overlap
+ * with the whole name is high enough (Dice coefficient of at least {@value #CANDIDATE_DICE}) get a Jaro-Winkler
+ * comparison, both as written and with tokens sorted so that reordered personal names still match. Per-screening
+ * counters live in thread-local scratch arrays, so screening allocates little beyond its result. The best hit per
+ * watchlist entry is reported.
+ *
+ * Trigrams and token keys that occur in more than {@value #MAX_POSTING_SHARE} of all aliases (legal forms, common
+ * syllables, "trading") are not indexed: on a large list they would make nearly every alias a candidate. A fuzzy
+ * match therefore needs one selective key in common with the alias. Token keys are each token plus its first and
+ * last {@value #TOKEN_AFFIX} symbols, so a typo anywhere in a name usually leaves several of them intact. Lists of
+ * up to {@value #MIN_POSTING_LIMIT} aliases keep every key and screen exactly as without the limit.
+ */
+final class SanctionsIndex {
+
+    /** Minimum trigram overlap for an alias to be compared with Jaro-Winkler */
+    static final double CANDIDATE_DICE = 0.4;
+
+    /** Shorter aliases only match a whole name, never a run of tokens inside a longer one */
+    static final int MIN_EXACT_ALIAS_LENGTH = 5;
+
+    /** Share of all aliases above which a trigram or token key is too common to select candidates */
+    static final double MAX_POSTING_SHARE = 0.005;
+
+    /** Posting lists of up to this many aliases are always kept, however small the list */
+    static final int MIN_POSTING_LIMIT = 100;
+
+    /** Length of the token prefix and suffix keys */
+    static final int TOKEN_AFFIX = 4;
+
+    private static final int ALPHABET = PartyNameNormalizer.ALPHABET;
+    private static final int GRAM_CODES = ALPHABET * ALPHABET * ALPHABET;
+
+    /**
+     * One watchlist record
+     */
+    static final class Entry {
+        final String id;
+        final String name;
+        final String type;
+        final String program;
+        final List<String> aliases;
+
+        Entry(String id, String name, String type, String program, List<String> aliases) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.program = program;
+            this.aliases = aliases;
+        }
+    }
+
+    private final String source;
+    private final double threshold;
+    private final Entry[] entries;
+    private final String[] aliasText;
+    private final String[] aliasNormalized;
+    private final String[] aliasSorted;
+    private final int[] aliasEntry;
+    private final int[][] aliasGrams;
+    private final int[][] postings;
+    private final Map<String, int[]> tokenPostings;
+    private final AliasMatcher exactMatcher;
+    private final int[][] exactAliases; // pattern id -> alias ids
+    private final ThreadLocal<Scratch> scratch;
+
+    private SanctionsIndex(String source, double threshold, List<Entry> entries) {
+        this.source = source;
+        this.threshold = threshold;
+        this.entries = entries.toArray(new Entry[0]);
+
+        List<String> texts = new ArrayList<>();
+        List<String> normalized = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int e = 0; e < this.entries.length; e++) {
+            for (String alias : this.entries[e].aliases) {
+                String n = PartyNameNormalizer.normalize(alias);
+                if (n.isEmpty()) continue;
+                texts.add(alias);
+                normalized.add(n);
+                owners.add(e);
+            }
+        }
+        int aliases = texts.size();
+        this.aliasText = texts.toArray(new String[0]);
+        this.aliasNormalized = normalized.toArray(new String[0]);
+        this.aliasSorted = new String[aliases];
+        this.aliasEntry = new int[aliases];
+        this.aliasGrams = new int[aliases][];
+        int postingLimit = postingLimit(aliases);
+        int[] postingSizes = new int[GRAM_CODES];
+        int[] buffer = new int[64];
+        for (int a = 0; a < aliases; a++) {
+            aliasSorted[a] = PartyNameNormalizer.sortTokens(aliasNormalized[a]);
+            aliasEntry[a] = owners.get(a);
+            if (buffer.length < aliasNormalized[a].length() + 2) buffer = new int[aliasNormalized[a].length() + 2];
+            int count = trigrams(aliasNormalized[a], buffer);
+            aliasGrams[a] = Arrays.copyOf(buffer, count);
+            for (int g : aliasGrams[a]) postingSizes[g]++;
+        }
+        // grams shared by more than postingLimit aliases get no posting list
+        this.postings = new int[GRAM_CODES][];
+        int[] fill = new int[GRAM_CODES];
+        for (int a = 0; a < aliases; a++) {
+            for (int g : aliasGrams[a]) {
+                if (postingSizes[g] > postingLimit) continue;
+                if (postings[g] == null) postings[g] = new int[postingSizes[g]];
+                postings[g][fill[g]++] = a;
+            }
+        }
+
+        // token blocking keys, with the same limit on common ones
+        Map<String, List<Integer>> keys = new HashMap<>();
+        for (int a = 0; a < aliases; a++) {
+            int alias = a;
+            tokenKeys(aliasNormalized[a], key -> {
+                List<Integer> ids = keys.computeIfAbsent(key, k -> new ArrayList<>());
+                if (ids.isEmpty() || ids.get(ids.size() - 1) != alias) ids.add(alias);
+            });
+        }
+        this.tokenPostings = new HashMap<>();
+        keys.forEach((key, ids) -> {
+            if (ids.size() <= postingLimit) tokenPostings.put(key, ids.stream().mapToInt(Integer::intValue).toArray());
+        });
+
+        // identical normalized aliases (of one or several entries) share one automaton pattern
+        Map<String, List<Integer>> patterns = new HashMap<>();
+        List<String> patternTexts = new ArrayList<>();
+        for (int a = 0; a < aliases; a++) {
+            if (aliasNormalized[a].length() < MIN_EXACT_ALIAS_LENGTH) continue;
+            patterns.computeIfAbsent(aliasNormalized[a], p -> {
+                patternTexts.add(p);
+                return new ArrayList<>();
+            }).add(a);
+        }
+        this.exactMatcher = new AliasMatcher(patternTexts);
+        this.exactAliases = new int[patternTexts.size()][];
+        for (int p = 0; p < patternTexts.size(); p++) {
+            exactAliases[p] = patterns.get(patternTexts.get(p)).stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(aliases, this.entries.length));
+    }
+
+    static SanctionsIndex build(String source, List<Entry> entries, double threshold) {
+        if (threshold <= 0.0 || threshold > 1.0) {
+            throw new IllegalArgumentException("Sanctions fuzzy threshold must be in (0, 1]: " + threshold);
+        }
+        return new SanctionsIndex(source, threshold, entries);
+    }
+
+    /**
+     * Parse a watchlist CSV: a header line, then {@code id,name,type,program,aliases} with aliases separated by
+     * ';'. Fields may be double-quoted; blank lines and lines starting with '#' are skipped.
+     *
+     * @throws IllegalArgumentException for a record without an id or name
+     */
+    static List<Entry> parseCsv(String source, BufferedReader reader) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        boolean header = true;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) continue;
+            List<String> columns = splitCsv(line);
+            if (header) {
+                header = false;
+                if ("id".equalsIgnoreCase(columns.get(0).trim())) continue;
+            }
+            String id = column(columns, 0);
+            String name = column(columns, 1);
+            if (id.isEmpty() || name.isEmpty()) {
+                throw new IllegalArgumentException(source + " line " + lineNumber + ": a watchlist entry needs an id and a name");
+            }
+            List<String> aliases = new ArrayList<>();
+            aliases.add(name);
+            for (String alias : column(columns, 4).split(";")) {
+                if (!alias.isBlank()) aliases.add(alias.trim());
+            }
+            entries.add(new Entry(id, name, column(columns, 2), column(columns, 3), List.copyOf(aliases)));
+        }
+        return entries;
+    }
+
+    /**
+     * Potential matches of one party name, at most one (the best) per watchlist entry
+     */
+    List<ScreeningHit> screen(String field, String name) {
+        String normalized = PartyNameNormalizer.normalize(name);
+        if (normalized.isEmpty() || entries.length == 0) return List.of();
+        Scratch s = scratch.get();
+        try {
+            exactMatcher.forEachMatch(normalized, pattern -> {
+                for (int alias : exactAliases[pattern]) s.offer(aliasEntry[alias], alias, true, 1.0);
+            });
+
+            int grams = trigrams(normalized, s.grams(normalized.length() + 2));
+            for (int i = 0; i < grams; i++) {
+                int[] aliases = postings[s.grams[i]];
+                if (aliases != null) s.touch(aliases);
+            }
+            tokenKeys(normalized, key -> {
+                int[] aliases = tokenPostings.get(key);
+                if (aliases != null) s.touch(aliases);
+            });
+            String sorted = null;
+            for (int t = 0; t < s.touchedAliasCount; t++) {
+                int alias = s.touchedAliases[t];
+                s.seen[alias] = false;
+                int[] aliasGramCodes = aliasGrams[alias];
+                if (2.0 * sharedCount(s.grams, grams, aliasGramCodes) / (grams + aliasGramCodes.length) < CANDIDATE_DICE) continue;
+                if (normalized.equals(aliasNormalized[alias])) {
+                    s.offer(aliasEntry[alias], alias, true, 1.0);
+                    continue;
+                }
+                double score = JaroWinkler.similarity(normalized, aliasNormalized[alias]);
+                if (score < threshold) {
+                    if (sorted == null) sorted = PartyNameNormalizer.sortTokens(normalized);
+                    score = Math.max(score, JaroWinkler.similarity(sorted, aliasSorted[alias]));
+                }
+                if (score >= threshold) s.offer(aliasEntry[alias], alias, false, score);
+            }
+            s.touchedAliasCount = 0;
+
+            if (s.touchedEntryCount == 0) return List.of();
+            List<ScreeningHit> hits = new ArrayList<>(s.touchedEntryCount);
+            for (int t = 0; t < s.touchedEntryCount; t++) {
+                int e = s.touchedEntries[t];
+                int alias = s.bestAlias[e];
+                hits.add(new ScreeningHit(field, name, entries[e].id, entries[e].name, entries[e].program,
+                        aliasText[alias], s.bestExact[e] ? ScreeningHit.EXACT_ALIAS : ScreeningHit.FUZZY,
+                        s.bestScore[e]));
+            }
+            hits.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+            return hits;
+        } finally {
+            s.reset();
+        }
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    int entryCount() {
+        return entries.length;
+    }
+
+    int aliasCount() {
+        return aliasText.length;
+    }
+
+    /**
+     * Sorted, distinct trigram codes of " " + normalized + " " written to {@code out}; returns how many
+     */
+    static int trigrams(String normalized, int[] out) {
+        int length = normalized.length() + 2;
+        int count = 0;
+        for (int i = 0; i + 3 <= length; i++) {
+            out[count++] = (symbol(normalized, i - 1) * ALPHABET + symbol(normalized, i)) * ALPHABET
+                    + symbol(normalized, i + 1);
+        }
+        Arrays.sort(out, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || out[distinct - 1] != out[i]) out[distinct++] = out[i];
+        }
+        return distinct;
+    }
+
+    /**
+     * Number of codes two sorted, distinct trigram arrays have in common
+     */
+    static int sharedCount(int[] a, int aLength, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < aLength && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Blocking keys of a normalized name: each token, and for longer tokens also their first and last
+     * TOKEN_AFFIX symbols, so that a token with one typo still shares a key with the original
+     */
+    static void tokenKeys(String normalized, Consumer<String> keys) {
+        for (int start = 0, end; start < normalized.length(); start = end + 1) {
+            end = normalized.indexOf(' ', start);
+            if (end < 0) end = normalized.length();
+            keys.accept(normalized.substring(start, end));
+            if (end - start > TOKEN_AFFIX) {
+                keys.accept("<" + normalized.substring(start, start + TOKEN_AFFIX));
+                keys.accept(">" + normalized.substring(end - TOKEN_AFFIX, end));
+            }
+        }
+    }
+
+    static int postingLimit(int aliases) {
+        return Math.max(MIN_POSTING_LIMIT, (int) (aliases * MAX_POSTING_SHARE));
+    }
+
+    // symbol at position i of the normalized name, with the padding spaces outside it
+    private static int symbol(String normalized, int i) {
+        return i < 0 || i >= normalized.length() ? 0 : PartyNameNormalizer.code(normalized.charAt(i));
+    }
+
+    private static String column(List<String> columns, int index) {
+        return index < columns.size() ? columns.get(index).trim() : "";
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    // per-thread working arrays for one screening; everything touched is cleared again in reset()
+    private static final class Scratch {
+        final boolean[] seen;
+        final int[] touchedAliases;
+        int touchedAliasCount;
+        final double[] bestScore;
+        final int[] bestAlias;
+        final boolean[] bestExact;
+        final int[] touchedEntries;
+        int touchedEntryCount;
+        int[] grams = new int[64];
+
+        Scratch(int aliases, int entries) {
+            seen = new boolean[aliases];
+            touchedAliases = new int[aliases];
+            bestScore = new double[entries];
+            bestAlias = new int[entries];
+            bestExact = new boolean[entries];
+            touchedEntries = new int[entries];
+        }
+
+        void touch(int[] aliases) {
+            for (int alias : aliases) {
+                if (!seen[alias]) {
+                    seen[alias] = true;
+                    touchedAliases[touchedAliasCount++] = alias;
+                }
+            }
+        }
+
+        int[] grams(int capacity) {
+            if (grams.length < capacity) grams = new int[capacity];
+            return grams;
+        }
+
+        void offer(int entry, int alias, boolean exact, double score) {
+            if (bestScore[entry] == 0.0) {
+                touchedEntries[touchedEntryCount++] = entry;
+            } else if (bestExact[entry] && !exact || bestExact[entry] == exact && bestScore[entry] >= score) {
+                return;
+            }
+            bestScore[entry] = score;
+            bestAlias[entry] = alias;
+            bestExact[entry] = exact;
+        }
+
+        void reset() {
+            for (int t = 0; t < touchedAliasCount; t++) seen[touchedAliases[t]] = false;
+            touchedAliasCount = 0;
+            for (int t = 0; t < touchedEntryCount; t++) {
+                int e = touchedEntries[t];
+                bestScore[e] = 0.0;
+                bestExact[e] = false;
+            }
+            touchedEntryCount = 0;
+        }
+    }
+}
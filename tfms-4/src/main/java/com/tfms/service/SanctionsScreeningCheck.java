@@ -0,0 +1,54 @@
+package com.tfms.service;
+
+import com.tfms.model.ScreeningHit;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Check 5: applicant, beneficiary and bank against the sanctions watchlist
+ * Any hit fails the check and is kept on the report for the officer's review
+ */
+@Component
+@Order(5)
+public class SanctionsScreeningCheck implements ComplianceCheck {
+
+    private final SanctionsScreeningService sanctionsScreening;
+
+    public SanctionsScreeningCheck(SanctionsScreeningService sanctionsScreening) {
+        this.sanctionsScreening = sanctionsScreening;
+    }
+
+    @Override
+    public String getName() {
+        return "sanctions";
+    }
+
+    @Override
+    public Set<ComplianceInputChangedEvent.Input> getInputs() {
+        return Set.of(ComplianceInputChangedEvent.Input.TRANSACTION);
+    }
+
+    @Override
+    public ComplianceCheckResult evaluate(ComplianceContext context) {
+        List<ScreeningHit> hits = sanctionsScreening.screenParties(context.getTransaction());
+        if (hits.isEmpty()) {
+            return ComplianceCheckResult.of(true, "Sanctions screening passed. ", compliance -> {
+                compliance.setPartyCheckPassed(true);
+                compliance.setScreeningHits(null);
+            });
+        }
+        String json = SanctionsScreeningService.toJson(hits);
+        ScreeningHit best = hits.stream().max(Comparator.comparingDouble(ScreeningHit::getScore)).orElseThrow();
+        String remarks = "Sanctions screening: " + hits.size() + " potential match(es), e.g. "
+                + best.getField() + " '" + best.getScreenedName() + "' ~ "
+                + best.getEntryName() + " (" + best.getProgram() + "). ";
+        return ComplianceCheckResult.of(false, remarks, compliance -> {
+            compliance.setPartyCheckPassed(false);
+            compliance.setScreeningHits(json);
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package com.tfms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.ScreeningHit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Screens LC and BG parties against a local sanctions watchlist
+ *
+ * The list at {@code tfms.sanctions.list-location} (CSV, see {@link SanctionsIndex#parseCsv}) is compiled into an
+ * immutable {@link SanctionsIndex} and swapped in atomically when the file changes; a list that fails to parse is
+ * rejected at startup and, on a later reload, logged while the previous list stays active. Without a configured
+ * location the bundled sample list is used. Screening is in-memory only, so the compliance checks can call it from
+ * the batch worker threads.
+ */
+@Slf4j
+@Service
+public class SanctionsScreeningService {
+
+    static final String BUNDLED_LIST = "classpath:sanctions/watchlist.csv";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<List<ScreeningHit>> HIT_LIST = new TypeReference<>() {};
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final double threshold;
+    private final AtomicReference<SanctionsIndex> index = new AtomicReference<>();
+    private final Timer screeningTimer;
+    private final Counter hitCounter;
+    private final Counter reloads;
+    private final Counter rejected;
+
+    private volatile long loadedLastModified = -1;
+    private volatile LocalDateTime loadedAt;
+
+    public SanctionsScreeningService(ResourceLoader resourceLoader,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${tfms.sanctions.list-location:}") String location,
+                                     @Value("${tfms.sanctions.fuzzy-threshold:0.92}") double threshold) {
+        this.resourceLoader = resourceLoader;
+        this.location = location == null ? "" : location.trim();
+        this.threshold = threshold;
+        this.screeningTimer = Timer.builder("tfms.sanctions.screening")
+                .description("Time to screen one party name").register(meterRegistry);
+        this.hitCounter = Counter.builder("tfms.sanctions.hits").register(meterRegistry);
+        this.reloads = Counter.builder("tfms.sanctions.reloads").tag("outcome", "applied").register(meterRegistry);
+        this.rejected = Counter.builder("tfms.sanctions.reloads").tag("outcome", "rejected").register(meterRegistry);
+        reload();
+        Gauge.builder("tfms.sanctions.entries", this, s -> s.index.get().entryCount()).register(meterRegistry);
+    }
+
+    /**
+     * Re-read a configured watchlist file if it changed since the last load
+     */
+    @Scheduled(fixedDelayString = "${tfms.sanctions.reload-interval:PT5M}")
+    public void reloadIfModified() {
+        if (location.isEmpty()) return;
+        try {
+            if (resourceLoader.getResource(location).lastModified() != loadedLastModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Sanctions list {} rejected, keeping {}: {}", location, getSource(), e.getMessage());
+        }
+    }
+
+    /**
+     * Load, index and swap in the watchlist
+     *
+     * @throws IllegalArgumentException if the list does not parse; the active list is left unchanged
+     */
+    public synchronized void reload() {
+        String source = location.isEmpty() ? BUNDLED_LIST : location;
+        try {
+            Resource resource = resourceLoader.getResource(source);
+            long lastModified = resource.isFile() ? resource.lastModified() : 0;
+            List<SanctionsIndex.Entry> entries;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                entries = SanctionsIndex.parseCsv(source, reader);
+            }
+            SanctionsIndex next = SanctionsIndex.build(source, entries, threshold);
+            index.set(next);
+            loadedLastModified = lastModified;
+            loadedAt = LocalDateTime.now();
+            reloads.increment();
+            log.info("Sanctions list loaded from {}: {} entries, {} aliases", source, next.entryCount(), next.aliasCount());
+        } catch (IOException e) {
+            rejected.increment();
+            throw new UncheckedIOException("Cannot read sanctions list from " + source, e);
+        } catch (RuntimeException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Potential matches of one name, best first
+     */
+    public List<ScreeningHit> screen(String field, String name) {
+        if (name == null || name.isBlank()) return List.of();
+        long start = System.nanoTime();
+        List<ScreeningHit> hits = index.get().screen(field, name);
+        screeningTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!hits.isEmpty()) hitCounter.increment(hits.size());
+        return hits;
+    }
+
+    /**
+     * Screen the applicant, beneficiary and bank of an LC (advising bank) or BG (issuing bank, BGs have no
+     * advising bank); anything else has no parties to screen
+     */
+    public List<ScreeningHit> screenParties(Object transaction) {
+        List<ScreeningHit> hits = new ArrayList<>();
+        if (transaction instanceof LetterOfCredit lc) {
+            hits.addAll(screen("applicantName", lc.getApplicantName()));
+            hits.addAll(screen("beneficiaryName", lc.getBeneficiaryName()));
+            hits.addAll(screen("advisingBank", lc.getAdvisingBank()));
+        } else if (transaction instanceof BankGuarantee bg) {
+            hits.addAll(screen("applicantName", bg.getApplicantName()));
+            hits.addAll(screen("beneficiaryName", bg.getBeneficiaryName()));
+            hits.addAll(screen("issuingBank", bg.getIssuingBank()));
+        }
+        return hits;
+    }
+
+    /**
+     * Hits as the JSON stored on the compliance report
+     */
+    public static String toJson(List<ScreeningHit> hits) {
+        try {
+            return JSON.writeValueAsString(hits);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize screening hits", e);
+        }
+    }
+
+    /**
+     * Hits stored on a compliance report; empty for none or unreadable JSON
+     */
+    public static List<ScreeningHit> fromJson(String json) {
+        if (json == null || json.isBlank()) return List.of();
+        try {
+            return JSON.readValue(json, HIT_LIST);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable screening hits: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    public String getSource() {
+        return index.get().getSource();
+    }
+
+    public int getEntryCount() {
+        return index.get().entryCount();
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+}
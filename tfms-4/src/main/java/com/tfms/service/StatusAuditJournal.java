@@ -0,0 +1,386 @@
+package com.tfms.service;
+
+import com.tfms.model.StatusChangeAudit;
+import com.tfms.repository.StatusChangeAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind journal of workflow transitions into {@link StatusChangeAudit}
+ *
+ * A committed {@link StatusChangedEvent} is put on a bounded queue and the request moves on; one background writer
+ * drains the queue in batches of {@code tfms.audit.journal.batch-size}, each saved with saveAll in one transaction
+ * (Hibernate sends it as JDBC batches, ids come from the pooled sequence). The writer wakes when a batch is full or
+ * every {@code flush-interval}, whichever comes first.
+ *
+ * The queue is a ConcurrentLinkedQueue bounded by a CAS-reserved slot count, so producers never take a lock. When it
+ * is full the producer waits up to {@code offer-timeout} for room and then writes its own row: a stalled database
+ * slows the requests down instead of losing audit rows or growing memory without bound. On shutdown the writer drains
+ * everything still queued before the datasource goes away; transitions arriving after that are written directly.
+ * Each written batch is announced with a {@link StatusAuditWrittenEvent}.
+ *
+ * A failed batch is retried up to {@code retry-attempts} times, waiting {@code retry-backoff} and doubling it after
+ * each try, and then written row by row so that one bad row cannot take the others down with it. Rows that still
+ * cannot be written are appended to the {@code dead-letter-file} (one tab-separated row per line) and written to the
+ * table again when the journal next starts: an audit row is never dropped. The writer thread is started and stopped
+ * as a {@link SmartLifecycle} bean, before the web server starts and after it has stopped.
+ */
+@Slf4j
+@Service
+public class StatusAuditJournal implements SmartLifecycle {
+
+    private final StatusChangeAuditRepository auditRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Duration shutdownTimeout;
+    private final int retryAttempts;
+    private final long retryBackoffNanos;
+    private final Path deadLetterFile;
+
+    private final ConcurrentLinkedQueue<StatusChangeAudit> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Thread writer;
+    private volatile boolean running;
+    private volatile boolean closed;
+
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter deadLettered;
+    private final Counter failed;
+    private final Counter retries;
+    private final Counter overflow;
+
+    public StatusAuditJournal(StatusChangeAuditRepository auditRepository,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${tfms.audit.journal.capacity:10000}") int capacity,
+                              @Value("${tfms.audit.journal.batch-size:200}") int batchSize,
+                              @Value("${tfms.audit.journal.flush-interval:PT0.2S}") Duration flushInterval,
+                              @Value("${tfms.audit.journal.offer-timeout:PT0.05S}") Duration offerTimeout,
+                              @Value("${tfms.audit.journal.shutdown-timeout:PT10S}") Duration shutdownTimeout,
+                              @Value("${tfms.audit.journal.retry-attempts:5}") int retryAttempts,
+                              @Value("${tfms.audit.journal.retry-backoff:PT0.2S}") Duration retryBackoff,
+                              @Value("${tfms.audit.journal.dead-letter-file:./audit/status-audit-dead-letter.tsv}") String deadLetterFile) {
+        if (batchSize < 1 || capacity < batchSize) {
+            throw new IllegalArgumentException("tfms.audit.journal: need 1 <= batch-size <= capacity");
+        }
+        if (retryAttempts < 1) {
+            throw new IllegalArgumentException("tfms.audit.journal: need retry-attempts >= 1");
+        }
+        this.auditRepository = auditRepository;
+        // a row written by the producer runs in the after-commit phase of the request's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.retryAttempts = retryAttempts;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.deadLetterFile = Path.of(deadLetterFile);
+
+        Gauge.builder("tfms.audit.journal.depth", depth, AtomicInteger::get)
+                .description("Status change audit rows waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("tfms.audit.journal.flush")
+                .description("Time to write one batch of status change audit rows")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.written = rows(meterRegistry, "written");
+        this.deadLettered = rows(meterRegistry, "dead-lettered");
+        this.failed = rows(meterRegistry, "failed");
+        this.retries = Counter.builder("tfms.audit.journal.retries")
+                .description("Status change audit batches written again after a failure")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("tfms.audit.journal.overflow")
+                .description("Audit rows written by the request thread because the queue was full")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::runWriter, "status-audit-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Write the rows left in the dead-letter file by an earlier run, then start the writer
+     */
+    @Override
+    public void start() {
+        if (running || closed) return;
+        replayDeadLetters();
+        running = true;
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // start before the web server and stop after it, so that requests still in flight are queued and drained
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static Counter rows(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("tfms.audit.journal.rows")
+                .description("Status change audit rows, by write outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStatusChanged(StatusChangedEvent event) {
+        StatusChangeAudit audit = new StatusChangeAudit(event.getEntityType(), event.getReferenceNumber(),
+                event.getFromStatus(), event.getToStatus(), event.getChangedBy());
+        audit.setChangedAt(event.getChangedAt());
+        append(audit);
+    }
+
+    /**
+     * Queue one row for the writer; blocks for at most offer-timeout, then writes it on the calling thread
+     */
+    void append(StatusChangeAudit audit) {
+        boolean open = !closed;
+        if (open) {
+            if (tryOffer(audit)) return;
+            LockSupport.unpark(writer);
+            long deadline = System.nanoTime() + offerTimeoutNanos;
+            while (!closed && System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+                if (tryOffer(audit)) return;
+            }
+        }
+        if (open) overflow.increment();
+        write(List.of(audit));
+    }
+
+    /**
+     * Rows queued but not yet written
+     */
+    public int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Stop accepting rows into the queue and wait for the writer to drain it
+     */
+    public void close() {
+        closed = true;
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // a producer that saw the journal open just before it closed may have queued behind the writer
+        List<StatusChangeAudit> batch = new ArrayList<>();
+        StatusChangeAudit audit;
+        while ((audit = queue.poll()) != null) {
+            batch.add(audit);
+        }
+        if (batch.isEmpty()) return;
+        if (writer.isAlive()) {
+            // the writer is stuck on the database; keep what it has not taken for the next start
+            log.warn("Status audit journal closed with {} rows still queued, moving them to {}", batch.size(), deadLetterFile);
+            deadLetter(batch);
+            depth.addAndGet(-batch.size());
+        } else {
+            flush(batch);
+        }
+    }
+
+    private boolean tryOffer(StatusChangeAudit audit) {
+        int queued;
+        do {
+            queued = depth.get();
+            if (queued >= capacity) return false;
+        } while (!depth.compareAndSet(queued, queued + 1));
+        queue.offer(audit);
+        if (queued + 1 == batchSize) LockSupport.unpark(writer);
+        return true;
+    }
+
+    private void runWriter() {
+        List<StatusChangeAudit> batch = new ArrayList<>(batchSize);
+        while (!closed || depth.get() > 0) {
+            if (!closed && depth.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            StatusChangeAudit audit;
+            while ((audit = queue.poll()) != null) {
+                batch.add(audit);
+                if (batch.size() == batchSize) {
+                    flush(batch);
+                }
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<StatusChangeAudit> batch) {
+        if (batch.isEmpty()) return;
+        persist(batch, retryAttempts);
+        depth.addAndGet(-batch.size());
+        batch.clear();
+    }
+
+    /**
+     * Write rows in up to {@code attempts} tries with a doubling backoff, then row by row; whatever still fails goes
+     * to the dead-letter file. Once the journal is closed there is no waiting: failures go to the file right away.
+     */
+    private void persist(List<StatusChangeAudit> rows, int attempts) {
+        long backoff = retryBackoffNanos;
+        for (int attempt = 1; !write(rows); attempt++) {
+            if (attempt >= attempts || closed) {
+                List<StatusChangeAudit> undeliverable = new ArrayList<>();
+                if (rows.size() > 1 && !closed) {
+                    for (StatusChangeAudit row : rows) {
+                        if (!write(List.of(row))) undeliverable.add(row);
+                    }
+                } else {
+                    undeliverable.addAll(rows);
+                }
+                if (!undeliverable.isEmpty()) deadLetter(undeliverable);
+                return;
+            }
+            LockSupport.parkNanos(this, backoff);
+            backoff *= 2;
+            retries.increment();
+        }
+    }
+
+    private boolean write(List<StatusChangeAudit> rows) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> auditRepository.saveAll(rows));
+            written.increment(rows.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} status change audit rows, first {}:{}", rows.size(),
+                    rows.get(0).getEntityType(), rows.get(0).getReferenceNumber(), e);
+            // the rolled back insert may have assigned ids; the next try must insert, not merge
+            for (StatusChangeAudit row : rows) {
+                row.setId(null);
+            }
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        Set<String> references = new HashSet<>();
+        for (StatusChangeAudit row : rows) {
+            references.add(row.getReferenceNumber());
+        }
+        try {
+            eventPublisher.publishEvent(new StatusAuditWrittenEvent(references));
+        } catch (RuntimeException e) {
+            log.warn("Listener of written status change audit rows failed", e);
+        }
+        return true;
+    }
+
+    private synchronized void deadLetter(List<StatusChangeAudit> rows) {
+        try {
+            if (deadLetterFile.getParent() != null) Files.createDirectories(deadLetterFile.getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(deadLetterFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (StatusChangeAudit row : rows) {
+                    out.write(String.join("\t", field(row.getEntityType()), field(row.getReferenceNumber()),
+                            field(row.getFromStatus()), field(row.getToStatus()), field(row.getChangedBy()),
+                            field(row.getChangedAt())));
+                    out.newLine();
+                }
+            }
+            deadLettered.increment(rows.size());
+            log.error("Moved {} status change audit rows to {}, first {}:{}", rows.size(), deadLetterFile,
+                    rows.get(0).getEntityType(), rows.get(0).getReferenceNumber());
+        } catch (IOException e) {
+            failed.increment(rows.size());
+            for (StatusChangeAudit row : rows) {
+                log.error("Lost status change audit row {} {} {} -> {} by {} at {}", row.getEntityType(),
+                        row.getReferenceNumber(), row.getFromStatus(), row.getToStatus(), row.getChangedBy(),
+                        row.getChangedAt());
+            }
+            log.error("Could not write the status change audit dead-letter file {}", deadLetterFile, e);
+        }
+    }
+
+    /**
+     * Write the rows of the dead-letter file to the table; rows failing again go back into a new dead-letter file.
+     * The file is renamed while it is replayed, so a crash half way replays it again (duplicates, but no loss).
+     */
+    private void replayDeadLetters() {
+        Path replay = deadLetterFile.resolveSibling(deadLetterFile.getFileName() + ".replay");
+        try {
+            if (Files.notExists(replay)) {
+                if (Files.notExists(deadLetterFile)) return;
+                Files.move(deadLetterFile, replay);
+            }
+            List<StatusChangeAudit> rows = new ArrayList<>();
+            for (String line : Files.readAllLines(replay, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) continue;
+                String[] fields = line.split("\t", -1);
+                StatusChangeAudit row = new StatusChangeAudit(value(fields[0]), value(fields[1]), value(fields[2]),
+                        value(fields[3]), value(fields[4]));
+                row.setChangedAt(fields[5].isEmpty() ? null : LocalDateTime.parse(fields[5]));
+                rows.add(row);
+            }
+            log.info("Replaying {} status change audit rows from {}", rows.size(), deadLetterFile);
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                persist(new ArrayList<>(rows.subList(from, Math.min(from + batchSize, rows.size()))), 1);
+            }
+            Files.delete(replay);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not replay the status change audit dead-letter file {}", replay, e);
+        }
+    }
+
+    private static String field(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String value(String field) {
+        return field.isEmpty() ? null : field;
+    }
+}
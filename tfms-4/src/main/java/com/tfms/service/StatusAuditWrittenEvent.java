@@ -0,0 +1,25 @@
+package com.tfms.service;
+
+import java.util.Set;
+
+/**
+ * Published by {@link StatusAuditJournal} after a batch of audit rows is written, naming the references it covered.
+ * The journal writes behind the request, so views built from the audit history listen for it to pick up the rows.
+ */
+public class StatusAuditWrittenEvent {
+
+    private final Set<String> referenceNumbers;
+
+    public StatusAuditWrittenEvent(Set<String> referenceNumbers) {
+        this.referenceNumbers = Set.copyOf(referenceNumbers);
+    }
+
+    public Set<String> getReferenceNumbers() {
+        return referenceNumbers;
+    }
+
+    @Override
+    public String toString() {
+        return "audit written for " + referenceNumbers;
+    }
+}
@@ -0,0 +1,67 @@
+package com.tfms.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the services whenever an LC, BG or trade document moves to a new workflow status, including its
+ * first status on creation (fromStatus null). {@link StatusAuditJournal} records it once the transaction commits.
+ * The acting user and the time are taken when the event is created, on the thread doing the change.
+ */
+public class StatusChangedEvent {
+
+    static final String SYSTEM_USER = "system";
+
+    private final String entityType;
+    private final String referenceNumber;
+    private final String fromStatus;
+    private final String toStatus;
+    private final String changedBy;
+    private final LocalDateTime changedAt;
+
+    public StatusChangedEvent(String entityType, String referenceNumber, Enum<?> fromStatus, Enum<?> toStatus) {
+        this.entityType = entityType;
+        this.referenceNumber = referenceNumber;
+        this.fromStatus = fromStatus != null ? fromStatus.name() : null;
+        this.toStatus = toStatus != null ? toStatus.name() : null;
+        this.changedBy = currentUser();
+        this.changedAt = LocalDateTime.now();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getName() != null ? authentication.getName() : SYSTEM_USER;
+    }
+
+    /** {@link ReferenceChangedEvent#LC}, {@link ReferenceChangedEvent#BG} or {@link ReferenceChangedEvent#DOC} */
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public String getReferenceNumber() {
+        return referenceNumber;
+    }
+
+    public String getFromStatus() {
+        return fromStatus;
+    }
+
+    public String getToStatus() {
+        return toStatus;
+    }
+
+    public String getChangedBy() {
+        return changedBy;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return entityType + ":" + referenceNumber + " " + fromStatus + " -> " + toStatus;
+    }
+}
@@ -0,0 +1,147 @@
+package com.tfms.service;
+
+import com.tfms.model.StatusChangeAudit;
+import com.tfms.model.TimelineItem;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracking timeline of one workflow (LC, BG or document) built from its recorded status transitions
+ *
+ * The workflow's main path (Created, Submitted, ..., Closed) is declared in order with {@link #step}; statuses off
+ * that path (a risk review, an amendment, a rejection) with {@link #detour}, naming how far along the main path they
+ * leave the transaction. Every recorded transition becomes a completed step with its time and actor, in the order it
+ * happened, and the main-path steps still ahead of the current status follow as pending unless that status is final.
+ * Transactions older than the audit journal have no history: their main path up to the current status is shown as
+ * completed, with whatever dates the entity itself knows.
+ */
+final class StatusTimeline<E extends Enum<E>> {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final Class<E> type;
+    private final List<E> mainPath = new ArrayList<>();
+    private final Map<E, Integer> position;
+    private final Map<E, String[]> labels;
+    private final Set<E> finalStatuses;
+
+    StatusTimeline(Class<E> type) {
+        this.type = type;
+        this.position = new EnumMap<>(type);
+        this.labels = new EnumMap<>(type);
+        this.finalStatuses = EnumSet.noneOf(type);
+    }
+
+    /** Next step of the main path; the first one is the status a new transaction starts in */
+    StatusTimeline<E> step(E status, String title, String description) {
+        position.put(status, mainPath.size());
+        mainPath.add(status);
+        labels.put(status, new String[] {title, description});
+        return this;
+    }
+
+    /** Status off the main path that leaves the transaction at main-path step {@code at} */
+    StatusTimeline<E> detour(E status, String title, String description, E at) {
+        position.put(status, position.get(at));
+        labels.put(status, new String[] {title, description});
+        return this;
+    }
+
+    /** Statuses after which nothing is pending */
+    @SafeVarargs
+    final StatusTimeline<E> finalStatuses(E... statuses) {
+        finalStatuses.addAll(List.of(statuses));
+        return this;
+    }
+
+    /**
+     * @param history    recorded transitions of the transaction, oldest first
+     * @param knownDates dates the entity records itself (e.g. an LC's issue date), used only without history
+     */
+    List<TimelineItem> build(E current, LocalDateTime createdAt, String createdBy,
+                             List<StatusChangeAudit> history, Map<E, LocalDate> knownDates) {
+        E status = current != null ? current : mainPath.get(0);
+        List<Reached<E>> reached = new ArrayList<>();
+
+        int first = 0;
+        if (!history.isEmpty() && history.get(0).getFromStatus() == null) {
+            // the creation itself was journaled
+            reached.add(new Reached<>(mainPath.get(0), format(history.get(0).getChangedAt()), history.get(0).getChangedBy()));
+            first = 1;
+        } else {
+            reached.add(new Reached<>(mainPath.get(0), format(createdAt), createdBy));
+        }
+
+        if (history.isEmpty()) {
+            int at = position.getOrDefault(status, 0);
+            for (int i = 1; i <= at; i++) {
+                reached.add(new Reached<>(mainPath.get(i), format(knownDates.get(mainPath.get(i))), null));
+            }
+            if (status != mainPath.get(at)) {
+                reached.add(new Reached<>(status, format(knownDates.get(status)), null));
+            }
+        } else {
+            for (StatusChangeAudit transition : history.subList(first, history.size())) {
+                E to = parse(transition.getToStatus());
+                if (to != null) reached.add(new Reached<>(to, format(transition.getChangedAt()), transition.getChangedBy()));
+            }
+            if (reached.get(reached.size() - 1).status != status) {
+                // the journal has not caught up with the latest change yet
+                reached.add(new Reached<>(status, "", null));
+            }
+        }
+
+        List<TimelineItem> timeline = new ArrayList<>();
+        for (int i = 0; i < reached.size(); i++) {
+            Reached<E> step = reached.get(i);
+            String[] label = labels.get(step.status);
+            timeline.add(new TimelineItem(label[0], label[1], true, step.date, i == reached.size() - 1, step.user));
+        }
+        if (!finalStatuses.contains(status)) {
+            for (int i = position.getOrDefault(status, 0) + 1; i < mainPath.size(); i++) {
+                String[] label = labels.get(mainPath.get(i));
+                timeline.add(new TimelineItem(label[0], label[1], false, ""));
+            }
+        }
+        return timeline;
+    }
+
+    /** Recorded status names the workflow does not know (renamed or removed constants) are skipped */
+    private E parse(String status) {
+        if (status == null) return null;
+        try {
+            E parsed = Enum.valueOf(type, status);
+            return labels.containsKey(parsed) ? parsed : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String format(LocalDateTime time) {
+        return time != null ? time.format(TIME) : "";
+    }
+
+    private static String format(LocalDate date) {
+        return date != null ? date.toString() : "";
+    }
+
+    private static final class Reached<E> {
+        final E status;
+        final String date;
+        final String user;
+
+        Reached(E status, String date, String user) {
+            this.status = status;
+            this.date = date;
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.tfms.service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transition matrix of one workflow (LC or BG): for every target status, the statuses it may be entered from
+ *
+ * The from-sets are what the services pass to the repositories' conditional UPDATEs
+ * ({@code ... WHERE id = :id AND status IN :from}), so the check and the write are one statement and of several
+ * concurrent transitions of the same transaction only the first can change a row.
+ */
+final class StatusTransitions<E extends Enum<E>> {
+
+    private final Class<E> type;
+    private final Map<E, Set<E>> allowedFrom;
+
+    StatusTransitions(Class<E> type) {
+        this.type = type;
+        this.allowedFrom = new EnumMap<>(type);
+    }
+
+    /** Allow entering {@code to} from each of {@code from} */
+    @SafeVarargs
+    final StatusTransitions<E> allow(E to, E... from) {
+        Set<E> set = EnumSet.noneOf(type);
+        set.addAll(List.of(from));
+        allowedFrom.put(to, Collections.unmodifiableSet(set));
+        return this;
+    }
+
+    /** Allow entering {@code to} from any status but {@code excluded} */
+    @SafeVarargs
+    final StatusTransitions<E> allowFromAllExcept(E to, E... excluded) {
+        Set<E> set = EnumSet.allOf(type);
+        set.removeAll(List.of(excluded));
+        allowedFrom.put(to, Collections.unmodifiableSet(set));
+        return this;
+    }
+
+    /** Statuses {@code to} may be entered from; empty when the workflow never enters it by a transition */
+    Set<E> allowedFrom(E to) {
+        return allowedFrom.getOrDefault(to, Set.of());
+    }
+
+    boolean isAllowed(E from, E to) {
+        return from != null && allowedFrom(to).contains(from);
+    }
+}
@@ -0,0 +1,226 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.StatusChangeAudit;
+import com.tfms.model.TrackingSnapshot;
+import com.tfms.model.TradeDocument;
+import com.tfms.model.enums.DocumentStatus;
+import com.tfms.model.enums.GuaranteeStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.StatusChangeAuditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Single code path for tracking any LC, BG or trade document by reference number
+ *
+ * Builds an immutable {@link TrackingSnapshot} (status, parties, amount and timeline) once per reference and
+ * serves it from memory until a {@link ReferenceChangedEvent} for that reference evicts it. Unknown references
+ * are screened out by {@link ReferenceNumberFilter} first, so enumeration misses never reach the database.
+ *
+ * Timelines are built from the transitions recorded in {@link StatusChangeAudit}, with their times and actors. The
+ * audit journal writes behind the request, so a snapshot is also evicted when a {@link StatusAuditWrittenEvent}
+ * names its reference. List pages get the time each row has spent in its current status from one grouped query.
+ */
+@Service
+public class TrackingQueryService {
+
+    private static final StatusTimeline<LCStatus> LC_TIMELINE = new StatusTimeline<>(LCStatus.class)
+            .step(LCStatus.DRAFT, "Created", "Draft LC created")
+            .step(LCStatus.SUBMITTED, "Submitted", "Submitted for verification")
+            .step(LCStatus.UNDER_VERIFICATION, "Under Verification", "Being reviewed by bank officer")
+            .step(LCStatus.APPROVED, "Approved", "LC approved and issued")
+            .step(LCStatus.OPEN, "Active", "LC is active")
+            .step(LCStatus.CLOSED, "Closed", "LC closed")
+            .detour(LCStatus.SENT_TO_RISK, "Risk Review", "Assessed by the risk team", LCStatus.UNDER_VERIFICATION)
+            .detour(LCStatus.AMENDED, "Amended", "LC amended, to be resubmitted", LCStatus.DRAFT)
+            .detour(LCStatus.REJECTED, "Rejected", "LC rejected by the bank", LCStatus.DRAFT)
+            .finalStatuses(LCStatus.REJECTED, LCStatus.CLOSED);
+
+    private static final StatusTimeline<GuaranteeStatus> BG_TIMELINE = new StatusTimeline<>(GuaranteeStatus.class)
+            .step(GuaranteeStatus.DRAFT, "Created", "Guarantee request created")
+            .step(GuaranteeStatus.SUBMITTED, "Submitted", "Submitted for review")
+            .step(GuaranteeStatus.UNDER_REVIEW, "Under Review", "Being reviewed by bank")
+            .step(GuaranteeStatus.ISSUED, "Issued", "Guarantee issued")
+            .step(GuaranteeStatus.ACTIVE, "Active", "Guarantee is active")
+            .detour(GuaranteeStatus.PENDING, "Pending", "Awaiting customer action", GuaranteeStatus.DRAFT)
+            .detour(GuaranteeStatus.SENT_TO_RISK, "Risk Review", "Assessed by the risk team", GuaranteeStatus.UNDER_REVIEW)
+            .detour(GuaranteeStatus.EXPIRED, "Expired", "Guarantee period ended", GuaranteeStatus.ACTIVE)
+            .detour(GuaranteeStatus.CLAIMED, "Claimed", "Guarantee claimed by the beneficiary", GuaranteeStatus.ACTIVE)
+            .detour(GuaranteeStatus.CANCELLED, "Cancelled", "Guarantee request cancelled", GuaranteeStatus.DRAFT)
+            .finalStatuses(GuaranteeStatus.EXPIRED, GuaranteeStatus.CLAIMED, GuaranteeStatus.CANCELLED);
+
+    private static final StatusTimeline<DocumentStatus> DOC_TIMELINE = new StatusTimeline<>(DocumentStatus.class)
+            .step(DocumentStatus.ACTIVE, "Uploaded", "Document uploaded")
+            .step(DocumentStatus.PENDING_REVIEW, "Pending Review", "Awaiting review")
+            .step(DocumentStatus.APPROVED, "Approved", "Document approved")
+            .detour(DocumentStatus.REJECTED, "Rejected", "Document rejected", DocumentStatus.PENDING_REVIEW)
+            .detour(DocumentStatus.ARCHIVED, "Archived", "Document archived", DocumentStatus.ACTIVE)
+            .finalStatuses(DocumentStatus.REJECTED, DocumentStatus.ARCHIVED);
+
+    private final LetterOfCreditRepository lcRepository;
+    private final BankGuaranteeRepository bgRepository;
+    private final TradeDocumentRepository documentRepository;
+    private final StatusChangeAuditRepository auditRepository;
+    private final ReferenceNumberFilter referenceFilter;
+    private final SnapshotCache<String, TrackingSnapshot> cache;
+
+    public TrackingQueryService(LetterOfCreditRepository lcRepository,
+                                BankGuaranteeRepository bgRepository,
+                                TradeDocumentRepository documentRepository,
+                                StatusChangeAuditRepository auditRepository,
+                                ReferenceNumberFilter referenceFilter,
+                                MeterRegistry meterRegistry,
+                                @Value("${tfms.cache.tracking.max-size:20000}") int maxSize,
+                                @Value("${tfms.cache.tracking.ttl:PT10M}") Duration ttl) {
+        this.lcRepository = lcRepository;
+        this.bgRepository = bgRepository;
+        this.documentRepository = documentRepository;
+        this.auditRepository = auditRepository;
+        this.referenceFilter = referenceFilter;
+        this.cache = new SnapshotCache<>(maxSize, ttl);
+        FunctionCounter.builder("tfms.tracking.cache.hits", cache, SnapshotCache::getHitCount).register(meterRegistry);
+        FunctionCounter.builder("tfms.tracking.cache.misses", cache, SnapshotCache::getMissCount).register(meterRegistry);
+        FunctionCounter.builder("tfms.tracking.cache.evictions", cache, SnapshotCache::getEvictionCount).register(meterRegistry);
+        Gauge.builder("tfms.tracking.cache.size", cache, SnapshotCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Tracking snapshot for an LC-, BG- or DOC- reference; empty when the reference is unknown.
+     * References that were never issued are rejected by the reference filter without a database query.
+     */
+    @Transactional(readOnly = true)
+    public Optional<TrackingSnapshot> track(String referenceNumber) {
+        if (referenceNumber == null || referenceNumber.isBlank()) return Optional.empty();
+        String reference = referenceNumber.trim();
+        if (!referenceFilter.mightExist(reference)) return Optional.empty();
+        return cache.get(reference, this::load);
+    }
+
+    @EventListener
+    public void onReferenceChanged(ReferenceChangedEvent event) {
+        if (event.getReferenceNumber() != null) cache.invalidate(event.getReferenceNumber());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onReferenceChangeCompleted(ReferenceChangedEvent event) {
+        onReferenceChanged(event);
+    }
+
+    @EventListener
+    public void onStatusAuditWritten(StatusAuditWrittenEvent event) {
+        event.getReferenceNumbers().forEach(cache::invalidate);
+    }
+
+    /**
+     * Time of the latest recorded transition of each reference, in one query; references without any recorded
+     * transition (created before the audit journal) are absent from the result
+     */
+    @Transactional(readOnly = true)
+    public Map<String, LocalDateTime> findStatusSince(Collection<String> referenceNumbers) {
+        Set<String> references = new LinkedHashSet<>();
+        for (String reference : referenceNumbers) {
+            if (reference != null) references.add(reference);
+        }
+        Map<String, LocalDateTime> since = new HashMap<>();
+        if (references.isEmpty()) return since;
+        for (Object[] row : auditRepository.findLatestChangeTimes(references)) {
+            since.put((String) row[0], (LocalDateTime) row[1]);
+        }
+        return since;
+    }
+
+    /**
+     * How long each reference has been in its current status, as a short label such as "3d 4h", for list pages
+     */
+    @Transactional(readOnly = true)
+    public Map<String, String> timeInCurrentStatus(Collection<String> referenceNumbers) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, String> labels = new HashMap<>();
+        findStatusSince(referenceNumbers).forEach((reference, since) ->
+                labels.put(reference, formatDuration(Duration.between(since, now))));
+        return labels;
+    }
+
+    static String formatDuration(Duration duration) {
+        if (duration.isNegative() || duration.toMinutes() < 1) return "<1m";
+        long days = duration.toDays();
+        if (days > 0) return days + "d " + duration.toHoursPart() + "h";
+        long hours = duration.toHours();
+        if (hours > 0) return hours + "h " + duration.toMinutesPart() + "m";
+        return duration.toMinutes() + "m";
+    }
+
+    private TrackingSnapshot load(String referenceNumber) {
+        if (referenceNumber.startsWith(ReferenceNumberGenerator.LC_PREFIX)) {
+            return lcRepository.findByReferenceNumber(referenceNumber).map(this::snapshot).orElse(null);
+        }
+        if (referenceNumber.startsWith(ReferenceNumberGenerator.BG_PREFIX)) {
+            return bgRepository.findByReferenceNumber(referenceNumber).map(this::snapshot).orElse(null);
+        }
+        if (referenceNumber.startsWith(ReferenceNumberGenerator.DOC_PREFIX)) {
+            return documentRepository.findByReferenceNumber(referenceNumber).map(this::snapshot).orElse(null);
+        }
+        return null;
+    }
+
+    private TrackingSnapshot snapshot(LetterOfCredit lc) {
+        LCStatus status = lc.getStatus();
+        return new TrackingSnapshot(TrackingSnapshot.TYPE_LC, lc.getReferenceNumber(), lc.getLcId(),
+                status, status != null ? status.getDisplayName() : "",
+                lc.getApplicantName(), lc.getBeneficiaryName(), lc.getCurrency(), lc.getAmount(),
+                toDate(lc.getCreatedAt()), lc.getExpiryDate(),
+                LC_TIMELINE.build(status, lc.getCreatedAt(), lc.getCreatedBy(), history(lc.getReferenceNumber()),
+                        lc.getIssueDate() != null ? Map.of(LCStatus.APPROVED, lc.getIssueDate()) : Map.of()));
+    }
+
+    private TrackingSnapshot snapshot(BankGuarantee bg) {
+        GuaranteeStatus status = bg.getStatus();
+        return new TrackingSnapshot(TrackingSnapshot.TYPE_BG, bg.getReferenceNumber(), bg.getGuaranteeId(),
+                status, status != null ? status.getDisplayName() : "",
+                bg.getApplicantName(), bg.getBeneficiaryName(), bg.getCurrency(), bg.getGuaranteeAmount(),
+                toDate(bg.getCreatedAt()), bg.getValidityPeriod(),
+                BG_TIMELINE.build(status, bg.getCreatedAt(), bg.getCreatedBy(), history(bg.getReferenceNumber()),
+                        bg.getIssueDate() != null ? Map.of(GuaranteeStatus.ISSUED, bg.getIssueDate()) : Map.of()));
+    }
+
+    private TrackingSnapshot snapshot(TradeDocument doc) {
+        DocumentStatus status = doc.getStatus();
+        return new TrackingSnapshot(TrackingSnapshot.TYPE_DOC, doc.getReferenceNumber(), doc.getDocumentId(),
+                status, status != null ? status.getDisplayName() : "",
+                doc.getUploadedBy(), "", "", null,
+                doc.getUploadDate(), null,
+                DOC_TIMELINE.build(status, doc.getCreatedAt(),
+                        doc.getUploadedBy(), history(doc.getReferenceNumber()), Map.of()));
+    }
+
+    private List<StatusChangeAudit> history(String referenceNumber) {
+        return auditRepository.findByReferenceNumberOrderByChangedAtAscIdAsc(referenceNumber);
+    }
+
+    private static LocalDate toDate(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toLocalDate() : null;
+    }
+}
@@ -1,12 +1,15 @@
 package com.tfms.service;
 
 import com.tfms.exception.ResourceNotFoundException;
+import com.tfms.model.StatusCounts;
 import com.tfms.model.TradeDocument;
 import com.tfms.model.enums.DocumentStatus;
-import com.tfms.model.LetterOfCredit;
-import com.tfms.model.BankGuarantee;
 import com.tfms.repository.TradeDocumentRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,7 +20,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,18 +27,22 @@ import java.util.UUID;
 @Service
 @Transactional
 public class TradeDocumentService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
     
     private final TradeDocumentRepository documentRepository;
-    private final LetterOfCreditService lcService;
-    private final BankGuaranteeService bgService;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${file.upload-dir:./uploads}")
     private String uploadDir;
     
-    public TradeDocumentService(TradeDocumentRepository documentRepository, LetterOfCreditService lcService, BankGuaranteeService bgService) {
+    public TradeDocumentService(TradeDocumentRepository documentRepository, ReferenceNumberGenerator referenceNumberGenerator,
+                                ApplicationEventPublisher eventPublisher) {
         this.documentRepository = documentRepository;
-        this.lcService = lcService;
-        this.bgService = bgService;
+        this.referenceNumberGenerator = referenceNumberGenerator;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -74,9 +80,11 @@ public class TradeDocumentService {
         document.setUploadedBy(uploadedBy);
         document.setUploadDate(LocalDate.now());
         document.setDescription(description);
-        document.setStatus(DocumentStatus.ACTIVE);
+        changeStatus(document, DocumentStatus.ACTIVE);
         
-        return documentRepository.save(document);
+        TradeDocument saved = save(document, ReferenceChangedEvent.ChangeType.CREATED);
+        documentsChanged(tradeReferenceNumber);
+        return saved;
     }
     
     /**
@@ -90,7 +98,9 @@ public class TradeDocumentService {
         document.setDocumentType(documentType);
         document.setDescription(description);
         
-        return documentRepository.save(document);
+        TradeDocument saved = save(document, ReferenceChangedEvent.ChangeType.UPDATED);
+        documentsChanged(document.getTradeReferenceNumber());
+        return saved;
     }
     
     /**
@@ -99,8 +109,10 @@ public class TradeDocumentService {
     public TradeDocument approveDocument(Long documentId) {
         TradeDocument document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new  ResourceNotFoundException("TradeDocument", "id", documentId));
-        document.setStatus(DocumentStatus.APPROVED);
-        return documentRepository.save(document);
+        changeStatus(document, DocumentStatus.APPROVED);
+        TradeDocument saved = save(document, ReferenceChangedEvent.ChangeType.UPDATED);
+        documentsChanged(document.getTradeReferenceNumber());
+        return saved;
     }
     
     /**
@@ -109,9 +121,9 @@ public class TradeDocumentService {
     public TradeDocument rejectDocument(Long documentId, String reason) {
         TradeDocument document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new  ResourceNotFoundException("TradeDocument", "id", documentId));
-        document.setStatus(DocumentStatus.REJECTED);
+        changeStatus(document, DocumentStatus.REJECTED);
         document.setDescription(document.getDescription() + " | Rejection: " + reason);
-        return documentRepository.save(document);
+        return save(document, ReferenceChangedEvent.ChangeType.UPDATED);
     }
     
     /**
@@ -120,8 +132,8 @@ public class TradeDocumentService {
     public TradeDocument archiveDocument(Long documentId) {
         TradeDocument document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new  ResourceNotFoundException("TradeDocument", "id", documentId));
-        document.setStatus(DocumentStatus.ARCHIVED);
-        return documentRepository.save(document);
+        changeStatus(document, DocumentStatus.ARCHIVED);
+        return save(document, ReferenceChangedEvent.ChangeType.UPDATED);
     }
     
     /**
@@ -130,8 +142,8 @@ public class TradeDocumentService {
     public TradeDocument submitForReview(Long documentId) {
         TradeDocument document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new  ResourceNotFoundException("TradeDocument", "id", documentId));
-        document.setStatus(DocumentStatus.PENDING_REVIEW);
-        return documentRepository.save(document);
+        changeStatus(document, DocumentStatus.PENDING_REVIEW);
+        return save(document, ReferenceChangedEvent.ChangeType.UPDATED);
     }
     
     /**
@@ -165,29 +177,29 @@ public class TradeDocumentService {
     }
     
     /**
-     * Find documents accessible by user based on role
+     * Find documents accessible by user based on role, one page at a time
      * - Officers see all documents
-     * - Regular users see only their uploaded documents OR documents linked to LC/BG where they are beneficiary
+     * - Regular users see only their uploaded documents OR documents linked to LC/BG they created or are beneficiary of
+     * Ownership is evaluated by the database in a single query (see TradeDocumentRepository.ACCESSIBLE_BY_USER).
      */
-    public List<TradeDocument> findAccessibleByUser(String username, boolean isOfficer) {
+    @Transactional(readOnly = true)
+    public Page<TradeDocument> findAccessibleByUser(String username, boolean isOfficer, int page, Integer pageSize) {
+        int size = pageSize == null || pageSize < 1 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), size);
         if (isOfficer) {
-            return documentRepository.findAllOrderByCreatedAtDesc();
-        } else {
-            if (username == null) return List.of();
-            // find LCs where user is creator or beneficiary
-            List<String> tradeRefs = new ArrayList<>();
-            var createdLcs = lcService.findByCreatedBy(username);
-            for (LetterOfCredit lc : createdLcs) tradeRefs.add(lc.getReferenceNumber());
-            var beneficiaryLcs = lcService.findByBeneficiaryName(username);
-            for (LetterOfCredit lc : beneficiaryLcs) if (!tradeRefs.contains(lc.getReferenceNumber())) tradeRefs.add(lc.getReferenceNumber());
-            // BGs
-            var createdBgs = bgService.findByCreatedBy(username);
-            for (BankGuarantee bg : createdBgs) if (!tradeRefs.contains(bg.getReferenceNumber())) tradeRefs.add(bg.getReferenceNumber());
-            var beneficiaryBgs = bgService.findAllByUserOrBeneficiary(username);
-            for (BankGuarantee bg : beneficiaryBgs) if (!tradeRefs.contains(bg.getReferenceNumber())) tradeRefs.add(bg.getReferenceNumber());
-
-            return documentRepository.findByUploadedByOrTradeReferenceNumberIn(username, tradeRefs);
+            return documentRepository.findAllNewestFirst(pageable);
         }
+        if (username == null) return Page.empty(pageable);
+        return documentRepository.findAccessibleByUser(username, pageable);
+    }
+
+    /**
+     * Number of documents a regular user can see, without loading them
+     */
+    @Transactional(readOnly = true)
+    public long countAccessibleByUser(String username) {
+        if (username == null) return 0;
+        return documentRepository.countAccessibleByUser(username);
     }
 
     public List<TradeDocument> findByTradeReference(String tradeReferenceNumber) {
@@ -201,6 +213,22 @@ public class TradeDocumentService {
     public long countByStatus(DocumentStatus status) {
         return documentRepository.countByStatus(status);
     }
+
+    /**
+     * Number of documents per status, in a single GROUP BY query
+     */
+    @Transactional(readOnly = true)
+    public StatusCounts<DocumentStatus> getStatusCounts() {
+        return StatusCounts.fromRows(DocumentStatus.class, documentRepository.countGroupedByStatus());
+    }
+
+    /**
+     * Number of documents per status uploaded by the given user, in a single GROUP BY query
+     */
+    @Transactional(readOnly = true)
+    public StatusCounts<DocumentStatus> getStatusCountsByUploadedBy(String username) {
+        return StatusCounts.fromRows(DocumentStatus.class, documentRepository.countGroupedByStatusForUploader(username));
+    }
     
     public void deleteDocument(Long id) throws IOException {
         TradeDocument document = documentRepository.findById(id)
@@ -212,12 +240,42 @@ public class TradeDocumentService {
         
         // Delete record
         documentRepository.deleteById(id);
+        publish(document.getReferenceNumber(), ReferenceChangedEvent.ChangeType.DELETED);
+        documentsChanged(document.getTradeReferenceNumber());
+    }
+
+    /**
+     * Move to {@code status} and journal the transition (from no status for a new document)
+     */
+    private void changeStatus(TradeDocument document, DocumentStatus status) {
+        DocumentStatus previous = document.getDocumentId() != null ? document.getStatus() : null;
+        document.setStatus(status);
+        eventPublisher.publishEvent(new StatusChangedEvent(ReferenceChangedEvent.DOC, document.getReferenceNumber(), previous, status));
+    }
+
+    private TradeDocument save(TradeDocument document, ReferenceChangedEvent.ChangeType changeType) {
+        TradeDocument saved = documentRepository.save(document);
+        if (saved != null) publish(saved.getReferenceNumber(), changeType);
+        return saved;
+    }
+
+    private void publish(String referenceNumber, ReferenceChangedEvent.ChangeType changeType) {
+        eventPublisher.publishEvent(new ReferenceChangedEvent(ReferenceChangedEvent.DOC, referenceNumber, changeType));
+    }
+
+    /**
+     * The documents of a trade transaction changed, so its compliance report may be stale
+     */
+    private void documentsChanged(String tradeReferenceNumber) {
+        if (tradeReferenceNumber == null || tradeReferenceNumber.isBlank()) return;
+        eventPublisher.publishEvent(new ComplianceInputChangedEvent(tradeReferenceNumber,
+                ComplianceInputChangedEvent.Input.DOCUMENTS));
     }
     
     /**
      * Generate unique reference number
      */
     private String generateReferenceNumber() {
-        return "DOC" + System.currentTimeMillis();
+        return referenceNumberGenerator.next(ReferenceNumberGenerator.DOC_PREFIX);
     }
 }
@@ -0,0 +1,88 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Check 1: the LC or BG itself is still valid, has a positive amount and a beneficiary
+ */
+@Component
+@Order(1)
+public class TransactionTermsCheck implements ComplianceCheck {
+
+    @Override
+    public String getName() {
+        return "transaction";
+    }
+
+    @Override
+    public Set<ComplianceInputChangedEvent.Input> getInputs() {
+        return Set.of(ComplianceInputChangedEvent.Input.TRANSACTION);
+    }
+
+    @Override
+    public ComplianceCheckResult evaluate(ComplianceContext context) {
+        StringBuilder remarks = new StringBuilder();
+        boolean passed;
+        if (context.getLetterOfCredit() != null) {
+            passed = checkLetterOfCredit(context.getLetterOfCredit(), remarks);
+        } else {
+            passed = checkBankGuarantee(context.getBankGuarantee(), remarks);
+        }
+        return passed ? ComplianceCheckResult.passed(remarks.toString()) : ComplianceCheckResult.failed(remarks.toString());
+    }
+
+    private static boolean checkLetterOfCredit(LetterOfCredit lc, StringBuilder remarks) {
+        boolean isValid = true;
+
+        // Check LC is not expired
+        if (lc.getExpiryDate() != null && lc.getExpiryDate().isBefore(LocalDate.now())) {
+            remarks.append("LC has expired. ");
+            isValid = false;
+        }
+
+        // Check amount is positive
+        if (lc.getAmount() == null || lc.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            remarks.append("Invalid LC amount. ");
+            isValid = false;
+        }
+
+        // Check beneficiary exists and is not null
+        if (lc.getBeneficiaryName() == null || lc.getBeneficiaryName().trim().isEmpty()) {
+            remarks.append("Beneficiary name is missing. ");
+            isValid = false;
+        }
+
+        return isValid;
+    }
+
+    private static boolean checkBankGuarantee(BankGuarantee bg, StringBuilder remarks) {
+        boolean isValid = true;
+
+        // Check validity period
+        if (bg.getValidityPeriod() != null && bg.getValidityPeriod().isBefore(LocalDate.now())) {
+            remarks.append("Guarantee validity period has expired. ");
+            isValid = false;
+        }
+
+        // Check guarantee amount
+        if (bg.getGuaranteeAmount() == null || bg.getGuaranteeAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            remarks.append("Invalid guarantee amount. ");
+            isValid = false;
+        }
+
+        // Check beneficiary
+        if (bg.getBeneficiaryName() == null || bg.getBeneficiaryName().trim().isEmpty()) {
+            remarks.append("Beneficiary name is missing. ");
+            isValid = false;
+        }
+
+        return isValid;
+    }
+}
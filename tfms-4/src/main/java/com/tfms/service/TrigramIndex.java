@@ -0,0 +1,128 @@
+package com.tfms.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+
+/**
+ * In-memory trigram index from entity id to a short text value (e.g. a party name)
+ * Substring queries intersect the posting lists of the query's trigrams and then verify the
+ * survivors against the stored text, so results are exact - never a superset - and cost
+ * O(matching ids) instead of a scan. Queries shorter than one trigram fall back to a scan of the
+ * in-memory values. Thread-safe; writers for the same id are serialised per id.
+ */
+public final class TrigramIndex {
+
+    private static final int N = 3;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, String> values = new ConcurrentHashMap<>();
+
+    /**
+     * Index (or re-index) a value; a null/blank value just removes the id
+     */
+    public void put(Long id, String text) {
+        if (id == null) return;
+        String normalized = normalize(text);
+        values.compute(id, (key, previous) -> {
+            if (previous != null) {
+                if (previous.equals(normalized)) return previous;
+                for (String gram : trigrams(previous)) unpost(gram, key);
+            }
+            if (normalized.isEmpty()) return null;
+            for (String gram : trigrams(normalized)) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            return normalized;
+        });
+    }
+
+    public void remove(Long id) {
+        if (id == null) return;
+        values.computeIfPresent(id, (key, previous) -> {
+            for (String gram : trigrams(previous)) unpost(gram, key);
+            return null;
+        });
+    }
+
+    public void clear() {
+        values.clear();
+        postings.clear();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Ids whose value contains {@code query}, ignoring case
+     */
+    public Set<Long> findContaining(String query) {
+        return find(query, String::contains);
+    }
+
+    /**
+     * Ids whose value equals {@code query}, ignoring case
+     */
+    public Set<Long> findEqual(String query) {
+        return find(query, String::equals);
+    }
+
+    private Set<Long> find(String query, BiPredicate<String, String> matches) {
+        String q = normalize(query);
+        if (q.isEmpty()) return Set.of();
+
+        Set<Long> result = new HashSet<>();
+        if (q.length() < N) {
+            values.forEach((id, value) -> {
+                if (matches.test(value, q)) result.add(id);
+            });
+            return result;
+        }
+
+        // Intersect starting from the rarest trigram so the candidate set shrinks as fast as possible
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : trigrams(q)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null || ids.isEmpty()) return Set.of();
+            lists.add(ids);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        for (Long id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (!inAll) continue;
+            String value = values.get(id);
+            if (value != null && matches.test(value, q)) result.add(id);
+        }
+        return result;
+    }
+
+    private void unpost(String gram, Long id) {
+        postings.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> trigrams(String normalized) {
+        if (normalized.length() < N) return Collections.emptySet();
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + N));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,458 @@
+package com.tfms.service;
+
+import com.tfms.model.WorkItem;
+import com.tfms.model.enums.DocumentStatus;
+import com.tfms.model.enums.GuaranteeStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import com.tfms.repository.WorkItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Claim-based officer work queue over pending LCs, BGs and trade documents
+ *
+ * Instead of every officer reading the same pending lists, an officer claims the next items and holds them under a
+ * lease of {@code tfms.workqueue.lease-duration}: the claim is one UPDATE of {@link WorkItem} rows whose lease is
+ * missing or has run out, highest priority then oldest first, so two officers never get the same item. A lease can be
+ * renewed while it runs or released early; the ones that run out are swept back into the queue.
+ *
+ * The queue follows the workflows through {@link StatusChangedEvent}: the changes of one transaction are collected and,
+ * once it has committed, applied together in a transaction of their own (an item enters the queue on a pending status
+ * and leaves it on any other). A failure there never undoes the workflow change; the periodic reconciliation with the
+ * LC, BG and document tables repairs the queue instead. Claims, completions (an officer moving an item they hold out of
+ * the queue), releases, expired leases and handling time are metered per officer.
+ */
+@Slf4j
+@Service
+public class WorkQueueService {
+
+    public static final List<String> ENTITY_TYPES =
+            List.of(ReferenceChangedEvent.LC, ReferenceChangedEvent.BG, ReferenceChangedEvent.DOC);
+
+    static final int PRIORITY_NEW = 10;
+    static final int PRIORITY_RESUMED = 20;
+
+    /**
+     * Queued statuses of each entity type and their priority: work already under way (an LC in verification, a BG
+     * returned by the risk team) is claimed before newly submitted work
+     */
+    private static final Map<String, Map<String, Integer>> PRIORITIES = Map.of(
+            ReferenceChangedEvent.LC, priorities(LetterOfCreditService.PENDING_APPROVAL_STATUSES, LCStatus.UNDER_VERIFICATION),
+            ReferenceChangedEvent.BG, priorities(BankGuaranteeService.PENDING_APPROVAL_STATUSES, GuaranteeStatus.UNDER_REVIEW),
+            ReferenceChangedEvent.DOC, priorities(List.of(DocumentStatus.PENDING_REVIEW)));
+
+    /** Claim attempts when concurrent claims took some of the candidates first */
+    private static final int CLAIM_ATTEMPTS = 3;
+
+    private final WorkItemRepository workItemRepository;
+    private final LetterOfCreditRepository lcRepository;
+    private final BankGuaranteeRepository bgRepository;
+    private final TradeDocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration leaseDuration;
+    private final int maxClaim;
+    private final int maxHeld;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong leased = new AtomicLong();
+
+    public WorkQueueService(WorkItemRepository workItemRepository,
+                            LetterOfCreditRepository lcRepository,
+                            BankGuaranteeRepository bgRepository,
+                            TradeDocumentRepository documentRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${tfms.workqueue.lease-duration:PT15M}") Duration leaseDuration,
+                            @Value("${tfms.workqueue.max-claim:20}") int maxClaim,
+                            @Value("${tfms.workqueue.max-held:50}") int maxHeld) {
+        if (leaseDuration.isNegative() || leaseDuration.isZero() || maxClaim < 1 || maxHeld < maxClaim) {
+            throw new IllegalArgumentException("tfms.workqueue: need a positive lease-duration and 1 <= max-claim <= max-held");
+        }
+        this.workItemRepository = workItemRepository;
+        this.lcRepository = lcRepository;
+        this.bgRepository = bgRepository;
+        this.documentRepository = documentRepository;
+        // queue changes are applied in the after-commit phase of the workflow's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.leaseDuration = leaseDuration;
+        this.maxClaim = maxClaim;
+        this.maxHeld = maxHeld;
+
+        Gauge.builder("tfms.workqueue.depth", depth, AtomicLong::get)
+                .description("Items in the officer work queue, as of the last lease sweep")
+                .register(meterRegistry);
+        Gauge.builder("tfms.workqueue.leased", leased, AtomicLong::get)
+                .description("Items under a running lease, as of the last lease sweep")
+                .register(meterRegistry);
+    }
+
+    private static Map<String, Integer> priorities(List<? extends Enum<?>> queued, Enum<?>... resumed) {
+        Map<String, Integer> priorities = new HashMap<>();
+        queued.forEach(status -> priorities.put(status.name(), PRIORITY_NEW));
+        for (Enum<?> status : resumed) {
+            priorities.put(status.name(), PRIORITY_RESUMED);
+        }
+        return Map.copyOf(priorities);
+    }
+
+    // ========== OFFICER OPERATIONS ==========
+
+    /**
+     * Lease the next {@code count} unclaimed items to {@code officer}, highest priority then oldest first
+     *
+     * @param count clamped to max-claim, and to what the officer may still hold under max-held
+     * @param types entity types to claim from ("LC", "BG", "DOC"); null or empty for all
+     */
+    @Transactional
+    public List<WorkItem> claim(String officer, int count, Collection<String> types) {
+        Set<String> wanted = entityTypes(types);
+        LocalDateTime now = LocalDateTime.now();
+        long held = workItemRepository.countByClaimedByAndLeaseExpiresAtAfter(officer, now);
+        int limit = (int) Math.min(Math.min(Math.max(count, 1), maxClaim), maxHeld - held);
+        if (limit <= 0) return List.of();
+
+        String token = UUID.randomUUID().toString();
+        LocalDateTime until = now.plus(leaseDuration);
+        int claimed = 0;
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS && claimed < limit; attempt++) {
+            claimed += workItemRepository.claim(wanted, officer, token, now, until, limit - claimed);
+        }
+        int total = claimed;
+        TransactionHooks.afterCommit(() -> officerCounter("tfms.workqueue.claimed", "Work items claimed", officer).increment(total));
+        return workItemRepository.findByClaimTokenOrderByPriorityDescEnqueuedAtAscIdAsc(token);
+    }
+
+    /**
+     * Extend the leases {@code officer} still holds on {@code ids} (all of them when empty) by a full lease duration;
+     * returns every item the officer holds afterwards
+     */
+    @Transactional
+    public List<WorkItem> renew(String officer, Collection<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        Collection<Long> renewing = ids == null || ids.isEmpty()
+                ? findLeasedBy(officer, now).stream().map(WorkItem::getId).toList()
+                : ids;
+        if (!renewing.isEmpty()) {
+            workItemRepository.renew(renewing, officer, now, now.plus(leaseDuration));
+        }
+        return findLeasedBy(officer, now);
+    }
+
+    /**
+     * Give items back to the queue before their lease runs out; returns how many the officer actually held
+     */
+    @Transactional
+    public int release(String officer, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return 0;
+        int released = workItemRepository.release(ids, officer, LocalDateTime.now());
+        TransactionHooks.afterCommit(() -> officerCounter("tfms.workqueue.released", "Work items given back before their lease ran out",
+                officer).increment(released));
+        return released;
+    }
+
+    /**
+     * Items {@code officer} holds a running lease on, the one expiring first first
+     */
+    @Transactional(readOnly = true)
+    public List<WorkItem> findLeasedBy(String officer) {
+        return findLeasedBy(officer, LocalDateTime.now());
+    }
+
+    private List<WorkItem> findLeasedBy(String officer, LocalDateTime now) {
+        return workItemRepository.findByClaimedByAndLeaseExpiresAtAfterOrderByLeaseExpiresAtAsc(officer, now);
+    }
+
+    private static Set<String> entityTypes(Collection<String> types) {
+        if (types == null || types.isEmpty()) return new LinkedHashSet<>(ENTITY_TYPES);
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String type : types) {
+            String normalized = type == null ? "" : type.trim().toUpperCase();
+            if (!ENTITY_TYPES.contains(normalized)) {
+                throw new IllegalArgumentException("Unknown work item type '" + type + "', expected one of " + ENTITY_TYPES);
+            }
+            wanted.add(normalized);
+        }
+        return wanted;
+    }
+
+    // ========== LEASE EXPIRY ==========
+
+    /**
+     * Put items whose lease has run out back into the queue, counting the expired leases per officer
+     */
+    @Scheduled(fixedDelayString = "${tfms.workqueue.sweep-interval:PT1M}",
+            initialDelayString = "${tfms.workqueue.sweep-interval:PT1M}")
+    public void expireLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> expired = transactionTemplate.execute(status -> {
+            List<Object[]> rows = workItemRepository.countExpiredByOfficer(now);
+            if (!rows.isEmpty()) workItemRepository.clearExpired(now);
+            return rows;
+        });
+        for (Object[] row : expired) {
+            officerCounter("tfms.workqueue.expired", "Work item leases that ran out", (String) row[0])
+                    .increment(((Number) row[1]).doubleValue());
+        }
+        depth.set(workItemRepository.count());
+        leased.set(workItemRepository.countByLeaseExpiresAtAfter(now));
+    }
+
+    // ========== FOLLOWING THE WORKFLOWS ==========
+
+    @EventListener
+    public void onStatusChanged(StatusChangedEvent event) {
+        track(new Change(event.getEntityType(), event.getReferenceNumber(), event.getToStatus(), event.getChangedBy(),
+                event.getChangedAt()));
+    }
+
+    @EventListener
+    public void onReferenceChanged(ReferenceChangedEvent event) {
+        if (event.getChangeType() == ReferenceChangedEvent.ChangeType.DELETED) {
+            track(new Change(event.getEntityType(), event.getReferenceNumber(), null, null, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Collect the change into the current transaction's batch, applied once it commits
+     */
+    private void track(Change change) {
+        if (!PRIORITIES.containsKey(change.entityType)) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applySafely(List.of(change));
+            return;
+        }
+        // looked up among the synchronizations rather than bound as a resource, which a REQUIRES_NEW transaction
+        // started in the middle would share with the suspended one
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending && pending.owner() == this) {
+                pending.changes.add(change);
+                return;
+            }
+        }
+        PendingChanges pending = new PendingChanges();
+        pending.changes.add(change);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    private void applySafely(List<Change> changes) {
+        // one retry: a concurrent enqueue of the same reference (unique per type) fails the first attempt
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<Completion> completions = transactionTemplate.execute(status -> apply(changes));
+                completions.forEach(this::recordCompletion);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == 2) {
+                    log.warn("Could not apply {} work queue changes, first {}:{}; the next reconciliation repairs them",
+                            changes.size(), changes.get(0).entityType, changes.get(0).referenceNumber, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Enqueue, re-prioritize or remove the items of one committed transaction's changes, a few statements per type
+     */
+    private List<Completion> apply(List<Change> changes) {
+        // the last change of a reference wins
+        Map<String, Map<String, Change>> byType = new LinkedHashMap<>();
+        for (Change change : changes) {
+            byType.computeIfAbsent(change.entityType, type -> new LinkedHashMap<>()).put(change.referenceNumber, change);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Completion> completions = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Change>> entry : byType.entrySet()) {
+            String type = entry.getKey();
+            Map<String, Integer> priorities = PRIORITIES.get(type);
+            Map<String, WorkItem> existing = new HashMap<>();
+            for (WorkItem item : workItemRepository.findByEntityTypeAndReferenceNumberIn(type, entry.getValue().keySet())) {
+                existing.put(item.getReferenceNumber(), item);
+            }
+
+            List<WorkItem> added = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            for (Change change : entry.getValue().values()) {
+                Integer priority = change.toStatus != null ? priorities.get(change.toStatus) : null;
+                WorkItem item = existing.get(change.referenceNumber);
+                if (priority != null && item == null) {
+                    added.add(new WorkItem(type, change.referenceNumber, change.toStatus, priority, change.changedAt));
+                } else if (priority != null) {
+                    // still pending: keep its age and any running lease
+                    item.setStatus(change.toStatus);
+                    item.setPriority(priority);
+                } else if (item != null) {
+                    removed.add(item.getId());
+                    if (item.isLeasedBy(change.changedBy, now)) {
+                        completions.add(new Completion(change.changedBy, Duration.between(item.getClaimedAt(), now)));
+                    }
+                }
+            }
+            if (!added.isEmpty()) workItemRepository.saveAll(added);
+            if (!removed.isEmpty()) workItemRepository.deleteAllByIdInBatch(removed);
+        }
+        return completions;
+    }
+
+    private void recordCompletion(Completion completion) {
+        officerCounter("tfms.workqueue.completed", "Work items an officer moved on while holding their lease",
+                completion.officer).increment();
+        Timer.builder("tfms.workqueue.handling")
+                .description("Time from claiming a work item to moving it on")
+                .tag("officer", completion.officer)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(completion.handlingTime);
+    }
+
+    private Counter officerCounter(String name, String description, String officer) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("officer", officer != null ? officer : StatusChangedEvent.SYSTEM_USER)
+                .register(meterRegistry);
+    }
+
+    // ========== RECONCILIATION ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Bring the queue in line with the LC, BG and document tables: enqueue pending transactions it is missing (e.g.
+     * pending before the queue existed), correct statuses and drop items that are no longer pending. Each type is
+     * reconciled in its own transaction.
+     */
+    @Scheduled(fixedDelayString = "${tfms.workqueue.reconcile-interval:PT10M}",
+            initialDelayString = "${tfms.workqueue.reconcile-interval:PT10M}")
+    public void reconcile() {
+        reconcile(ReferenceChangedEvent.LC,
+                () -> lcRepository.findQueueEntriesByStatusIn(LetterOfCreditService.PENDING_APPROVAL_STATUSES));
+        reconcile(ReferenceChangedEvent.BG,
+                () -> bgRepository.findQueueEntriesByStatusIn(BankGuaranteeService.PENDING_APPROVAL_STATUSES));
+        reconcile(ReferenceChangedEvent.DOC,
+                () -> documentRepository.findQueueEntriesByStatusIn(List.of(DocumentStatus.PENDING_REVIEW)));
+        depth.set(workItemRepository.count());
+    }
+
+    /**
+     * @param pendingRows rows of [referenceNumber, status, updatedAt] of the type's pending transactions
+     */
+    private void reconcile(String type, Supplier<List<Object[]>> pendingRows) {
+        try {
+            int[] drift = transactionTemplate.execute(status -> {
+                // queue first: an item enqueued after this read is never taken for a stale one
+                Map<String, WorkItem> queued = new HashMap<>();
+                for (WorkItem item : workItemRepository.findByEntityType(type)) {
+                    queued.put(item.getReferenceNumber(), item);
+                }
+                Map<String, Integer> priorities = PRIORITIES.get(type);
+                List<WorkItem> added = new ArrayList<>();
+                int corrected = 0;
+                for (Object[] row : pendingRows.get()) {
+                    String reference = (String) row[0];
+                    String pendingStatus = ((Enum<?>) row[1]).name();
+                    WorkItem item = queued.remove(reference);
+                    if (item == null) {
+                        LocalDateTime since = row[2] != null ? (LocalDateTime) row[2] : LocalDateTime.now();
+                        added.add(new WorkItem(type, reference, pendingStatus, priorities.get(pendingStatus), since));
+                    } else if (!pendingStatus.equals(item.getStatus())) {
+                        item.setStatus(pendingStatus);
+                        item.setPriority(priorities.get(pendingStatus));
+                        corrected++;
+                    }
+                }
+                if (!added.isEmpty()) workItemRepository.saveAll(added);
+                if (!queued.isEmpty()) {
+                    workItemRepository.deleteAllByIdInBatch(queued.values().stream().map(WorkItem::getId).toList());
+                }
+                return new int[] {added.size(), corrected, queued.size()};
+            });
+            if (drift[0] + drift[1] + drift[2] > 0) {
+                log.info("Work queue reconciled for {}: {} enqueued, {} corrected, {} removed", type, drift[0], drift[1], drift[2]);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Work queue reconciliation of {} failed; retried at the next interval", type, e);
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    private static final class Change {
+        final String entityType;
+        final String referenceNumber;
+        final String toStatus;
+        final String changedBy;
+        final LocalDateTime changedAt;
+
+        Change(String entityType, String referenceNumber, String toStatus, String changedBy, LocalDateTime changedAt) {
+            this.entityType = entityType;
+            this.referenceNumber = referenceNumber;
+            this.toStatus = toStatus;
+            this.changedBy = changedBy;
+            this.changedAt = changedAt;
+        }
+    }
+
+    private static final class Completion {
+        final String officer;
+        final Duration handlingTime;
+
+        Completion(String officer, Duration handlingTime) {
+            this.officer = officer;
+            this.handlingTime = handlingTime;
+        }
+    }
+
+    /**
+     * Queue changes of one transaction, applied after it commits and dropped when it rolls back
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        final List<Change> changes = new ArrayList<>();
+
+        WorkQueueService owner() {
+            return WorkQueueService.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            applySafely(changes);
+        }
+    }
+}
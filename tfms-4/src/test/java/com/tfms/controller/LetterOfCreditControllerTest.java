@@ -1,8 +1,10 @@
 package com.tfms.controller;
 
+import com.tfms.model.KeysetPage;
 import com.tfms.model.LetterOfCredit;
 import com.tfms.model.enums.LCStatus;
 import com.tfms.service.LetterOfCreditService;
+import com.tfms.service.TrackingQueryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +22,9 @@ import java.util.Arrays;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +43,9 @@ public class LetterOfCreditControllerTest {
     @MockitoBean
     private LetterOfCreditService lcService;
 
+    @MockitoBean
+    private TrackingQueryService trackingQueryService;
+
     private LetterOfCredit testLc;
 
     @BeforeEach
@@ -54,10 +62,11 @@ public class LetterOfCreditControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "user@test.com", roles = {"USER"})
+    @WithMockUser(username = "user@test.com", roles = {"CUSTOMER"})
     @DisplayName("Should display LC list page")
     void testListLettersOfCreditPage() throws Exception {
-        when(lcService.findAll()).thenReturn(Arrays.asList(testLc));
+        when(lcService.findPage(any(), any(), any(), any()))
+                .thenReturn(new KeysetPage<>(Arrays.asList(testLc), 20, null));
 
         mockMvc.perform(get("/lc"))
                 .andExpect(status().isOk())
@@ -65,7 +74,9 @@ public class LetterOfCreditControllerTest {
                 .andExpect(model().attributeExists("letterOfCredits"))
                 .andExpect(model().attribute("letterOfCredits", hasSize(1)));
 
-        verify(lcService, times(1)).findAll();
+        // Customers are scoped to their own LCs
+        verify(lcService, times(1)).findPage(eq("user@test.com"), any(), isNull(), isNull());
+        verify(lcService, never()).findAll();
     }
 
     @Test
@@ -8,7 +8,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 
@@ -23,6 +25,15 @@ public class BankGuaranteeServiceTest {
     @Mock
     private BankGuaranteeRepository bgRepository;
 
+    @Mock
+    private PartyNameIndex partyNameIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ReferenceNumberGenerator referenceNumberGenerator = new ReferenceNumberGenerator(1);
+
     @InjectMocks
     private BankGuaranteeService bgService;
 
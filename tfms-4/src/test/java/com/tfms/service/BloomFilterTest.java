@@ -0,0 +1,53 @@
+package com.tfms.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BloomFilter Tests")
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added value as absent")
+    void testNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.001);
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(1);
+        String[] refs = new String[10_000];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = generator.next(ReferenceNumberGenerator.LC_PREFIX);
+            filter.put(refs[i]);
+        }
+
+        for (String ref : refs) {
+            assertTrue(filter.mightContain(ref));
+        }
+        assertEquals(10_000, filter.getInsertions());
+    }
+
+    @Test
+    @DisplayName("Should keep the observed false positive rate near the target")
+    void testFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("LC-" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("BG-" + i)) falsePositives++;
+        }
+
+        double observed = (double) falsePositives / probes;
+        assertTrue(observed < 0.02, "observed false positive rate " + observed);
+        assertEquals(0.01, filter.getFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters")
+    void testInvalidProbability() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}
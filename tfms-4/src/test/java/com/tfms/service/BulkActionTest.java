@@ -0,0 +1,165 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.BulkActionResult;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.enums.GuaranteeStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.StatusChangeAuditRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk officer actions against the database: per-item outcomes, chunking across several transactions and the
+ * audit rows of the applied transitions
+ */
+@SpringBootTest
+@DisplayName("Bulk Action Tests")
+public class BulkActionTest {
+
+    @Autowired
+    private LetterOfCreditService lcService;
+
+    @Autowired
+    private BankGuaranteeService bgService;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private BankGuaranteeRepository bgRepository;
+
+    @Autowired
+    private StatusChangeAuditRepository auditRepository;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Test
+    @DisplayName("Should approve the pending LCs and report the missing and non-pending ones")
+    void testBulkApproveMixed() throws Exception {
+        Long submitted = saveLc(LCStatus.SUBMITTED).getLcId();
+        Long underVerification = saveLc(LCStatus.UNDER_VERIFICATION).getLcId();
+        LetterOfCredit draft = saveLc(LCStatus.DRAFT);
+
+        BulkActionResult result = lcService.bulkAction(List.of(submitted, draft.getLcId(), -1L, underVerification, submitted),
+                LetterOfCreditService.BulkAction.APPROVE, null);
+
+        assertEquals(4, result.getTotal(), "duplicate id is applied once");
+        assertEquals(2, result.getDone());
+        List<BulkActionResult.Outcome> outcomes = result.getItems().stream().map(BulkActionResult.ItemResult::getOutcome).toList();
+        assertEquals(List.of(BulkActionResult.Outcome.DONE, BulkActionResult.Outcome.INVALID_STATE,
+                BulkActionResult.Outcome.NOT_FOUND, BulkActionResult.Outcome.DONE), outcomes);
+        assertEquals("Cannot approve LetterOfCredit in DRAFT state", result.getItems().get(1).getMessage());
+
+        LetterOfCredit approved = lcRepository.findById(submitted).orElseThrow();
+        assertEquals(LCStatus.APPROVED, approved.getStatus());
+        assertEquals(LocalDate.now(), approved.getIssueDate());
+        assertEquals(LCStatus.APPROVED, lcRepository.findById(underVerification).orElseThrow().getStatus());
+        assertEquals(LCStatus.DRAFT, lcRepository.findById(draft.getLcId()).orElseThrow().getStatus());
+
+        String reference = approved.getReferenceNumber();
+        assertTrue(awaitAudit(reference), "audit row of " + reference);
+        var audit = auditRepository.findByReferenceNumberOrderByChangedAtAscIdAsc(reference);
+        assertEquals("SUBMITTED", audit.get(audit.size() - 1).getFromStatus());
+        assertEquals("APPROVED", audit.get(audit.size() - 1).getToStatus());
+    }
+
+    @Test
+    @DisplayName("Should clear a backlog larger than one chunk")
+    void testBulkApproveBacklog() {
+        List<LetterOfCredit> backlog = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            backlog.add(newLc(LCStatus.SUBMITTED));
+        }
+        List<Long> ids = lcRepository.saveAll(backlog).stream().map(LetterOfCredit::getLcId).toList();
+
+        BulkActionResult result = lcService.bulkAction(ids, LetterOfCreditService.BulkAction.SEND_TO_RISK, null);
+
+        assertEquals(2000, result.getDone());
+        assertEquals(0, result.getSkipped());
+        assertTrue(lcRepository.findAllById(ids).stream().allMatch(lc -> lc.getStatus() == LCStatus.SENT_TO_RISK));
+    }
+
+    @Test
+    @DisplayName("Should cancel guarantees with the reason appended to their purpose")
+    void testBulkCancelGuarantees() {
+        Long submitted = saveBg(GuaranteeStatus.SUBMITTED).getGuaranteeId();
+        Long claimed = saveBg(GuaranteeStatus.CLAIMED).getGuaranteeId();
+
+        BulkActionResult result = bgService.bulkAction(List.of(submitted, claimed),
+                BankGuaranteeService.BulkAction.parse("cancel"), "duplicate request");
+
+        assertEquals(1, result.getDone());
+        assertEquals(BulkActionResult.Outcome.INVALID_STATE, result.getItems().get(1).getOutcome());
+        BankGuarantee cancelled = bgRepository.findById(submitted).orElseThrow();
+        assertEquals(GuaranteeStatus.CANCELLED, cancelled.getStatus());
+        assertEquals("Bid bond | Cancellation Reason: duplicate request", cancelled.getPurpose());
+        assertEquals(GuaranteeStatus.CLAIMED, bgRepository.findById(claimed).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should refuse an unknown action and an empty id list")
+    void testRejectsBadRequests() {
+        assertThrows(IllegalArgumentException.class, () -> LetterOfCreditService.BulkAction.parse("close"));
+        assertEquals(BankGuaranteeService.BulkAction.SEND_TO_RISK, BankGuaranteeService.BulkAction.parse("send-to-risk"));
+        assertThrows(IllegalArgumentException.class,
+                () -> lcService.bulkAction(List.of(), LetterOfCreditService.BulkAction.APPROVE, null));
+    }
+
+    private boolean awaitAudit(String reference) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            if (auditRepository.findByReferenceNumberOrderByChangedAtAscIdAsc(reference).stream()
+                    .anyMatch(audit -> "APPROVED".equals(audit.getToStatus()))) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+
+    private LetterOfCredit saveLc(LCStatus status) {
+        return lcRepository.save(newLc(status));
+    }
+
+    private LetterOfCredit newLc(LCStatus status) {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Bulk Applicant");
+        lc.setBeneficiaryName("Bulk Beneficiary");
+        lc.setAmount(new BigDecimal("25000.00"));
+        lc.setCurrency("USD");
+        lc.setIssueDate(LocalDate.now().minusDays(1));
+        lc.setExpiryDate(LocalDate.now().plusMonths(6));
+        lc.setStatus(status);
+        lc.setCreatedBy("bulk-test");
+        return lc;
+    }
+
+    private BankGuarantee saveBg(GuaranteeStatus status) {
+        BankGuarantee bg = new BankGuarantee();
+        bg.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.BG_PREFIX));
+        bg.setApplicantName("Bulk Applicant");
+        bg.setBeneficiaryName("Bulk Beneficiary");
+        bg.setGuaranteeAmount(new BigDecimal("25000.00"));
+        bg.setCurrency("USD");
+        bg.setGuaranteeType("Bid");
+        bg.setPurpose("Bid bond");
+        bg.setIssueDate(LocalDate.now().minusDays(1));
+        bg.setValidityPeriod(LocalDate.now().plusMonths(6));
+        bg.setStatus(status);
+        bg.setCreatedBy("bulk-test");
+        return bgRepository.save(bg);
+    }
+}
@@ -0,0 +1,194 @@
+package com.tfms.service;
+
+import com.tfms.exception.ValidationException;
+import com.tfms.model.Compliance;
+import com.tfms.model.ComplianceBatchJob;
+import com.tfms.model.ComplianceBatchRequest;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.ScreeningHit;
+import com.tfms.model.TradeDocument;
+import com.tfms.model.enums.ComplianceStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.model.enums.RiskLevel;
+import com.tfms.repository.ComplianceRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.RiskAssessmentRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for batch compliance generation against the in-memory database
+ */
+@SpringBootTest
+@DisplayName("ComplianceBatchService Tests")
+public class ComplianceBatchServiceTest {
+
+    @Autowired
+    private ComplianceBatchService complianceBatchService;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private TradeDocumentRepository documentRepository;
+
+    @Autowired
+    private RiskAssessmentRepository riskRepository;
+
+    @Autowired
+    private ComplianceRepository complianceRepository;
+
+    @Autowired
+    private CurrentRiskService currentRisk;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Test
+    @DisplayName("Should evaluate every reference and report per-item outcomes")
+    void testBatchGeneratesReports() throws Exception {
+        String documented = saveLc().getReferenceNumber();
+        saveDocument(documented, "Commercial Invoice");
+        saveDocument(documented, "Bill of Lading");
+        saveRisk(documented, "90", LocalDate.now().minusDays(10)); // superseded
+        saveRisk(documented, "30", LocalDate.now());
+        String undocumented = saveLc().getReferenceNumber();
+
+        ComplianceBatchJob job = complianceBatchService.start(
+                new ComplianceBatchRequest(List.of(documented, undocumented, documented), null, false), "officer")
+                .await(30, TimeUnit.SECONDS);
+
+        assertEquals(ComplianceBatchJob.State.COMPLETED, job.getState());
+        assertEquals(2, job.getTotal());
+        assertEquals(100, job.getProgress());
+        Map<String, ComplianceBatchJob.Outcome> outcomes = job.getResults().stream()
+                .collect(Collectors.toMap(ComplianceBatchJob.ItemResult::getReference, ComplianceBatchJob.ItemResult::getOutcome));
+        assertEquals(ComplianceBatchJob.Outcome.COMPLIANT, outcomes.get(documented));
+        assertEquals(ComplianceBatchJob.Outcome.NON_COMPLIANT, outcomes.get(undocumented));
+
+        Compliance saved = complianceRepository.findByTransactionReference(documented).orElseThrow();
+        assertEquals(ComplianceStatus.COMPLIANT, saved.getComplianceStatus());
+        assertTrue(saved.getDocumentsValidated());
+        assertTrue(saved.getPartyCheckPassed());
+        assertNull(saved.getScreeningHits());
+        assertEquals("LC", saved.getTransactionType());
+    }
+
+    @Test
+    @DisplayName("Should fail the party check and keep the sanctions hits on the report")
+    void testSanctionsHitFailsPartyCheck() throws Exception {
+        LetterOfCredit lc = saveLc();
+        lc.setBeneficiaryName("Zarkov Holdings International");
+        lcRepository.save(lc);
+        saveDocument(lc.getReferenceNumber(), "Commercial Invoice");
+        saveDocument(lc.getReferenceNumber(), "Bill of Lading");
+
+        complianceBatchService.start(new ComplianceBatchRequest(List.of(lc.getReferenceNumber()), null, false), "officer")
+                .await(30, TimeUnit.SECONDS);
+
+        Compliance saved = complianceRepository.findByTransactionReference(lc.getReferenceNumber()).orElseThrow();
+        assertEquals(ComplianceStatus.NON_COMPLIANT, saved.getComplianceStatus());
+        assertFalse(saved.getPartyCheckPassed());
+        List<ScreeningHit> hits = SanctionsScreeningService.fromJson(saved.getScreeningHits());
+        assertEquals(1, hits.size());
+        assertEquals("beneficiaryName", hits.get(0).getField());
+        assertEquals("SDN-0001", hits.get(0).getEntryId());
+        assertTrue(saved.getRemarks().contains("Sanctions screening"));
+    }
+
+    @Test
+    @DisplayName("Should fail the country check for an embargoed beneficiary country")
+    void testEmbargoedCountryFailsCountryCheck() throws Exception {
+        LetterOfCredit lc = saveLc();
+        lc.setApplicantCountry("DE");
+        lc.setBeneficiaryCountry("ir");
+        lcRepository.save(lc);
+        saveDocument(lc.getReferenceNumber(), "Commercial Invoice");
+        saveDocument(lc.getReferenceNumber(), "Bill of Lading");
+
+        complianceBatchService.start(new ComplianceBatchRequest(List.of(lc.getReferenceNumber()), null, false), "officer")
+                .await(30, TimeUnit.SECONDS);
+
+        Compliance saved = complianceRepository.findByTransactionReference(lc.getReferenceNumber()).orElseThrow();
+        assertEquals(ComplianceStatus.NON_COMPLIANT, saved.getComplianceStatus());
+        assertFalse(saved.getCountryCheckPassed());
+        assertTrue(saved.getPartyCheckPassed());
+        assertTrue(saved.getRemarks().contains("Beneficiary country IR is in restricted list"));
+    }
+
+    @Test
+    @DisplayName("Should update an existing report instead of creating a second one")
+    void testBatchUpdatesExistingReport() throws Exception {
+        String ref = saveLc().getReferenceNumber();
+        ComplianceBatchRequest request = new ComplianceBatchRequest(List.of(ref), null, false);
+
+        complianceBatchService.start(request, "officer").await(30, TimeUnit.SECONDS);
+        complianceBatchService.start(request, "officer").await(30, TimeUnit.SECONDS);
+
+        assertEquals(1, complianceRepository.findByTransactionReferenceIn(List.of(ref)).size());
+    }
+
+    @Test
+    @DisplayName("Should resolve open transactions from the filter")
+    void testResolveReferencesFromFilter() {
+        LetterOfCredit open = saveLc();
+        LetterOfCredit closed = saveLc();
+        closed.setStatus(LCStatus.CLOSED);
+        lcRepository.save(closed);
+
+        List<String> refs = complianceBatchService.resolveReferences(new ComplianceBatchRequest(List.of(), "LC", false));
+
+        assertTrue(refs.contains(open.getReferenceNumber()));
+        assertFalse(refs.contains(closed.getReferenceNumber()));
+        assertTrue(refs.stream().allMatch(r -> r.startsWith("LC")));
+        assertThrows(ValidationException.class,
+                () -> complianceBatchService.resolveReferences(new ComplianceBatchRequest(List.of(), "XX", false)));
+    }
+
+    private LetterOfCredit saveLc() {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Batch Applicant");
+        lc.setBeneficiaryName("Batch Beneficiary");
+        lc.setAmount(new BigDecimal("25000"));
+        lc.setCurrency("USD");
+        lc.setIssueDate(LocalDate.now());
+        lc.setExpiryDate(LocalDate.now().plusMonths(6));
+        lc.setStatus(LCStatus.SUBMITTED);
+        lc.setCreatedBy("batch-test");
+        return lcRepository.save(lc);
+    }
+
+    private void saveDocument(String tradeReference, String type) {
+        TradeDocument doc = new TradeDocument();
+        doc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.DOC_PREFIX));
+        doc.setTradeReferenceNumber(tradeReference);
+        doc.setDocumentType(type);
+        doc.setFileName(type + ".pdf");
+        doc.setUploadedBy("batch-test");
+        documentRepository.save(doc);
+    }
+
+    private void saveRisk(String reference, String score, LocalDate date) {
+        RiskAssessment risk = new RiskAssessment();
+        risk.setTransactionReference(reference);
+        risk.setTransactionType("LC");
+        risk.setRiskScore(new BigDecimal(score));
+        risk.setRiskLevel(RiskLevel.LOW);
+        risk.setAssessmentDate(date);
+        currentRisk.advance(riskRepository.save(risk));
+    }
+}
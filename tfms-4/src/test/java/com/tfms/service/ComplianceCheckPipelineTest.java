@@ -0,0 +1,103 @@
+package com.tfms.service;
+
+import com.tfms.model.Compliance;
+import com.tfms.model.LetterOfCredit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for check ordering, parallel evaluation and per-check metrics
+ */
+@DisplayName("ComplianceCheckPipeline Tests")
+public class ComplianceCheckPipelineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ComplianceContext context = new ComplianceContext("LC-PIPE-1", new LetterOfCredit(), List.of(), null);
+
+    @Test
+    @DisplayName("Should run named checks in the configured order, then the rest")
+    void testConfiguredOrder() {
+        ComplianceCheckPipeline pipeline = new ComplianceCheckPipeline(
+                List.of(check("a", c -> ComplianceCheckResult.passed("A. ")),
+                        check("b", c -> ComplianceCheckResult.passed("B. ")),
+                        check("c", c -> ComplianceCheckResult.failed("C. "))),
+                registry, "c, a", 0);
+
+        assertEquals(List.of("c", "a", "b"), pipeline.getCheckNames());
+        List<ComplianceCheckResult> results = pipeline.evaluate(context, true);
+        assertEquals("C. A. B. ", results.stream().map(ComplianceCheckResult::getRemarks).reduce("", String::concat));
+        assertEquals(1, registry.get("tfms.compliance.check").tags("check", "c", "outcome", "failed").timer().count());
+        pipeline.shutdown();
+
+        assertThrows(IllegalArgumentException.class, () -> ComplianceCheckPipeline.ordered(
+                List.of(check("a", c -> ComplianceCheckResult.passed(""))), "a,unknown"));
+    }
+
+    @Test
+    @DisplayName("Should run independent checks concurrently and keep results in check order")
+    void testParallelEvaluation() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Function<ComplianceContext, ComplianceCheckResult> rendezvous = c -> {
+            bothStarted.countDown();
+            try {
+                // only returns true if the other check is running at the same time
+                boolean together = bothStarted.await(5, TimeUnit.SECONDS);
+                return together ? ComplianceCheckResult.passed(Thread.currentThread().getName() + ". ")
+                        : ComplianceCheckResult.failed("alone. ");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        ComplianceCheckPipeline pipeline = new ComplianceCheckPipeline(
+                List.of(check("first", rendezvous), check("second", rendezvous)), registry, "", 2);
+
+        List<ComplianceCheckResult> results = pipeline.evaluate(context, true);
+
+        assertTrue(results.get(0).isPassed());
+        assertTrue(results.get(1).isPassed());
+        assertEquals(Thread.currentThread().getName() + ". ", results.get(0).getRemarks());
+        assertTrue(results.get(1).getRemarks().startsWith("compliance-check-"));
+        pipeline.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should fail a check that throws and record it as an error")
+    void testCheckErrorFails() {
+        ComplianceCheckPipeline pipeline = new ComplianceCheckPipeline(
+                List.of(check("broken", c -> { throw new IllegalStateException("boom"); }),
+                        check("fine", c -> ComplianceCheckResult.of(true, "", r -> r.setDocumentsValidated(true)))),
+                registry, "", 0);
+
+        List<ComplianceCheckResult> results = pipeline.evaluate(context, false);
+        Compliance compliance = new Compliance();
+        results.forEach(result -> result.recordOn(compliance));
+
+        assertFalse(results.get(0).isPassed());
+        assertEquals("Check 'broken' could not be completed. ", results.get(0).getRemarks());
+        assertTrue(compliance.getDocumentsValidated());
+        assertEquals(1, registry.get("tfms.compliance.check").tags("check", "broken", "outcome", "error").timer().count());
+        assertEquals(1, registry.get("tfms.compliance.check").tags("check", "fine", "outcome", "passed").timer().count());
+    }
+
+    private static ComplianceCheck check(String name, Function<ComplianceContext, ComplianceCheckResult> body) {
+        return new ComplianceCheck() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public ComplianceCheckResult evaluate(ComplianceContext context) {
+                return body.apply(context);
+            }
+        };
+    }
+}
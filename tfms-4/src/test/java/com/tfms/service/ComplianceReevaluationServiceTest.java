@@ -0,0 +1,136 @@
+package com.tfms.service;
+
+import com.tfms.model.Compliance;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.TradeDocument;
+import com.tfms.model.enums.ComplianceStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.ComplianceRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for debounced, incremental compliance re-evaluation
+ */
+@SpringBootTest
+@DisplayName("ComplianceReevaluationService Tests")
+public class ComplianceReevaluationServiceTest {
+
+    @Autowired
+    private ComplianceService complianceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private TradeDocumentRepository documentRepository;
+
+    @Autowired
+    private ComplianceRepository complianceRepository;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should refresh a report once per burst, re-running only the affected check")
+    void testBurstRerunsAffectedCheckOnce() throws Exception {
+        String reference = saveLc().getReferenceNumber();
+        saveDocument(reference, "Commercial Invoice");
+        Compliance before = complianceService.generateComplianceReport(reference);
+        assertEquals(ComplianceStatus.NON_COMPLIANT, before.getComplianceStatus());
+        assertTrue(before.getRemarks().contains("Bill of Lading is missing"));
+
+        double refreshed = reevaluations("refreshed");
+        long documentsRuns = checkRuns("documents");
+        long transactionRuns = checkRuns("transaction");
+
+        saveDocument(reference, "Bill of Lading");
+        for (int i = 0; i < 10; i++) {
+            eventPublisher.publishEvent(new ComplianceInputChangedEvent(reference, ComplianceInputChangedEvent.Input.DOCUMENTS));
+        }
+        awaitReevaluations("refreshed", refreshed + 1);
+        Thread.sleep(600); // past another quiet period (0.3s in tests): the burst must not flush again
+
+        assertEquals(refreshed + 1, reevaluations("refreshed"));
+        assertEquals(documentsRuns + 1, checkRuns("documents"));
+        assertEquals(transactionRuns, checkRuns("transaction"));
+
+        Compliance after = complianceRepository.findByTransactionReference(reference).orElseThrow();
+        assertEquals(ComplianceStatus.COMPLIANT, after.getComplianceStatus());
+        assertTrue(after.getDocumentsValidated());
+        assertTrue(after.getRemarks().contains("Required documents present"));
+        assertTrue(after.getRemarks().contains("Sanctions screening passed"));
+    }
+
+    @Test
+    @DisplayName("Should not create a report for a transaction that has none")
+    void testNoReportIsLeftAlone() throws Exception {
+        String reference = saveLc().getReferenceNumber();
+        double noReport = reevaluations("no-report");
+
+        eventPublisher.publishEvent(new ComplianceInputChangedEvent(reference, ComplianceInputChangedEvent.Input.TRANSACTION));
+        awaitReevaluations("no-report", noReport + 1);
+
+        assertTrue(complianceRepository.findByTransactionReference(reference).isEmpty());
+    }
+
+    private double reevaluations(String outcome) {
+        return meterRegistry.get("tfms.compliance.reevaluations").tag("outcome", outcome).counter().count();
+    }
+
+    private void awaitReevaluations(String outcome, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (reevaluations(outcome) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, reevaluations(outcome), "re-evaluations with outcome " + outcome);
+    }
+
+    private long checkRuns(String check) {
+        return meterRegistry.get("tfms.compliance.check").tag("check", check).timers().stream()
+                .mapToLong(Timer::count).sum();
+    }
+
+    private LetterOfCredit saveLc() {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Reevaluation Applicant");
+        lc.setBeneficiaryName("Reevaluation Beneficiary");
+        lc.setAmount(new BigDecimal("25000.00"));
+        lc.setCurrency("USD");
+        lc.setIssueDate(LocalDate.now());
+        lc.setExpiryDate(LocalDate.now().plusMonths(6));
+        lc.setStatus(LCStatus.OPEN);
+        lc.setCreatedBy("customer");
+        return lcRepository.save(lc);
+    }
+
+    private void saveDocument(String tradeReference, String type) {
+        TradeDocument doc = new TradeDocument();
+        doc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.DOC_PREFIX));
+        doc.setDocumentType(type);
+        doc.setTradeReferenceNumber(tradeReference);
+        doc.setFileName(type + ".pdf");
+        doc.setUploadedBy("customer");
+        doc.setUploadDate(LocalDate.now());
+        documentRepository.save(doc);
+    }
+}
@@ -0,0 +1,81 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the country restriction lists and their hot reload
+ */
+@DisplayName("CountryRestrictionService Tests")
+public class CountryRestrictionServiceTest {
+
+    private final CountryRestrictionService service =
+            new CountryRestrictionService(new DefaultResourceLoader(), new SimpleMeterRegistry(), "");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should classify countries from the bundled lists")
+    void testBundledLevels() {
+        CountryRestrictions restrictions = service.current();
+
+        assertEquals(CountryRestrictions.EMBARGOED, restrictions.level("KP"));
+        assertEquals(CountryRestrictions.HIGH_RISK, restrictions.level("AF"));
+        assertEquals(CountryRestrictions.UNRESTRICTED, restrictions.level("DE"));
+        assertEquals(CountryRestrictions.UNRATED, restrictions.level(null));
+        // not an ISO code, so it cannot be cleared
+        assertEquals(CountryRestrictions.HIGH_RISK, restrictions.level("XX"));
+        assertEquals(CountryRestrictions.EMBARGOED, restrictions.level("DE", "SY"));
+        assertTrue(CountryRestrictions.isCountryCode("ZW"));
+        assertFalse(CountryRestrictions.isCountryCode("de"));
+        assertFalse(CountryRestrictions.isCountryCode("DEU"));
+    }
+
+    @Test
+    @DisplayName("Should rate an LC or BG by its riskier party country")
+    void testTransactionLevel() {
+        LetterOfCredit lc = new LetterOfCredit();
+        assertEquals(CountryRestrictions.UNRATED, service.countryLevel(lc));
+        lc.setApplicantCountry(" us ");
+        lc.setBeneficiaryCountry("ye");
+        assertEquals("US", lc.getApplicantCountry());
+        assertEquals(CountryRestrictions.HIGH_RISK, service.countryLevel(lc));
+
+        BankGuarantee bg = new BankGuarantee();
+        bg.setApplicantCountry("CU");
+        bg.setBeneficiaryCountry("");
+        assertNull(bg.getBeneficiaryCountry());
+        assertEquals(CountryRestrictions.EMBARGOED, service.countryLevel(bg));
+        assertEquals(CountryRestrictions.UNRATED, service.countryLevel("not a transaction"));
+    }
+
+    @Test
+    @DisplayName("Should load a configured file and keep the lists when a reload is invalid")
+    void testConfiguredLists() throws IOException {
+        Path file = dir.resolve("countries.properties");
+        Files.writeString(file, "embargoed=RU\nhigh-risk=\n");
+        CountryRestrictionService configured =
+                new CountryRestrictionService(new DefaultResourceLoader(), new SimpleMeterRegistry(), "file:" + file);
+
+        assertEquals(CountryRestrictions.EMBARGOED, configured.current().level("RU"));
+        assertEquals(CountryRestrictions.UNRESTRICTED, configured.current().level("KP"));
+
+        Files.writeString(file, "embargoed=RU,XX\nhigh-risk=\n");
+        assertThrows(IllegalArgumentException.class, configured::reload);
+        Files.writeString(file, "embargoed=RU\n");
+        assertThrows(IllegalArgumentException.class, configured::reload);
+        assertEquals(CountryRestrictions.EMBARGOED, configured.current().level("RU"));
+    }
+}
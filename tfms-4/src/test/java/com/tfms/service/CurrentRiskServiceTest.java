@@ -0,0 +1,141 @@
+package com.tfms.service;
+
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.enums.RiskLevel;
+import com.tfms.repository.RiskAssessmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the current-assessment pointers against the in-memory database
+ */
+@SpringBootTest
+@DisplayName("CurrentRiskService Tests")
+public class CurrentRiskServiceTest {
+
+    @Autowired
+    private CurrentRiskService currentRisk;
+
+    @Autowired
+    private RiskAssessmentService riskService;
+
+    @Autowired
+    private RiskAssessmentRepository riskRepository;
+
+    @Test
+    @DisplayName("Should point at the newest of several same-day assessments and fall back when it is deleted")
+    void testSameDayReassessment() {
+        RiskAssessment first = riskService.analyzeRisk(manual("LC-CURRENT-1", "20.00"), "analyst");
+        RiskAssessment second = riskService.analyzeRisk(manual("LC-CURRENT-1", "80.00"), "analyst");
+        assertEquals(first.getAssessmentDate(), second.getAssessmentDate());
+
+        assertEquals(second.getRiskId(), riskService.findByTransactionReference("LC-CURRENT-1").orElseThrow().getRiskId());
+
+        riskService.deleteAssessment(second.getRiskId());
+        assertEquals(first.getRiskId(), currentRisk.find("LC-CURRENT-1").orElseThrow().getRiskId());
+
+        riskService.deleteAssessment(first.getRiskId());
+        assertTrue(currentRisk.find("LC-CURRENT-1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should return current risk for many references at once")
+    void testBulkLookup() {
+        RiskAssessment a = riskService.analyzeRisk(manual("LC-CURRENT-2", "30.00"), "analyst");
+        riskService.analyzeRisk(manual("BG-CURRENT-3", "40.00"), "analyst");
+        RiskAssessment b = riskService.analyzeRisk(manual("BG-CURRENT-3", "65.00"), "analyst");
+
+        Map<String, RiskAssessment> current = riskService.findCurrentByTransactionReferences(
+                List.of("LC-CURRENT-2", "BG-CURRENT-3", "LC-NEVER-ASSESSED"));
+
+        assertEquals(2, current.size());
+        assertEquals(a.getRiskId(), current.get("LC-CURRENT-2").getRiskId());
+        assertEquals(b.getRiskId(), current.get("BG-CURRENT-3").getRiskId());
+        assertTrue(currentRisk.findAll(List.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should backfill pointers for assessments saved without one")
+    void testBackfill() {
+        RiskAssessment direct = manual("LC-CURRENT-4", "50.00");
+        direct.setRiskLevel(RiskLevel.MEDIUM);
+        riskRepository.save(direct);
+        assertTrue(currentRisk.find("LC-CURRENT-4").isEmpty());
+
+        currentRisk.backfill();
+
+        assertEquals(direct.getRiskId(), currentRisk.find("LC-CURRENT-4").orElseThrow().getRiskId());
+    }
+
+    @Test
+    @DisplayName("Should settle concurrent first assessments of a transaction on the newest without a key violation")
+    void testConcurrentFirstAssessments() throws Exception {
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<RiskAssessment>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String score = (20 + i) + ".00";
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return riskService.analyzeRisk(manual("LC-CURRENT-5", score), "analyst");
+                }));
+            }
+            start.countDown();
+            List<RiskAssessment> saved = new ArrayList<>();
+            for (Future<RiskAssessment> result : results) {
+                saved.add(result.get(30, TimeUnit.SECONDS));
+            }
+
+            RiskAssessment newest = riskRepository.findAllById(saved.stream().map(RiskAssessment::getRiskId).toList())
+                    .stream().max(CurrentRiskService.NEWEST_LAST).orElseThrow();
+            assertEquals(newest.getRiskId(), currentRisk.find("LC-CURRENT-5").orElseThrow().getRiskId());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should order assessments by creation time before id, as pooled ids from several nodes interleave")
+    void testNewestIsByCreatedAtThenId() {
+        LocalDateTime t = LocalDateTime.of(2024, 5, 1, 10, 0);
+        RiskAssessment older = at(t, 500L);
+        RiskAssessment newer = at(t.plusSeconds(1), 60L);
+        RiskAssessment sameTimeHigherId = at(t.plusSeconds(1), 61L);
+
+        assertTrue(CurrentRiskService.NEWEST_LAST.compare(older, newer) < 0);
+        assertTrue(CurrentRiskService.NEWEST_LAST.compare(newer, sameTimeHigherId) < 0);
+    }
+
+    private static RiskAssessment at(LocalDateTime createdAt, Long riskId) {
+        RiskAssessment assessment = manual("LC-ORDER", "10.00");
+        assessment.setRiskId(riskId);
+        assessment.setCreatedAt(createdAt);
+        return assessment;
+    }
+
+    private static RiskAssessment manual(String reference, String score) {
+        RiskAssessment assessment = new RiskAssessment();
+        assessment.setTransactionReference(reference);
+        assessment.setTransactionType(reference.substring(0, 2));
+        assessment.setRiskFactors("{\"countryRisk\":2}");
+        assessment.setRiskScore(new BigDecimal(score));
+        return assessment;
+    }
+}
@@ -0,0 +1,90 @@
+package com.tfms.service;
+
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.StatusChangeAudit;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.IntFunction;
+
+/**
+ * Insert throughput with one JDBC round trip per row (what IDENTITY keys forced on us) versus
+ * pooled-sequence keys with ordered JDBC batching.
+ * Opt-in: mvn test -Dtest=InsertThroughputBenchmarkTest -Dtfms.benchmark=true
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "tfms.benchmark", matches = "true")
+@DisplayName("Insert Throughput Benchmark")
+public class InsertThroughputBenchmarkTest {
+
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}")
+    private int batchSize;
+
+    @Test
+    @DisplayName("Row-at-a-time vs batched inserts")
+    void benchmarkInserts() {
+        run("StatusChangeAudit", i -> new StatusChangeAudit("LC", "BENCH-" + i, "DRAFT", "SUBMITTED", "bench"));
+        run("LetterOfCredit", this::letterOfCredit);
+    }
+
+    private void run(String label, IntFunction<Object> factory) {
+        insert(factory, 1, 1_000); // warm-up
+        double rowAtATime = insert(factory, 1, ROWS);
+        double batched = insert(factory, batchSize, ROWS);
+        log.info("{}: {} rows/s row-at-a-time, {} rows/s with batch size {} ({}x)", label,
+                String.format("%.0f", rowAtATime), String.format("%.0f", batched), batchSize,
+                String.format("%.1f", batched / rowAtATime));
+    }
+
+    /** Persist {@code rows} entities in one transaction with the given JDBC batch size; returns rows/s */
+    private double insert(IntFunction<Object> factory, int jdbcBatchSize, int rows) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            int flushEvery = Math.max(jdbcBatchSize, 200);
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(factory.apply(i));
+                if ((i + 1) % flushEvery == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private LetterOfCredit letterOfCredit(int i) {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Bench Applicant " + i);
+        lc.setBeneficiaryName("Bench Beneficiary " + i);
+        lc.setAmount(BigDecimal.valueOf(1000 + i));
+        lc.setCurrency("USD");
+        lc.setIssueDate(LocalDate.now());
+        lc.setExpiryDate(LocalDate.now().plusMonths(6));
+        lc.setCreatedBy("bench");
+        return lc;
+    }
+}
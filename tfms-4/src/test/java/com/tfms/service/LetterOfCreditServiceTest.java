@@ -1,6 +1,12 @@
 package com.tfms.service;
 
+import com.tfms.exception.InvalidStateException;
+import com.tfms.exception.ValidationException;
+import com.tfms.model.KeysetPage;
 import com.tfms.model.LetterOfCredit;
+import com.tfms.model.LetterOfCreditFilter;
+import com.tfms.model.PageCursor;
+import com.tfms.model.StatusCounts;
 import com.tfms.model.enums.LCStatus;
 import com.tfms.repository.LetterOfCreditRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,13 +15,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -31,6 +43,15 @@ public class LetterOfCreditServiceTest {
     @Mock
     private LetterOfCreditRepository lcRepository;
 
+    @Mock
+    private PartyNameIndex partyNameIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ReferenceNumberGenerator referenceNumberGenerator = new ReferenceNumberGenerator(1);
+
     @InjectMocks
     private LetterOfCreditService lcService;
 
@@ -98,12 +119,12 @@ public class LetterOfCreditServiceTest {
     void testSubmitForVerificationSuccess() {
         testLc.setStatus(LCStatus.DRAFT);
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
-        when(lcRepository.save(any(LetterOfCredit.class))).thenReturn(testLc);
+        when(lcRepository.updateStatus(eq(1L), anyCollection(), eq(LCStatus.SUBMITTED), any())).thenReturn(1);
 
         LetterOfCredit result = lcService.submitForVerification(1L);
 
         assertEquals(LCStatus.SUBMITTED, result.getStatus());
-        verify(lcRepository, times(1)).save(any(LetterOfCredit.class));
+        verify(lcRepository, never()).save(any(LetterOfCredit.class));
     }
 
     @Test
@@ -112,7 +133,7 @@ public class LetterOfCreditServiceTest {
         testLc.setStatus(LCStatus.CLOSED);
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
 
-        assertThrows(IllegalStateException.class,
+        assertThrows(InvalidStateException.class,
             () -> lcService.submitForVerification(1L));
 
         verify(lcRepository, never()).save(any(LetterOfCredit.class));
@@ -123,13 +144,14 @@ public class LetterOfCreditServiceTest {
     void testApproveLcSuccess() {
         testLc.setStatus(LCStatus.SUBMITTED);
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
-        when(lcRepository.save(any(LetterOfCredit.class))).thenReturn(testLc);
+        when(lcRepository.updateStatusAndIssueDate(eq(1L), eq(Set.of(LCStatus.SUBMITTED, LCStatus.UNDER_VERIFICATION)),
+                eq(LCStatus.APPROVED), eq(LocalDate.now()), any())).thenReturn(1);
 
         LetterOfCredit result = lcService.approveLetterOfCredit(1L);
 
         assertEquals(LCStatus.APPROVED, result.getStatus());
         assertNotNull(result.getIssueDate());
-        verify(lcRepository, times(1)).save(any(LetterOfCredit.class));
+        verify(lcRepository, never()).save(any(LetterOfCredit.class));
     }
 
     @Test
@@ -138,24 +160,38 @@ public class LetterOfCreditServiceTest {
         testLc.setStatus(LCStatus.DRAFT);
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
 
-        assertThrows(IllegalStateException.class,
+        assertThrows(InvalidStateException.class,
             () -> lcService.approveLetterOfCredit(1L));
 
         verify(lcRepository, never()).save(any(LetterOfCredit.class));
     }
 
+    @Test
+    @DisplayName("Should refuse an approval another request got in before")
+    void testApproveLcLosesRace() {
+        testLc.setStatus(LCStatus.SUBMITTED);
+        when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
+        when(lcRepository.updateStatusAndIssueDate(eq(1L), anyCollection(), eq(LCStatus.APPROVED), any(), any())).thenReturn(0);
+
+        assertThrows(InvalidStateException.class, () -> lcService.approveLetterOfCredit(1L));
+
+        verify(eventPublisher, never()).publishEvent(any(StatusChangedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(ReferenceChangedEvent.class));
+    }
+
     @Test
     @DisplayName("Should reject LC successfully")
     void testRejectLcSuccess() {
         testLc.setStatus(LCStatus.SUBMITTED);
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
-        when(lcRepository.save(any(LetterOfCredit.class))).thenReturn(testLc);
+        when(lcRepository.updateStatusWithNote(eq(1L), anyCollection(), eq(LCStatus.REJECTED),
+                eq(" | Rejection Reason: Invalid documents"), any())).thenReturn(1);
 
         LetterOfCredit result = lcService.rejectLetterOfCredit(1L, "Invalid documents");
 
         assertEquals(LCStatus.REJECTED, result.getStatus());
         assertTrue(result.getDescription().contains("Rejection Reason: Invalid documents"));
-        verify(lcRepository, times(1)).save(any(LetterOfCredit.class));
+        verify(lcRepository, never()).save(any(LetterOfCredit.class));
     }
 
     @Test
@@ -163,12 +199,12 @@ public class LetterOfCreditServiceTest {
     void testCloseLcSuccess() {
         testLc.setStatus(LCStatus.OPEN);
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
-        when(lcRepository.save(any(LetterOfCredit.class))).thenReturn(testLc);
+        when(lcRepository.updateStatus(eq(1L), anyCollection(), eq(LCStatus.CLOSED), any())).thenReturn(1);
 
         LetterOfCredit result = lcService.closeLetterOfCredit(1L);
 
         assertEquals(LCStatus.CLOSED, result.getStatus());
-        verify(lcRepository, times(1)).save(any(LetterOfCredit.class));
+        verify(lcRepository, never()).save(any(LetterOfCredit.class));
     }
 
     @Test
@@ -177,7 +213,7 @@ public class LetterOfCreditServiceTest {
         testLc.setStatus(LCStatus.CLOSED);
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
 
-        assertThrows(IllegalStateException.class,
+        assertThrows(InvalidStateException.class,
             () -> lcService.closeLetterOfCredit(1L));
 
         verify(lcRepository, never()).save(any(LetterOfCredit.class));
@@ -192,12 +228,35 @@ public class LetterOfCreditServiceTest {
         updatedLc.setExpiryDate(LocalDate.now().plusMonths(12));
 
         when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
-        when(lcRepository.save(any(LetterOfCredit.class))).thenReturn(testLc);
+        when(lcRepository.updateStatusAndTerms(eq(1L), anyCollection(), eq(LCStatus.AMENDED), eq("Updated Applicant"),
+                any(), any(), any(), any(), any(), eq(updatedLc.getExpiryDate()), any(), any(), any())).thenReturn(1);
 
         LetterOfCredit result = lcService.amendLetterOfCredit(1L, updatedLc);
 
         assertEquals(LCStatus.AMENDED, result.getStatus());
-        verify(lcRepository, times(1)).save(any(LetterOfCredit.class));
+        assertEquals("Updated Applicant", result.getApplicantName());
+        // one statement writes terms and status: nothing is merged back, and the event follows the write
+        verify(lcRepository, never()).save(any(LetterOfCredit.class));
+        var inOrder = inOrder(lcRepository, eventPublisher);
+        inOrder.verify(lcRepository).updateStatusAndTerms(eq(1L), anyCollection(), eq(LCStatus.AMENDED), any(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any());
+        inOrder.verify(eventPublisher).publishEvent(any(StatusChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse an amendment another request got in before")
+    void testAmendLcLosesRace() {
+        testLc.setStatus(LCStatus.APPROVED);
+        LetterOfCredit updatedLc = new LetterOfCredit();
+        updatedLc.setExpiryDate(LocalDate.now().plusMonths(12));
+        when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
+        when(lcRepository.updateStatusAndTerms(eq(1L), anyCollection(), eq(LCStatus.AMENDED), any(), any(), any(), any(),
+                any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(InvalidStateException.class, () -> lcService.amendLetterOfCredit(1L, updatedLc));
+
+        verify(eventPublisher, never()).publishEvent(any(StatusChangedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(ComplianceInputChangedEvent.class));
     }
 
     @Test
@@ -267,6 +326,135 @@ public class LetterOfCreditServiceTest {
         verify(lcRepository, times(1)).countByStatus(LCStatus.DRAFT);
     }
 
+    @Test
+    @DisplayName("Should aggregate per-status counts from a single grouped query")
+    void testGetStatusCountsSuccess() {
+        when(lcRepository.countGroupedByStatus()).thenReturn(Arrays.asList(
+                new Object[]{LCStatus.SUBMITTED, 3L},
+                new Object[]{LCStatus.UNDER_VERIFICATION, 2L},
+                new Object[]{LCStatus.CLOSED, 7L}));
+
+        StatusCounts<LCStatus> result = lcService.getStatusCounts();
+
+        assertEquals(12L, result.getTotal());
+        assertEquals(5L, result.sum(LetterOfCreditService.PENDING_APPROVAL_STATUSES));
+        assertEquals(0L, result.get(LCStatus.DRAFT));
+        verify(lcRepository, times(1)).countGroupedByStatus();
+        verify(lcRepository, never()).findAllOrderByCreatedAtDesc();
+    }
+
+    @Test
+    @DisplayName("Should return a page with a next cursor and resume strictly after it")
+    void testFindPageKeysetSuccess() {
+        LocalDateTime t = LocalDateTime.of(2024, 5, 1, 10, 0);
+        LetterOfCredit a = new LetterOfCredit();
+        a.setLcId(3L);
+        a.setCreatedAt(t);
+        LetterOfCredit b = new LetterOfCredit();
+        b.setLcId(2L);
+        b.setCreatedAt(t);
+        LetterOfCredit c = new LetterOfCredit();
+        c.setLcId(1L);
+        c.setCreatedAt(t.minusDays(1));
+        when(lcRepository.findFirstPage(eq(LCStatus.DRAFT), eq("USD"), any(), any(), any()))
+                .thenReturn(new ArrayList<>(Arrays.asList(a, b, c)));
+
+        LetterOfCreditFilter filter = new LetterOfCreditFilter(LCStatus.DRAFT, "usd", null, null);
+        KeysetPage<LetterOfCredit> first = lcService.findPage(null, filter, null, 2);
+
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.isHasNext());
+        PageCursor cursor = PageCursor.decode(first.getNextCursor());
+        assertEquals(t, cursor.getCreatedAt());
+        assertEquals(2L, cursor.getId());
+
+        when(lcRepository.findPageAfter(eq(LCStatus.DRAFT), eq("USD"), any(), any(), eq(t), eq(2L), any()))
+                .thenReturn(new ArrayList<>(List.of(c)));
+
+        KeysetPage<LetterOfCredit> second = lcService.findPage(null, filter, first.getNextCursor(), 2);
+
+        assertEquals(1, second.getItems().size());
+        assertFalse(second.isHasNext());
+        verify(lcRepository, never()).findAllOrderByCreatedAtDesc();
+    }
+
+    @Test
+    @DisplayName("Should clamp page size and reject malformed cursors")
+    void testFindPageLimits() {
+        when(lcRepository.findFirstPageByCreatedBy(any(), any(), any(), any(), any(), any())).thenReturn(new ArrayList<>());
+        when(partyNameIndex.isReady()).thenReturn(true);
+        when(partyNameIndex.lcIdsByBeneficiaryContaining("user@test.com")).thenReturn(Set.of());
+
+        KeysetPage<LetterOfCredit> page = lcService.findPage("user@test.com", null, null, 10_000);
+
+        assertEquals(LetterOfCreditService.MAX_PAGE_SIZE, page.getPageSize());
+        verify(lcRepository).findFirstPageByCreatedBy(eq("user@test.com"), isNull(), isNull(), isNull(), isNull(),
+                eq(PageRequest.of(0, LetterOfCreditService.MAX_PAGE_SIZE + 1)));
+        verify(lcRepository, never()).findFirstPageByIdIn(any(), any(), any(), any(), any(), any());
+        assertThrows(ValidationException.class,
+            () -> lcService.findPage(null, null, "not-a-cursor", 20));
+    }
+
+    @Test
+    @DisplayName("Should merge created and beneficiary keyset reads into one newest-first customer page")
+    void testFindPageMergesCustomerScope() {
+        LocalDateTime t = LocalDateTime.of(2024, 5, 1, 10, 0);
+        LetterOfCredit created1 = new LetterOfCredit();
+        created1.setLcId(5L);
+        created1.setCreatedAt(t);
+        LetterOfCredit created2 = new LetterOfCredit();
+        created2.setLcId(2L);
+        created2.setCreatedAt(t.minusDays(2));
+        LetterOfCredit both = new LetterOfCredit();
+        both.setLcId(4L);
+        both.setCreatedAt(t.minusDays(1));
+        LetterOfCredit named = new LetterOfCredit();
+        named.setLcId(3L);
+        named.setCreatedAt(t.minusDays(1));
+        when(partyNameIndex.isReady()).thenReturn(true);
+        when(partyNameIndex.lcIdsByBeneficiaryContaining("user@test.com")).thenReturn(Set.of(3L, 4L));
+        when(lcRepository.findFirstPageByCreatedBy(eq("user@test.com"), any(), any(), any(), any(), any()))
+                .thenReturn(new ArrayList<>(List.of(created1, both, created2)));
+        when(lcRepository.findFirstPageByIdIn(eq(Set.of(3L, 4L)), any(), any(), any(), any(), any()))
+                .thenReturn(new ArrayList<>(List.of(both, named)));
+
+        KeysetPage<LetterOfCredit> page = lcService.findPage("user@test.com", null, null, 3);
+
+        assertEquals(List.of(5L, 4L, 3L), page.getItems().stream().map(LetterOfCredit::getLcId).toList());
+        PageCursor cursor = PageCursor.decode(page.getNextCursor());
+        assertEquals(t.minusDays(1), cursor.getCreatedAt());
+        assertEquals(3L, cursor.getId());
+        verify(lcRepository, never()).findByBeneficiaryNameContainingIgnoreCase(anyString());
+        verify(lcRepository, never()).findIdsByBeneficiaryNameContaining(anyString());
+    }
+
+    @Test
+    @DisplayName("Should resolve beneficiary matches through the party name index and fetch by id")
+    void testFindByBeneficiaryNameUsesIndex() {
+        when(partyNameIndex.isReady()).thenReturn(true);
+        when(partyNameIndex.lcIdsByBeneficiaryContaining("beneficiary")).thenReturn(Set.of(1L));
+        when(lcRepository.findAllById(Set.of(1L))).thenReturn(List.of(testLc));
+
+        List<LetterOfCredit> result = lcService.findByBeneficiaryName("beneficiary");
+
+        assertEquals(1, result.size());
+        verify(lcRepository, never()).findByBeneficiaryNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    @DisplayName("Should publish a reference change when an LC is approved")
+    void testApproveLcPublishesReferenceChange() {
+        testLc.setStatus(LCStatus.SUBMITTED);
+        when(lcRepository.findById(1L)).thenReturn(Optional.of(testLc));
+        when(lcRepository.updateStatusAndIssueDate(eq(1L), anyCollection(), eq(LCStatus.APPROVED), any(), any())).thenReturn(1);
+
+        lcService.approveLetterOfCredit(1L);
+
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof ReferenceChangedEvent
+                && "LC-1234567890".equals(((ReferenceChangedEvent) e).getReferenceNumber())
+                && ((ReferenceChangedEvent) e).getChangeType() == ReferenceChangedEvent.ChangeType.UPDATED));
+    }
+
     @Test
     @DisplayName("Should delete LC successfully")
     void testDeleteLetterOfCreditSuccess() {
@@ -0,0 +1,86 @@
+package com.tfms.service;
+
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReferenceNumberFilter
+ */
+@DisplayName("Reference Number Filter Tests")
+public class ReferenceNumberFilterTest {
+
+    // references "committed" to the database; rebuilds load whatever is in here when they query
+    private final Queue<String> committed = new ConcurrentLinkedQueue<>();
+
+    private ReferenceNumberFilter referenceFilter;
+
+    @BeforeEach
+    void setUp() {
+        LetterOfCreditRepository lcRepository = mock(LetterOfCreditRepository.class);
+        BankGuaranteeRepository bgRepository = mock(BankGuaranteeRepository.class);
+        TradeDocumentRepository documentRepository = mock(TradeDocumentRepository.class);
+        when(lcRepository.findAllReferenceNumbers()).thenAnswer(inv -> new ArrayList<>(committed));
+        when(bgRepository.findAllReferenceNumbers()).thenReturn(List.of());
+        when(documentRepository.findAllReferenceNumbers()).thenReturn(List.of());
+        referenceFilter = new ReferenceNumberFilter(lcRepository, bgRepository, documentRepository,
+                new SimpleMeterRegistry(), 0.001, 1000);
+    }
+
+    @Test
+    @DisplayName("Should let everything through until built, then reject unknown references")
+    void testRejectsUnknownOnceBuilt() {
+        assertTrue(referenceFilter.mightExist("LC-UNKNOWN"));
+
+        committed.add("LC-KNOWN");
+        referenceFilter.rebuild();
+        referenceFilter.add("LC-ADDED");
+
+        assertTrue(referenceFilter.isReady());
+        assertTrue(referenceFilter.mightExist("LC-KNOWN"));
+        assertTrue(referenceFilter.mightExist("LC-ADDED"));
+        assertFalse(referenceFilter.mightExist("LC-UNKNOWN"));
+    }
+
+    @Test
+    @DisplayName("Should never lose a reference added while a rebuild swaps filters")
+    void testNoFalseNegativeWhileRebuilding() throws Exception {
+        referenceFilter.rebuild();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<?> rebuilds = pool.submit(() -> {
+                while (running.get()) referenceFilter.rebuild();
+            });
+            for (int i = 0; i < 20_000; i++) {
+                String reference = "LC-RACE-" + i;
+                // commit, then the after-commit add, exactly like a create does
+                committed.add(reference);
+                referenceFilter.add(reference);
+                assertTrue(referenceFilter.mightExist(reference), reference + " was lost by a concurrent rebuild");
+            }
+            running.set(false);
+            rebuilds.get(30, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            pool.shutdownNow();
+        }
+    }
+}
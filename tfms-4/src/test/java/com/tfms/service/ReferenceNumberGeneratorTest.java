@@ -0,0 +1,123 @@
+package com.tfms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReferenceNumberGenerator
+ */
+@Slf4j
+@DisplayName("Reference Number Generator Tests")
+public class ReferenceNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    @DisplayName("Should keep prefixes and issue fixed-width, sortable references")
+    void testFormat() {
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(7);
+
+        String first = generator.next(ReferenceNumberGenerator.LC_PREFIX);
+        String second = generator.next(ReferenceNumberGenerator.LC_PREFIX);
+
+        assertTrue(first.matches("LC-[0-9A-Z]{13}"), first);
+        assertTrue(generator.next(ReferenceNumberGenerator.BG_PREFIX).startsWith("BG-"));
+        assertTrue(generator.next(ReferenceNumberGenerator.DOC_PREFIX).startsWith("DOC-"));
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    @DisplayName("Should reject node ids that do not fit in the id layout")
+    void testNodeIdBounds() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ReferenceNumberGenerator(ReferenceNumberGenerator.MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new ReferenceNumberGenerator(-1));
+        long id = new ReferenceNumberGenerator(ReferenceNumberGenerator.MAX_NODE_ID).nextId();
+        assertEquals(ReferenceNumberGenerator.MAX_NODE_ID,
+                (id >>> ReferenceNumberGenerator.SEQUENCE_BITS) & ReferenceNumberGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    @DisplayName("Should issue unique, per-thread increasing ids under contention")
+    void testConcurrentUniqueness() throws Exception {
+        int perThread = 20_000;
+        Set<Long> seen = ConcurrentHashMap.newKeySet(THREADS * perThread);
+        generateConcurrently(new ReferenceNumberGenerator(3), perThread, seen::add);
+
+        assertEquals(THREADS * perThread, seen.size(), "every id must be unique");
+    }
+
+    /**
+     * Opt-in: mvn test -Dtest=ReferenceNumberGeneratorTest -Dtfms.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "tfms.benchmark", matches = "true")
+    @DisplayName("Throughput under contention")
+    void benchmarkThroughput() throws Exception {
+        int perThread = 100_000;
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(3);
+        generateConcurrently(generator, 10_000, id -> { }); // warm-up
+        double seconds = generateConcurrently(generator, perThread, id -> { });
+        log.info("ReferenceNumberGenerator: {} ids on {} threads in {} s ({} M ids/s)", THREADS * perThread, THREADS,
+                String.format("%.3f", seconds), String.format("%.1f", THREADS * perThread / seconds / 1e6));
+    }
+
+    /** Draws {@code perThread} ids on each of THREADS threads, checking per-thread order; returns elapsed seconds */
+    private static double generateConcurrently(ReferenceNumberGenerator generator, int perThread,
+                                               LongConsumer sink) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    long previous = Long.MIN_VALUE;
+                    boolean increasing = true;
+                    for (int i = 0; i < perThread; i++) {
+                        long id = generator.nextId();
+                        increasing &= id > previous;
+                        previous = id;
+                        sink.accept(id);
+                    }
+                    return increasing;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS), "ids must increase within each thread");
+            }
+            return (System.nanoTime() - begin) / 1e9;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should sort references in issue order across a burst larger than one millisecond's sequence")
+    void testSortableAcrossSequenceOverflow() {
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(0);
+        String previous = generator.next(ReferenceNumberGenerator.DOC_PREFIX);
+        for (int i = 0; i < 20_000; i++) {
+            String next = generator.next(ReferenceNumberGenerator.DOC_PREFIX);
+            assertTrue(previous.compareTo(next) < 0, previous + " !< " + next);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.tfms.service;
+
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.RiskFactorBreakdown;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.RiskAssessmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the typed risk factor columns and their aggregation in the database
+ */
+@SpringBootTest
+@DisplayName("RiskAssessmentService Tests")
+public class RiskAssessmentServiceTest {
+
+    @Autowired
+    private RiskAssessmentService riskService;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private RiskAssessmentRepository riskRepository;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Autowired
+    private ReferenceLookupService referenceLookup;
+
+    @Test
+    @DisplayName("Should store automatic factor levels in typed columns and derive the JSON from them")
+    void testAutomaticFactorsAreTyped() {
+        // 2M EUR, 400 days: high amount, high duration, low currency
+        String reference = saveLc(new BigDecimal("2000000"), "EUR", LocalDate.now().plusDays(400), null);
+        RiskAssessment request = new RiskAssessment();
+        request.setTransactionReference(reference);
+        request.setTransactionType("LC");
+
+        RiskAssessment saved = riskRepository.findById(riskService.analyzeRisk(request, "analyst").getRiskId()).orElseThrow();
+
+        assertEquals(3, saved.getAmountRisk());
+        assertEquals(3, saved.getDurationRisk());
+        assertEquals(1, saved.getCurrencyRisk());
+        assertEquals(2, saved.getCounterpartyRisk());
+        assertNull(saved.getGuaranteeTypeRisk());
+        assertEquals("{\"amountRisk\":3,\"durationRisk\":3,\"currencyRisk\":1,\"documentationRisk\":1,\"counterpartyRisk\":2}",
+                saved.getRiskFactors());
+    }
+
+    @Test
+    @DisplayName("Should keep manual factors as entered and type the ones that have a column")
+    void testManualFactors() {
+        String json = "{\"countryRisk\":{\"level\":3,\"weight\":20},\"amountRisk\":{\"level\":2,\"weight\":20},\"documentationRisk\":1}";
+        RiskAssessment request = new RiskAssessment();
+        request.setTransactionReference("LC-MANUAL-1");
+        request.setTransactionType("LC");
+        request.setRiskFactors(json);
+        request.setRiskScore(new BigDecimal("45.00"));
+
+        RiskAssessment saved = riskService.analyzeRisk(request, "analyst");
+
+        assertEquals(json, saved.getRiskFactors());
+        assertEquals(2, saved.getAmountRisk());
+        assertEquals(1, saved.getDocumentationRisk());
+        assertNull(saved.getCurrencyRisk());
+        assertNull(saved.getCounterpartyRisk());
+        assertEquals(3, saved.getCountryRisk());
+    }
+
+    @Test
+    @DisplayName("Should add country points and a country factor for restricted party countries")
+    void testCountryRiskContributesToScore() {
+        LocalDate expiry = LocalDate.now().plusDays(90);
+        RiskAssessment unrated = analyze(saveLc(new BigDecimal("50000"), "USD", expiry, null));
+        RiskAssessment unrestricted = analyze(saveLc(new BigDecimal("50000"), "USD", expiry, "DE"));
+        RiskAssessment highRisk = analyze(saveLc(new BigDecimal("50000"), "USD", expiry, "AF"));
+        RiskAssessment embargoed = analyze(saveLc(new BigDecimal("50000"), "USD", expiry, "KP"));
+
+        assertNull(unrated.getCountryRisk());
+        assertEquals(1, unrestricted.getCountryRisk());
+        assertEquals(0, unrestricted.getRiskScore().compareTo(unrated.getRiskScore()));
+        assertEquals(2, highRisk.getCountryRisk());
+        assertEquals(0, highRisk.getRiskScore().compareTo(unrated.getRiskScore().add(new BigDecimal("15"))));
+        assertEquals(3, embargoed.getCountryRisk());
+        assertEquals(0, embargoed.getRiskScore().compareTo(unrated.getRiskScore().add(new BigDecimal("40"))));
+        assertTrue(embargoed.getRecommendations().contains("Enhanced country due diligence required"));
+        assertTrue(embargoed.getRiskFactors().endsWith("\"countryRisk\":3}"));
+    }
+
+    @Test
+    @DisplayName("Should return an LC from SENT_TO_RISK even when the cached snapshot is stale")
+    void testReturnsFromRiskDespiteStaleSnapshot() {
+        String reference = saveLc(new BigDecimal("50000"), "USD", LocalDate.now().plusDays(90), null);
+        // cache the SUBMITTED snapshot, then move the row on without an invalidation event
+        assertEquals(LCStatus.SUBMITTED, referenceLookup.findLetterOfCredit(reference).orElseThrow().getStatus());
+        LetterOfCredit lc = lcRepository.findByReferenceNumber(reference).orElseThrow();
+        lc.setStatus(LCStatus.SENT_TO_RISK);
+        lcRepository.save(lc);
+
+        analyze(reference);
+
+        assertEquals(LCStatus.UNDER_VERIFICATION, lcRepository.findByReferenceNumber(reference).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should aggregate factor levels per transaction type in the database")
+    void testFactorBreakdown() {
+        long before = riskService.getFactorBreakdown("BG").get("guaranteeTypeRisk").getCount(3);
+        RiskAssessment risk = new RiskAssessment();
+        risk.setTransactionReference("BG-FACTOR-1");
+        risk.setTransactionType("BG");
+        risk.setRiskScore(new BigDecimal("70.00"));
+        risk.setGuaranteeTypeRisk(3);
+        riskRepository.save(risk);
+
+        Map<String, RiskFactorBreakdown> bg = riskService.getFactorBreakdown("bg");
+        RiskFactorBreakdown guaranteeType = bg.get("guaranteeTypeRisk");
+        assertEquals(before + 1, guaranteeType.getCount(3));
+        assertNotNull(guaranteeType.getAverageScores().get(3));
+        assertEquals(0, bg.get("currencyRisk").getTotal());
+
+        assertTrue(riskService.getFactorBreakdown(null).get("guaranteeTypeRisk").getCount(3) >= before + 1);
+        assertEquals(0, riskService.getFactorBreakdown("LC").get("guaranteeTypeRisk").getTotal());
+    }
+
+    private RiskAssessment analyze(String reference) {
+        RiskAssessment request = new RiskAssessment();
+        request.setTransactionReference(reference);
+        request.setTransactionType("LC");
+        return riskService.analyzeRisk(request, "analyst");
+    }
+
+    private String saveLc(BigDecimal amount, String currency, LocalDate expiry, String beneficiaryCountry) {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Factor Applicant");
+        lc.setBeneficiaryName("Factor Beneficiary");
+        lc.setApplicantCountry(beneficiaryCountry == null ? null : "GB");
+        lc.setBeneficiaryCountry(beneficiaryCountry);
+        lc.setAmount(amount);
+        lc.setCurrency(currency);
+        lc.setIssueDate(LocalDate.now());
+        lc.setExpiryDate(expiry);
+        lc.setStatus(LCStatus.SUBMITTED);
+        lc.setCreatedBy("factor-test");
+        return lcRepository.save(lc).getReferenceNumber();
+    }
+}
@@ -0,0 +1,141 @@
+package com.tfms.service;
+
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.RiskRescoringRun;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.model.enums.RiskLevel;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.RiskAssessmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the portfolio-wide risk rescoring job against the in-memory database
+ */
+@SpringBootTest
+@DisplayName("RiskRescoringService Tests")
+public class RiskRescoringServiceTest {
+
+    @Autowired
+    private RiskRescoringService rescoringService;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private RiskAssessmentRepository riskRepository;
+
+    @Autowired
+    private CurrentRiskService currentRisk;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Test
+    @DisplayName("Should write a new assessment only where the score or level changed")
+    void testRescoreWritesOnlyChanges() {
+        // 50k USD: 10 baseline + 5 amount + 5 currency, plus 20 (> 365 days) or 5 (<= 180 days)
+        String drifted = saveLc(LocalDate.now().plusDays(400), LCStatus.SUBMITTED);
+        saveRisk(drifted, "25", RiskLevel.MEDIUM);
+        String unchanged = saveLc(LocalDate.now().plusDays(90), LCStatus.SUBMITTED);
+        saveRisk(unchanged, "25", RiskLevel.MEDIUM);
+        String unassessed = saveLc(LocalDate.now().plusDays(400), LCStatus.SUBMITTED);
+        String closed = saveLc(LocalDate.now().plusDays(400), LCStatus.CLOSED);
+        saveRisk(closed, "25", RiskLevel.MEDIUM);
+
+        RiskRescoringRun run = rescoringService.rescore("test");
+
+        assertEquals(RiskRescoringRun.State.COMPLETED, run.getState());
+        assertTrue(run.getChanged() >= 1);
+        assertTrue(run.getChunks() >= 1);
+
+        List<RiskAssessment> driftedHistory = riskRepository.findByTransactionReference(drifted);
+        assertEquals(2, driftedHistory.size());
+        RiskAssessment latest = driftedHistory.stream().max(Comparator.comparing(RiskAssessment::getRiskId)).orElseThrow();
+        assertEquals(0, new BigDecimal("40").compareTo(latest.getRiskScore()));
+        assertEquals(RiskLevel.MEDIUM, latest.getRiskLevel());
+        assertEquals(RiskRescoringService.RESCORED_BY, latest.getAssessedBy());
+        assertTrue(latest.getRiskFactors().contains("\"durationRisk\":3"));
+
+        assertEquals(1, riskRepository.findByTransactionReference(unchanged).size());
+        assertTrue(riskRepository.findByTransactionReference(unassessed).isEmpty());
+        assertEquals(1, riskRepository.findByTransactionReference(closed).size());
+
+        // a second pass has nothing left to change for these references
+        rescoringService.rescore("test");
+        assertEquals(2, riskRepository.findByTransactionReference(drifted).size());
+        assertTrue(rescoringService.getLatestRun().isPresent());
+    }
+
+    @Test
+    @DisplayName("Should leave manual assessments and not-found defaults untouched")
+    void testRescoreKeepsManualAssessments() {
+        // both would drift to 40 (> 365 days) if the job rescored them
+        String manual = saveLc(LocalDate.now().plusDays(400), LCStatus.SUBMITTED);
+        RiskAssessment officer = new RiskAssessment();
+        officer.setTransactionReference(manual);
+        officer.setTransactionType("LC");
+        officer.setRiskFactors("{\"counterpartyRisk\":{\"level\":3,\"weight\":40}}");
+        officer.setRiskScore(new BigDecimal("72.50"));
+        officer.setRiskLevel(RiskLevel.HIGH);
+        officer.setAssessedBy("analyst");
+        RiskAssessment savedOfficer = riskRepository.save(officer);
+        currentRisk.advance(savedOfficer);
+
+        String defaulted = saveLc(LocalDate.now().plusDays(400), LCStatus.SUBMITTED);
+        RiskAssessment notFound = new RiskAssessment();
+        notFound.setTransactionReference(defaulted);
+        notFound.setTransactionType("LC");
+        notFound.setRiskFactors("{\"transactionRisk\":2}");
+        notFound.setRiskScore(new BigDecimal("50.00"));
+        notFound.setRiskLevel(RiskLevel.MEDIUM);
+        currentRisk.advance(riskRepository.save(notFound));
+
+        RiskRescoringRun run = rescoringService.rescore("test");
+
+        assertEquals(RiskRescoringRun.State.COMPLETED, run.getState());
+        assertTrue(run.getManual() >= 2);
+        assertEquals(1, riskRepository.findByTransactionReference(manual).size());
+        RiskAssessment survivor = currentRisk.find(manual).orElseThrow();
+        assertEquals(savedOfficer.getRiskId(), survivor.getRiskId());
+        assertEquals(0, new BigDecimal("72.50").compareTo(survivor.getRiskScore()));
+        assertEquals(1, riskRepository.findByTransactionReference(defaulted).size());
+    }
+
+    private String saveLc(LocalDate expiry, LCStatus status) {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Rescore Applicant");
+        lc.setBeneficiaryName("Rescore Beneficiary");
+        lc.setAmount(new BigDecimal("50000"));
+        lc.setCurrency("USD");
+        lc.setIssueDate(LocalDate.now());
+        lc.setExpiryDate(expiry);
+        lc.setStatus(status);
+        lc.setCreatedBy("rescore-test");
+        return lcRepository.save(lc).getReferenceNumber();
+    }
+
+    private void saveRisk(String reference, String score, RiskLevel level) {
+        RiskAssessment risk = new RiskAssessment();
+        risk.setTransactionReference(reference);
+        risk.setTransactionType("LC");
+        risk.setRiskScore(new BigDecimal(score));
+        risk.setRiskLevel(level);
+        // factor levels in the typed columns only, as the automatic scoring stores them
+        risk.setAmountRisk(1);
+        risk.setDurationRisk(1);
+        risk.setCurrencyRisk(1);
+        currentRisk.advance(riskRepository.save(risk));
+    }
+}
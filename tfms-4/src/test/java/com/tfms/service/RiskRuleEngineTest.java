@@ -0,0 +1,77 @@
+package com.tfms.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for loading and hot-reloading risk rules from a file
+ */
+@DisplayName("RiskRuleEngine Tests")
+public class RiskRuleEngineTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should use the bundled rules when no location is configured")
+    void testBundledRules() {
+        RiskRuleEngine engine = new RiskRuleEngine(new DefaultResourceLoader(), new SimpleMeterRegistry(), "");
+
+        assertSame(RiskScoringKernel.defaults(), engine.current());
+        engine.reloadIfModified(); // no-op
+        assertSame(RiskScoringKernel.defaults(), engine.current());
+    }
+
+    @Test
+    @DisplayName("Should swap in changed rules and keep the previous ones when a reload is invalid")
+    void testHotReload() throws IOException {
+        Path file = dir.resolve("risk-rules.properties");
+        write(file, "lc.baseline=20\n", 1);
+        RiskRuleEngine engine = new RiskRuleEngine(new DefaultResourceLoader(), new SimpleMeterRegistry(), "file:" + file);
+
+        RiskScoringKernel first = engine.current();
+        assertEquals(35, RiskScoringKernel.score(first.scoreLetterOfCredit(BigDecimal.TEN, 30, "USD", null, 0)));
+
+        write(file, "lc.baseline=30\n", 2);
+        engine.reloadIfModified();
+        RiskScoringKernel second = engine.current();
+        assertNotSame(first, second);
+        assertEquals(45, RiskScoringKernel.score(second.scoreLetterOfCredit(BigDecimal.TEN, 30, "USD", null, 0)));
+        // a score taken from the old instance is still decoded consistently by it
+        assertEquals(35, RiskScoringKernel.score(first.scoreLetterOfCredit(BigDecimal.TEN, 30, "USD", null, 0)));
+
+        write(file, "lc.amount.thresholds=1000000,100000\n", 3);
+        engine.reloadIfModified();
+        assertSame(second, engine.current());
+        assertThrows(IllegalArgumentException.class, engine::reload);
+        assertSame(second, engine.current());
+    }
+
+    @Test
+    @DisplayName("Should fail fast when the configured rules are invalid at startup")
+    void testInvalidAtStartup() throws IOException {
+        Path file = dir.resolve("broken.properties");
+        write(file, "risk.level.medium=abc\n", 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new RiskRuleEngine(new DefaultResourceLoader(), new SimpleMeterRegistry(), "file:" + file));
+    }
+
+    // distinct, explicit modification times so change detection does not depend on file system timestamp resolution
+    private static void write(Path file, String content, int version) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(version)));
+    }
+}
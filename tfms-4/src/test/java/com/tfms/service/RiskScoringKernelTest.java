@@ -0,0 +1,179 @@
+package com.tfms.service;
+
+import com.tfms.model.enums.LCStatus;
+import com.tfms.model.enums.RiskLevel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RiskScoringKernel; expected values for the bundled rules are those of the former
+ * hard-coded BigDecimal implementation
+ */
+@DisplayName("RiskScoringKernel Tests")
+public class RiskScoringKernelTest {
+
+    private final RiskScoringKernel rules = RiskScoringKernel.defaults();
+
+    @Test
+    @DisplayName("Should score a small short-dated USD LC at the medium threshold")
+    void testSmallLc() {
+        int packed = rules.scoreLetterOfCredit(new BigDecimal("50000.00"), 90, "USD", LCStatus.SUBMITTED, 0);
+
+        assertEquals(new BigDecimal("25"), RiskScoringKernel.scoreDecimal(packed));
+        assertEquals(RiskLevel.MEDIUM, rules.riskLevel(packed));
+        assertEquals("{\"amountRisk\":1,\"durationRisk\":1,\"currencyRisk\":1,\"documentationRisk\":1,\"counterpartyRisk\":2}",
+                RiskScoringKernel.factorsJson(packed));
+        assertEquals("Standard monitoring recommended", rules.recommendations(packed));
+    }
+
+    @Test
+    @DisplayName("Should score a large long-dated exotic-currency LC as high risk")
+    void testHighRiskLc() {
+        int packed = rules.scoreLetterOfCredit(new BigDecimal("2500000.00"), 400, "JPY", LCStatus.DRAFT, 0);
+
+        assertEquals(70, RiskScoringKernel.score(packed));
+        assertEquals(RiskLevel.HIGH, rules.riskLevel(packed));
+        assertEquals("{\"amountRisk\":3,\"durationRisk\":3,\"currencyRisk\":3,\"documentationRisk\":1,\"counterpartyRisk\":2}",
+                RiskScoringKernel.factorsJson(packed));
+        assertEquals("Enhanced due diligence required; Periodic review recommended; Consider currency hedging; ",
+                rules.recommendations(packed));
+    }
+
+    @Test
+    @DisplayName("Should treat thresholds as exclusive, as before")
+    void testThresholdBoundaries() {
+        int atThreshold = rules.scoreLetterOfCredit(new BigDecimal("100000"), 180, "EUR", null, 0);
+        int above = rules.scoreLetterOfCredit(new BigDecimal("100000.01"), 181, "EUR", null, 0);
+
+        assertEquals(25, RiskScoringKernel.score(atThreshold));
+        assertEquals(40, RiskScoringKernel.score(above));
+        assertEquals(2, RiskScoringKernel.factor(above, 0));
+        assertEquals(2, RiskScoringKernel.factor(above, 1));
+    }
+
+    @Test
+    @DisplayName("Should score bank guarantees by amount, type and validity")
+    void testBankGuarantee() {
+        int performance = rules.scoreBankGuarantee(new BigDecimal("600000"), "Performance Guarantee", 200, 0);
+        int bid = rules.scoreBankGuarantee(new BigDecimal("150000"), "Bid Bond", 30, 0);
+        int untyped = rules.scoreBankGuarantee(new BigDecimal("1000"), null, 30, 0);
+
+        assertEquals(65, RiskScoringKernel.score(performance));
+        assertEquals(RiskLevel.HIGH, rules.riskLevel(performance));
+        assertEquals("{\"amountRisk\":3,\"durationRisk\":2,\"guaranteeTypeRisk\":3,\"counterpartyRisk\":2,\"documentationRisk\":1}",
+                RiskScoringKernel.factorsJson(performance));
+        assertEquals("Senior approval required; Thorough applicant assessment required; ",
+                rules.recommendations(performance));
+        assertEquals(45, RiskScoringKernel.score(bid));
+        assertEquals(20, RiskScoringKernel.score(untyped));
+        assertEquals(RiskLevel.LOW, rules.riskLevel(untyped));
+    }
+
+    @Test
+    @DisplayName("Should render every factor combination exactly as String.format did")
+    void testFactorJsonMatchesFormat() {
+        for (int a = 1; a <= 3; a++) {
+            for (int d = 1; d <= 3; d++) {
+                for (int c = 1; c <= 3; c++) {
+                    int packed = a | d << 2 | c << 4 | 1 << 6 | 2 << 8;
+                    String expected = String.format(
+                            "{\"amountRisk\":%d,\"durationRisk\":%d,\"currencyRisk\":%d,\"documentationRisk\":%d,\"counterpartyRisk\":%d}",
+                            a, d, c, 1, 2);
+                    assertEquals(expected, RiskScoringKernel.factorsJson(packed << 8));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should add country points, factor and recommendation by country level")
+    void testCountryLevels() {
+        int unrated = rules.scoreBankGuarantee(new BigDecimal("1000"), null, 30, 0);
+        int unrestricted = rules.scoreBankGuarantee(new BigDecimal("1000"), null, 30, 1);
+        int embargoed = rules.scoreBankGuarantee(new BigDecimal("1000"), null, 30, 3);
+
+        assertEquals(RiskScoringKernel.score(unrated), RiskScoringKernel.score(unrestricted));
+        assertEquals(RiskScoringKernel.score(unrated) + 15,
+                RiskScoringKernel.score(rules.scoreBankGuarantee(new BigDecimal("1000"), null, 30, 2)));
+        assertEquals(60, RiskScoringKernel.score(embargoed));
+        assertEquals(0, RiskScoringKernel.factor(unrated, 5));
+        assertEquals("{\"amountRisk\":1,\"durationRisk\":1,\"guaranteeTypeRisk\":1,\"counterpartyRisk\":2,\"documentationRisk\":1,\"countryRisk\":3}",
+                RiskScoringKernel.factorsJson(embargoed));
+        assertEquals("Enhanced country due diligence required; ", rules.recommendations(embargoed));
+        assertEquals("Standard monitoring recommended", rules.recommendations(unrestricted));
+    }
+
+    @Test
+    @DisplayName("Should map manual scores to levels at the same thresholds")
+    void testManualScoreLevels() {
+        assertEquals(RiskLevel.LOW, rules.riskLevel(new BigDecimal("24.99")));
+        assertEquals(RiskLevel.MEDIUM, rules.riskLevel(new BigDecimal("25.00")));
+        assertEquals(RiskLevel.HIGH, rules.riskLevel(new BigDecimal("60")));
+        assertEquals(RiskLevel.CRITICAL, rules.riskLevel(new BigDecimal("75.5")));
+    }
+
+    @Test
+    @DisplayName("Should apply overridden bands, currencies and guarantee types")
+    void testCompileOverrides() {
+        Properties overrides = new Properties();
+        overrides.setProperty("lc.amount.thresholds", "50000,250000,1000000");
+        overrides.setProperty("lc.amount.points", "5,10,15,25");
+        overrides.setProperty("lc.amount.levels", "1,2,2,3");
+        overrides.setProperty("lc.currency.low-risk", "USD,EUR,GBP");
+        overrides.setProperty("bg.type.keywords", "Warranty");
+        overrides.setProperty("bg.type.keyword.points", "20");
+        overrides.setProperty("bg.type.keyword.levels", "3");
+
+        RiskScoringKernel custom = RiskScoringKernel.compile("test", overrides);
+
+        int lc = custom.scoreLetterOfCredit(new BigDecimal("60000"), 90, "GBP", LCStatus.SUBMITTED, 0);
+        assertEquals(30, RiskScoringKernel.score(lc)); // 10 + 10 + 5 + 5
+        assertEquals(2, RiskScoringKernel.factor(lc, 0));
+        assertEquals(1, RiskScoringKernel.factor(lc, 2));
+        int bg = custom.scoreBankGuarantee(new BigDecimal("1000"), "Warranty Guarantee", 30, 0);
+        assertEquals(40, RiskScoringKernel.score(bg));
+        assertEquals("Thorough applicant assessment required; ", custom.recommendations(bg));
+        // untouched keys keep the bundled values
+        assertEquals(rules.scoreBankGuarantee(new BigDecimal("600000"), null, 400, 0),
+                custom.scoreBankGuarantee(new BigDecimal("600000"), null, 400, 0));
+    }
+
+    @Test
+    @DisplayName("Should resolve unknown guarantee types and currencies like known ones")
+    void testUnknownInputs() {
+        assertEquals(rules.scoreBankGuarantee(new BigDecimal("1000"), "Performance Guarantee", 30, 0),
+                rules.scoreBankGuarantee(new BigDecimal("1000"), "Special Performance Bond", 30, 0));
+        assertEquals(3, RiskScoringKernel.factor(rules.scoreLetterOfCredit(BigDecimal.ONE, 1, "usd", null, 0), 2));
+        assertEquals(3, RiskScoringKernel.factor(rules.scoreLetterOfCredit(BigDecimal.ONE, 1, null, null, 0), 2));
+        assertEquals(3, RiskScoringKernel.factor(rules.scoreLetterOfCredit(BigDecimal.ONE, 1, "US", null, 0), 2));
+    }
+
+    @Test
+    @DisplayName("Should reject inconsistent rule sets")
+    void testRejectInvalidRules() {
+        Properties unsorted = new Properties();
+        unsorted.setProperty("bg.amount.thresholds", "500000,100000");
+        assertThrows(IllegalArgumentException.class, () -> RiskScoringKernel.compile("test", unsorted));
+
+        Properties missingBand = new Properties();
+        missingBand.setProperty("lc.duration.points", "5,10");
+        assertThrows(IllegalArgumentException.class, () -> RiskScoringKernel.compile("test", missingBand));
+
+        Properties badLevel = new Properties();
+        badLevel.setProperty("lc.counterparty.level", "4");
+        assertThrows(IllegalArgumentException.class, () -> RiskScoringKernel.compile("test", badLevel));
+
+        Properties badCurrency = new Properties();
+        badCurrency.setProperty("lc.currency.low-risk", "USD,EURO");
+        assertThrows(IllegalArgumentException.class, () -> RiskScoringKernel.compile("test", badCurrency));
+
+        Properties missingCountryLevel = new Properties();
+        missingCountryLevel.setProperty("country.points", "0,15");
+        assertThrows(IllegalArgumentException.class, () -> RiskScoringKernel.compile("test", missingCountryLevel));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tfms.service;
+
+import com.tfms.model.RiskAssessment;
+import com.tfms.model.enums.RiskLevel;
+import com.tfms.repository.RiskAssessmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the running risk statistics against the in-memory database
+ */
+@SpringBootTest
+@DisplayName("RiskStatistics Tests")
+public class RiskStatisticsTest {
+
+    @Autowired
+    private RiskStatistics statistics;
+
+    @Autowired
+    private RiskAssessmentService riskService;
+
+    @Autowired
+    private RiskAssessmentRepository riskRepository;
+
+    @Test
+    @DisplayName("Should follow committed saves and deletes and agree with the database after reconciling")
+    void testRunningTotals() {
+        statistics.reconcile();
+        long total = statistics.getTotal();
+        long critical = statistics.getCount(RiskLevel.CRITICAL);
+        assertEquals(riskRepository.count(), total);
+
+        RiskAssessment saved = riskService.analyzeRisk(manual("STATS-1", "99.99"), "analyst");
+        assertEquals(total + 1, statistics.getTotal());
+        assertEquals(critical + 1, statistics.getCount(RiskLevel.CRITICAL));
+        assertEquals(0, new BigDecimal("99.99").compareTo(statistics.getMaxScore()));
+
+        riskService.deleteAssessment(saved.getRiskId());
+        assertEquals(total, statistics.getTotal());
+        assertEquals(critical, statistics.getCount(RiskLevel.CRITICAL));
+        // the deleted assessment held the maximum, so it must not be reported any more
+        assertTrue(statistics.getMaxScore() == null || statistics.getMaxScore().compareTo(new BigDecimal("99.99")) < 0);
+
+        Double average = statistics.getAverageScore();
+        statistics.reconcile();
+        assertEquals(total, statistics.getTotal());
+        assertEquals(average, statistics.getAverageScore());
+    }
+
+    @Test
+    @DisplayName("Should pick up writes that bypassed the services on reconciliation")
+    void testReconcileCorrectsDrift() {
+        statistics.reconcile();
+        long low = statistics.getCount(RiskLevel.LOW);
+
+        RiskAssessment direct = manual("STATS-2", "5.00");
+        direct.setRiskLevel(RiskLevel.LOW);
+        riskRepository.save(direct);
+        assertEquals(low, statistics.getCount(RiskLevel.LOW));
+
+        statistics.reconcile();
+        assertEquals(low + 1, statistics.getCount(RiskLevel.LOW));
+        assertEquals(0, new BigDecimal("5.00").compareTo(statistics.getMinScore()));
+    }
+
+    private static RiskAssessment manual(String reference, String score) {
+        RiskAssessment assessment = new RiskAssessment();
+        assessment.setTransactionReference(reference);
+        assessment.setTransactionType("LC");
+        assessment.setRiskFactors("{\"countryRisk\":3}");
+        assessment.setRiskScore(new BigDecimal(score));
+        return assessment;
+    }
+}
@@ -0,0 +1,177 @@
+package com.tfms.service;
+
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.ScreeningHit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for name normalization, alias matching, Jaro-Winkler and screening against the bundled watchlist
+ */
+@DisplayName("Sanctions Screening Tests")
+public class SanctionsScreeningTest {
+
+    private final SanctionsScreeningService screening =
+            new SanctionsScreeningService(new DefaultResourceLoader(), new SimpleMeterRegistry(), "", 0.92);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should normalize accents, punctuation and legal forms")
+    void testNormalize() {
+        assertEquals("cerny orel export", PartyNameNormalizer.normalize("Černý Orel Export s.r.o."));
+        assertEquals("muller strauss dieter", PartyNameNormalizer.normalize("Müller-Strauß, Dieter"));
+        assertEquals("oneil jp trading", PartyNameNormalizer.normalize("  O'Neil & J.P. Trading Co., Ltd. "));
+        assertEquals("", PartyNameNormalizer.normalize("The Company Ltd"));
+        assertEquals("ivan petrov sergeyevich", PartyNameNormalizer.sortTokens("petrov ivan sergeyevich"));
+    }
+
+    @Test
+    @DisplayName("Should match aliases on whole tokens only")
+    void testAliasMatcher() {
+        AliasMatcher matcher = new AliasMatcher(List.of("zarkov holdings", "holdings", "red star"));
+
+        assertEquals(List.of(0, 1), matches(matcher, "the zarkov holdings group"));
+        assertEquals(List.of(1), matches(matcher, "zarkovs holdings"));
+        assertEquals(List.of(), matches(matcher, "zarkov holdingsx"));
+        assertEquals(List.of(2, 2), matches(matcher, "red star red star"));
+    }
+
+    @Test
+    @DisplayName("Should compute Jaro-Winkler similarity")
+    void testJaroWinkler() {
+        assertEquals(0.961, JaroWinkler.similarity("martha", "marhta"), 0.001);
+        assertEquals(0.840, JaroWinkler.similarity("dwayne", "duane"), 0.001);
+        assertEquals(1.0, JaroWinkler.similarity("same", "same"));
+        assertEquals(0.0, JaroWinkler.similarity("abc", "xyz"));
+    }
+
+    @Test
+    @DisplayName("Should find exact aliases inside longer names and explain the hit")
+    void testExactAlias() {
+        List<ScreeningHit> hits = screening.screen("beneficiaryName", "Red Star Metals Trading FZE");
+
+        assertEquals(1, hits.size());
+        ScreeningHit hit = hits.get(0);
+        assertEquals("SDN-0007", hit.getEntryId());
+        assertEquals("Krasnaya Zvezda Metals", hit.getEntryName());
+        assertEquals("Red Star Metals", hit.getMatchedAlias());
+        assertEquals(ScreeningHit.EXACT_ALIAS, hit.getMatchType());
+        assertEquals("beneficiaryName", hit.getField());
+        assertEquals(1.0, hit.getScore());
+    }
+
+    @Test
+    @DisplayName("Should find misspelled, transliterated and reordered names")
+    void testFuzzyMatches() {
+        assertEntry("SDN-0001", screening.screen("applicantName", "Zarkow Industrial Holding"));
+        assertEntry("SDN-0006", screening.screen("applicantName", "Cerny Orel Exports"));
+        assertEntry("SDN-0003", screening.screen("applicantName", "Sergeyevich Ivan Petrov"));
+        assertEntry("SDN-0012", screening.screen("applicantName", "Dieter Müller Strauss"));
+        assertEquals(ScreeningHit.FUZZY, screening.screen("applicantName", "Zarkow Industrial Holding").get(0).getMatchType());
+    }
+
+    @Test
+    @DisplayName("Should not flag ordinary counterparties")
+    void testNoFalsePositives() {
+        for (String name : List.of("ABC Trading Co.", "XYZ Exports Ltd.", "Global Trade Bank",
+                "International Commerce Bank", "Construction Corp.", "Tech Imports Inc.", "Golden Gate Trading",
+                "Nordic Wind Energy")) {
+            assertTrue(screening.screen("name", name).isEmpty(), name);
+        }
+    }
+
+    @Test
+    @DisplayName("Should still find misspelled names on a list large enough to drop common keys")
+    void testFuzzyMatchesOnLargeList() {
+        String[] syllables = {"al", "ba", "cor", "den", "el", "fa", "gor", "han", "is", "ka", "lom", "mar", "nov", "or",
+                "pet", "qua", "ros", "sal", "tor", "ul", "ven", "war", "xen", "yar", "zan"};
+        Random random = new Random(11);
+        List<SanctionsIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String name = word(random, syllables) + " " + word(random, syllables) + " Trading";
+            entries.add(new SanctionsIndex.Entry("E-" + i, name, "ENTITY", "TEST", List.of(name)));
+        }
+        SanctionsIndex index = SanctionsIndex.build("test", entries, 0.92);
+
+        int checked = 0;
+        for (int i = 0; i < 200; i++) {
+            SanctionsIndex.Entry entry = entries.get(random.nextInt(entries.size()));
+            // one symbol replaced anywhere, the space between the first two tokens included
+            StringBuilder typo = new StringBuilder(entry.name);
+            typo.setCharAt(1 + random.nextInt(typo.length() - 2), 'x');
+            // only typos that a comparison with every alias would report
+            if (JaroWinkler.similarity(PartyNameNormalizer.normalize(typo.toString()),
+                    PartyNameNormalizer.normalize(entry.name)) < 0.92) continue;
+            checked++;
+            assertTrue(index.screen("name", typo.toString()).stream().anyMatch(hit -> hit.getEntryId().equals(entry.id)),
+                    typo + " should match " + entry.name);
+        }
+        assertTrue(checked > 150);
+    }
+
+    @Test
+    @DisplayName("Should screen every party of an LC and round-trip hits through JSON")
+    void testScreenParties() {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setApplicantName("ABC Trading Co.");
+        lc.setBeneficiaryName("Blackfin Shipping Services Ltd");
+        lc.setAdvisingBank("Banco Sombra Internacional S.A.");
+
+        List<ScreeningHit> hits = screening.screenParties(lc);
+
+        assertEquals(List.of("beneficiaryName", "advisingBank"), hits.stream().map(ScreeningHit::getField).toList());
+        List<ScreeningHit> restored = SanctionsScreeningService.fromJson(SanctionsScreeningService.toJson(hits));
+        assertEquals(hits.get(1).getEntryId(), restored.get(1).getEntryId());
+        assertEquals(hits.get(1).getScore(), restored.get(1).getScore());
+        assertTrue(SanctionsScreeningService.fromJson(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should load a configured list and keep it when a reload is invalid")
+    void testConfiguredList() throws IOException {
+        Path file = dir.resolve("list.csv");
+        Files.writeString(file, "id,name,type,program,aliases\nX-1,\"Acme, Widgets\",ENTITY,TEST,Widget House\n");
+        SanctionsScreeningService service =
+                new SanctionsScreeningService(new DefaultResourceLoader(), new SimpleMeterRegistry(), "file:" + file, 0.92);
+
+        assertEquals(1, service.getEntryCount());
+        assertEntry("X-1", service.screen("name", "Widget House"));
+
+        Files.writeString(file, "id,name,type,program,aliases\nX-2,,ENTITY,TEST,\n");
+        assertThrows(IllegalArgumentException.class, service::reload);
+        assertEquals(1, service.getEntryCount());
+    }
+
+    private static void assertEntry(String entryId, List<ScreeningHit> hits) {
+        assertFalse(hits.isEmpty(), "expected a hit on " + entryId);
+        assertEquals(entryId, hits.get(0).getEntryId());
+    }
+
+    private static String word(Random random, String[] syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + random.nextInt(2); i > 0; i--) word.append(syllables[random.nextInt(syllables.length)]);
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    private static List<Integer> matches(AliasMatcher matcher, String normalized) {
+        List<Integer> ids = new ArrayList<>();
+        matcher.forEachMatch(normalized, ids::add);
+        ids.sort(null);
+        return ids;
+    }
+}
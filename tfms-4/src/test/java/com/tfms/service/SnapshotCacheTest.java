@@ -0,0 +1,93 @@
+package com.tfms.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SnapshotCache Tests")
+public class SnapshotCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("Should serve hits from the cache and count hits and misses")
+    void testHitAndMiss() {
+        SnapshotCache<String, String> cache = new SnapshotCache<>(10, Duration.ofMinutes(1), now::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(Optional.of("v1"), cache.get("LC-1", k -> "v" + loads.incrementAndGet()));
+        assertEquals(Optional.of("v1"), cache.get("LC-1", k -> "v" + loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    @DisplayName("Should not cache missing references")
+    void testNullNotCached() {
+        SnapshotCache<String, String> cache = new SnapshotCache<>(10, Duration.ofMinutes(1), now::get);
+
+        assertTrue(cache.get("LC-404", k -> null).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should reload entries older than the TTL")
+    void testTtlExpiry() {
+        SnapshotCache<String, String> cache = new SnapshotCache<>(10, Duration.ofSeconds(30), now::get);
+        cache.get("LC-1", k -> "old");
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertEquals(Optional.of("new"), cache.get("LC-1", k -> "new"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full")
+    void testLruEviction() {
+        SnapshotCache<String, String> cache = new SnapshotCache<>(2, Duration.ofMinutes(1), now::get);
+        cache.get("a", k -> k);
+        cache.get("b", k -> k);
+        cache.get("a", k -> k); // touch a
+        cache.get("c", k -> k);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(Optional.of("reloaded"), cache.get("b", k -> "reloaded"));
+    }
+
+    @Test
+    @DisplayName("Should drop invalidated entries")
+    void testInvalidate() {
+        SnapshotCache<String, String> cache = new SnapshotCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.get("LC-1", k -> "before");
+
+        cache.invalidate("LC-1");
+
+        assertEquals(Optional.of("after"), cache.get("LC-1", k -> "after"));
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    @Test
+    @DisplayName("Should not store a value loaded concurrently with an invalidation")
+    void testLoadRacingInvalidationIsNotStored() {
+        SnapshotCache<String, String> cache = new SnapshotCache<>(10, Duration.ofMinutes(1), now::get);
+
+        Optional<String> stale = cache.get("LC-1", k -> {
+            cache.invalidate("LC-1"); // a writer commits while the reader is loading
+            return "stale";
+        });
+
+        assertEquals(Optional.of("stale"), stale);
+        assertEquals(0, cache.size());
+    }
+}
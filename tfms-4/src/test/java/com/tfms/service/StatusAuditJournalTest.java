@@ -0,0 +1,198 @@
+package com.tfms.service;
+
+import com.tfms.model.StatusChangeAudit;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.StatusChangeAuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for batching, shutdown drain, backpressure and failure handling of the status change audit journal
+ */
+@DisplayName("StatusAuditJournal Tests")
+public class StatusAuditJournalTest {
+
+    private final StatusChangeAuditRepository auditRepository = mock(StatusChangeAuditRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<List<StatusChangeAudit>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should write full batches in the background and drain the rest on close")
+    void testBatchesAndDrainOnClose() {
+        when(auditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.<List<StatusChangeAudit>>getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        StatusAuditJournal journal = journal(1000, 50, Duration.ofSeconds(10));
+
+        journal.onStatusChanged(new StatusChangedEvent(ReferenceChangedEvent.LC, "LC-AUDIT-0", LCStatus.SUBMITTED, LCStatus.APPROVED));
+        for (int i = 1; i < 120; i++) {
+            journal.append(new StatusChangeAudit("LC", "LC-AUDIT-" + i, "DRAFT", "SUBMITTED", "customer"));
+        }
+        journal.close();
+
+        assertEquals(120, batches.stream().mapToInt(List::size).sum());
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 50));
+        StatusChangeAudit first = batches.get(0).get(0);
+        assertEquals("LC-AUDIT-0", first.getReferenceNumber());
+        assertEquals("SUBMITTED", first.getFromStatus());
+        assertEquals("APPROVED", first.getToStatus());
+        assertEquals(StatusChangedEvent.SYSTEM_USER, first.getChangedBy());
+        assertNotNull(first.getChangedAt());
+        assertEquals(0, journal.getDepth());
+        assertEquals(120, registry.get("tfms.audit.journal.rows").tag("outcome", "written").counter().count());
+        assertEquals(0, registry.get("tfms.audit.journal.overflow").counter().count());
+        verify(eventPublisher, times(batches.size())).publishEvent(any(StatusAuditWrittenEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should make the caller write its own row when the queue stays full")
+    void testBackpressureWhenFull() throws Exception {
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        List<String> callerThreads = Collections.synchronizedList(new ArrayList<>());
+        when(auditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                // the writer's first batch hangs like a stalled database
+                writerBusy.countDown();
+                releaseWriter.await(10, TimeUnit.SECONDS);
+            } else {
+                callerThreads.add(Thread.currentThread().getName());
+            }
+            return invocation.getArgument(0);
+        });
+        StatusAuditJournal journal = journal(4, 2, Duration.ofSeconds(10));
+
+        journal.append(audit(1));
+        journal.append(audit(2)); // a full batch wakes the writer, which then hangs
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+        journal.append(audit(3));
+        journal.append(audit(4)); // capacity counts the batch being written: the queue is now full
+        assertEquals(4, journal.getDepth());
+
+        journal.append(audit(5));
+
+        assertEquals(List.of(Thread.currentThread().getName()), callerThreads);
+        assertEquals(1, registry.get("tfms.audit.journal.overflow").counter().count());
+        releaseWriter.countDown();
+        journal.close();
+        assertEquals(5, registry.get("tfms.audit.journal.rows").tag("outcome", "written").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch with backoff instead of dropping it")
+    void testRetriesFailedBatch() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        when(auditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() <= 2) throw new DataAccessResourceFailureException("database unavailable");
+            batches.add(new ArrayList<>(invocation.<List<StatusChangeAudit>>getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        StatusAuditJournal journal = journal(100, 10, Duration.ofSeconds(10));
+
+        for (int i = 1; i <= 10; i++) {
+            journal.append(audit(i));
+        }
+        awaitWritten(journal);
+        journal.close();
+
+        assertEquals(List.of(10), batches.stream().map(List::size).toList());
+        assertEquals(2, registry.get("tfms.audit.journal.retries").counter().count());
+        assertEquals(10, registry.get("tfms.audit.journal.rows").tag("outcome", "written").counter().count());
+        assertFalse(Files.exists(deadLetterFile()));
+    }
+
+    @Test
+    @DisplayName("Should write a batch row by row, dead-letter the bad row and replay it on the next start")
+    void testDeadLetterAndReplay() throws Exception {
+        when(auditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<StatusChangeAudit> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getReferenceNumber().equals("DOC-AUDIT-3"))) {
+                throw new DataIntegrityViolationException("rejected");
+            }
+            batches.add(new ArrayList<>(rows));
+            return rows;
+        });
+        StatusAuditJournal journal = journal(100, 5, Duration.ofSeconds(10));
+        for (int i = 1; i <= 5; i++) {
+            journal.append(audit(i));
+        }
+        awaitWritten(journal);
+        journal.close();
+
+        assertEquals(4, batches.stream().mapToInt(List::size).sum());
+        assertEquals(1, Files.readAllLines(deadLetterFile()).size());
+        assertTrue(Files.readString(deadLetterFile()).startsWith("DOC\tDOC-AUDIT-3\tACTIVE\tAPPROVED\tofficer\t"));
+        assertEquals(1, registry.get("tfms.audit.journal.rows").tag("outcome", "dead-lettered").counter().count());
+
+        // the database accepts the row again
+        when(auditRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.<List<StatusChangeAudit>>getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        batches.clear();
+        StatusAuditJournal restarted = journal(100, 5, Duration.ofSeconds(10));
+        restarted.close();
+
+        assertEquals(1, batches.size());
+        StatusChangeAudit replayed = batches.get(0).get(0);
+        assertEquals("DOC-AUDIT-3", replayed.getReferenceNumber());
+        assertEquals("ACTIVE", replayed.getFromStatus());
+        assertNotNull(replayed.getChangedAt());
+        assertFalse(Files.exists(deadLetterFile()));
+    }
+
+    private StatusAuditJournal journal(int capacity, int batchSize, Duration flushInterval) {
+        StatusAuditJournal journal = new StatusAuditJournal(auditRepository, mock(PlatformTransactionManager.class),
+                eventPublisher, registry, capacity, batchSize, flushInterval, Duration.ofMillis(20), Duration.ofSeconds(10),
+                3, Duration.ofMillis(10), deadLetterFile().toString());
+        journal.start();
+        return journal;
+    }
+
+    // closing skips the retries, so let the writer finish them first
+    private static void awaitWritten(StatusAuditJournal journal) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (journal.getDepth() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, journal.getDepth());
+    }
+
+    private Path deadLetterFile() {
+        return dir.resolve("audit").resolve("dead-letter.tsv");
+    }
+
+    private static StatusChangeAudit audit(int i) {
+        return new StatusChangeAudit("DOC", "DOC-AUDIT-" + i, "ACTIVE", "APPROVED", "officer");
+    }
+}
@@ -0,0 +1,155 @@
+package com.tfms.service;
+
+import com.tfms.exception.InvalidStateException;
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.enums.GuaranteeStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for the conditional-UPDATE transitions: of N officers acting on the same transaction at the same
+ * moment exactly one wins, and every other one gets an InvalidStateException instead of a silent second write
+ */
+@SpringBootTest
+@DisplayName("Status Transition Concurrency Tests")
+public class StatusTransitionConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private LetterOfCreditService lcService;
+
+    @Autowired
+    private BankGuaranteeService bgService;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private BankGuaranteeRepository bgRepository;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Test
+    @DisplayName("Should let exactly one of N racing LC approvals win")
+    void testRacingApprovals() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Long lcId = saveSubmittedLc();
+
+            assertEquals(1, race(lcId, lcService::approveLetterOfCredit), "winners in round " + round);
+
+            LetterOfCredit lc = lcRepository.findById(lcId).orElseThrow();
+            assertEquals(LCStatus.APPROVED, lc.getStatus());
+            assertEquals(LocalDate.now(), lc.getIssueDate());
+        }
+    }
+
+    @Test
+    @DisplayName("Should let exactly one of N racing, different LC decisions win")
+    void testRacingApproveAndReject() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Long lcId = saveSubmittedLc();
+
+            // half the officers approve, the other half reject
+            int winners = race(lcId, lcService::approveLetterOfCredit, id -> lcService.rejectLetterOfCredit(id, "duplicate"));
+
+            assertEquals(1, winners, "winners in round " + round);
+            LCStatus status = lcRepository.findById(lcId).orElseThrow().getStatus();
+            assertTrue(status == LCStatus.APPROVED || status == LCStatus.REJECTED, "status " + status);
+        }
+    }
+
+    @Test
+    @DisplayName("Should let exactly one of N racing guarantee issues win")
+    void testRacingIssues() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Long bgId = saveSubmittedBg();
+
+            assertEquals(1, race(bgId, bgService::issueGuarantee), "winners in round " + round);
+
+            BankGuarantee bg = bgRepository.findById(bgId).orElseThrow();
+            assertEquals(GuaranteeStatus.ISSUED, bg.getStatus());
+            assertEquals(LocalDate.now(), bg.getIssueDate());
+        }
+    }
+
+    /**
+     * Run the actions, in turn, on {@code THREADS} threads released together; returns how many succeeded
+     */
+    private int race(long id, LongConsumer... actions) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        try {
+            List<Future<Boolean>> outcomes = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                LongConsumer action = actions[i % actions.length];
+                outcomes.add(pool.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    try {
+                        action.accept(id);
+                        return true;
+                    } catch (InvalidStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            int winners = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                if (outcome.get(30, TimeUnit.SECONDS)) winners++;
+            }
+            return winners;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Long saveSubmittedLc() {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Race Applicant");
+        lc.setBeneficiaryName("Race Beneficiary");
+        lc.setAmount(new BigDecimal("50000.00"));
+        lc.setCurrency("USD");
+        lc.setIssueDate(LocalDate.now().minusDays(1));
+        lc.setExpiryDate(LocalDate.now().plusMonths(6));
+        lc.setStatus(LCStatus.SUBMITTED);
+        lc.setCreatedBy("race-test");
+        return lcRepository.save(lc).getLcId();
+    }
+
+    private Long saveSubmittedBg() {
+        BankGuarantee bg = new BankGuarantee();
+        bg.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.BG_PREFIX));
+        bg.setApplicantName("Race Applicant");
+        bg.setBeneficiaryName("Race Beneficiary");
+        bg.setGuaranteeAmount(new BigDecimal("50000.00"));
+        bg.setCurrency("USD");
+        bg.setGuaranteeType("Performance");
+        bg.setIssueDate(LocalDate.now().minusDays(1));
+        bg.setValidityPeriod(LocalDate.now().plusMonths(6));
+        bg.setStatus(GuaranteeStatus.SUBMITTED);
+        bg.setCreatedBy("race-test");
+        return bgRepository.save(bg).getGuaranteeId();
+    }
+}
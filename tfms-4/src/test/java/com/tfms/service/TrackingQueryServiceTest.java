@@ -0,0 +1,225 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.StatusChangeAudit;
+import com.tfms.model.TimelineItem;
+import com.tfms.model.TrackingSnapshot;
+import com.tfms.model.enums.GuaranteeStatus;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.StatusChangeAuditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrackingQueryService Tests")
+public class TrackingQueryServiceTest {
+
+    @Mock
+    private LetterOfCreditRepository lcRepository;
+
+    @Mock
+    private BankGuaranteeRepository bgRepository;
+
+    @Mock
+    private TradeDocumentRepository documentRepository;
+
+    @Mock
+    private StatusChangeAuditRepository auditRepository;
+
+    private ReferenceNumberFilter referenceFilter;
+
+    private TrackingQueryService trackingQueryService;
+
+    private LetterOfCredit testLc;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        referenceFilter = new ReferenceNumberFilter(lcRepository, bgRepository, documentRepository, meterRegistry, 0.001, 1000);
+        trackingQueryService = new TrackingQueryService(lcRepository, bgRepository, documentRepository,
+                auditRepository, referenceFilter, meterRegistry, 100, Duration.ofMinutes(10));
+
+        testLc = new LetterOfCredit();
+        testLc.setLcId(1L);
+        testLc.setReferenceNumber("LC-1234567890");
+        testLc.setApplicantName("ABC Corp");
+        testLc.setBeneficiaryName("XYZ Ltd");
+        testLc.setAmount(new BigDecimal("100000"));
+        testLc.setCurrency("USD");
+        testLc.setExpiryDate(LocalDate.now().plusMonths(6));
+        testLc.setCreatedAt(LocalDateTime.now());
+        testLc.setStatus(LCStatus.SUBMITTED);
+    }
+
+    @Test
+    @DisplayName("Should build an LC snapshot with its timeline")
+    void testTrackLetterOfCredit() {
+        when(lcRepository.findByReferenceNumber("LC-1234567890")).thenReturn(Optional.of(testLc));
+
+        TrackingSnapshot snapshot = trackingQueryService.track("LC-1234567890").orElseThrow();
+
+        assertEquals(TrackingSnapshot.TYPE_LC, snapshot.getTransactionType());
+        assertEquals("Submitted", snapshot.getStatus());
+        assertEquals("SUBMITTED", snapshot.getStatusCode());
+        assertEquals("XYZ Ltd", snapshot.getBeneficiary());
+        assertEquals(6, snapshot.getTimeline().size());
+        assertTrue(snapshot.getTimeline().get(1).isCompleted());
+        assertFalse(snapshot.getTimeline().get(2).isCompleted());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getTimeline().clear());
+    }
+
+    @Test
+    @DisplayName("Should build the timeline from recorded transitions, detours included")
+    void testTimelineFromRecordedTransitions() {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 2, 9, 0);
+        testLc.setStatus(LCStatus.AMENDED);
+        when(lcRepository.findByReferenceNumber("LC-1234567890")).thenReturn(Optional.of(testLc));
+        when(auditRepository.findByReferenceNumberOrderByChangedAtAscIdAsc("LC-1234567890")).thenReturn(List.of(
+                audit(null, "DRAFT", "customer", start),
+                audit("DRAFT", "SUBMITTED", "customer", start.plusHours(1)),
+                audit("SUBMITTED", "SENT_TO_RISK", "officer", start.plusDays(1)),
+                audit("SENT_TO_RISK", "UNDER_VERIFICATION", "risk", start.plusDays(2)),
+                audit("UNDER_VERIFICATION", "AMENDED", "customer", start.plusDays(3).plusMinutes(30))));
+
+        List<TimelineItem> timeline = trackingQueryService.track("LC-1234567890").orElseThrow().getTimeline();
+
+        assertEquals(List.of("Created", "Submitted", "Risk Review", "Under Verification", "Amended",
+                        "Submitted", "Under Verification", "Approved", "Active", "Closed"),
+                timeline.stream().map(TimelineItem::getTitle).toList());
+        assertEquals("2026-03-02 09:00", timeline.get(0).getDate());
+        assertEquals("officer", timeline.get(2).getUser());
+        assertEquals("2026-03-05 09:30", timeline.get(4).getDate());
+        assertTrue(timeline.get(4).isCompleted() && timeline.get(4).isCurrent());
+        assertEquals(1, timeline.stream().filter(TimelineItem::isCurrent).count());
+        assertTrue(timeline.subList(5, 10).stream().noneMatch(TimelineItem::isCompleted));
+    }
+
+    @Test
+    @DisplayName("Should show a status the audit journal has not written yet as current")
+    void testTimelineWithLaggingJournal() {
+        testLc.setStatus(LCStatus.REJECTED);
+        when(lcRepository.findByReferenceNumber("LC-1234567890")).thenReturn(Optional.of(testLc));
+        when(auditRepository.findByReferenceNumberOrderByChangedAtAscIdAsc("LC-1234567890")).thenReturn(List.of(
+                audit("DRAFT", "SUBMITTED", "customer", LocalDateTime.of(2026, 3, 2, 10, 0))));
+
+        List<TimelineItem> timeline = trackingQueryService.track("LC-1234567890").orElseThrow().getTimeline();
+
+        // Created from the LC itself, Submitted from the journal, Rejected not journaled yet; nothing pending after it
+        assertEquals(List.of("Created", "Submitted", "Rejected"), timeline.stream().map(TimelineItem::getTitle).toList());
+        assertEquals("", timeline.get(2).getDate());
+        assertTrue(timeline.get(2).isCurrent());
+    }
+
+    @Test
+    @DisplayName("Should look up the time in current status of many references in one query")
+    void testTimeInCurrentStatus() {
+        LocalDateTime now = LocalDateTime.now();
+        when(auditRepository.findLatestChangeTimes(Set.of("LC-1", "LC-2", "LC-3"))).thenReturn(List.of(
+                new Object[] {"LC-1", now.minusDays(3).minusHours(4).minusMinutes(1)},
+                new Object[] {"LC-2", now.minusMinutes(5).minusSeconds(10)}));
+
+        Map<String, String> labels = trackingQueryService.timeInCurrentStatus(List.of("LC-1", "LC-2", "LC-3", "LC-1"));
+
+        assertEquals(Map.of("LC-1", "3d 4h", "LC-2", "5m"), labels);
+        verify(auditRepository, times(1)).findLatestChangeTimes(anyCollection());
+        assertTrue(trackingQueryService.timeInCurrentStatus(List.of()).isEmpty());
+        assertEquals("2h 15m", TrackingQueryService.formatDuration(Duration.ofMinutes(135)));
+        assertEquals("<1m", TrackingQueryService.formatDuration(Duration.ofSeconds(20)));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the snapshot once the audit journal has written its transitions")
+    void testSnapshotInvalidatedWhenAuditWritten() {
+        when(lcRepository.findByReferenceNumber("LC-1234567890")).thenReturn(Optional.of(testLc));
+        TrackingSnapshot first = trackingQueryService.track("LC-1234567890").orElseThrow();
+
+        trackingQueryService.onStatusAuditWritten(new StatusAuditWrittenEvent(Set.of("LC-1234567890")));
+
+        assertNotSame(first, trackingQueryService.track("LC-1234567890").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from memory")
+    void testSnapshotIsCached() {
+        when(lcRepository.findByReferenceNumber("LC-1234567890")).thenReturn(Optional.of(testLc));
+
+        TrackingSnapshot first = trackingQueryService.track("LC-1234567890").orElseThrow();
+        TrackingSnapshot second = trackingQueryService.track("LC-1234567890").orElseThrow();
+
+        assertSame(first, second);
+        verify(lcRepository, times(1)).findByReferenceNumber("LC-1234567890");
+    }
+
+    @Test
+    @DisplayName("Should rebuild the snapshot after a status change")
+    void testSnapshotInvalidatedOnChange() {
+        when(lcRepository.findByReferenceNumber("LC-1234567890")).thenReturn(Optional.of(testLc));
+        trackingQueryService.track("LC-1234567890");
+
+        testLc.setStatus(LCStatus.APPROVED);
+        trackingQueryService.onReferenceChanged(new ReferenceChangedEvent(ReferenceChangedEvent.LC, "LC-1234567890",
+                ReferenceChangedEvent.ChangeType.UPDATED));
+
+        assertEquals("Approved", trackingQueryService.track("LC-1234567890").orElseThrow().getStatus());
+        verify(lcRepository, times(2)).findByReferenceNumber("LC-1234567890");
+    }
+
+    @Test
+    @DisplayName("Should dispatch on the reference prefix")
+    void testTrackBankGuaranteeAndUnknown() {
+        BankGuarantee bg = new BankGuarantee();
+        bg.setGuaranteeId(2L);
+        bg.setReferenceNumber("BG-1");
+        bg.setGuaranteeAmount(new BigDecimal("5000"));
+        bg.setStatus(GuaranteeStatus.SENT_TO_RISK);
+        when(bgRepository.findByReferenceNumber("BG-1")).thenReturn(Optional.of(bg));
+
+        TrackingSnapshot snapshot = trackingQueryService.track("BG-1").orElseThrow();
+
+        assertEquals(TrackingSnapshot.TYPE_BG, snapshot.getTransactionType());
+        assertEquals(new BigDecimal("5000"), snapshot.getAmount());
+        assertTrue(trackingQueryService.track("XX-1").isEmpty());
+        verifyNoInteractions(lcRepository, documentRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject references missing from the reference filter without a query")
+    void testUnknownReferenceRejectedByFilter() {
+        when(lcRepository.findAllReferenceNumbers()).thenReturn(List.of("LC-1234567890"));
+        when(bgRepository.findAllReferenceNumbers()).thenReturn(List.of());
+        when(documentRepository.findAllReferenceNumbers()).thenReturn(List.of());
+        when(lcRepository.findByReferenceNumber("LC-1234567890")).thenReturn(Optional.of(testLc));
+        referenceFilter.rebuild();
+
+        assertTrue(trackingQueryService.track("LC-1234567890").isPresent());
+        assertTrue(trackingQueryService.track("LC-0000000000").isEmpty());
+        verify(lcRepository, never()).findByReferenceNumber("LC-0000000000");
+    }
+
+    private static StatusChangeAudit audit(String from, String to, String user, LocalDateTime at) {
+        StatusChangeAudit audit = new StatusChangeAudit("LC", "LC-1234567890", from, to, user);
+        audit.setChangedAt(at);
+        return audit;
+    }
+}
@@ -0,0 +1,168 @@
+package com.tfms.service;
+
+import com.tfms.model.BankGuarantee;
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.TradeDocument;
+import com.tfms.model.enums.DocumentStatus;
+import com.tfms.repository.BankGuaranteeRepository;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.TradeDocumentRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of the "my documents" query as a function of how many trades the user is party to,
+ * comparing the previous four-query + IN-list approach with the single EXISTS query.
+ * Opt-in: mvn test -Dtest=TradeDocumentAccessBenchmarkTest -Dtfms.benchmark=true
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "tfms.benchmark", matches = "true")
+@DisplayName("Trade Document Access Benchmark")
+public class TradeDocumentAccessBenchmarkTest {
+
+    private static final int[] TRADE_COUNTS = {100, 1_000, 5_000};
+    private static final int RUNS = 7;
+
+    @Autowired
+    private TradeDocumentService documentService;
+
+    @Autowired
+    private TradeDocumentRepository documentRepository;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private BankGuaranteeRepository bgRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Accessible documents: legacy vs single query")
+    void benchmarkAccessibleDocuments() {
+        for (int trades : TRADE_COUNTS) {
+            String user = "bench" + trades + "@tfms.com";
+            seed(user, trades);
+
+            long legacyRows = legacyAccessibleCount(user);
+            long pagedRows = documentService.countAccessibleByUser(user);
+            assertEquals(legacyRows, pagedRows, "single query must see exactly the documents the legacy path did");
+
+            double legacy = medianMillis(() -> legacyAccessibleCount(user));
+            double page = medianMillis(() -> {
+                Page<TradeDocument> p = documentService.findAccessibleByUser(user, false, 0, 20);
+                return p.getNumberOfElements();
+            });
+            double count = medianMillis(() -> documentService.countAccessibleByUser(user));
+            log.info("Accessible documents over {} trades: legacy {} ms, page {} ms, count {} ms (median of {})",
+                    trades, String.format("%.2f", legacy), String.format("%.2f", page), String.format("%.2f", count), RUNS);
+        }
+    }
+
+    /** Creates {@code trades} LCs/BGs the user is party to, one document on each, plus unrelated noise */
+    private void seed(String user, int trades) {
+        List<LetterOfCredit> lcs = new ArrayList<>();
+        List<BankGuarantee> bgs = new ArrayList<>();
+        List<TradeDocument> docs = new ArrayList<>();
+        for (int i = 0; i < trades; i++) {
+            String ref = "BENCH-" + trades + "-" + i;
+            boolean asCreator = i % 2 == 0;
+            if (i % 3 == 0) {
+                BankGuarantee bg = new BankGuarantee();
+                bg.setReferenceNumber(ref);
+                bg.setApplicantName("Applicant " + i);
+                bg.setBeneficiaryName(asCreator ? "Other Party" : user);
+                bg.setGuaranteeAmount(BigDecimal.valueOf(1000 + i));
+                bg.setCurrency("USD");
+                bg.setGuaranteeType("PERFORMANCE");
+                bg.setIssueDate(LocalDate.now());
+                bg.setValidityPeriod(LocalDate.now().plusMonths(6));
+                bg.setCreatedBy(asCreator ? user : "someone@else.com");
+                bgs.add(bg);
+            } else {
+                LetterOfCredit lc = new LetterOfCredit();
+                lc.setReferenceNumber(ref);
+                lc.setApplicantName("Applicant " + i);
+                lc.setBeneficiaryName(asCreator ? "Other Party" : user);
+                lc.setAmount(BigDecimal.valueOf(1000 + i));
+                lc.setCurrency("USD");
+                lc.setIssueDate(LocalDate.now());
+                lc.setExpiryDate(LocalDate.now().plusMonths(6));
+                lc.setCreatedBy(asCreator ? user : "someone@else.com");
+                lcs.add(lc);
+            }
+            docs.add(document("DOC-" + ref, ref, "someone@else.com"));
+            docs.add(document("NOISE-" + ref, "UNRELATED-" + ref, "someone@else.com"));
+        }
+        lcRepository.saveAll(lcs);
+        bgRepository.saveAll(bgs);
+        documentRepository.saveAll(docs);
+    }
+
+    private TradeDocument document(String ref, String tradeRef, String uploadedBy) {
+        TradeDocument doc = new TradeDocument();
+        doc.setReferenceNumber(ref);
+        doc.setTradeReferenceNumber(tradeRef);
+        doc.setDocumentType("INVOICE");
+        doc.setFileName(ref + ".pdf");
+        doc.setUploadedBy(uploadedBy);
+        doc.setUploadDate(LocalDate.now());
+        doc.setStatus(DocumentStatus.ACTIVE);
+        return doc;
+    }
+
+    /** The pre-refactoring algorithm: four ownership queries, List.contains de-duplication, one IN list */
+    private long legacyAccessibleCount(String username) {
+        Long count = transactionTemplate.execute(status -> {
+            List<String> tradeRefs = new ArrayList<>();
+            for (LetterOfCredit lc : lcRepository.findByCreatedBy(username)) tradeRefs.add(lc.getReferenceNumber());
+            for (LetterOfCredit lc : lcRepository.findByBeneficiaryNameContainingIgnoreCase(username))
+                if (!tradeRefs.contains(lc.getReferenceNumber())) tradeRefs.add(lc.getReferenceNumber());
+            for (BankGuarantee bg : bgRepository.findByCreatedBy(username))
+                if (!tradeRefs.contains(bg.getReferenceNumber())) tradeRefs.add(bg.getReferenceNumber());
+            for (BankGuarantee bg : bgRepository.findByBeneficiaryNameIgnoreCase(username))
+                if (!tradeRefs.contains(bg.getReferenceNumber())) tradeRefs.add(bg.getReferenceNumber());
+            List<TradeDocument> docs = entityManager.createQuery(
+                    "SELECT td FROM TradeDocument td WHERE td.uploadedBy = :u OR td.tradeReferenceNumber IN :refs",
+                    TradeDocument.class)
+                    .setParameter("u", username)
+                    .setParameter("refs", tradeRefs.isEmpty() ? List.of("") : tradeRefs)
+                    .getResultList();
+            return (long) docs.size();
+        });
+        return count != null ? count : 0L;
+    }
+
+    private double medianMillis(LongSupplier work) {
+        work.getAsLong(); // warm-up
+        double[] samples = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            work.getAsLong();
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+}
@@ -0,0 +1,57 @@
+package com.tfms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TrigramIndex
+ */
+@DisplayName("Trigram Index Tests")
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1L, "Global Exports Ltd");
+        index.put(2L, "Globex Corporation");
+        index.put(3L, "customer@tfms.com");
+    }
+
+    @Test
+    @DisplayName("Should find substrings ignoring case with no false positives")
+    void testFindContaining() {
+        assertEquals(Set.of(1L, 2L), index.findContaining("GLOB"));
+        assertEquals(Set.of(1L), index.findContaining("exports"));
+        assertEquals(Set.of(3L), index.findContaining("customer@tfms.com"));
+        // every trigram of "obexp" occurs somewhere in the index, but no single value contains it
+        assertTrue(index.findContaining("obexp").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should match short queries and exact values")
+    void testShortQueriesAndEquality() {
+        assertEquals(Set.of(1L, 2L), index.findContaining("gl"));
+        assertEquals(Set.of(2L), index.findEqual("globex corporation"));
+        assertTrue(index.findEqual("globex").isEmpty());
+        assertTrue(index.findContaining(" ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reflect re-indexing and removal")
+    void testUpdateAndRemove() {
+        index.put(2L, "Initech");
+        assertEquals(Set.of(1L), index.findContaining("glob"));
+        assertEquals(Set.of(2L), index.findContaining("tech"));
+
+        index.remove(1L);
+        assertTrue(index.findContaining("glob").isEmpty());
+        assertEquals(2, index.size());
+    }
+}
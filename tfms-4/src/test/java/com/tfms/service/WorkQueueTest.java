@@ -0,0 +1,221 @@
+package com.tfms.service;
+
+import com.tfms.model.LetterOfCredit;
+import com.tfms.model.WorkItem;
+import com.tfms.model.enums.LCStatus;
+import com.tfms.repository.LetterOfCreditRepository;
+import com.tfms.repository.WorkItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Officer work queue against the database: following the LC workflow, claim order, leases and racing claims
+ */
+@SpringBootTest
+@DisplayName("Work Queue Tests")
+public class WorkQueueTest {
+
+    @Autowired
+    private WorkQueueService workQueueService;
+
+    @Autowired
+    private WorkItemRepository workItemRepository;
+
+    @Autowired
+    private LetterOfCreditService lcService;
+
+    @Autowired
+    private LetterOfCreditRepository lcRepository;
+
+    @Autowired
+    private ReferenceNumberGenerator referenceNumberGenerator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        // the database is shared with the other Spring tests; start every test from an empty queue
+        workItemRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should enqueue a submitted LC, raise its priority in verification and drop it once approved")
+    void testFollowsLcWorkflow() {
+        LetterOfCredit lc = saveLc(LCStatus.DRAFT);
+
+        lcService.submitForVerification(lc.getLcId());
+        WorkItem item = queued(lc.getReferenceNumber());
+        assertEquals("SUBMITTED", item.getStatus());
+        assertEquals(WorkQueueService.PRIORITY_NEW, item.getPriority());
+
+        lcService.startVerification(lc.getLcId());
+        WorkItem verifying = queued(lc.getReferenceNumber());
+        assertEquals(item.getId(), verifying.getId());
+        assertEquals("UNDER_VERIFICATION", verifying.getStatus());
+        assertEquals(WorkQueueService.PRIORITY_RESUMED, verifying.getPriority());
+
+        lcService.approveLetterOfCredit(lc.getLcId());
+        assertTrue(workItemRepository.findByEntityTypeAndReferenceNumberIn("LC", List.of(lc.getReferenceNumber())).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should claim highest priority then oldest first, and never hand out a leased item")
+    void testClaimOrderAndLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        WorkItem oldNew = enqueue("LC-Q-1", WorkQueueService.PRIORITY_NEW, now.minusHours(3));
+        WorkItem youngResumed = enqueue("LC-Q-2", WorkQueueService.PRIORITY_RESUMED, now.minusMinutes(5));
+        WorkItem youngNew = enqueue("LC-Q-3", WorkQueueService.PRIORITY_NEW, now.minusMinutes(1));
+
+        List<WorkItem> first = workQueueService.claim("officer-a", 2, null);
+        assertEquals(List.of(youngResumed.getId(), oldNew.getId()), first.stream().map(WorkItem::getId).toList());
+        assertTrue(first.stream().allMatch(item -> item.isLeasedBy("officer-a", LocalDateTime.now())));
+
+        List<WorkItem> second = workQueueService.claim("officer-b", 5, List.of("lc"));
+        assertEquals(List.of(youngNew.getId()), second.stream().map(WorkItem::getId).toList());
+        assertTrue(workQueueService.claim("officer-c", 5, null).isEmpty());
+
+        // only the holder can renew or release
+        LocalDateTime leaseBefore = workItemRepository.findById(oldNew.getId()).orElseThrow().getLeaseExpiresAt();
+        assertEquals(List.of(youngNew.getId()), workQueueService.renew("officer-b", List.of(oldNew.getId(), youngNew.getId()))
+                .stream().map(WorkItem::getId).toList());
+        assertEquals(leaseBefore, workItemRepository.findById(oldNew.getId()).orElseThrow().getLeaseExpiresAt());
+        assertEquals(0, workQueueService.release("officer-b", List.of(oldNew.getId())));
+
+        assertEquals(1, workQueueService.release("officer-a", List.of(oldNew.getId())));
+        assertEquals(List.of(oldNew.getId()), workQueueService.claim("officer-c", 5, null).stream().map(WorkItem::getId).toList());
+        assertThrows(IllegalArgumentException.class, () -> workQueueService.claim("officer-c", 1, List.of("XX")));
+    }
+
+    @Test
+    @DisplayName("Should sweep expired leases back into the queue and count them per officer")
+    void testLeaseExpiry() {
+        WorkItem item = enqueue("LC-Q-EXP", WorkQueueService.PRIORITY_NEW, LocalDateTime.now().minusHours(1));
+        item.setClaimedBy("officer-slow");
+        item.setClaimedAt(LocalDateTime.now().minusMinutes(20));
+        item.setLeaseExpiresAt(LocalDateTime.now().minusMinutes(5));
+        workItemRepository.save(item);
+        double expiredBefore = count("tfms.workqueue.expired", "officer-slow");
+
+        // an expired lease is claimable even before the sweep
+        assertEquals(List.of(item.getId()), workQueueService.claim("officer-fast", 1, null).stream().map(WorkItem::getId).toList());
+        workQueueService.release("officer-fast", List.of(item.getId()));
+
+        item = workItemRepository.findById(item.getId()).orElseThrow();
+        item.setClaimedBy("officer-slow");
+        item.setClaimedAt(LocalDateTime.now().minusMinutes(20));
+        item.setLeaseExpiresAt(LocalDateTime.now().minusMinutes(5));
+        workItemRepository.save(item);
+        workQueueService.expireLeases();
+
+        WorkItem swept = workItemRepository.findById(item.getId()).orElseThrow();
+        assertNull(swept.getClaimedBy());
+        assertNull(swept.getLeaseExpiresAt());
+        assertEquals(expiredBefore + 1, count("tfms.workqueue.expired", "officer-slow"));
+    }
+
+    @Test
+    @DisplayName("Should credit an officer with the items they move on while holding the lease")
+    void testCompletionMetrics() {
+        LetterOfCredit lc = saveLc(LCStatus.DRAFT);
+        lcService.submitForVerification(lc.getLcId());
+        double completedBefore = count("tfms.workqueue.completed", "officer-d");
+
+        assertEquals(lc.getReferenceNumber(), workQueueService.claim("officer-d", 1, List.of("LC")).get(0).getReferenceNumber());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("officer-d", null, List.of()));
+        lcService.approveLetterOfCredit(lc.getLcId());
+
+        assertEquals(completedBefore + 1, count("tfms.workqueue.completed", "officer-d"));
+        assertEquals(1, meterRegistry.get("tfms.workqueue.handling").tag("officer", "officer-d").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should hand every item to exactly one of N officers claiming at the same moment")
+    void testRacingClaims() throws Exception {
+        int officers = 8;
+        for (int i = 0; i < 30; i++) {
+            enqueue("LC-Q-RACE-" + i, WorkQueueService.PRIORITY_NEW, LocalDateTime.now().minusMinutes(i));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(officers);
+        CyclicBarrier start = new CyclicBarrier(officers);
+        try {
+            List<Future<List<WorkItem>>> claims = new ArrayList<>();
+            for (int i = 0; i < officers; i++) {
+                String officer = "racer-" + i;
+                claims.add(pool.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    return workQueueService.claim(officer, 5, null);
+                }));
+            }
+            Set<Long> claimed = new HashSet<>();
+            int total = 0;
+            for (Future<List<WorkItem>> claim : claims) {
+                for (WorkItem item : claim.get(30, TimeUnit.SECONDS)) {
+                    assertTrue(claimed.add(item.getId()), "item " + item.getId() + " claimed twice");
+                    total++;
+                }
+            }
+            assertEquals(30, total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private WorkItem queued(String reference) {
+        List<WorkItem> items = workItemRepository.findByEntityTypeAndReferenceNumberIn("LC", List.of(reference));
+        assertEquals(1, items.size(), "queued items of " + reference);
+        return items.get(0);
+    }
+
+    private WorkItem enqueue(String reference, int priority, LocalDateTime enqueuedAt) {
+        return workItemRepository.save(new WorkItem("LC", reference, "SUBMITTED", priority, enqueuedAt));
+    }
+
+    private double count(String name, String officer) {
+        var counter = meterRegistry.find(name).tag("officer", officer).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private LetterOfCredit saveLc(LCStatus status) {
+        LetterOfCredit lc = new LetterOfCredit();
+        lc.setReferenceNumber(referenceNumberGenerator.next(ReferenceNumberGenerator.LC_PREFIX));
+        lc.setApplicantName("Queue Applicant");
+        lc.setBeneficiaryName("Queue Beneficiary");
+        lc.setAmount(new BigDecimal("15000.00"));
+        lc.setCurrency("USD");
+        lc.setIssueDate(LocalDate.now().minusDays(1));
+        lc.setExpiryDate(LocalDate.now().plusMonths(6));
+        lc.setStatus(status);
+        lc.setCreatedBy("queue-test");
+        return lcRepository.save(lc);
+    }
+}